@@ -1,5 +1,6 @@
 package de.gwdg.metadataqa.api.calculator;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.jayway.jsonpath.InvalidJsonException;
 import de.gwdg.metadataqa.api.calculator.output.MetricCollector;
 import de.gwdg.metadataqa.api.calculator.output.OutputCollector;
@@ -7,22 +8,29 @@ import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
 import de.gwdg.metadataqa.api.interfaces.Calculator;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
 import de.gwdg.metadataqa.api.interfaces.Shutdownable;
-import de.gwdg.metadataqa.api.model.selector.CsvSelector;
+import de.gwdg.metadataqa.api.io.reader.RecordReader;
+import de.gwdg.metadataqa.api.io.reader.RecordSpliterator;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
 import de.gwdg.metadataqa.api.model.selector.Selector;
-import de.gwdg.metadataqa.api.model.selector.SelectorFactory;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
-import de.gwdg.metadataqa.api.schema.Format;
 import de.gwdg.metadataqa.api.schema.Schema;
 import de.gwdg.metadataqa.api.uniqueness.TfIdf;
 import de.gwdg.metadataqa.api.util.CompressionLevel;
+import de.gwdg.metadataqa.api.util.Converter;
+import org.w3c.dom.Node;
 
-import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.logging.Level;
+import java.util.NoSuchElementException;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import de.gwdg.metadataqa.api.util.CsvReader;
 
@@ -40,11 +48,6 @@ public class CalculatorFacade implements Serializable {
 
   protected MeasurementConfiguration configuration;
 
-  /**
-   * Is it the first record?
-   */
-  protected boolean isFirstRecord = true;
-
   protected CompressionLevel compressionLevel = CompressionLevel.NORMAL;
 
   /**
@@ -72,6 +75,16 @@ public class CalculatorFacade implements Serializable {
   protected Schema schema;
   protected CsvReader csvReader;
 
+  /**
+   * The immutable part of the measurement, built from the current settings.
+   */
+  private transient MeasurementPlan plan;
+
+  /**
+   * The per-record state of this facade.
+   */
+  private transient MeasurementSession session;
+
   /**
    * Create calculator facade with the default configuration.
    */
@@ -83,6 +96,23 @@ public class CalculatorFacade implements Serializable {
     this.configuration = configuration;
   }
 
+  /**
+   * Create calculator facade from an existing plan. The calculators of the plan are
+   * shared, this facade only has its own per-record state, so it is a cheap way to
+   * create a facade for each thread.
+   *
+   * @param plan The measurement plan
+   */
+  public CalculatorFacade(MeasurementPlan plan) {
+    this.plan = plan;
+    this.configuration = plan.getConfiguration();
+    this.schema = plan.getSchema();
+    this.calculators = plan.getCalculators();
+    this.compressionLevel = plan.getCompressionLevel();
+    this.session = plan.newSession();
+    this.csvReader = session.getCsvReader();
+  }
+
   protected void conditionalConfiguration() {
     if (changed) {
       configure();
@@ -96,6 +126,30 @@ public class CalculatorFacade implements Serializable {
   public void configure() {
     LOGGER.info("configure()");
     calculators = CalculatorFactory.create(configuration, schema);
+    plan = null;
+    changed = false;
+  }
+
+  /**
+   * Get the measurement plan of the current settings. The plan can be shared
+   * between threads, see CalculatorFacade(MeasurementPlan).
+   *
+   * @return The plan
+   */
+  public MeasurementPlan getPlan() {
+    conditionalConfiguration();
+    if (plan == null)
+      plan = new MeasurementPlan(configuration, schema, calculators, compressionLevel, csvReader);
+    return plan;
+  }
+
+  private MeasurementSession getSession() {
+    MeasurementPlan current = getPlan();
+    if (session == null || session.getPlan() != current || session.getCsvReader() != csvReader) {
+      boolean isFirstRecord = session == null || session.isFirstRecord();
+      session = new MeasurementSession(current, csvReader).setFirstRecord(isFirstRecord);
+    }
+    return session;
   }
 
   /**
@@ -153,6 +207,118 @@ public class CalculatorFacade implements Serializable {
     return (Map<String, List<MetricResult>>) this.<XmlFieldInstance>measureCsvWithGenerics(inputRecord, OutputCollector.TYPE.METRIC);
   }
 
+  /**
+   * Measure a JSON or XML record given as UTF-8 bytes, without decoding it into a string.
+   *
+   * @param inputRecord The record
+   * @return The result of measurements as a CSV string
+   */
+  public String measure(byte[] inputRecord) {
+    return (String) measureBytes(inputRecord, OutputCollector.TYPE.STRING);
+  }
+
+  /**
+   * Measure a JSON or XML record given as UTF-8 bytes, the remaining bytes of the buffer.
+   *
+   * @param inputRecord The record
+   * @return The result of measurements as a CSV string
+   */
+  public String measure(ByteBuffer inputRecord) {
+    return (String) measureBytes(inputRecord, OutputCollector.TYPE.STRING);
+  }
+
+  public Map<String, List<MetricResult>> measureAsMetricResult(byte[] inputRecord) {
+    return (Map<String, List<MetricResult>>) measureBytes(inputRecord, OutputCollector.TYPE.METRIC);
+  }
+
+  public Map<String, List<MetricResult>> measureAsMetricResult(ByteBuffer inputRecord) {
+    return (Map<String, List<MetricResult>>) measureBytes(inputRecord, OutputCollector.TYPE.METRIC);
+  }
+
+  public String measureAsJson(byte[] inputRecord) {
+    return (String) measureBytes(inputRecord, OutputCollector.TYPE.JSON);
+  }
+
+  public String measureAsJson(ByteBuffer inputRecord) {
+    return (String) measureBytes(inputRecord, OutputCollector.TYPE.JSON);
+  }
+
+  /**
+   * Measure an XML record which has already been parsed, without serialising and parsing
+   * it again. An Element is copied into a new Document, so the document it belongs to
+   * is not used during the measurement.
+   *
+   * @param inputRecord The record, a Document or an Element
+   * @return The result of measurements
+   */
+  public Map<String, List<MetricResult>> measureAsMetricResult(Node inputRecord) {
+    return (Map<String, List<MetricResult>>) measureXml(inputRecord, OutputCollector.TYPE.METRIC);
+  }
+
+  public String measureAsJson(Node inputRecord) {
+    return (String) measureXml(inputRecord, OutputCollector.TYPE.JSON);
+  }
+
+  public String measure(Node inputRecord) {
+    return (String) measureXml(inputRecord, OutputCollector.TYPE.STRING);
+  }
+
+  /**
+   * Measure a CSV record which has already been split into cells.
+   *
+   * @param inputRecord The cells of the record
+   * @return The result of measurements as a CSV string
+   */
+  public String measure(String[] inputRecord) {
+    return measure(inputRecord == null ? null : Arrays.asList(inputRecord));
+  }
+
+  public Map<String, List<MetricResult>> measureAsMetricResult(String[] inputRecord) {
+    return measureAsMetricResult(inputRecord == null ? null : Arrays.asList(inputRecord));
+  }
+
+  public String measureAsJson(String[] inputRecord) {
+    return measureAsJson(inputRecord == null ? null : Arrays.asList(inputRecord));
+  }
+
+  /**
+   * Measure a JSON record which has already been parsed into maps and lists, like the
+   * JSONObject of json-smart, without serialising and parsing it again.
+   *
+   * @param inputRecord The record
+   * @return The result of measurements as a CSV string
+   */
+  public String measure(Map<String, ?> inputRecord) {
+    return (String) measureJson(inputRecord, OutputCollector.TYPE.STRING);
+  }
+
+  public Map<String, List<MetricResult>> measureAsMetricResult(Map<String, ?> inputRecord) {
+    return (Map<String, List<MetricResult>>) measureJson(inputRecord, OutputCollector.TYPE.METRIC);
+  }
+
+  public String measureAsJson(Map<String, ?> inputRecord) {
+    return (String) measureJson(inputRecord, OutputCollector.TYPE.JSON);
+  }
+
+  /**
+   * Measure a JSON record which has already been parsed by Jackson. The tree is copied
+   * into the maps and lists of the JSON provider, it is not serialised.
+   *
+   * @param inputRecord The record
+   * @return The result of measurements as a CSV string
+   */
+  public String measure(JsonNode inputRecord) {
+    return (String) measureJson(inputRecord, OutputCollector.TYPE.STRING);
+  }
+
+  public Map<String, List<MetricResult>> measureAsMetricResult(JsonNode inputRecord) {
+    return (Map<String, List<MetricResult>>) measureJson(inputRecord, OutputCollector.TYPE.METRIC);
+  }
+
+  public String measureAsJson(JsonNode inputRecord) {
+    return (String) measureJson(inputRecord, OutputCollector.TYPE.JSON);
+  }
+
   /**
    * The generic version of measure.
    *
@@ -185,38 +351,76 @@ public class CalculatorFacade implements Serializable {
     if (schema == null)
       throw new IllegalStateException("schema is missing");
 
-    MetricCollector collector = new MetricCollector();
-    var format = schema.getFormat();
-    if (format != null && content != null) {
-      conditionalConfiguration();
-
-      cache = SelectorFactory.getInstance(schema.getFormat(), content, schema.getNamespaces());
-      if (schema.getFormat().equals(Format.CSV))
-        initializeCsvCache(content);
-
-      if (!isCsvHeaderLine())
-        runMeasurements(collector);
-
-      isFirstRecord = false;
-    }
+    var currentSession = getSession();
+    MetricCollector collector = currentSession.measure(content);
+    cache = currentSession.getCache();
     return collector;
   }
 
-  private boolean isCsvHeaderLine() {
-    return isFirstRecord
-      && schema.getFormat().equals(Format.CSV)
-      && csvReader.isHeaderAware();
+  /**
+   * Measure a batch of records. The calculators get the whole batch at once, so the ones
+   * using Solr can combine their lookups.
+   *
+   * @param inputRecords The records
+   * @return The results in the order of the records
+   */
+  public List<Map<String, List<MetricResult>>> measureBatch(List<String> inputRecords) {
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    var currentSession = getSession();
+    List<Map<String, List<MetricResult>>> results = new ArrayList<>(inputRecords.size());
+    for (MetricCollector collector : currentSession.measureBatch(inputRecords))
+      results.add((Map<String, List<MetricResult>>) collector.createOutput(OutputCollector.TYPE.METRIC, compressionLevel));
+    cache = currentSession.getCache();
+    return results;
   }
 
-  private void initializeCsvCache(String content) {
-    if (isFirstRecord && csvReader.isHeaderAware())
-      try {
-        csvReader.setHeader(content);
-      } catch (IOException e) {
-        LOGGER.log(Level.WARNING, "initializeCsvCache", e);
+  /**
+   * Measure the records in batches. The records are read from the input only when the
+   * results are requested.
+   *
+   * @param inputRecords The records
+   * @param batchSize The number of records in a batch
+   * @return The results in the order of the records
+   */
+  public Iterator<Map<String, List<MetricResult>>> measureBatch(Iterator<String> inputRecords, int batchSize) {
+    if (batchSize < 1)
+      throw new IllegalArgumentException("The batch size should be at least 1, but it is " + batchSize);
+
+    return new Iterator<>() {
+      private Iterator<Map<String, List<MetricResult>>> batch = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        if (!batch.hasNext() && inputRecords.hasNext()) {
+          List<String> records = new ArrayList<>(batchSize);
+          while (records.size() < batchSize && inputRecords.hasNext())
+            records.add(inputRecords.next());
+          batch = measureBatch(records).iterator();
+        }
+        return batch.hasNext();
       }
 
-    ((CsvSelector)cache).setCsvReader(csvReader);
+      @Override
+      public Map<String, List<MetricResult>> next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+        return batch.next();
+      }
+    };
+  }
+
+  /**
+   * Get the results of the records of a reader as a stream. The stream can be made parallel,
+   * the parallel parts measure the records with their own copies of this facade.
+   *
+   * @param reader The source of the records
+   * @param <R> The type of the raw record
+   * @return The stream of the results in the order of the records
+   */
+  public <R> Stream<Map<String, List<MetricResult>>> stream(RecordReader<R> reader) {
+    return StreamSupport.stream(new RecordSpliterator<>(reader, getPlan()), false);
   }
 
   protected <T extends XmlFieldInstance> Object measureCsvWithGenerics(List<String> content,
@@ -226,27 +430,54 @@ public class CalculatorFacade implements Serializable {
     if (schema == null)
       throw new IllegalStateException("schema is missing");
 
-    var format = schema.getFormat();
-    if (format == null || format != Format.CSV)
-      throw new IllegalStateException("Format is not CSV");
+    var currentSession = getSession();
+    MetricCollector collector = currentSession.measure(content);
+    cache = currentSession.getCache();
+    return collector.createOutput(type, compressionLevel);
+  }
 
-    conditionalConfiguration();
-    MetricCollector collector = new MetricCollector();
+  protected Object measureBytes(byte[] content, OutputCollector.TYPE type) {
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
 
-    if (content != null) {
-      cache = new CsvSelector<>(csvReader, content);
-      runMeasurements(collector);
-    }
+    var currentSession = getSession();
+    MetricCollector collector = currentSession.measure(content);
+    cache = currentSession.getCache();
+    return collector.createOutput(type, compressionLevel);
+  }
 
+  protected Object measureBytes(ByteBuffer content, OutputCollector.TYPE type) {
+    return measureBytes(content == null ? null : Converter.toByteArray(content), type);
+  }
+
+  protected Object measureXml(Node content, OutputCollector.TYPE type) {
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    var currentSession = getSession();
+    MetricCollector collector = currentSession.measure(content);
+    cache = currentSession.getCache();
     return collector.createOutput(type, compressionLevel);
   }
 
-  private void runMeasurements(OutputCollector collector) {
-    if (calculators != null)
-      for (Calculator calculator : getCalculators()) {
-        List<MetricResult> result = calculator.measure(cache);
-        collector.addResult(calculator, result, compressionLevel);
-      }
+  protected Object measureJson(Map<String, ?> content, OutputCollector.TYPE type) {
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    var currentSession = getSession();
+    MetricCollector collector = currentSession.measure(content);
+    cache = currentSession.getCache();
+    return collector.createOutput(type, compressionLevel);
+  }
+
+  protected Object measureJson(JsonNode content, OutputCollector.TYPE type) {
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    var currentSession = getSession();
+    MetricCollector collector = currentSession.measure(content);
+    cache = currentSession.getCache();
+    return collector.createOutput(type, compressionLevel);
   }
 
   /**
@@ -322,6 +553,39 @@ public class CalculatorFacade implements Serializable {
     return this;
   }
 
+  public JsonProviderType getJsonProviderType() {
+    return configuration.getJsonProviderType();
+  }
+
+  /**
+   * Set the parser of the JSON records.
+   *
+   * @param jsonProviderType The JSON provider
+   * @return The calculator facade
+   */
+  public CalculatorFacade setJsonProviderType(JsonProviderType jsonProviderType) {
+    configuration.setJsonProviderType(jsonProviderType);
+    changed = true;
+    return this;
+  }
+
+  public boolean isJsonProjectionEnabled() {
+    return configuration.isJsonProjectionEnabled();
+  }
+
+  /**
+   * Parse only the parts of the JSON records which are reached by the paths of the
+   * schema. The calculators should not read other paths.
+   *
+   * @param flag Whether the projection is enabled
+   * @return The calculator facade
+   */
+  public CalculatorFacade enableJsonProjection(boolean flag) {
+    configuration.enableJsonProjection(flag);
+    changed = true;
+    return this;
+  }
+
   public Selector<? extends XmlFieldInstance> getCache() {
     return cache;
   }
@@ -336,6 +600,10 @@ public class CalculatorFacade implements Serializable {
     return this;
   }
 
+  public CsvReader getCsvReader() {
+    return csvReader;
+  }
+
   public CalculatorFacade setCsvReader() {
     return setCsvReader(false);
   }
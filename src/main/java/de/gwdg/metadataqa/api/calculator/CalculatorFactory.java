@@ -14,6 +14,8 @@ import de.gwdg.metadataqa.api.schema.Schema;
 import de.gwdg.metadataqa.api.schema.edm.EdmSchema;
 import de.gwdg.metadataqa.api.uniqueness.DefaultSolrClient;
 import de.gwdg.metadataqa.api.uniqueness.SolrConfiguration;
+import de.gwdg.metadataqa.api.util.CompressionLevel;
+import de.gwdg.metadataqa.api.util.CsvReader;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
@@ -38,6 +40,22 @@ public class CalculatorFactory {
     return factory.getCalculators();
   }
 
+  /**
+   * Create an immutable measurement plan, which can be shared between threads.
+   *
+   * @param configuration The measurement configuration
+   * @param schema The schema of the records
+   * @param compressionLevel The compression level of the output
+   * @param csvReader The CSV reader template (only for CSV records, otherwise it can be null)
+   * @return The plan
+   */
+  public static MeasurementPlan createPlan(MeasurementConfiguration configuration,
+                                           Schema schema,
+                                           CompressionLevel compressionLevel,
+                                           CsvReader csvReader) {
+    return new MeasurementPlan(configuration, schema, create(configuration, schema), compressionLevel, csvReader);
+  }
+
   private void configure() {
     addExtractor();
     addAnnotator();
@@ -14,6 +14,8 @@ import de.gwdg.metadataqa.api.schema.Schema;
 import de.gwdg.metadataqa.api.util.CompressionLevel;
 import de.gwdg.metadataqa.api.util.Converter;
 import de.gwdg.metadataqa.api.util.SkippedEntitySelector;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -38,13 +40,11 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
   public static final String CALCULATOR_NAME = "completeness";
   private String inputFileName;
 
-  private CompletenessCounter completenessCounter;
-  private FieldCounter<Boolean> existenceCounter;
-  private FieldCounter<Integer> cardinalityCounter;
-
-  private List<String> missingFields;
-  private List<String> emptyFields;
-  private List<String> existingFields;
+  /**
+   * The counters of the last measured record. Each thread has its own
+   * counters, so the same calculator can measure records in parallel.
+   */
+  private transient ThreadLocal<Counters> counters = new ThreadLocal<>();
   private Schema schema;
 
   private boolean collectFields = false;
@@ -71,6 +71,7 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
   public List<MetricResult> measure(Selector cache)
       throws InvalidJsonException {
     initializeCounters();
+    var current = current();
 
     List<String> skippableIds = skippedEntryChecker != null
           ? skippedEntryChecker.getSkippableCollectionIds(cache)
@@ -81,7 +82,7 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
         if (!dataElement.isActive()) {
           continue;
         }
-        evaluateDataElement(dataElement, cache, completenessCounter, dataElement.getLabel(), null);
+        evaluateDataElement(dataElement, cache, current, dataElement.getLabel(), null);
       }
     } else {
       for (DataElement collection : schema.getCollectionPaths()) {
@@ -91,19 +92,19 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
         Object rawJsonFragment = cache.getFragment(collection.getPath());
         List<Object> jsonFragments = Converter.jsonObjectToList(rawJsonFragment, schema);
         if (jsonFragments.isEmpty()) {
-          handleEmptyFragment(collection);
+          handleEmptyFragment(current, collection);
         } else {
           for (int i = 0, len = jsonFragments.size(); i < len; i++) {
             Object jsonFragment = jsonFragments.get(i);
             if (skippedEntitySelector.isCollectionSkippable(skippableIds, collection, i, cache, jsonFragment)) {
-              handleEmptyFragment(collection);
+              handleEmptyFragment(current, collection);
             } else {
               for (DataElement child : collection.getChildren()) {
                 if (!child.isActive()) {
                   continue;
                 }
                 var address = String.format("%s/%d/%s", collection.getPath(), i, child.getPath());
-                evaluateDataElement(child, cache, completenessCounter, address, jsonFragment);
+                evaluateDataElement(child, cache, current, address, jsonFragment);
               }
             }
           }
@@ -115,19 +116,19 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
       for (FieldGroup fieldGroup : schema.getFieldGroups()) {
         var existing = false;
         for (String field : fieldGroup.getFields()) {
-          if (Boolean.TRUE.equals(existenceCounter.get(field))) {
+          if (Boolean.TRUE.equals(current.existenceCounter.get(field))) {
             existing = true;
             break;
           }
         }
-        completenessCounter.increaseInstance(fieldGroup.getCategory(), existing);
+        current.completenessCounter.increaseInstance(fieldGroup.getCategory(), existing);
       }
     }
 
     List<MetricResult> list = new ArrayList<>();
-    list.add(new FieldCounterBasedResult("completeness", completenessCounter.getFieldCounter()));
-    list.add(new FieldCounterBasedResult("existence", existenceCounter));
-    list.add(new FieldCounterBasedResult("cardinality", cardinalityCounter));
+    list.add(new FieldCounterBasedResult("completeness", current.completenessCounter.getFieldCounter()));
+    list.add(new FieldCounterBasedResult("existence", current.existenceCounter));
+    list.add(new FieldCounterBasedResult("cardinality", current.cardinalityCounter));
     if (collectFields) {
       // list.add(new FieldCounterBasedResult("missingFields", missingFields));
       // list.add(new FieldCounterBasedResult("emptyFields", emptyFields));
@@ -138,22 +139,19 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
   }
 
   public void initializeCounters() {
-    completenessCounter = new CompletenessCounter(schema);
-    existenceCounter = new FieldCounter<>();
-    cardinalityCounter = new FieldCounter<>();
-    if (collectFields) {
-      missingFields = new ArrayList<>();
-      emptyFields = new ArrayList<>();
-      existingFields = new ArrayList<>();
-    }
+    counters.set(new Counters(schema, collectFields));
   }
 
   public void handleEmptyFragment(DataElement collection) {
+    handleEmptyFragment(current(), collection);
+  }
+
+  private void handleEmptyFragment(Counters current, DataElement collection) {
     for (DataElement child : collection.getChildren()) {
       if (!child.isActive()) {
         continue;
       }
-      handleValues(completenessCounter, child, null);
+      handleValues(current, child, null);
     }
   }
 
@@ -162,21 +160,32 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
                                   CompletenessCounter completenessCounter,
                                   String address,
                                   Object jsonFragment) {
-    List<T> values = cache.get(address, dataElement.getPath(), jsonFragment);
-    handleValues(completenessCounter, dataElement, values);
+    var current = current();
+    if (completenessCounter != current.completenessCounter)
+      current = current.withCompletenessCounter(completenessCounter);
+    evaluateDataElement(dataElement, cache, current, address, jsonFragment);
+  }
+
+  private void evaluateDataElement(DataElement dataElement,
+                                   Selector cache,
+                                   Counters current,
+                                   String address,
+                                   Object jsonFragment) {
+    List<T> values = cache.get(address, dataElement.getCompiledPath(), jsonFragment);
+    handleValues(current, dataElement, values);
   }
 
-  private void handleValues(CompletenessCounter completenessCounter,
+  private void handleValues(Counters current,
                             DataElement dataElement,
                             List<T> values) {
     if (completeness) {
-      completenessCounter.increaseTotal(dataElement.getCategories());
+      current.completenessCounter.increaseTotal(dataElement.getCategories());
     }
 
     if (values != null && !values.isEmpty() && !isEmpty(values)) {
-      handleNonNullValues(completenessCounter, dataElement, values);
+      handleNonNullValues(current, dataElement, values);
     } else {
-      handleNullValues(dataElement);
+      handleNullValues(current, dataElement);
     }
   }
 
@@ -192,20 +201,21 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
     return empty;
   }
 
-  private void handleNonNullValues(CompletenessCounter completenessCounter,
+  private void handleNonNullValues(Counters current,
                                    DataElement dataElement,
                                    List<T> values) {
     final String label = dataElement.getLabel();
 
     if (completeness) {
-      completenessCounter.increaseInstance(dataElement.getCategories());
+      current.completenessCounter.increaseInstance(dataElement.getCategories());
     }
 
     if (existence) {
-      existenceCounter.put(label, true);
+      current.existenceCounter.put(label, true);
     }
 
     if (cardinality) {
+      FieldCounter<Integer> cardinalityCounter = current.cardinalityCounter;
       if (!cardinalityCounter.has(label)) {
         cardinalityCounter.put(label, values.size());
       } else {
@@ -213,20 +223,20 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
       }
     }
 
-    if (collectFields) {
-      existingFields.add(label);
+    if (current.existingFields != null) {
+      current.existingFields.add(label);
     }
   }
 
-  private void handleNullValues(DataElement dataElement) {
-    if (existence && !existenceCounter.has(dataElement.getLabel()))
-      existenceCounter.put(dataElement.getLabel(), false);
+  private void handleNullValues(Counters current, DataElement dataElement) {
+    if (existence && !current.existenceCounter.has(dataElement.getLabel()))
+      current.existenceCounter.put(dataElement.getLabel(), false);
 
-    if (cardinality && !cardinalityCounter.has(dataElement.getLabel()))
-      cardinalityCounter.put(dataElement.getLabel(), 0);
+    if (cardinality && !current.cardinalityCounter.has(dataElement.getLabel()))
+      current.cardinalityCounter.put(dataElement.getLabel(), 0);
 
-    if (collectFields && !missingFields.contains(dataElement.getLabel()))
-      missingFields.add(dataElement.getLabel());
+    if (current.missingFields != null && !current.missingFields.contains(dataElement.getLabel()))
+      current.missingFields.add(dataElement.getLabel());
   }
 
   public void collectFields(boolean collectFields) {
@@ -234,15 +244,15 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
   }
 
   public List<String> getMissingFields() {
-    return missingFields;
+    return current().missingFields;
   }
 
   public List<String> getEmptyFields() {
-    return emptyFields;
+    return current().emptyFields;
   }
 
   public List<String> getExistingFields() {
-    return existingFields;
+    return current().existingFields;
   }
 
   public void setInputFileName(String inputFileName) {
@@ -255,14 +265,15 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
 
   // @Override
   public Map<String, ? extends Object> getResultMap() {
+    var current = current();
     Map<String, Object> resultMap = new LinkedHashMap<>();
 
     if (completeness) {
-      resultMap.putAll(completenessCounter.getFieldCounter().getMap());
+      resultMap.putAll(current.completenessCounter.getFieldCounter().getMap());
     }
 
     if (existence) {
-      for (Entry<String, Boolean> e : existenceCounter.getMap().entrySet()) {
+      for (Entry<String, Boolean> e : current.existenceCounter.getMap().entrySet()) {
         resultMap.put(
           "existence:" + e.getKey(),
           BooleanUtils.toInteger(e.getValue()));
@@ -270,7 +281,7 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
     }
 
     if (cardinality) {
-      for (Entry<String, Integer> e : cardinalityCounter.getMap().entrySet()) {
+      for (Entry<String, Integer> e : current.cardinalityCounter.getMap().entrySet()) {
         resultMap.put("cardinality:" + e.getKey(), e.getValue());
       }
     }
@@ -280,15 +291,16 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
 
   //  @Override
   public Map<String, Map<String, ? extends Object>> getLabelledResultMap() {
+    var current = current();
     Map<String, Map<String, ? extends Object>> resultMap = new LinkedHashMap<>();
     if (completeness) {
-      resultMap.put("completeness", completenessCounter.getFieldCounter().getMap());
+      resultMap.put("completeness", current.completenessCounter.getFieldCounter().getMap());
     }
     if (existence) {
-      resultMap.put("existence", existenceCounter.getMap());
+      resultMap.put("existence", current.existenceCounter.getMap());
     }
     if (cardinality) {
-      resultMap.put("cardinality", cardinalityCounter.getMap());
+      resultMap.put("cardinality", current.cardinalityCounter.getMap());
     }
     return resultMap;
   }
@@ -301,19 +313,20 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
 
   // @Override
   public List<Object> getCsv() {
+    var current = current();
     List<Object> csvs = new ArrayList<>();
     if (completeness) {
-      csvs.addAll(completenessCounter.getFieldCounter().getCsv());
+      csvs.addAll(current.completenessCounter.getFieldCounter().getCsv());
     }
 
     if (existence) {
-      csvs.addAll(existenceCounter.getCsv().stream()
+      csvs.addAll(current.existenceCounter.getCsv().stream()
         .map(v -> BooleanUtils.toInteger((boolean)v))
         .collect(toList()));
     }
 
     if (cardinality) {
-      csvs.addAll(cardinalityCounter.getCsv());
+      csvs.addAll(current.cardinalityCounter.getCsv());
     }
 
     return csvs;
@@ -321,17 +334,18 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
 
   // @Override
   public List<String> getList(boolean withLabel, CompressionLevel compressionLevel) {
+    var current = current();
     List<String> csvs = new ArrayList<>();
     if (completeness) {
-      csvs.addAll(completenessCounter.getFieldCounter().getList(withLabel, compressionLevel));
+      csvs.addAll(current.completenessCounter.getFieldCounter().getList(withLabel, compressionLevel));
     }
 
     if (existence) {
-      csvs.addAll(existenceCounter.getList(withLabel, compressionLevel));
+      csvs.addAll(current.existenceCounter.getList(withLabel, compressionLevel));
     }
 
     if (cardinality) {
-      csvs.addAll(cardinalityCounter.getList(withLabel, compressionLevel));
+      csvs.addAll(current.cardinalityCounter.getList(withLabel, compressionLevel));
     }
 
     return csvs;
@@ -367,23 +381,23 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
   }
 
   public Map<String, Boolean> getExistenceMap() {
-    return existenceCounter.getMap();
+    return current().existenceCounter.getMap();
   }
 
   public Map<String, Integer> getCardinalityMap() {
-    return cardinalityCounter.getMap();
+    return current().cardinalityCounter.getMap();
   }
 
   public CompletenessCounter getCompletenessCounter() {
-    return completenessCounter;
+    return current().completenessCounter;
   }
 
   public FieldCounter<Boolean> getExistenceCounter() {
-    return existenceCounter;
+    return current().existenceCounter;
   }
 
   public FieldCounter<Integer> getCardinalityCounter() {
-    return cardinalityCounter;
+    return current().cardinalityCounter;
   }
 
   public boolean isCompleteness() {
@@ -422,4 +436,58 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
     this.skippedEntryChecker = skippedEntryChecker;
     skippedEntitySelector.setSkippedEntryChecker(skippedEntryChecker);
   }
+
+  private Counters current() {
+    Counters current = counters.get();
+    return current != null ? current : Counters.EMPTY;
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    counters = new ThreadLocal<>();
+  }
+
+  /**
+   * The counters of a single record.
+   */
+  private static class Counters {
+    private static final Counters EMPTY = new Counters();
+
+    private final CompletenessCounter completenessCounter;
+    private final FieldCounter<Boolean> existenceCounter;
+    private final FieldCounter<Integer> cardinalityCounter;
+    private final List<String> missingFields;
+    private final List<String> emptyFields;
+    private final List<String> existingFields;
+
+    private Counters() {
+      this(null, null, null, null, null, null);
+    }
+
+    private Counters(Schema schema, boolean collectFields) {
+      this(new CompletenessCounter(schema), new FieldCounter<>(), new FieldCounter<>(),
+        collectFields ? new ArrayList<>() : null,
+        collectFields ? new ArrayList<>() : null,
+        collectFields ? new ArrayList<>() : null);
+    }
+
+    private Counters(CompletenessCounter completenessCounter,
+                     FieldCounter<Boolean> existenceCounter,
+                     FieldCounter<Integer> cardinalityCounter,
+                     List<String> missingFields,
+                     List<String> emptyFields,
+                     List<String> existingFields) {
+      this.completenessCounter = completenessCounter;
+      this.existenceCounter = existenceCounter;
+      this.cardinalityCounter = cardinalityCounter;
+      this.missingFields = missingFields;
+      this.emptyFields = emptyFields;
+      this.existingFields = existingFields;
+    }
+
+    private Counters withCompletenessCounter(CompletenessCounter completenessCounter) {
+      return new Counters(completenessCounter, existenceCounter, cardinalityCounter,
+        missingFields, emptyFields, existingFields);
+    }
+  }
 }
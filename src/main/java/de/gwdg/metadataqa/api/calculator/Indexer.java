@@ -16,9 +16,12 @@ import org.apache.solr.client.solrj.SolrServerException;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 public class Indexer extends QaSolrClient implements Calculator, Shutdownable, Serializable {
@@ -27,7 +30,7 @@ public class Indexer extends QaSolrClient implements Calculator, Shutdownable, S
 
   public static final String CALCULATOR_NAME = "indexer";
   private int generatedRecordId;
-  private int indexCounter;
+  private final AtomicInteger indexCounter = new AtomicInteger();
   private boolean isGeneratedIdentifierEnabled = false;
 
 
@@ -35,34 +38,15 @@ public class Indexer extends QaSolrClient implements Calculator, Shutdownable, S
     super(solrClient, schema);
     solrClient.deleteAll();
     generatedRecordId = 1;
-    indexCounter = 0;
     LOGGER.info("Indexer created " + solrClient.getClass().getCanonicalName());
   }
 
   @Override
   public List<MetricResult> measure(Selector cache) {
     try {
-      List<String> extractedValues = extractValue(cache, schema.getRecordId().getPath());
-      String recordId = null;
-      if (extractedValues.isEmpty()) {
-        LOGGER.severe(String.format("Missing record ID (path: %s)", schema.getRecordId().getPath()));
-        if (cache.getRecordId() != null)
-          recordId = cache.getRecordId();
-        else if (isGeneratedIdentifierEnabled)
-          recordId = IdentifierGenerator.generate();
-      } else {
-        recordId = StringUtils.join(extractedValues, " --- ");
-      }
-      cache.setRecordId(recordId);
-
-      Map<String, List<String>> resultMap = new HashMap<>();
-      for (UniquenessField solrField : solrFields) {
-        List<String> values = extractValue(cache, solrField.getPath());
-        if (!values.isEmpty())
-          resultMap.put(solrField.getSolrField(), values);
-      }
-      solrClient.indexMap(recordId, resultMap);
-      indexCounter++;
+      String recordId = extractRecordId(cache);
+      solrClient.indexMap(recordId, createDocument(cache));
+      indexCounter.incrementAndGet();
     } catch (IOException | SolrServerException e) {
       e.printStackTrace();
     } catch (Exception e) {
@@ -71,6 +55,57 @@ public class Indexer extends QaSolrClient implements Calculator, Shutdownable, S
     return null;
   }
 
+  /**
+   * Index a batch of records in one request.
+   */
+  @Override
+  public List<List<MetricResult>> measureBatch(List<Selector> caches) {
+    Map<String, Map<String, List<String>>> documents = new LinkedHashMap<>();
+    for (Selector cache : caches) {
+      String recordId = extractRecordId(cache);
+      if (recordId != null)
+        documents.put(recordId, createDocument(cache));
+    }
+    if (documents.isEmpty())
+      return new ArrayList<>(Collections.nCopies(caches.size(), null));
+
+    try {
+      solrClient.indexMaps(documents);
+      indexCounter.addAndGet(documents.size());
+    } catch (IOException | SolrServerException e) {
+      e.printStackTrace();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return new ArrayList<>(Collections.nCopies(caches.size(), null));
+  }
+
+  private String extractRecordId(Selector cache) {
+    List<String> extractedValues = extractValue(cache, schema.getRecordId().getPath());
+    String recordId = null;
+    if (extractedValues.isEmpty()) {
+      LOGGER.severe(String.format("Missing record ID (path: %s)", schema.getRecordId().getPath()));
+      if (cache.getRecordId() != null)
+        recordId = cache.getRecordId();
+      else if (isGeneratedIdentifierEnabled)
+        recordId = IdentifierGenerator.generate();
+    } else {
+      recordId = StringUtils.join(extractedValues, " --- ");
+    }
+    cache.setRecordId(recordId);
+    return recordId;
+  }
+
+  private Map<String, List<String>> createDocument(Selector cache) {
+    Map<String, List<String>> resultMap = new HashMap<>();
+    for (UniquenessField solrField : solrFields) {
+      List<String> values = extractValue(cache, solrField.getPath());
+      if (!values.isEmpty())
+        resultMap.put(solrField.getSolrField(), values);
+    }
+    return resultMap;
+  }
+
   private List<String> extractValue(Selector cache, String path) {
     List<String> values = new ArrayList<>();
     List<XmlFieldInstance> instances = cache.get(path);
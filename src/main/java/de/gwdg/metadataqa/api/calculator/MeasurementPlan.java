@@ -0,0 +1,183 @@
+package de.gwdg.metadataqa.api.calculator;
+
+import com.jayway.jsonpath.Configuration;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.interfaces.Calculator;
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.json.JsonProjection;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
+import de.gwdg.metadataqa.api.model.selector.JsonPathTrie;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.CompressionLevel;
+import de.gwdg.metadataqa.api.util.CsvReader;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The compiled part of a measurement: the configuration, the schema and the
+ * calculators created from them.
+ *
+ * A plan does not change after it has been created, and it does not hold any
+ * information about the measured records, so it can be shared by any number
+ * of threads. The state of the individual records are kept in a
+ * MeasurementSession, which should be created for each thread.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class MeasurementPlan implements Serializable {
+
+  private static final long serialVersionUID = 4391569476155326584L;
+
+  private final MeasurementConfiguration configuration;
+  private final Schema schema;
+  private final List<Calculator> calculators;
+  private final CompressionLevel compressionLevel;
+  private final CsvReader csvReader;
+  private final List<String> header;
+  private final JsonPathTrie jsonPathTrie;
+  private final JsonProjection jsonProjection;
+
+  MeasurementPlan(MeasurementConfiguration configuration,
+                  Schema schema,
+                  List<Calculator> calculators,
+                  CompressionLevel compressionLevel,
+                  CsvReader csvReader) {
+    this.configuration = configuration;
+    this.schema = schema;
+    this.calculators = calculators == null
+      ? Collections.emptyList()
+      : Collections.unmodifiableList(new ArrayList<>(calculators));
+    this.compressionLevel = compressionLevel;
+    this.csvReader = csvReader;
+
+    // the header is created here, so it also initializes the lazily built parts of the schema
+    List<String> headerList = new ArrayList<>();
+    for (Calculator calculator : this.calculators)
+      headerList.addAll(calculator.getHeader());
+    this.header = Collections.unmodifiableList(headerList);
+    this.jsonPathTrie = createJsonPathTrie(schema);
+    this.jsonProjection = configuration != null && configuration.isJsonProjectionEnabled()
+      ? createJsonProjection(schema)
+      : null;
+  }
+
+  /**
+   * The simple JSON paths of the top level data elements, which are read from the
+   * records in a single traversal.
+   */
+  private static JsonPathTrie createJsonPathTrie(Schema schema) {
+    if (schema == null || schema.getFormat() != Format.JSON)
+      return null;
+
+    var trie = JsonPathTrie.create(getTopLevelPaths(schema));
+    return trie.size() == 0 ? null : trie;
+  }
+
+  /**
+   * The parts of the JSON records reached by the top level data elements. The paths of
+   * the other data elements are relative to their parents.
+   */
+  private static JsonProjection createJsonProjection(Schema schema) {
+    if (schema == null || schema.getFormat() != Format.JSON)
+      return null;
+
+    return JsonProjection.create(getTopLevelPaths(schema));
+  }
+
+  private static List<String> getTopLevelPaths(Schema schema) {
+    List<String> paths = new ArrayList<>();
+    if (schema.getRecordId() != null)
+      paths.add(schema.getRecordId().getPath());
+    for (DataElement dataElement : schema.getPaths())
+      if (dataElement.getParent() == null)
+        paths.add(dataElement.getPath());
+    if (schema.getExtractableFields() != null)
+      paths.addAll(schema.getExtractableFields().values());
+    return paths;
+  }
+
+  /**
+   * Create a plan with default compression level.
+   *
+   * @param configuration The measurement configuration
+   * @param schema The schema of the records
+   * @return The plan
+   */
+  public static MeasurementPlan create(MeasurementConfiguration configuration, Schema schema) {
+    return CalculatorFactory.createPlan(configuration, schema, CompressionLevel.NORMAL, null);
+  }
+
+  /**
+   * Create a new session for measuring records with this plan. The session is not
+   * thread-safe, each thread should have its own. If the CSV reader of the plan already
+   * has the header, the first record of the session is not taken as the header.
+   *
+   * @return The session
+   */
+  public MeasurementSession newSession() {
+    CsvReader copy = csvReader == null ? null : csvReader.copy();
+    return new MeasurementSession(this, copy).setFirstRecord(copy == null || copy.getHeader() == null);
+  }
+
+  public MeasurementConfiguration getConfiguration() {
+    return configuration;
+  }
+
+  /**
+   * The JSON path configuration of the JSON records, based on the JSON provider
+   * of the measurement configuration.
+   *
+   * @return The JSON path configuration
+   */
+  public Configuration getJsonConfiguration() {
+    JsonProviderType type = configuration == null ? null : configuration.getJsonProviderType();
+    return (type == null ? JsonProviderType.SMART : type).getConfiguration();
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  public List<Calculator> getCalculators() {
+    return calculators;
+  }
+
+  public CompressionLevel getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * The CSV reader template. Sessions use their own copies.
+   *
+   * @return The CSV reader
+   */
+  public CsvReader getCsvReader() {
+    return csvReader;
+  }
+
+  public List<String> getHeader() {
+    return header;
+  }
+
+  /**
+   * The simple JSON paths of the schema.
+   *
+   * @return The trie of the paths, or null if the format is not JSON
+   */
+  public JsonPathTrie getJsonPathTrie() {
+    return jsonPathTrie;
+  }
+
+  /**
+   * The parts of the JSON records which are parsed.
+   *
+   * @return The projection, or null if the records are parsed fully
+   */
+  public JsonProjection getJsonProjection() {
+    return jsonProjection;
+  }
+}
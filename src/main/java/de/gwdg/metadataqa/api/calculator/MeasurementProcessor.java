@@ -0,0 +1,284 @@
+package de.gwdg.metadataqa.api.calculator;
+
+import de.gwdg.metadataqa.api.calculator.output.OutputCollector;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Measures the records of a Flow.Publisher, and publishes the results to a
+ * single subscriber.
+ *
+ * The processor requests records from the upstream only as much as the
+ * subscriber has requested results, and never more than the concurrency. So
+ * a slow subscriber throttles the intake of the records, and the number of
+ * records in memory is limited. The records are measured with
+ * CalculatorFacade.measureWithoutFormat() on the executor, each worker uses
+ * its own facade created from the shared plan. The results are published in
+ * the order of the records.
+ *
+ * The records should be complete records: JSON or XML documents, or CSV
+ * lines when the header has already been set in the CsvReader of the plan.
+ */
+public class MeasurementProcessor implements Flow.Processor<String, Map<String, List<MetricResult>>> {
+
+  private final MeasurementPlan plan;
+  private final int concurrency;
+  private final Executor executor;
+  private final Queue<CalculatorFacade> idleCalculators = new ConcurrentLinkedQueue<>();
+
+  // the following fields are guarded by this
+  private Flow.Subscription upstream;
+  private boolean hasSubscriber = false;
+  private Flow.Subscriber<? super Map<String, List<MetricResult>>> downstream;
+  private long demand = 0;
+  private long requested = 0;
+  private int pending = 0;
+  private long received = 0;
+  private long emitted = 0;
+  private final Map<Long, Map<String, List<MetricResult>>> ready = new HashMap<>();
+  private boolean upstreamDone = false;
+  private Throwable upstreamError;
+  private Throwable failure;
+  private boolean done = false;
+  private boolean emitting = false;
+
+  /**
+   * Create a processor running on the common ForkJoinPool.
+   *
+   * @param plan The plan of the measurement
+   * @param concurrency The maximal number of records measured at the same time
+   */
+  public MeasurementProcessor(MeasurementPlan plan, int concurrency) {
+    this(plan, concurrency, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param plan The plan of the measurement
+   * @param concurrency The maximal number of records measured at the same time
+   * @param executor The executor running the measurements
+   */
+  public MeasurementProcessor(MeasurementPlan plan, int concurrency, Executor executor) {
+    if (concurrency < 1)
+      throw new IllegalArgumentException("The concurrency should be at least 1, but it is " + concurrency);
+    this.plan = plan;
+    this.concurrency = concurrency;
+    this.executor = executor;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super Map<String, List<MetricResult>>> subscriber) {
+    synchronized (this) {
+      if (hasSubscriber) {
+        subscriber.onSubscribe(new EmptySubscription());
+        subscriber.onError(new IllegalStateException("The processor supports only one subscriber"));
+        return;
+      }
+      hasSubscriber = true;
+    }
+    subscriber.onSubscribe(new DownstreamSubscription());
+    synchronized (this) {
+      downstream = subscriber;
+    }
+    drain();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    synchronized (this) {
+      if (upstream != null || done) {
+        subscription.cancel();
+        return;
+      }
+      upstream = subscription;
+    }
+    drain();
+  }
+
+  @Override
+  public void onNext(String item) {
+    long sequence;
+    synchronized (this) {
+      if (done)
+        return;
+      requested--;
+      pending++;
+      sequence = received++;
+    }
+    try {
+      executor.execute(() -> measure(sequence, item));
+    } catch (RejectedExecutionException e) {
+      fail(e);
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    synchronized (this) {
+      upstreamDone = true;
+      upstreamError = throwable;
+    }
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    synchronized (this) {
+      upstreamDone = true;
+    }
+    drain();
+  }
+
+  private void measure(long sequence, String item) {
+    Map<String, List<MetricResult>> result;
+    try {
+      CalculatorFacade calculator = idleCalculators.poll();
+      if (calculator == null)
+        calculator = new CalculatorFacade(plan);
+      try {
+        result = (Map<String, List<MetricResult>>) calculator.measureWithoutFormat(item)
+          .createOutput(OutputCollector.TYPE.METRIC, plan.getCompressionLevel());
+      } finally {
+        idleCalculators.offer(calculator);
+      }
+    } catch (RuntimeException e) {
+      fail(e);
+      return;
+    }
+
+    synchronized (this) {
+      if (done)
+        return;
+      ready.put(sequence, result);
+    }
+    drain();
+  }
+
+  private void fail(Throwable throwable) {
+    synchronized (this) {
+      if (failure == null)
+        failure = throwable;
+    }
+    drain();
+  }
+
+  /**
+   * Passes the ready results to the subscriber, sends the terminal signals, and
+   * requests new records from the upstream. Only one thread emits at a time.
+   */
+  private void drain() {
+    synchronized (this) {
+      if (emitting)
+        return;
+      emitting = true;
+    }
+
+    while (true) {
+      Flow.Subscriber<? super Map<String, List<MetricResult>>> subscriber;
+      Flow.Subscription subscription = null;
+      Map<String, List<MetricResult>> result = null;
+      Throwable error = null;
+      boolean complete = false;
+      long toRequest = 0;
+      synchronized (this) {
+        subscriber = downstream;
+        if (done || subscriber == null) {
+          emitting = false;
+          return;
+        }
+        if (failure != null) {
+          error = failure;
+          subscription = upstreamDone ? null : upstream;
+          terminate();
+        } else if (demand > 0 && ready.containsKey(emitted)) {
+          result = ready.remove(emitted++);
+          demand--;
+          pending--;
+        } else if (upstreamDone && pending == 0) {
+          error = upstreamError;
+          complete = error == null;
+          terminate();
+        } else {
+          if (upstream != null && !upstreamDone) {
+            toRequest = Math.min(demand, concurrency) - pending - requested;
+            if (toRequest > 0) {
+              requested += toRequest;
+              subscription = upstream;
+            }
+          }
+          emitting = false;
+        }
+      }
+
+      if (result != null) {
+        subscriber.onNext(result);
+      } else if (error != null) {
+        if (subscription != null)
+          subscription.cancel();
+        subscriber.onError(error);
+        return;
+      } else if (complete) {
+        subscriber.onComplete();
+        return;
+      } else {
+        if (toRequest > 0)
+          subscription.request(toRequest);
+        return;
+      }
+    }
+  }
+
+  private void terminate() {
+    done = true;
+    emitting = false;
+    ready.clear();
+  }
+
+  private class DownstreamSubscription implements Flow.Subscription {
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        fail(new IllegalArgumentException("The number of requested results should be positive, but it is " + n));
+        return;
+      }
+      synchronized (MeasurementProcessor.this) {
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      Flow.Subscription subscription;
+      synchronized (MeasurementProcessor.this) {
+        if (done)
+          return;
+        subscription = upstreamDone ? null : upstream;
+        terminate();
+      }
+      if (subscription != null)
+        subscription.cancel();
+    }
+  }
+
+  private static class EmptySubscription implements Flow.Subscription {
+    @Override
+    public void request(long n) {
+      // nothing to deliver
+    }
+
+    @Override
+    public void cancel() {
+      // nothing to cancel
+    }
+  }
+}
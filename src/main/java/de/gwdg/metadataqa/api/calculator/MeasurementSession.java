@@ -0,0 +1,346 @@
+package de.gwdg.metadataqa.api.calculator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.gwdg.metadataqa.api.calculator.output.MetricCollector;
+import de.gwdg.metadataqa.api.calculator.output.OutputCollector;
+import de.gwdg.metadataqa.api.interfaces.Calculator;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+import de.gwdg.metadataqa.api.model.selector.CsvSelector;
+import de.gwdg.metadataqa.api.model.selector.JsonSelector;
+import de.gwdg.metadataqa.api.model.selector.Selector;
+import de.gwdg.metadataqa.api.model.selector.SelectorFactory;
+import de.gwdg.metadataqa.api.model.selector.XmlSelector;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.Converter;
+import de.gwdg.metadataqa.api.util.CsvReader;
+import org.w3c.dom.Node;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The per-record state of a measurement run with a MeasurementPlan: the
+ * selector of the current record, and (for CSV) the header and whether the
+ * next line is the first one.
+ *
+ * A session is cheap to create and it is not thread-safe: each thread should
+ * use its own session, while they share the same plan.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class MeasurementSession {
+
+  private static final Logger LOGGER = Logger.getLogger(
+    MeasurementSession.class.getCanonicalName()
+  );
+
+  private final MeasurementPlan plan;
+  private final CsvReader csvReader;
+
+  /**
+   * Is it the first record?
+   */
+  private boolean isFirstRecord = true;
+
+  private Selector<? extends XmlFieldInstance> cache;
+
+  MeasurementSession(MeasurementPlan plan, CsvReader csvReader) {
+    this.plan = plan;
+    this.csvReader = csvReader;
+  }
+
+  /**
+   * Measure a record.
+   *
+   * @param content The record as string (JSON, XML or a CSV line)
+   * @return The collected results
+   */
+  public MetricCollector measure(String content) {
+    Schema schema = plan.getSchema();
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    var collector = new MetricCollector();
+    var format = schema.getFormat();
+    if (format != null && content != null) {
+      cache = createSelector(schema, content);
+      if (format.equals(Format.CSV))
+        initializeCsvCache(content);
+
+      if (!isCsvHeaderLine())
+        runMeasurements(collector);
+
+      isFirstRecord = false;
+    }
+    return collector;
+  }
+
+  /**
+   * Measure a record given as UTF-8 bytes. The JSON and XML parsers read the bytes without
+   * decoding them into a string; CSV records are decoded.
+   *
+   * @param content The record
+   * @return The collected results
+   */
+  public MetricCollector measure(byte[] content) {
+    Schema schema = plan.getSchema();
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    var format = schema.getFormat();
+    if (format == Format.CSV || content == null)
+      return measure(content == null ? null : new String(content, StandardCharsets.UTF_8));
+
+    var collector = new MetricCollector();
+    if (format != null) {
+      cache = prefetch(SelectorFactory.getInstance(
+        schema, content, plan.getJsonConfiguration(), plan.getJsonProjection()
+      ));
+      runMeasurements(collector);
+      isFirstRecord = false;
+    }
+    return collector;
+  }
+
+  /**
+   * Measure a record given as UTF-8 bytes, the remaining bytes of the buffer.
+   *
+   * @param content The record
+   * @return The collected results
+   */
+  public MetricCollector measure(ByteBuffer content) {
+    return measure(content == null ? null : Converter.toByteArray(content));
+  }
+
+  /**
+   * Measure a CSV record which has already been split into cells.
+   *
+   * @param content The cells of the record
+   * @return The collected results
+   */
+  public MetricCollector measure(List<String> content) {
+    Schema schema = plan.getSchema();
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    var format = schema.getFormat();
+    if (format == null || format != Format.CSV)
+      throw new IllegalStateException("Format is not CSV");
+
+    var collector = new MetricCollector();
+    if (content != null) {
+      cache = new CsvSelector<>(csvReader, content);
+      runMeasurements(collector);
+    }
+    return collector;
+  }
+
+  /**
+   * Measure an XML record which has already been parsed.
+   *
+   * @param content The record, a Document or an Element
+   * @return The collected results
+   */
+  public MetricCollector measure(Node content) {
+    Schema schema = plan.getSchema();
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    var format = schema.getFormat();
+    if (format == null || format != Format.XML)
+      throw new IllegalStateException("Format is not XML");
+
+    var collector = new MetricCollector();
+    if (content != null) {
+      cache = new XmlSelector<>(content, schema.getNamespaces());
+      runMeasurements(collector);
+    }
+    return collector;
+  }
+
+  /**
+   * Measure a CSV record which has already been split into cells.
+   *
+   * @param content The cells of the record
+   * @return The collected results
+   */
+  public MetricCollector measure(String[] content) {
+    return measure(content == null ? null : Arrays.asList(content));
+  }
+
+  /**
+   * Measure a JSON record which has already been parsed into maps and lists (as
+   * json-smart and the JSON providers of JsonProviderType parse it).
+   *
+   * @param content The record
+   * @return The collected results
+   */
+  public MetricCollector measure(Map<String, ?> content) {
+    return measureJson(content);
+  }
+
+  /**
+   * Measure a JSON record which has already been parsed by Jackson. The tree is copied
+   * into the maps and lists of the JSON provider of the plan.
+   *
+   * @param content The record
+   * @return The collected results
+   */
+  public MetricCollector measure(JsonNode content) {
+    return measureJson(content == null
+      ? null
+      : Converter.jsonNodeToDocument(content, plan.getJsonConfiguration().jsonProvider()));
+  }
+
+  private MetricCollector measureJson(Object content) {
+    Schema schema = plan.getSchema();
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    var format = schema.getFormat();
+    if (format == null || format != Format.JSON)
+      throw new IllegalStateException("Format is not JSON");
+
+    var collector = new MetricCollector();
+    if (content != null) {
+      cache = prefetch(SelectorFactory.getInstance(schema, content, plan.getJsonConfiguration()));
+      runMeasurements(collector);
+    }
+    return collector;
+  }
+
+  /**
+   * Measure a batch of records. Each calculator receives the whole batch at once, so
+   * the calculators using remote services can combine their requests.
+   *
+   * @param contents The records as strings
+   * @return The collected results in the order of the records
+   */
+  public List<MetricCollector> measureBatch(List<String> contents) {
+    Schema schema = plan.getSchema();
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+
+    List<MetricCollector> collectors = new ArrayList<>(contents.size());
+    List<Selector> selectors = new ArrayList<>();
+    List<MetricCollector> measured = new ArrayList<>();
+    var format = schema.getFormat();
+    for (String content : contents) {
+      var collector = new MetricCollector();
+      collectors.add(collector);
+      if (format != null && content != null) {
+        cache = createSelector(schema, content);
+        if (format.equals(Format.CSV))
+          initializeCsvCache(content);
+
+        if (!isCsvHeaderLine()) {
+          selectors.add(cache);
+          measured.add(collector);
+        }
+        isFirstRecord = false;
+      }
+    }
+
+    if (!selectors.isEmpty())
+      for (Calculator calculator : plan.getCalculators()) {
+        List<List<MetricResult>> results = calculator.measureBatch(selectors);
+        for (var i = 0; i < measured.size(); i++)
+          measured.get(i).addResult(calculator, results.get(i), plan.getCompressionLevel());
+      }
+
+    return collectors;
+  }
+
+  /**
+   * Measure a record and create the output in the requested format.
+   *
+   * @param content The record as string
+   * @param type The type of the output
+   * @return The output
+   */
+  public Object measure(String content, OutputCollector.TYPE type) {
+    return measure(content).createOutput(type, plan.getCompressionLevel());
+  }
+
+  /**
+   * Measure a CSV record and create the output in the requested format.
+   *
+   * @param content The cells of the record
+   * @param type The type of the output
+   * @return The output
+   */
+  public Object measure(List<String> content, OutputCollector.TYPE type) {
+    return measure(content).createOutput(type, plan.getCompressionLevel());
+  }
+
+  private boolean isCsvHeaderLine() {
+    return isFirstRecord
+      && plan.getSchema().getFormat().equals(Format.CSV)
+      && csvReader.isHeaderAware();
+  }
+
+  private Selector<? extends XmlFieldInstance> createSelector(Schema schema, String content) {
+    return prefetch(SelectorFactory.getInstance(
+      schema, content, plan.getJsonConfiguration(), plan.getJsonProjection()
+    ));
+  }
+
+  private Selector<? extends XmlFieldInstance> prefetch(Selector<? extends XmlFieldInstance> selector) {
+    if (plan.getJsonPathTrie() != null)
+      ((JsonSelector<?>) selector).prefetch(plan.getJsonPathTrie());
+    return selector;
+  }
+
+  private void initializeCsvCache(String content) {
+    if (isFirstRecord && csvReader.isHeaderAware())
+      try {
+        csvReader.setHeader(content);
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "initializeCsvCache", e);
+      }
+
+    ((CsvSelector) cache).setCsvReader(csvReader);
+  }
+
+  private void runMeasurements(OutputCollector collector) {
+    for (Calculator calculator : plan.getCalculators()) {
+      List<MetricResult> result = calculator.measure(cache);
+      collector.addResult(calculator, result, plan.getCompressionLevel());
+    }
+  }
+
+  public MeasurementPlan getPlan() {
+    return plan;
+  }
+
+  public CsvReader getCsvReader() {
+    return csvReader;
+  }
+
+  /**
+   * The selector of the last measured record.
+   *
+   * @return The selector
+   */
+  public Selector<? extends XmlFieldInstance> getCache() {
+    return cache;
+  }
+
+  public boolean isFirstRecord() {
+    return isFirstRecord;
+  }
+
+  MeasurementSession setFirstRecord(boolean firstRecord) {
+    isFirstRecord = firstRecord;
+    return this;
+  }
+}
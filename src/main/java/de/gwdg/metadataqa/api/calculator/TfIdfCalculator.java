@@ -14,19 +14,24 @@ import de.gwdg.metadataqa.api.uniqueness.TfIdfExtractor;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.params.HttpMethodParams;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * TF-IDF calculator
@@ -53,12 +58,19 @@ public class TfIdfCalculator implements Calculator, Serializable {
         + "&json.nl=map"
         + "&rows=1000"
         + "&fl=id";
-  private static final HttpClient HTTP_CLIENT = new HttpClient();
+  /**
+   * The search parameters for a batch of records: the query lists the quoted identifiers.
+   */
+  private static final String SOLR_BATCH_SEARCH_PARAMS = SOLR_SEARCH_PARAMS.replace("q=id:\"%s\"", "q=id:(%s)");
+  private static final HttpClient HTTP_CLIENT = new HttpClient(new MultiThreadedHttpConnectionManager());
 
   private SolrConfiguration solrConfiguration;
   private String solrSearchPath;
 
-  private Map<String, List<TfIdf>> termsCollection;
+  /**
+   * The terms of the last measured record, kept per thread.
+   */
+  private transient ThreadLocal<Map<String, List<TfIdf>>> termsCollection = new ThreadLocal<>();
   private boolean termCollectionEnabled = false;
   private Schema schema;
   private SolrClient solrClient;
@@ -77,24 +89,65 @@ public class TfIdfCalculator implements Calculator, Serializable {
 
   @Override
   public List<MetricResult> measure(Selector cache) {
+    String recordId = getRecordId(cache);
+    String solrJsonResponse = solrClient != null
+      ? solrClient.getTfIdfResponse(String.format(SOLR_SEARCH_PARAMS, recordId).replace("\"", "%22"), recordId)
+      : getSolrResponse(recordId);
+    return measure(recordId, solrJsonResponse);
+  }
+
+  /**
+   * Measure a batch of records. The term vectors of all records are fetched in one request.
+   * The records missing from the response (e.g. if the request failed) are measured one by one.
+   */
+  @Override
+  public List<List<MetricResult>> measureBatch(List<Selector> caches) {
+    if (caches.size() < 2)
+      return Calculator.super.measureBatch(caches);
+
+    List<String> recordIds = new ArrayList<>();
+    for (Selector cache : caches)
+      recordIds.add(getRecordId(cache));
+
+    String query = recordIds.stream()
+      .map(id -> "%22" + id + "%22")
+      .collect(Collectors.joining("%20OR%20"));
+    String params = String.format(SOLR_BATCH_SEARCH_PARAMS, query).replace("\"", "%22");
+    String solrJsonResponse = solrClient != null
+      ? solrClient.getTfIdfResponse(params, StringUtils.join(recordIds, ","))
+      : getSolrResponseFromUrl(getSolrBasePath() + params);
+
+    Set<String> responseIds = TfIdfExtractor.extractRecordIds(solrJsonResponse);
+    List<List<MetricResult>> results = new ArrayList<>(caches.size());
+    for (var i = 0; i < caches.size(); i++) {
+      String recordId = recordIds.get(i);
+      results.add(responseIds.contains(recordId) ? measure(recordId, solrJsonResponse) : measure(caches.get(i)));
+    }
+    return results;
+  }
+
+  private String getRecordId(Selector cache) {
     String recordId = cache.getRecordId();
     if (recordId.startsWith("/")) {
       recordId = recordId.substring(1);
     }
+    return recordId;
+  }
 
-    String solrJsonResponse = solrClient != null
-      ? solrClient.getTfIdfResponse(String.format(SOLR_SEARCH_PARAMS, recordId).replace("\"", "%22"), recordId)
-      : getSolrResponse(recordId);
+  private List<MetricResult> measure(String recordId, String solrJsonResponse) {
     var extractor = new TfIdfExtractor(schema);
     FieldCounter<Double> resultMap = extractor.extract(solrJsonResponse, recordId, termCollectionEnabled);
-    termsCollection = extractor.getTermsCollection();
+    termsCollection.set(extractor.getTermsCollection());
     return List.of(new FieldCounterBasedResult<>(getCalculatorName(), resultMap));
   }
 
   private String getSolrResponse(String recordId) {
+    return getSolrResponseFromUrl(String.format(getSolrSearchPath(), recordId).replace("\"", "%22"));
+  }
+
+  private String getSolrResponseFromUrl(String url) {
     String jsonString = null;
 
-    String url = String.format(getSolrSearchPath(), recordId).replace("\"", "%22");
     HttpMethod method = new GetMethod(url);
     var params = new HttpMethodParams();
     params.setIntParameter(HttpMethodParams.BUFFER_WARN_TRIGGER_LIMIT, MEGABYTE);
@@ -120,7 +173,7 @@ public class TfIdfCalculator implements Calculator, Serializable {
   }
 
   public Map<String, List<TfIdf>> getTermsCollection() {
-    return termsCollection;
+    return termsCollection.get();
   }
 
   public void enableTermCollection(boolean enableTermCollection) {
@@ -147,18 +200,26 @@ public class TfIdfCalculator implements Calculator, Serializable {
 
   public String getSolrSearchPath() {
     if (solrSearchPath == null) {
-      this.solrSearchPath = String.format(
-        "http://%s:%s/%s/%s",
-        solrConfiguration.getSolrHost(),
-        solrConfiguration.getSolrPort(),
-        solrConfiguration.getSolrPath(),
-        SOLR_SEARCH_PARAMS
-      );
+      this.solrSearchPath = getSolrBasePath() + SOLR_SEARCH_PARAMS;
     }
     return this.solrSearchPath;
   }
 
+  private String getSolrBasePath() {
+    return String.format(
+      "http://%s:%s/%s/",
+      solrConfiguration.getSolrHost(),
+      solrConfiguration.getSolrPort(),
+      solrConfiguration.getSolrPath()
+    );
+  }
+
   public void setSolrClient(SolrClient solrClient) {
     this.solrClient = solrClient;
   }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    termsCollection = new ThreadLocal<>();
+  }
 }
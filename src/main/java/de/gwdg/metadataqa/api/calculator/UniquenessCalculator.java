@@ -2,6 +2,7 @@ package de.gwdg.metadataqa.api.calculator;
 
 import de.gwdg.metadataqa.api.calculator.solr.QaSolrClient;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.model.selector.Selector;
 import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.interfaces.Calculator;
@@ -14,7 +15,11 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Uniqueness calculator
@@ -25,8 +30,6 @@ public class UniquenessCalculator extends QaSolrClient implements Calculator, Se
 
   public static final String CALCULATOR_NAME = "uniqueness";
 
-  private FieldCounter<Double> resultMap;
-
   public UniquenessCalculator(SolrClient solrClient, Schema schema) {
     super(solrClient, schema);
   }
@@ -38,16 +41,48 @@ public class UniquenessCalculator extends QaSolrClient implements Calculator, Se
 
   @Override
   public List<MetricResult> measure(Selector cache) {
+    return measure(cache, null);
+  }
+
+  /**
+   * Measure a batch of records. The Solr lookups of all values of a field in the batch are
+   * combined.
+   */
+  @Override
+  public List<List<MetricResult>> measureBatch(List<Selector> caches) {
+    Map<UniquenessField, Map<String, Integer>> numFound = new HashMap<>();
+    for (UniquenessField solrField : solrFields) {
+      Set<String> values = new LinkedHashSet<>();
+      for (Selector cache : caches) {
+        List<XmlFieldInstance> instances = cache.get(solrField.getPath());
+        if (instances != null)
+          for (XmlFieldInstance instance : instances)
+            if (StringUtils.isNotBlank(instance.getValue()))
+              values.add(instance.getValue());
+      }
+      if (!values.isEmpty())
+        numFound.put(solrField, solrClient.getNumFound(solrField.getSolrField(), values));
+    }
+
+    List<List<MetricResult>> results = new ArrayList<>(caches.size());
+    for (Selector cache : caches)
+      results.add(measure(cache, numFound));
+    return results;
+  }
+
+  private List<MetricResult> measure(Selector cache, Map<UniquenessField, Map<String, Integer>> numFound) {
     String recordId = cache.getRecordId();
     if (StringUtils.isNotBlank(recordId) && recordId.startsWith("/")) {
       recordId = recordId.substring(1);
     }
 
-    resultMap = new FieldCounter<>();
+    FieldCounter<Double> resultMap = new FieldCounter<>();
     for (UniquenessField solrField : solrFields) {
       var fieldCalculator = new UniquenessFieldCalculator(
           cache, recordId, solrClient, solrField
       );
+      if (numFound != null)
+        fieldCalculator.setNumFound(numFound.get(solrField));
       fieldCalculator.calculate();
       resultMap.put(
           solrField.getSolrField() + "/count",
@@ -61,7 +61,7 @@ public final class EnhancementIdExtractor implements Serializable {
       if (isEnrichmentField(child.getLabel())) {
         String address = child.getAbsolutePath(schema.getFormat());
         Object context = jsonFragments.get(0);
-        List<EdmFieldInstance> fieldInstances = cache.get(address, child.getPath(), context);
+        List<EdmFieldInstance> fieldInstances = cache.get(address, child.getCompiledPath(), context);
         if (fieldInstances != null && !fieldInstances.isEmpty()) {
           for (EdmFieldInstance fieldInstance : fieldInstances) {
             if (fieldInstance.isUrl()) {
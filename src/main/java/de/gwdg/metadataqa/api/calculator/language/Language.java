@@ -67,7 +67,7 @@ public class Language {
   private void extractLanguageTags(Object jsonFragment,
                                    DataElement dataElement,
                                    String address) {
-    List<EdmFieldInstance> values = cache.get(address, dataElement.getPath(), jsonFragment);
+    List<EdmFieldInstance> values = cache.get(address, dataElement.getCompiledPath(), jsonFragment);
     Map<String, BasicCounter> languages = new TreeMap<>();
     if (values != null && !values.isEmpty()) {
       for (EdmFieldInstance field : values) {
@@ -140,7 +140,7 @@ public class Multilinguality {
   private void extractLanguageTags(Object jsonFragment,
                                    DataElement dataElement,
                                    String address) {
-    List<EdmFieldInstance> values = cache.get(address, dataElement.getPath(), jsonFragment);
+    List<EdmFieldInstance> values = cache.get(address, dataElement.getCompiledPath(), jsonFragment);
     Map<LanguageSaturationType, BasicCounter> languages = new TreeMap<>();
     Set<String> individualLanguages = new HashSet<>();
     if (values != null && !values.isEmpty()) {
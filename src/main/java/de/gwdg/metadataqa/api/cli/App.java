@@ -3,13 +3,23 @@ package de.gwdg.metadataqa.api.cli;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.opencsv.exceptions.CsvValidationException;
 import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
-import de.gwdg.metadataqa.api.io.reader.XMLRecordReader;
+import de.gwdg.metadataqa.api.io.filter.RecordFilter;
+import de.gwdg.metadataqa.api.io.reader.FilePartition;
+import de.gwdg.metadataqa.api.io.reader.FilterRecordReader;
+import de.gwdg.metadataqa.api.io.reader.MappedCSVRecordReader;
+import de.gwdg.metadataqa.api.io.reader.MappedJSONRecordReader;
+import de.gwdg.metadataqa.api.io.reader.MappedLineReader;
+import de.gwdg.metadataqa.api.io.reader.MappedNDXMLRecordReader;
+import de.gwdg.metadataqa.api.io.reader.NDXMLRecordReader;
+import de.gwdg.metadataqa.api.io.reader.PartitionRecordReader;
 import de.gwdg.metadataqa.api.io.writer.ResultWriter;
 import de.gwdg.metadataqa.api.configuration.ConfigurationReader;
 import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
 import de.gwdg.metadataqa.api.io.reader.RecordReader;
+import de.gwdg.metadataqa.api.schema.Format;
 import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.xml.NamespaceDeclarations;
 import net.minidev.json.parser.ParseException;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -22,8 +32,13 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -54,12 +69,30 @@ public class App {
   private static final String MEASUREMENTS_FORMAT = "measurementsFormat";
   private static final String GZIP_FLAG = "gzip";
   private static final String RECORD_ADDRESS = "recordAddress";
+  private static final String THREADS = "threads";
+  private static final String UNORDERED_FLAG = "unordered";
+  private static final String PARTITION = "partition";
+  private static final String PARTITION_BY = "partitionBy";
+  private static final String CHECKPOINT = "checkpoint";
+  private static final String RESUME_FLAG = "resume";
+  private static final String FILTER = "filter";
 
   private final Schema schema;
   private final CalculatorFacade calculator;
   private final ResultWriter outputWriter;
-  private final RecordReader inputReader;
+  private final RecordReader<?> inputReader;
+  private final String inputFile;
+  private final InputFormat inputFormat;
+  private final boolean gzip;
   private final String recordAddress;
+  private final int threads;
+  private final boolean ordered;
+  private final boolean partitioned;
+  private final Checkpoint checkpoint;
+  private final long resumedRecords;
+  private final List<RecordFilter> filters;
+  private NamespaceDeclarations xmlDeclarations;
+  private long prologueEnd = 0;
 
   public App(CommandLine cmd) throws IOException, CsvValidationException {
     // initialize schema
@@ -83,46 +116,212 @@ public class App {
     }
 
     // initialize config
-    MeasurementConfiguration measurementConfig = new MeasurementConfiguration();
-    if (cmd.hasOption(MEASUREMENTS_CONFIG)) {
-      String measurementFile = cmd.getOptionValue(MEASUREMENTS_CONFIG);
-      String measurementFormat = cmd.getOptionValue(MEASUREMENTS_FORMAT, FilenameUtils.getExtension(measurementFile));
-      switch (measurementFormat) {
-        case YAML:
-          measurementConfig = ConfigurationReader.readMeasurementYaml(measurementFile);
-          break;
-        case JSON:
-        default:
-          measurementConfig = ConfigurationReader.readMeasurementJson(measurementFile);
-      }
-    }
+    MeasurementConfiguration measurementConfig = readMeasurementConfiguration(cmd);
 
     // initialize calculator
     this.calculator = new CalculatorFacade(measurementConfig);
     // set the schema which describes the source
     calculator.setSchema(schema);
 
+    // initialize parallel processing
+    this.threads = Integer.parseInt(cmd.getOptionValue(THREADS, "1"));
+    if (threads < 1)
+      throw new IllegalArgumentException("The number of threads should be at least 1.");
+    this.ordered = !cmd.hasOption(UNORDERED_FLAG);
+    this.partitioned = cmd.hasOption(PARTITION);
+
+    // initialize checkpoints
+    this.checkpoint = initializeCheckpoint(cmd);
+    this.resumedRecords = checkpoint == null ? 0 : checkpoint.getRecords();
+
+    // check the filters before the input is opened
+    validateFilters(cmd);
+
     // initialize input
-    String inputFile = cmd.getOptionValue(INPUT_FILE);
-    InputFormat inputFormat = InputFormat.byCode(cmd.getOptionValue(INPUT_FORMAT));
-    this.inputReader = RecordFactory.getRecordReader(inputFile, calculator, cmd.hasOption(GZIP_FLAG), inputFormat);
+    this.inputFile = cmd.getOptionValue(INPUT_FILE);
+    this.inputFormat = InputFormat.byCode(cmd.getOptionValue(INPUT_FORMAT));
+    this.gzip = cmd.hasOption(GZIP_FLAG);
+    this.recordAddress = (cmd.hasOption(RECORD_ADDRESS) && StringUtils.isNotBlank(cmd.getOptionValue(RECORD_ADDRESS)))
+      ? cmd.getOptionValue(RECORD_ADDRESS)
+      : null;
+    RecordReader<?> reader;
+    boolean isSought = resumedRecords > 0 && isSeekable(checkpoint.getInputPosition());
+    if (isPlainNdjson() && isMapped()) {
+      // continue reading where the checkpoint was saved
+      long position = isSought ? checkpoint.getInputPosition() : 0;
+      reader = new MappedJSONRecordReader(new MappedLineReader(Paths.get(inputFile), position, -1), calculator);
+    } else if (isPlainNdxml() && isMapped()) {
+      readPrologue(Paths.get(inputFile));
+      long position = isSought ? checkpoint.getInputPosition() : prologueEnd;
+      reader = new MappedNDXMLRecordReader(new MappedLineReader(Paths.get(inputFile), position, -1), calculator, xmlDeclarations);
+    } else {
+      reader = RecordFactory.getRecordReader(inputFile, calculator, gzip, inputFormat, recordAddress, threads);
+    }
+
+    if (reader instanceof NDXMLRecordReader)
+      xmlDeclarations = ((NDXMLRecordReader) reader).getDeclarations();
+
+    // skip the records not accepted by the filters before parsing them
+    this.filters = createFilters(cmd);
+    reader = filter(reader);
 
     // initialize output
     String outFormat = cmd.getOptionValue(OUTPUT_FORMAT, NDJSON);
     // write to std out if no file was given
     this.outputWriter = cmd.hasOption(OUTPUT_FILE)
-      ? RecordFactory.getResultWriter(outFormat, cmd.getOptionValue(OUTPUT_FILE))
+      ? RecordFactory.getResultWriter(outFormat, cmd.getOptionValue(OUTPUT_FILE), resumedRecords > 0)
       : RecordFactory.getResultWriter(outFormat);
 
-    this.recordAddress = (cmd.hasOption(RECORD_ADDRESS) && StringUtils.isNotBlank(cmd.getOptionValue(RECORD_ADDRESS)))
-      ? cmd.getOptionValue(RECORD_ADDRESS)
-      : null;
-    if (inputReader instanceof XMLRecordReader && recordAddress != null)
-      ((XMLRecordReader)inputReader).setRecordAddress(this.recordAddress);
+    // select the records of a partition
+    this.inputReader = partitioned
+      ? createPartitionReader(reader, cmd.getOptionValue(PARTITION), cmd.getOptionValue(PARTITION_BY, "ordinal"))
+      : reader;
+
+    // skip the records processed before the checkpoint, if the input could not be sought
+    if (resumedRecords > 0 && !isSought)
+      for (long i = 0; i < resumedRecords && inputReader.hasNext(); i++)
+        inputReader.nextRecord();
+  }
+
+  private Checkpoint initializeCheckpoint(CommandLine cmd) throws IOException {
+    long interval = Long.parseLong(cmd.getOptionValue(CHECKPOINT, "0"));
+    boolean resume = cmd.hasOption(RESUME_FLAG);
+    if (interval <= 0 && !resume)
+      return null;
+
+    if (!cmd.hasOption(OUTPUT_FILE))
+      throw new IllegalArgumentException("Checkpoints require an output file.");
+    if (!ordered)
+      throw new IllegalArgumentException("Checkpoints can not be used with unordered output.");
+
+    String outputFile = cmd.getOptionValue(OUTPUT_FILE);
+    Checkpoint existing = resume ? Checkpoint.read(outputFile) : null;
+    if (existing == null) {
+      if (resume)
+        logger.info("There is no checkpoint, the assessment starts from the beginning.");
+      return new Checkpoint(outputFile, interval);
+    }
+
+    logger.info(String.format("Resuming the assessment after %d records.", existing.getRecords()));
+    existing.truncateOutput();
+    if (interval > 0)
+      existing.setInterval(interval);
+    return existing;
+  }
+
+  /**
+   * A plain NDJSON or NDXML file can be opened at the position of the checkpoint, the other inputs
+   * are read from the beginning, and the processed records are skipped.
+   */
+  private boolean isSeekable(long position) {
+    return position >= 0 && !partitioned && (isPlainNdjson() || isPlainNdxml());
+  }
+
+  /**
+   * A plain NDJSON file can be read from memory mapped windows.
+   */
+  private boolean isPlainNdjson() {
+    return !gzip
+      && schema.getFormat() == Format.JSON
+      && (inputFormat == null || inputFormat.equals(InputFormat.NDJSON))
+      && isRegularFile();
+  }
+
+  /**
+   * Only regular files can be mapped or split, a pipe (like /dev/stdin) has no size.
+   */
+  private boolean isRegularFile() {
+    return Files.isRegularFile(Paths.get(inputFile));
+  }
+
+  /**
+   * The byte positions of the records are needed by the parallel and partitioned runs, and
+   * by the checkpoints, so their plain line based inputs are memory mapped. Otherwise the input
+   * is read by the reader of the RecordFactory.
+   */
+  private boolean isMapped() {
+    return threads > 1 || partitioned || checkpoint != null;
+  }
+
+  /**
+   * A plain NDXML file can be read from memory mapped windows, as NDJSON.
+   */
+  private boolean isPlainNdxml() {
+    return !gzip
+      && schema.getFormat() == Format.XML
+      && InputFormat.NDXML.equals(inputFormat)
+      && isRegularFile();
+  }
+
+  /**
+   * The records of an NDXML file get the namespace declarations of the schema, and the
+   * ones of the prologue line, if the first line is a prologue.
+   */
+  private void readPrologue(Path path) throws IOException {
+    String firstLine;
+    try (BufferedReader reader = Files.newBufferedReader(path)) {
+      firstLine = reader.readLine();
+    }
+    xmlDeclarations = NamespaceDeclarations.ofSchema(schema.getNamespaces());
+    Map<String, String> prologue = NamespaceDeclarations.parsePrologue(firstLine);
+    if (prologue != null) {
+      xmlDeclarations = xmlDeclarations.with(prologue);
+      prologueEnd = FilePartition.lineEnd(path, 0);
+    }
+  }
+
+  private void validateFilters(CommandLine cmd) {
+    if (cmd.hasOption(FILTER))
+      for (String expression : cmd.getOptionValues(FILTER))
+        RecordFilter.validate(expression, schema.getFormat());
+  }
+
+  private List<RecordFilter> createFilters(CommandLine cmd) {
+    List<RecordFilter> recordFilters = new ArrayList<>();
+    if (cmd.hasOption(FILTER))
+      for (String expression : cmd.getOptionValues(FILTER))
+        recordFilters.add(RecordFilter.create(expression, schema, calculator.getCsvReader(), xmlDeclarations));
+    return recordFilters;
+  }
+
+  private <R> RecordReader<R> filter(RecordReader<R> reader) {
+    return filters.isEmpty() ? reader : new FilterRecordReader<>(reader, filters);
+  }
+
+  private static <R> RecordReader<R> createPartitionReader(RecordReader<R> reader, String partition, String partitionBy) {
+    String[] parts = partition.split("/");
+    if (parts.length != 2 || !StringUtils.isNumeric(parts[0]) || !StringUtils.isNumeric(parts[1]))
+      throw new IllegalArgumentException(String.format("The partition should be in the form of i/n, but it is '%s'", partition));
+    PartitionRecordReader.Mode mode = PartitionRecordReader.Mode.byCode(partitionBy);
+    if (mode == null)
+      throw new IllegalArgumentException(String.format("The partitionBy should be ordinal or hash, but it is '%s'", partitionBy));
+    return new PartitionRecordReader<>(reader, Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), mode);
+  }
+
+  private static MeasurementConfiguration readMeasurementConfiguration(CommandLine cmd) throws IOException {
+    MeasurementConfiguration measurementConfig = new MeasurementConfiguration();
+    if (cmd.hasOption(MEASUREMENTS_CONFIG)) {
+      String measurementFile = cmd.getOptionValue(MEASUREMENTS_CONFIG);
+      String measurementFormat = cmd.getOptionValue(MEASUREMENTS_FORMAT, FilenameUtils.getExtension(measurementFile));
+      switch (measurementFormat) {
+        case YAML:
+          measurementConfig = ConfigurationReader.readMeasurementYaml(measurementFile);
+          break;
+        case JSON:
+        default:
+          measurementConfig = ConfigurationReader.readMeasurementJson(measurementFile);
+      }
+    }
+    return measurementConfig;
   }
 
   public static void main(String[] args) {
 
+    if (args.length > 0 && args[0].equals(Merger.COMMAND)) {
+      Merger.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+
     // Take input file
     final Options options = buildOptions();
 
@@ -155,7 +354,7 @@ public class App {
     }
   }
 
-  private static Options buildOptions() {
+  static Options buildOptions() {
     final Options options = new Options();
 
     Option inputOption = Option.builder("i")
@@ -171,7 +370,7 @@ public class App {
       .argName("inputFormat")
       .required(false)
       .longOpt(INPUT_FORMAT)
-      .desc("Format of the input: json, ndjson (new line delimited JSON), json-array (JSON file that contains an array of objects). Default: ndjson.")
+      .desc("Format of the input: json, ndjson (new line delimited JSON), json-array (JSON file that contains an array of objects), ndxml (new line delimited XML). Default: ndjson.")
       .build();
 
     Option outputOption = Option.builder("o")
@@ -241,7 +440,7 @@ public class App {
       .argName("path")
       .required(false)
       .longOpt(RECORD_ADDRESS)
-      .desc("An XPath or JSONPath expression to separate individual records in an XML or JSON files.")
+      .desc("An XPath or JSONPath expression to separate individual records in an XML or JSON files. A simple element path (e.g. //oai:record) of XML records is read in streaming mode.")
       .build();
 
     options.addOption(inputOption);
@@ -254,33 +453,178 @@ public class App {
     options.addOption(measurementsFormatOption);
     options.addOption(headersOption);
     options.addOption(gzipOption);
+    Option threadsOption = Option.builder("t")
+      .numberOfArgs(1)
+      .argName("number")
+      .required(false)
+      .longOpt(THREADS)
+      .desc("Number of threads measuring the records. Default: 1.")
+      .build();
+
+    Option unorderedOption = Option.builder("u")
+      .numberOfArgs(0)
+      .required(false)
+      .longOpt(UNORDERED_FLAG)
+      .desc("Flag to indicate that the results of parallel measurement can be written in a different order than the input.")
+      .build();
+
+    Option partitionOption = Option.builder("p")
+      .numberOfArgs(1)
+      .argName("i/n")
+      .required(false)
+      .longOpt(PARTITION)
+      .desc("Measure only the i-th partition of the records, when the input is split into n partitions. The partial outputs can be merged with the merge command.")
+      .build();
+
+    Option partitionByOption = Option.builder("b")
+      .numberOfArgs(1)
+      .argName("mode")
+      .required(false)
+      .longOpt(PARTITION_BY)
+      .desc("How to select the records of a partition: ordinal (the position of the record), hash (the hash code of the record). Default: ordinal.")
+      .build();
+
     options.addOption(recordAddressOption);
+    options.addOption(threadsOption);
+    options.addOption(unorderedOption);
+    Option checkpointOption = Option.builder("c")
+      .numberOfArgs(1)
+      .argName("number")
+      .required(false)
+      .longOpt(CHECKPOINT)
+      .desc("Save a checkpoint after every given number of records into the <output>.checkpoint file. It requires an output file.")
+      .build();
+
+    Option filterOption = Option.builder("k")
+      .numberOfArgs(1)
+      .argName("expression")
+      .required(false)
+      .longOpt(FILTER)
+      .desc("Measure only the records accepted by the filter: key=value (a JSON property or a CSV column having the value), regex:<pattern> (on the raw record), xpath:<expression> (on an XML record). It can be repeated.")
+      .build();
+
+    Option resumeOption = Option.builder("e")
+      .numberOfArgs(0)
+      .required(false)
+      .longOpt(RESUME_FLAG)
+      .desc("Flag to indicate that an interrupted assessment should be continued from its last checkpoint.")
+      .build();
+
+    options.addOption(partitionOption);
+    options.addOption(partitionByOption);
+    options.addOption(checkpointOption);
+    options.addOption(resumeOption);
+    options.addOption(filterOption);
     return options;
   }
 
   private void run() {
-    long counter = 0;
-    try {
-      // print header
+    long counter = resumedRecords;
+    try (RecordReader<?> reader = inputReader) {
+      // print header, unless the output is continued
       List<String> header = calculator.getHeader();
-      outputWriter.writeHeader(header);
-
-      while (inputReader.hasNext()) {
-        Map<String, List<MetricResult>> measurement = inputReader.next();
-        outputWriter.writeResult(measurement);
-
-        // update process
-        counter++;
-        if (counter % 50 == 0) {
-          logger.info(String.format("Processed %s records. ", counter));
-        }
+      if (resumedRecords == 0)
+        outputWriter.writeHeader(header);
+
+      if (threads > 1 && !ordered && isPartitionable()) {
+        counter = runPartitioned();
+      } else if (threads > 1) {
+        counter = runParallel(reader);
+      } else {
+        counter = runSequential(reader);
       }
       logger.info(String.format("Assessment completed successfully with %s records. ", counter));
       outputWriter.close();
+      if (checkpoint != null)
+        checkpoint.delete();
     } catch (InvalidJsonException | IOException e) {
       logger.severe(String.format("Assessment failed with %s records. ", counter));
       logger.severe(e.getMessage());
       e.printStackTrace();
     }
   }
+
+  private <R> long runSequential(RecordReader<R> reader) throws IOException {
+    long counter = resumedRecords;
+    while (reader.hasNext()) {
+      R record = reader.nextRecord();
+      Map<String, List<MetricResult>> measurement = reader.measure(calculator, record);
+      outputWriter.writeResult(measurement);
+
+      // update process
+      counter++;
+      logProgress(counter);
+      if (checkpoint != null)
+        checkpoint.update(counter, reader.getPosition(), outputWriter);
+    }
+    return counter;
+  }
+
+  private <R> long runParallel(RecordReader<R> reader) throws IOException {
+    var runner = new ParallelRunner<>(reader, this::createWorkerCalculator, outputWriter, threads)
+      .setOrdered(ordered)
+      .setProgressListener(counter -> logProgress(resumedRecords + counter));
+    if (checkpoint != null)
+      runner.setCheckpointListener(
+        (counter, position) -> checkpoint.update(resumedRecords + counter, position, outputWriter));
+    return resumedRecords + runner.run();
+  }
+
+  /**
+   * Line based plain files can be split into partitions, which are read by the workers
+   * independently. A CSV file having line breaks within quoted cells is read by the
+   * single reader of the file.
+   */
+  private boolean isPartitionable() throws IOException {
+    if (gzip || partitioned || checkpoint != null || !isRegularFile())
+      return false;
+    switch (schema.getFormat()) {
+      case JSON:
+        return inputFormat == null || inputFormat.equals(InputFormat.NDJSON);
+      case XML:
+        return InputFormat.NDXML.equals(inputFormat);
+      case CSV:
+        if (FilePartition.hasQuotedLineBreak(Paths.get(inputFile))) {
+          logger.info("The CSV file has records in more lines, it is not split into partitions.");
+          return false;
+        }
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private long runPartitioned() throws IOException {
+    Path path = Paths.get(inputFile);
+    PartitionedRunner.ReaderFactory readerFactory;
+    long offset = 0;
+    if (schema.getFormat() == Format.CSV) {
+      // the header has already been read by the main reader, and it is shared by the workers
+      offset = FilePartition.lineEnd(path, 0);
+      readerFactory = (partition, worker) -> filter(new MappedCSVRecordReader(partition.openMapped(), worker, false));
+    } else if (schema.getFormat() == Format.XML) {
+      // the prologue has already been read by the main reader
+      offset = prologueEnd;
+      readerFactory = (partition, worker) -> filter(new MappedNDXMLRecordReader(partition.openMapped(), worker, xmlDeclarations));
+    } else {
+      readerFactory = (partition, worker) -> filter(new MappedJSONRecordReader(partition.openMapped(), worker));
+    }
+    return new PartitionedRunner(FilePartition.split(path, threads, offset), readerFactory, this::createWorkerCalculator, outputWriter)
+      .setProgressListener(App::logProgress)
+      .run();
+  }
+
+  /**
+   * Creates a calculator for a worker thread. It shares the plan (the calculators) of
+   * the main calculator, and has only its own per-record state.
+   */
+  private CalculatorFacade createWorkerCalculator() {
+    return new CalculatorFacade(calculator.getPlan());
+  }
+
+  private static void logProgress(long counter) {
+    if (counter % 50 == 0) {
+      logger.info(String.format("Processed %s records. ", counter));
+    }
+  }
 }
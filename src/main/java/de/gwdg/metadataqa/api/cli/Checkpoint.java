@@ -0,0 +1,160 @@
+package de.gwdg.metadataqa.api.cli;
+
+import de.gwdg.metadataqa.api.io.writer.ResultWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+/**
+ * The state of a long running assessment: the number of processed records,
+ * the input position after the last processed record, and the size of the
+ * output at that moment. It is saved periodically into a file next to the
+ * output file (output.csv.checkpoint), so an interrupted run can be resumed
+ * from the last checkpoint.
+ */
+public class Checkpoint {
+
+  public static final String EXTENSION = ".checkpoint";
+
+  private static final String RECORDS = "records";
+  private static final String INPUT_POSITION = "inputPosition";
+  private static final String OUTPUT_POSITION = "outputPosition";
+  private static final String INTERVAL = "interval";
+
+  private final Path outputFile;
+  private final Path file;
+  private long interval;
+  private long records = 0;
+  private long inputPosition = -1;
+  private long outputPosition = 0;
+
+  /**
+   * @param outputFile The output file of the run
+   * @param interval Save the checkpoint after every interval records
+   */
+  public Checkpoint(String outputFile, long interval) {
+    this.outputFile = Paths.get(outputFile);
+    this.file = Paths.get(outputFile + EXTENSION);
+    this.interval = interval;
+  }
+
+  /**
+   * Read the checkpoint of an output file.
+   *
+   * @param outputFile The output file of the run
+   * @return The checkpoint, or null if there is no checkpoint
+   * @throws IOException If the checkpoint could not be read
+   */
+  public static Checkpoint read(String outputFile) throws IOException {
+    var checkpoint = new Checkpoint(outputFile, 0);
+    if (!Files.exists(checkpoint.file))
+      return null;
+
+    var properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(checkpoint.file, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    try {
+      checkpoint.records = Long.parseLong(properties.getProperty(RECORDS));
+      checkpoint.inputPosition = Long.parseLong(properties.getProperty(INPUT_POSITION, "-1"));
+      checkpoint.outputPosition = Long.parseLong(properties.getProperty(OUTPUT_POSITION));
+      checkpoint.interval = Long.parseLong(properties.getProperty(INTERVAL, "0"));
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid checkpoint file: " + checkpoint.file, e);
+    }
+    return checkpoint;
+  }
+
+  /**
+   * Save the checkpoint if the number of records reached the next interval.
+   *
+   * @param records The number of written records
+   * @param inputPosition The input position after the last written record
+   * @param writer The writer of the output
+   * @throws IOException If the checkpoint could not be saved
+   */
+  public void update(long records, long inputPosition, ResultWriter writer) throws IOException {
+    if (interval > 0 && records % interval == 0)
+      save(records, inputPosition, writer);
+  }
+
+  /**
+   * Flush the output, and save the checkpoint. The file is replaced atomically, so a crash
+   * leaves either the old or the new checkpoint.
+   *
+   * @param records The number of written records
+   * @param inputPosition The input position after the last written record, or -1 if it is not known
+   * @param writer The writer of the output
+   * @throws IOException If the checkpoint could not be saved
+   */
+  public void save(long records, long inputPosition, ResultWriter writer) throws IOException {
+    writer.flush();
+    this.records = records;
+    this.inputPosition = inputPosition;
+    this.outputPosition = Files.size(outputFile);
+
+    var properties = new Properties();
+    properties.setProperty(RECORDS, String.valueOf(records));
+    properties.setProperty(INPUT_POSITION, String.valueOf(inputPosition));
+    properties.setProperty(OUTPUT_POSITION, String.valueOf(outputPosition));
+    properties.setProperty(INTERVAL, String.valueOf(interval));
+
+    Path temporary = Paths.get(file + ".tmp");
+    try (Writer output = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+      properties.store(output, "Checkpoint of " + outputFile);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Remove the results written after the checkpoint from the output file, so they are not
+   * duplicated when the run is resumed.
+   *
+   * @throws IOException If the output could not be truncated
+   */
+  public void truncateOutput() throws IOException {
+    try (var channel = FileChannel.open(outputFile, StandardOpenOption.WRITE)) {
+      if (channel.size() > outputPosition)
+        channel.truncate(outputPosition);
+    }
+  }
+
+  /**
+   * Delete the checkpoint file, e.g. when the run has been finished.
+   *
+   * @throws IOException If the file could not be deleted
+   */
+  public void delete() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  public long getRecords() {
+    return records;
+  }
+
+  public long getInputPosition() {
+    return inputPosition;
+  }
+
+  public long getOutputPosition() {
+    return outputPosition;
+  }
+
+  public long getInterval() {
+    return interval;
+  }
+
+  public Checkpoint setInterval(long interval) {
+    this.interval = interval;
+    return this;
+  }
+}
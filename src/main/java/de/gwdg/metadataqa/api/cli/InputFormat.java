@@ -2,7 +2,8 @@ package de.gwdg.metadataqa.api.cli;
 
 public enum InputFormat {
   NDJSON(    "ndjson",     "line delimited JSON"),
-  JSON_ARRAY("json-array", "JSON file that contains an array of objects");
+  JSON_ARRAY("json-array", "JSON file that contains an array of objects"),
+  NDXML(     "ndxml",      "line delimited XML");
 
   private final String abbreviation;
   private final String description;
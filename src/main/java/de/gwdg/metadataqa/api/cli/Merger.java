@@ -0,0 +1,217 @@
+package de.gwdg.metadataqa.api.cli;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.CSVWriter;
+import com.opencsv.RFC4180Parser;
+import com.opencsv.exceptions.CsvValidationException;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Merges the partial outputs of partitioned runs (see the --partition option
+ * of App) into a single output.
+ *
+ * The records are taken from the files in turn, one from each. If the
+ * partitions were selected by ordinal, and the files are given in the order
+ * of the partitions, the merged output has the order of the original input.
+ * The CSV outputs (csv, csvjson) should have the same header, which is written
+ * only once.
+ */
+public class Merger {
+
+  private static final Logger logger = Logger.getLogger(Merger.class.getCanonicalName());
+
+  public static final String COMMAND = "merge";
+
+  private static final String appName = "mqa merge";
+  private static final String appHeader = "Merges the outputs of partitioned mqa runs into a single output.";
+
+  private static final String OUTPUT_FILE = "output";
+  private static final String OUTPUT_FORMAT = "outputFormat";
+
+  private final List<Path> inputs;
+  private final String format;
+
+  /**
+   * @param inputs The partial outputs
+   * @param format The format of the outputs: csv, csvjson, json or ndjson
+   */
+  public Merger(List<Path> inputs, String format) {
+    if (inputs.isEmpty())
+      throw new IllegalArgumentException("There is no file to merge.");
+    this.inputs = inputs;
+    this.format = format;
+  }
+
+  /**
+   * Merge the files.
+   *
+   * @param output The target of the merged output
+   * @return The number of merged records
+   * @throws IOException If a file could not be read, or the CSV headers are different
+   */
+  public long merge(Writer output) throws IOException {
+    switch (format) {
+      case App.CSV:
+      case App.CSVJSON:
+        return mergeCsv(output);
+      case App.JSON:
+      case App.NDJSON:
+      default:
+        return mergeLines(output);
+    }
+  }
+
+  private long mergeLines(Writer output) throws IOException {
+    List<BufferedReader> readers = new ArrayList<>();
+    long counter = 0;
+    try {
+      for (Path input : inputs)
+        readers.add(Files.newBufferedReader(input, StandardCharsets.UTF_8));
+
+      var bufferedOutput = new BufferedWriter(output);
+      boolean hasMore = true;
+      while (hasMore) {
+        hasMore = false;
+        for (BufferedReader reader : readers) {
+          String line = reader.readLine();
+          if (line != null) {
+            bufferedOutput.write(line);
+            bufferedOutput.newLine();
+            counter++;
+            hasMore = true;
+          }
+        }
+      }
+      bufferedOutput.flush();
+    } finally {
+      for (BufferedReader reader : readers)
+        reader.close();
+    }
+    return counter;
+  }
+
+  private long mergeCsv(Writer output) throws IOException {
+    List<CSVReader> readers = new ArrayList<>();
+    long counter = 0;
+    try {
+      // the results are written with double quote escaping, see CSVResultWriter
+      for (Path input : inputs)
+        readers.add(new CSVReaderBuilder(Files.newBufferedReader(input, StandardCharsets.UTF_8))
+          .withCSVParser(new RFC4180Parser())
+          .build());
+
+      var csvWriter = new CSVWriter(output);
+      String[] header = null;
+      for (var i = 0; i < readers.size(); i++) {
+        String[] current = readers.get(i).readNext();
+        if (current == null)
+          continue;
+        if (header == null) {
+          header = current;
+          csvWriter.writeNext(header);
+        } else if (!Arrays.equals(header, current)) {
+          throw new IOException(String.format("The header of %s is different from the header of the other files", inputs.get(i)));
+        }
+      }
+
+      boolean hasMore = true;
+      while (hasMore) {
+        hasMore = false;
+        for (CSVReader reader : readers) {
+          String[] row = reader.readNext();
+          if (row != null) {
+            csvWriter.writeNext(row);
+            counter++;
+            hasMore = true;
+          }
+        }
+      }
+      csvWriter.flush();
+    } catch (CsvValidationException e) {
+      throw new IOException(e);
+    } finally {
+      for (CSVReader reader : readers)
+        reader.close();
+    }
+    return counter;
+  }
+
+  public static void main(String[] args) {
+    final Options options = buildOptions();
+    CommandLineParser parser = new DefaultParser();
+    HelpFormatter formatter = new HelpFormatter();
+
+    try {
+      CommandLine cmd = parser.parse(options, args);
+      List<Path> inputs = new ArrayList<>();
+      for (String input : cmd.getArgList())
+        inputs.add(Paths.get(input));
+      if (inputs.isEmpty())
+        throw new IllegalArgumentException("There is no file to merge.");
+
+      String outputFile = cmd.getOptionValue(OUTPUT_FILE);
+      String format = cmd.getOptionValue(OUTPUT_FORMAT,
+        FilenameUtils.getExtension(outputFile != null ? outputFile : inputs.get(0).toString()));
+
+      long counter;
+      if (outputFile != null) {
+        try (Writer output = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+          counter = new Merger(inputs, format).merge(output);
+        }
+      } else {
+        Writer output = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        counter = new Merger(inputs, format).merge(output);
+        output.flush();
+      }
+      logger.info(String.format("Merged %s records from %d files.", counter, inputs.size()));
+    } catch (Exception ex) {
+      formatter.printHelp(appName + " [options] <file1> ... <fileN>", appHeader, options, "Error: " + ex.getMessage(), false);
+      System.exit(1);
+    }
+  }
+
+  private static Options buildOptions() {
+    final Options options = new Options();
+
+    Option outputOption = Option.builder("o")
+      .numberOfArgs(1)
+      .argName("file")
+      .required(false)
+      .longOpt(OUTPUT_FILE)
+      .desc("Output file.")
+      .build();
+
+    Option outputFormatOption = Option.builder("f")
+      .numberOfArgs(1)
+      .argName("format")
+      .required(false)
+      .longOpt(OUTPUT_FORMAT)
+      .desc("Format of the files: json, ndjson, csv, csvjson. Default: based on file extension.")
+      .build();
+
+    options.addOption(outputOption);
+    options.addOption(outputFormatOption);
+    return options;
+  }
+}
@@ -0,0 +1,291 @@
+package de.gwdg.metadataqa.api.cli;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.reader.RecordReader;
+import de.gwdg.metadataqa.api.io.writer.ResultWriter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Measures the records of a RecordReader on a pool of worker threads.
+ *
+ * The calling thread reads the records, each worker measures them with its
+ * own CalculatorFacade, and a single writer thread passes the results to the
+ * ResultWriter. By default the results are written in the order of the input,
+ * the out of order results wait in a reorder buffer. The number of records
+ * which are read but not yet written is limited by the capacity, so a fast
+ * reader can not fill the heap.
+ *
+ * @param <R> The type of the raw record
+ */
+public class ParallelRunner<R> {
+
+  public static final int DEFAULT_CAPACITY_PER_THREAD = 64;
+
+  private final RecordReader<R> reader;
+  private final Supplier<CalculatorFacade> calculatorSupplier;
+  private final ResultWriter writer;
+  private final int threads;
+  private boolean ordered = true;
+  private int capacity;
+  private LongConsumer progressListener;
+  private CheckpointListener checkpointListener;
+
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  /**
+   * @param reader The source of the records
+   * @param calculatorSupplier Creates a calculator for each worker thread.
+   *   It is called in the thread of the run() method.
+   * @param writer The target of the results
+   * @param threads The number of worker threads
+   */
+  public ParallelRunner(RecordReader<R> reader,
+                        Supplier<CalculatorFacade> calculatorSupplier,
+                        ResultWriter writer,
+                        int threads) {
+    if (threads < 1)
+      throw new IllegalArgumentException("The number of threads should be at least 1, but it is " + threads);
+    this.reader = reader;
+    this.calculatorSupplier = calculatorSupplier;
+    this.writer = writer;
+    this.threads = threads;
+    this.capacity = threads * DEFAULT_CAPACITY_PER_THREAD;
+  }
+
+  /**
+   * Set if the results should be written in the order of the input.
+   * @param ordered If false the results are written as they are ready.
+   * @return This object
+   */
+  public ParallelRunner<R> setOrdered(boolean ordered) {
+    this.ordered = ordered;
+    return this;
+  }
+
+  /**
+   * Set the maximal number of records which are read, but not yet written.
+   * @param capacity The number of records
+   * @return This object
+   */
+  public ParallelRunner<R> setCapacity(int capacity) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("The capacity should be at least 1, but it is " + capacity);
+    this.capacity = capacity;
+    return this;
+  }
+
+  /**
+   * Set a listener which receives the number of written records after each write.
+   * @param progressListener The listener
+   * @return This object
+   */
+  public ParallelRunner<R> setProgressListener(LongConsumer progressListener) {
+    this.progressListener = progressListener;
+    return this;
+  }
+
+  /**
+   * Set a listener which receives the number of written records and the input position after
+   * the last written record. It is called only if the results are written in order.
+   * @param checkpointListener The listener
+   * @return This object
+   */
+  public ParallelRunner<R> setCheckpointListener(CheckpointListener checkpointListener) {
+    this.checkpointListener = checkpointListener;
+    return this;
+  }
+
+  /**
+   * Read, measure and write all the records.
+   * @return The number of written records
+   * @throws IOException If the writer failed
+   */
+  public long run() throws IOException {
+    BlockingQueue<Item<R>> tasks = new LinkedBlockingQueue<>();
+    BlockingQueue<Item<Map<String, List<MetricResult>>>> results = new LinkedBlockingQueue<>();
+    Semaphore inFlight = new Semaphore(capacity);
+
+    List<CalculatorFacade> calculators = new ArrayList<>();
+    for (var i = 0; i < threads; i++)
+      calculators.add(calculatorSupplier.get());
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      futures.add(executor.submit(() -> write(results, inFlight)));
+      for (CalculatorFacade calculator : calculators)
+        futures.add(executor.submit(() -> work(calculator, tasks, results)));
+
+      read(tasks, inFlight);
+
+      for (Future<?> future : futures)
+        future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+      throw new InterruptedIOException("The parallel measurement has been interrupted");
+    } catch (ExecutionException e) {
+      failure.compareAndSet(null, e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+
+    Throwable cause = failure.get();
+    if (cause instanceof IOException)
+      throw (IOException) cause;
+    if (cause instanceof RuntimeException)
+      throw (RuntimeException) cause;
+    if (cause instanceof Error)
+      throw (Error) cause;
+    if (cause != null)
+      throw new IOException(cause);
+
+    return written.get();
+  }
+
+  /**
+   * Get the number of written records.
+   * @return The number of records
+   */
+  public long getWritten() {
+    return written.get();
+  }
+
+  private void read(BlockingQueue<Item<R>> tasks, Semaphore inFlight) throws InterruptedException {
+    long sequence = 0;
+    try {
+      while (failure.get() == null && reader.hasNext()) {
+        if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS))
+          continue;
+        R record = reader.nextRecord();
+        tasks.put(new Item<>(sequence++, record, reader.getPosition()));
+      }
+    } catch (RuntimeException | Error e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      for (var i = 0; i < threads; i++)
+        tasks.put(Item.end());
+    }
+  }
+
+  private void work(CalculatorFacade calculator,
+                    BlockingQueue<Item<R>> tasks,
+                    BlockingQueue<Item<Map<String, List<MetricResult>>>> results) {
+    try {
+      Item<R> task;
+      while (!(task = tasks.take()).isEnd()) {
+        // after a failure the rest of the records are only drained
+        if (failure.get() != null)
+          continue;
+        try {
+          results.put(new Item<>(task.sequence, reader.measure(calculator, task.content), task.position));
+        } catch (RuntimeException | Error e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      results.add(Item.end());
+    }
+  }
+
+  private void write(BlockingQueue<Item<Map<String, List<MetricResult>>>> results, Semaphore inFlight) {
+    Map<Long, Item<Map<String, List<MetricResult>>>> reorderBuffer = new HashMap<>();
+    long next = 0;
+    var finishedWorkers = 0;
+    try {
+      while (finishedWorkers < threads) {
+        Item<Map<String, List<MetricResult>>> result = results.take();
+        if (result.isEnd()) {
+          finishedWorkers++;
+        } else if (!ordered) {
+          write(result, inFlight);
+        } else {
+          reorderBuffer.put(result.sequence, result);
+          Item<Map<String, List<MetricResult>>> measurement;
+          while ((measurement = reorderBuffer.remove(next)) != null) {
+            write(measurement, inFlight);
+            next++;
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void write(Item<Map<String, List<MetricResult>>> measurement, Semaphore inFlight) {
+    try {
+      if (failure.get() == null) {
+        writer.writeResult(measurement.content);
+        long counter = written.incrementAndGet();
+        if (progressListener != null)
+          progressListener.accept(counter);
+        if (checkpointListener != null && ordered)
+          checkpointListener.written(counter, measurement.position);
+      }
+    } catch (IOException | RuntimeException | Error e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      inFlight.release();
+    }
+  }
+
+  /**
+   * Receives the state of the output after a record has been written.
+   */
+  @FunctionalInterface
+  public interface CheckpointListener {
+    /**
+     * @param counter The number of written records
+     * @param inputPosition The input position after the last written record, or -1 if it is not known
+     * @throws IOException If the checkpoint could not be saved
+     */
+    void written(long counter, long inputPosition) throws IOException;
+  }
+
+  /**
+   * A record or a result with its sequence number and its byte position in the input.
+   */
+  private static class Item<T> {
+    private static final long END = -1;
+    private final long sequence;
+    private final T content;
+    private final long position;
+
+    Item(long sequence, T content, long position) {
+      this.sequence = sequence;
+      this.content = content;
+      this.position = position;
+    }
+
+    static <T> Item<T> end() {
+      return new Item<>(END, null, -1);
+    }
+
+    boolean isEnd() {
+      return sequence == END;
+    }
+  }
+}
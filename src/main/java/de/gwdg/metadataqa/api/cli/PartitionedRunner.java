@@ -0,0 +1,151 @@
+package de.gwdg.metadataqa.api.cli;
+
+import com.opencsv.exceptions.CsvValidationException;
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.reader.FilePartition;
+import de.gwdg.metadataqa.api.io.reader.RecordReader;
+import de.gwdg.metadataqa.api.io.writer.ResultWriter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Measures the partitions of a file in parallel. Each partition is read and
+ * measured by its own worker thread with its own CalculatorFacade, so there
+ * is no single reader thread. The results are written as they are ready, so
+ * their order is not the order of the input.
+ */
+public class PartitionedRunner {
+
+  /**
+   * Creates a record reader for a partition.
+   */
+  @FunctionalInterface
+  public interface ReaderFactory {
+    RecordReader<?> create(FilePartition partition, CalculatorFacade calculator) throws IOException, CsvValidationException;
+  }
+
+  private final List<FilePartition> partitions;
+  private final ReaderFactory readerFactory;
+  private final Supplier<CalculatorFacade> calculatorSupplier;
+  private final ResultWriter writer;
+  private LongConsumer progressListener;
+
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  /**
+   * @param partitions The partitions of the input file
+   * @param readerFactory Creates the reader of a partition
+   * @param calculatorSupplier Creates a calculator for each partition.
+   *   It is called in the thread of the run() method.
+   * @param writer The target of the results
+   */
+  public PartitionedRunner(List<FilePartition> partitions,
+                           ReaderFactory readerFactory,
+                           Supplier<CalculatorFacade> calculatorSupplier,
+                           ResultWriter writer) {
+    this.partitions = partitions;
+    this.readerFactory = readerFactory;
+    this.calculatorSupplier = calculatorSupplier;
+    this.writer = writer;
+  }
+
+  /**
+   * Set a listener which receives the number of written records after each write.
+   * @param progressListener The listener
+   * @return This object
+   */
+  public PartitionedRunner setProgressListener(LongConsumer progressListener) {
+    this.progressListener = progressListener;
+    return this;
+  }
+
+  /**
+   * Read, measure and write all the records of all partitions.
+   * @return The number of written records
+   * @throws IOException If reading or writing failed
+   */
+  public long run() throws IOException {
+    if (partitions.isEmpty())
+      return 0;
+
+    List<CalculatorFacade> calculators = new ArrayList<>();
+    for (var i = 0; i < partitions.size(); i++)
+      calculators.add(calculatorSupplier.get());
+
+    ExecutorService executor = Executors.newFixedThreadPool(partitions.size());
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (var i = 0; i < partitions.size(); i++) {
+        FilePartition partition = partitions.get(i);
+        CalculatorFacade calculator = calculators.get(i);
+        futures.add(executor.submit(() -> {
+          work(partition, calculator);
+          return null;
+        }));
+      }
+
+      for (Future<?> future : futures)
+        future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+      throw new InterruptedIOException("The partitioned measurement has been interrupted");
+    } catch (ExecutionException e) {
+      failure.compareAndSet(null, e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+
+    Throwable cause = failure.get();
+    if (cause instanceof IOException)
+      throw (IOException) cause;
+    if (cause instanceof RuntimeException)
+      throw (RuntimeException) cause;
+    if (cause instanceof Error)
+      throw (Error) cause;
+    if (cause != null)
+      throw new IOException(cause);
+
+    return written.get();
+  }
+
+  /**
+   * Get the number of written records.
+   * @return The number of records
+   */
+  public long getWritten() {
+    return written.get();
+  }
+
+  private void work(FilePartition partition, CalculatorFacade calculator) throws IOException, CsvValidationException {
+    try (RecordReader<?> reader = readerFactory.create(partition, calculator)) {
+      // after a failure in an other partition the rest is skipped
+      while (failure.get() == null && reader.hasNext()) {
+        Map<String, List<MetricResult>> result = reader.next();
+        synchronized (writer) {
+          writer.writeResult(result);
+          long counter = written.incrementAndGet();
+          if (progressListener != null)
+            progressListener.accept(counter);
+        }
+      }
+    } catch (IOException | CsvValidationException | RuntimeException | Error e) {
+      failure.compareAndSet(null, e);
+      throw e;
+    }
+  }
+}
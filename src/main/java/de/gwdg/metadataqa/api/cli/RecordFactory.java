@@ -5,8 +5,11 @@ import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
 import de.gwdg.metadataqa.api.io.reader.CSVRecordReader;
 import de.gwdg.metadataqa.api.io.reader.JSONArrayRecordReader;
 import de.gwdg.metadataqa.api.io.reader.JSONRecordReader;
+import de.gwdg.metadataqa.api.io.reader.NDXMLRecordReader;
+import de.gwdg.metadataqa.api.io.reader.ParallelGzipInputStream;
 import de.gwdg.metadataqa.api.io.reader.RecordReader;
 import de.gwdg.metadataqa.api.io.reader.XMLRecordReader;
+import de.gwdg.metadataqa.api.io.reader.XMLStreamRecordReader;
 import de.gwdg.metadataqa.api.io.writer.CSVJSONResultWriter;
 import de.gwdg.metadataqa.api.io.writer.CSVResultWriter;
 import de.gwdg.metadataqa.api.io.writer.JSONResultWriter;
@@ -15,14 +18,12 @@ import de.gwdg.metadataqa.api.schema.Schema;
 import org.apache.commons.io.FilenameUtils;
 
 import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.zip.GZIPInputStream;
 
 public class RecordFactory {
 
@@ -40,12 +41,42 @@ public class RecordFactory {
                                              boolean gzip,
                                              InputFormat inputFormat)
       throws CsvValidationException, IOException {
+    return getRecordReader(inputFile, calculator, gzip, inputFormat, null);
+  }
+
+  /**
+   * @param recordAddress The path of the records within an XML or JSON file. A simple element
+   *                      path (e.g. //oai:record) is read with a streaming XML reader, other
+   *                      XPath expressions with the XMLRecordReader, which parses the whole file.
+   */
+  public static RecordReader getRecordReader(String inputFile,
+                                             CalculatorFacade calculator,
+                                             boolean gzip,
+                                             InputFormat inputFormat,
+                                             String recordAddress)
+      throws CsvValidationException, IOException {
+    return getRecordReader(inputFile, calculator, gzip, inputFormat, recordAddress, ParallelGzipInputStream.DEFAULT_THREADS);
+  }
+
+  /**
+   * @param recordAddress The path of the records within an XML or JSON file. A simple element
+   *                      path (e.g. //oai:record) is read with a streaming XML reader, other
+   *                      XPath expressions with the XMLRecordReader, which parses the whole file.
+   * @param threads The number of threads decompressing a gzipped (BGZF) input
+   */
+  public static RecordReader getRecordReader(String inputFile,
+                                             CalculatorFacade calculator,
+                                             boolean gzip,
+                                             InputFormat inputFormat,
+                                             String recordAddress,
+                                             int threads)
+      throws CsvValidationException, IOException {
     final Schema schema = calculator.getSchema();
 
     BufferedReader inputReader = null;
     if (gzip) {
-      FileInputStream fis = new FileInputStream(inputFile);
-      GZIPInputStream gis = new GZIPInputStream(fis);
+      // decompressed in background threads, ahead of the parsing
+      var gis = new ParallelGzipInputStream(Paths.get(inputFile), threads);
       InputStreamReader inputStreamReader = new InputStreamReader(gis, StandardCharsets.UTF_8);
       inputReader = new BufferedReader(inputStreamReader);
     } else {
@@ -61,7 +92,14 @@ public class RecordFactory {
           return new JSONArrayRecordReader(inputReader, calculator);
         }
       case XML:
-        return new XMLRecordReader(inputReader, calculator);
+        if (inputFormat != null && inputFormat.equals(InputFormat.NDXML))
+          return new NDXMLRecordReader(inputReader, calculator);
+        else if (recordAddress == null)
+          return new XMLRecordReader(inputReader, calculator);
+        else if (XMLStreamRecordReader.isSupported(recordAddress))
+          return new XMLStreamRecordReader(inputReader, calculator).setRecordAddress(recordAddress);
+        else
+          return new XMLRecordReader(inputReader, calculator).setRecordAddress(recordAddress);
       case CSV:
       default:
         return new CSVRecordReader(inputReader, calculator);
@@ -69,6 +107,10 @@ public class RecordFactory {
   }
 
   public static ResultWriter getResultWriter(String outputFormat, String outputFile) throws IOException {
+    return getResultWriter(outputFormat, outputFile, false);
+  }
+
+  public static ResultWriter getResultWriter(String outputFormat, String outputFile, boolean append) throws IOException {
 
     if (outputFormat == null) {
       outputFormat = FilenameUtils.getExtension(outputFile);
@@ -77,12 +119,12 @@ public class RecordFactory {
     switch (outputFormat) {
       case App.JSON:
       case App.NDJSON:
-        return new JSONResultWriter(outputFile);
+        return new JSONResultWriter(outputFile, append);
       case App.CSVJSON:
-        return new CSVJSONResultWriter(outputFile);
+        return new CSVJSONResultWriter(outputFile, append);
       case App.CSV:
       default:
-        return new CSVResultWriter(outputFile);
+        return new CSVResultWriter(outputFile, append);
     }
   }
 
@@ -2,6 +2,7 @@ package de.gwdg.metadataqa.api.configuration;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
 import de.gwdg.metadataqa.api.rule.RuleCheckingOutputType;
 import de.gwdg.metadataqa.api.uniqueness.SolrClient;
 import de.gwdg.metadataqa.api.uniqueness.SolrConfiguration;
@@ -121,6 +122,16 @@ public class MeasurementConfiguration implements Serializable {
   protected SolrClient solrClient;
 
   private RuleCheckingOutputType ruleCheckingOutputType = RuleCheckingOutputType.SCORE;
+
+  /**
+   * The JSON parser of the JSON records (default: json-smart).
+   */
+  private JsonProviderType jsonProviderType = JsonProviderType.SMART;
+
+  /**
+   * Parse only the parts of the JSON records which are reached by the paths of the schema.
+   */
+  private boolean jsonProjectionEnabled = false;
   private Map<String, Object> annottaionColumns;
 
   private boolean generatedIdentifierEnabled = false;
@@ -621,6 +632,32 @@ public class MeasurementConfiguration implements Serializable {
     return this;
   }
 
+  public JsonProviderType getJsonProviderType() {
+    return jsonProviderType;
+  }
+
+  public void setJsonProviderType(JsonProviderType jsonProviderType) {
+    this.jsonProviderType = jsonProviderType;
+  }
+
+  public MeasurementConfiguration withJsonProviderType(JsonProviderType jsonProviderType) {
+    this.jsonProviderType = jsonProviderType;
+    return this;
+  }
+
+  public boolean isJsonProjectionEnabled() {
+    return jsonProjectionEnabled;
+  }
+
+  public MeasurementConfiguration enableJsonProjection(boolean flag) {
+    this.jsonProjectionEnabled = flag;
+    return this;
+  }
+
+  public void setJsonProjectionEnabled(boolean jsonProjectionEnabled) {
+    this.jsonProjectionEnabled = jsonProjectionEnabled;
+  }
+
   public String getSolrPath() {
     return solrPath;
   }
@@ -3,6 +3,7 @@ package de.gwdg.metadataqa.api.interfaces;
 import de.gwdg.metadataqa.api.model.selector.Selector;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,6 +19,20 @@ public interface Calculator extends Serializable {
    */
   List<MetricResult> measure(Selector cache);
 
+  /**
+   * Measure a batch of records. The default implementation measures them one by one,
+   * calculators which query remote services can override it to combine the requests.
+   * @param caches
+   *   The JSON cache objects of the records
+   * @return The results in the order of the records
+   */
+  default List<List<MetricResult>> measureBatch(List<Selector> caches) {
+    List<List<MetricResult>> results = new ArrayList<>(caches.size());
+    for (Selector cache : caches)
+      results.add(measure(cache));
+    return results;
+  }
+
   /**
    * Get header (the name of metrics) as a list.
    * @return The list of metrics.
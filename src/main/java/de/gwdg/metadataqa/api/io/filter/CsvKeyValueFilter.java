@@ -0,0 +1,73 @@
+package de.gwdg.metadataqa.api.io.filter;
+
+import de.gwdg.metadataqa.api.util.CsvReader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Accepts the CSV records having the value in a column. A line which does not
+ * contain the value at all is rejected before it is split into cells.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class CsvKeyValueFilter extends RecordFilter {
+
+  private final String column;
+  private final String value;
+  private final byte[] valueBytes;
+  private final CsvReader csvReader;
+
+  /**
+   * @param column The name of the column
+   * @param value The value of the column
+   * @param csvReader The CSV reader having the header of the records
+   */
+  public CsvKeyValueFilter(String column, String value, CsvReader csvReader) {
+    if (csvReader == null || csvReader.getHeader() == null)
+      throw new IllegalArgumentException("The CSV filter requires the header of the records");
+    if (csvReader.indexOf(column) == -1)
+      throw new IllegalArgumentException(String.format("The CSV header does not have the column '%s'", column));
+    this.column = column;
+    this.value = value;
+    this.valueBytes = value.getBytes(StandardCharsets.UTF_8);
+    this.csvReader = csvReader;
+  }
+
+  @Override
+  public boolean accepts(String record) {
+    if (record == null || (!value.contains("\"") && !record.contains(value)))
+      return false;
+    return accepts(parseCsv(record));
+  }
+
+  @Override
+  public boolean accepts(ByteBuffer record) {
+    if (record == null || (!value.contains("\"") && !contains(record, valueBytes)))
+      return false;
+    return accepts(parseCsv(decode(record)));
+  }
+
+  @Override
+  public boolean accepts(List<String> cells) {
+    int index = csvReader.indexOf(column);
+    return index < cells.size() && value.equals(cells.get(index));
+  }
+
+  private static boolean contains(ByteBuffer record, byte[] bytes) {
+    if (bytes.length == 0)
+      return true;
+    int last = record.limit() - bytes.length;
+    for (int i = record.position(); i <= last; i++) {
+      if (record.get(i) != bytes[0])
+        continue;
+      var j = 1;
+      while (j < bytes.length && record.get(i + j) == bytes[j])
+        j++;
+      if (j == bytes.length)
+        return true;
+    }
+    return false;
+  }
+}
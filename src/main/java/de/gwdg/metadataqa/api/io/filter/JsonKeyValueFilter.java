@@ -0,0 +1,198 @@
+package de.gwdg.metadataqa.api.io.filter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Accepts the JSON records having a property with the value at any level of the
+ * record. The value of the property is either a scalar, compared with its JSON text
+ * (like 12, true or null) or a string compared with its content, or an array of
+ * those, which is accepted if any of its elements is equal to the value.
+ *
+ * The records are not parsed: the bytes are scanned for the property name followed
+ * by a colon, and only the value after it is read. A quoted name followed by a colon
+ * can not be a part of a string, since the quotes inside the strings are escaped.
+ * The property name is compared with its JSON text, so a name written with escape
+ * sequences in the record is not found.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class JsonKeyValueFilter extends RecordFilter {
+
+  private final String key;
+  private final String value;
+  private final byte[] keyBytes;
+  private final byte[] valueBytes;
+
+  public JsonKeyValueFilter(String key, String value) {
+    this.key = key;
+    this.value = value;
+    this.keyBytes = ('"' + key.replace("\\", "\\\\").replace("\"", "\\\"") + '"').getBytes(StandardCharsets.UTF_8);
+    this.valueBytes = value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public boolean accepts(String record) {
+    return record != null && accepts(ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Override
+  public boolean accepts(ByteBuffer record) {
+    if (record == null)
+      return false;
+    int limit = record.limit();
+    int last = limit - keyBytes.length;
+    byte first = keyBytes[0];
+    for (int i = record.position(); i <= last; i++) {
+      if (record.get(i) == first && startsWith(record, i, keyBytes) && !isEscaped(record, record.position(), i)) {
+        int position = skipWhitespace(record, i + keyBytes.length, limit);
+        if (position < limit && record.get(position) == ':'
+            && hasValue(record, skipWhitespace(record, position + 1, limit), limit))
+          return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Is the value at the position equal to the value of the filter, or is it an array
+   * containing it? The nested objects and arrays are not read here, their properties
+   * are found by the scan of the record.
+   */
+  private boolean hasValue(ByteBuffer record, int position, int limit) {
+    if (position >= limit)
+      return false;
+    if (record.get(position) != '[')
+      return isEqual(record, position, limit);
+
+    position = skipWhitespace(record, position + 1, limit);
+    while (position < limit) {
+      byte c = record.get(position);
+      if (c == ']' || c == '[' || c == '{')
+        return false;
+      if (isEqual(record, position, limit))
+        return true;
+      position = skipWhitespace(record, skipScalar(record, position, limit), limit);
+      if (position >= limit || record.get(position) != ',')
+        return false;
+      position = skipWhitespace(record, position + 1, limit);
+    }
+    return false;
+  }
+
+  /**
+   * Is the scalar at the position equal to the value of the filter?
+   */
+  private boolean isEqual(ByteBuffer record, int position, int limit) {
+    int end = skipScalar(record, position, limit);
+    if (record.get(position) != '"')
+      return end - position == valueBytes.length && startsWith(record, position, valueBytes);
+
+    int start = position + 1;
+    int length = end - 1 - start;
+    for (int i = start; i < end - 1; i++)
+      if (record.get(i) == '\\')
+        return value.equals(unescape(record, start, end - 1));
+    return length == valueBytes.length && startsWith(record, start, valueBytes);
+  }
+
+  /**
+   * The position after a string or an other scalar.
+   */
+  private static int skipScalar(ByteBuffer record, int position, int limit) {
+    if (record.get(position) == '"') {
+      for (int i = position + 1; i < limit; i++) {
+        byte c = record.get(i);
+        if (c == '\\')
+          i++;
+        else if (c == '"')
+          return i + 1;
+      }
+      return limit;
+    }
+    int i = position;
+    while (i < limit && !isDelimiter(record.get(i)))
+      i++;
+    return i;
+  }
+
+  private static boolean isDelimiter(byte c) {
+    return c == ',' || c == ']' || c == '}' || c == ' ' || c == '\t' || c == '\r' || c == '\n';
+  }
+
+  private static int skipWhitespace(ByteBuffer record, int position, int limit) {
+    while (position < limit) {
+      byte c = record.get(position);
+      if (c != ' ' && c != '\t' && c != '\r' && c != '\n')
+        break;
+      position++;
+    }
+    return position;
+  }
+
+  private static boolean startsWith(ByteBuffer record, int position, byte[] bytes) {
+    if (position + bytes.length > record.limit())
+      return false;
+    for (var i = 0; i < bytes.length; i++)
+      if (record.get(position + i) != bytes[i])
+        return false;
+    return true;
+  }
+
+  /**
+   * Is the quote at the position preceded by an odd number of backslashes?
+   */
+  private static boolean isEscaped(ByteBuffer record, int start, int position) {
+    var backslashes = 0;
+    for (int i = position - 1; i >= start && record.get(i) == '\\'; i--)
+      backslashes++;
+    return backslashes % 2 == 1;
+  }
+
+  /**
+   * The content of a JSON string with escape sequences, or null if it is invalid.
+   */
+  private static String unescape(ByteBuffer record, int start, int end) {
+    var bytes = new byte[end - start];
+    for (int i = start; i < end; i++)
+      bytes[i - start] = record.get(i);
+    String text = new String(bytes, StandardCharsets.UTF_8);
+
+    var unescaped = new StringBuilder(text.length());
+    for (var i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c != '\\' || i + 1 == text.length()) {
+        unescaped.append(c);
+        continue;
+      }
+      char escaped = text.charAt(++i);
+      switch (escaped) {
+        case 'b': unescaped.append('\b'); break;
+        case 'f': unescaped.append('\f'); break;
+        case 'n': unescaped.append('\n'); break;
+        case 'r': unescaped.append('\r'); break;
+        case 't': unescaped.append('\t'); break;
+        case 'u':
+          if (i + 4 >= text.length())
+            return null;
+          try {
+            unescaped.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+          } catch (NumberFormatException e) {
+            return null;
+          }
+          i += 4;
+          break;
+        default: unescaped.append(escaped);
+      }
+    }
+    return unescaped.toString();
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public String getValue() {
+    return value;
+  }
+}
@@ -0,0 +1,195 @@
+package de.gwdg.metadataqa.api.io.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.opencsv.CSVParser;
+import com.opencsv.CSVWriter;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.CsvReader;
+import de.gwdg.metadataqa.api.xml.NamespaceDeclarations;
+import org.w3c.dom.Node;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A predicate on the records, evaluated before the records are measured. The
+ * records not accepted by the filter are skipped.
+ *
+ * The filters are created from expressions:
+ * <ul>
+ *   <li><code>key=value</code>: a JSON record has a property with the value (or an
+ *   array containing the value) at any level, or the column of a CSV record has the value</li>
+ *   <li><code>regex:pattern</code>: the raw record contains a match of the regular expression</li>
+ *   <li><code>xpath:expression</code>: the XPath expression is true on an XML record</li>
+ * </ul>
+ *
+ * The record shapes a filter does not handle itself are converted to text: the
+ * cells of CSV records are joined to a CSV line, XML nodes are serialized, and
+ * JSON nodes are written as JSON. The filters are thread-safe.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public abstract class RecordFilter {
+
+  public static final String REGEX_PREFIX = "regex:";
+  public static final String XPATH_PREFIX = "xpath:";
+
+  /**
+   * Create a filter from an expression.
+   *
+   * @param expression The filter expression
+   * @param schema The schema of the records
+   * @param csvReader The CSV reader with the header of CSV records, null for other formats
+   * @return The filter
+   * @throws IllegalArgumentException If the expression is invalid, or it can not be applied to the format
+   */
+  public static RecordFilter create(String expression, Schema schema, CsvReader csvReader) {
+    return create(expression, schema, csvReader, null);
+  }
+
+  /**
+   * Create a filter from an expression.
+   *
+   * @param expression The filter expression
+   * @param schema The schema of the records
+   * @param csvReader The CSV reader with the header of CSV records, null for other formats
+   * @param xmlDeclarations The namespace declarations added to XML records (see NDXML input), or null
+   *                        for the namespaces of the schema
+   * @return The filter
+   * @throws IllegalArgumentException If the expression is invalid, or it can not be applied to the format
+   */
+  public static RecordFilter create(String expression,
+                                    Schema schema,
+                                    CsvReader csvReader,
+                                    NamespaceDeclarations xmlDeclarations) {
+    Format format = schema.getFormat();
+    validate(expression, format);
+    if (expression.startsWith(REGEX_PREFIX))
+      return new RegexFilter(expression.substring(REGEX_PREFIX.length()));
+
+    if (expression.startsWith(XPATH_PREFIX))
+      return new XPathFilter(
+        expression.substring(XPATH_PREFIX.length()),
+        xmlDeclarations == null ? NamespaceDeclarations.ofSchema(schema.getNamespaces()) : xmlDeclarations
+      );
+
+    int separator = expression.indexOf('=');
+    String key = expression.substring(0, separator);
+    String value = expression.substring(separator + 1);
+    if (format == Format.CSV)
+      return new CsvKeyValueFilter(key, value, csvReader);
+    return new JsonKeyValueFilter(key, value);
+  }
+
+  /**
+   * Check whether an expression is a filter which can be applied to the records of a format.
+   * The column of a CSV filter is checked only when the filter is created, since the header
+   * is known only after the input is opened.
+   *
+   * @param expression The filter expression
+   * @param format The format of the records
+   * @throws IllegalArgumentException If the expression is invalid, or it can not be applied to the format
+   */
+  public static void validate(String expression, Format format) {
+    if (expression == null || expression.isEmpty())
+      throw new IllegalArgumentException("The filter expression should not be empty");
+
+    if (expression.startsWith(REGEX_PREFIX)) {
+      RegexFilter.compile(expression.substring(REGEX_PREFIX.length()));
+    } else if (expression.startsWith(XPATH_PREFIX)) {
+      if (format != Format.XML)
+        throw new IllegalArgumentException("XPath filters can be applied only to XML records: " + expression);
+    } else if (expression.indexOf('=') < 1) {
+      throw new IllegalArgumentException(String.format(
+        "The filter should be in the form of key=value, regex:pattern or xpath:expression, but it is '%s'",
+        expression));
+    } else if (format != Format.CSV && format != Format.JSON) {
+      throw new IllegalArgumentException(String.format(
+        "Key/value filters can not be applied to %s records, use an xpath: filter", format));
+    }
+  }
+
+  /**
+   * @param record A record as string (a JSON or XML record, or a CSV line)
+   * @return true if the record is accepted
+   */
+  public abstract boolean accepts(String record);
+
+  /**
+   * @param record A record as UTF-8 bytes, the remaining bytes of the buffer
+   * @return true if the record is accepted
+   */
+  public boolean accepts(ByteBuffer record) {
+    return accepts(decode(record));
+  }
+
+  /**
+   * @param cells The cells of a CSV record, checked as a CSV line by default
+   * @return true if the record is accepted
+   */
+  public boolean accepts(List<String> cells) {
+    var line = new StringWriter();
+    try (var writer = new CSVWriter(line, CSVWriter.DEFAULT_SEPARATOR, CSVWriter.DEFAULT_QUOTE_CHARACTER,
+                                    CSVWriter.DEFAULT_ESCAPE_CHARACTER, "")) {
+      writer.writeNext(cells.toArray(new String[0]), false);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return accepts(line.toString());
+  }
+
+  /**
+   * @param record A parsed XML record, checked as serialized XML by default
+   * @return true if the record is accepted
+   */
+  public boolean accepts(Node record) {
+    if (record == null)
+      return false;
+    var xml = new StringWriter();
+    try {
+      Transformer transformer = TransformerFactory.newInstance().newTransformer();
+      transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+      transformer.transform(new DOMSource(record), new StreamResult(xml));
+    } catch (TransformerException e) {
+      throw new IllegalStateException(e);
+    }
+    return accepts(xml.toString());
+  }
+
+  /**
+   * @param record A parsed JSON record, checked as JSON text by default
+   * @return true if the record is accepted
+   */
+  public boolean accepts(JsonNode record) {
+    return record != null && accepts(record.toString());
+  }
+
+  /**
+   * Split a CSV line into cells.
+   */
+  protected static List<String> parseCsv(String line) {
+    try {
+      // the parser keeps the state of multi-line cells, so each line gets its own one
+      return Arrays.asList(new CSVParser().parseLine(line));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  protected static String decode(ByteBuffer record) {
+    var bytes = new byte[record.remaining()];
+    record.duplicate().get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
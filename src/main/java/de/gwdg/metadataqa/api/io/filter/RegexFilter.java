@@ -0,0 +1,38 @@
+package de.gwdg.metadataqa.api.io.filter;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Accepts the records containing a match of a regular expression. It is searched in
+ * the raw record, without parsing it. The records which have already been parsed are
+ * checked as text: a CSV line of the cells, the serialized XML or the JSON text (see
+ * RecordFilter), so the same expression can be used whichever way the input is read.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class RegexFilter extends RecordFilter {
+
+  private final Pattern pattern;
+
+  public RegexFilter(String regex) {
+    this.pattern = compile(regex);
+  }
+
+  static Pattern compile(String regex) {
+    try {
+      return Pattern.compile(regex);
+    } catch (PatternSyntaxException e) {
+      throw new IllegalArgumentException(String.format("Invalid regular expression '%s': %s", regex, e.getMessage()), e);
+    }
+  }
+
+  @Override
+  public boolean accepts(String record) {
+    return record != null && pattern.matcher(record).find();
+  }
+
+  public Pattern getPattern() {
+    return pattern;
+  }
+}
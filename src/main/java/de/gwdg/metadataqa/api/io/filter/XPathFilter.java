@@ -0,0 +1,71 @@
+package de.gwdg.metadataqa.api.io.filter;
+
+import de.gwdg.metadataqa.api.json.CompiledPath;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.xml.NamespaceDeclarations;
+import de.gwdg.metadataqa.api.xml.XPathWrapper;
+import org.w3c.dom.Node;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Accepts the XML records on which an XPath expression is true (evaluated as
+ * boolean(), so a path is true if it selects any node). The records given as
+ * strings or bytes are parsed, but the records not accepted are not measured.
+ * The missing namespace declarations are added to them before parsing, as the
+ * NDXML readers do.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class XPathFilter extends RecordFilter {
+
+  private final CompiledPath expression;
+  private final Map<String, String> namespaces = new HashMap<>();
+  private final NamespaceDeclarations declarations;
+
+  public XPathFilter(String expression, Map<String, String> namespaces) {
+    this(expression, NamespaceDeclarations.ofSchema(namespaces));
+  }
+
+  /**
+   * @param expression The XPath expression
+   * @param declarations The namespaces of the expression, declared in the records if they are missing
+   */
+  public XPathFilter(String expression, NamespaceDeclarations declarations) {
+    // the default namespace has no prefix in XPath
+    declarations.getNamespaces().forEach((prefix, uri) -> {
+      if (!prefix.isEmpty())
+        this.namespaces.put(prefix, uri);
+    });
+    this.expression = CompiledPath.compile(expression, Format.XML, namespaces);
+    this.declarations = declarations;
+  }
+
+  @Override
+  public boolean accepts(String record) {
+    return accepts(new XPathWrapper(declarations.apply(record), namespaces).getDocument());
+  }
+
+  @Override
+  public boolean accepts(ByteBuffer record) {
+    ByteBuffer declared = declarations.apply(record);
+    var bytes = new byte[declared.remaining()];
+    declared.duplicate().get(bytes);
+    return accepts(new XPathWrapper(bytes, namespaces).getDocument());
+  }
+
+  @Override
+  public boolean accepts(Node record) {
+    if (record == null)
+      return false;
+    try {
+      return (Boolean) expression.getXPathExpression().evaluate(record, XPathConstants.BOOLEAN);
+    } catch (XPathExpressionException e) {
+      throw new IllegalStateException(String.format("The XPath filter '%s' failed: %s", expression, e.getMessage()), e);
+    }
+  }
+}
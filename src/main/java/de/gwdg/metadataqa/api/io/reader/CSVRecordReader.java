@@ -13,23 +13,36 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-public class CSVRecordReader extends RecordReader {
+public class CSVRecordReader extends RecordReader<List<String>> {
 
   private final CSVReader csvReader;
   private final Iterator<String[]> csvIterator;
 
   public CSVRecordReader(BufferedReader inputReader, CalculatorFacade calculator) throws IOException, CsvValidationException {
+    this(inputReader, calculator, true);
+  }
+
+  /**
+   * @param inputReader The source of the CSV lines
+   * @param calculator The calculator
+   * @param readHeader If false the input has no header line, and the header should already
+   *                   be set in the CsvReader of the calculator (e.g. when reading a part of a file).
+   */
+  public CSVRecordReader(BufferedReader inputReader, CalculatorFacade calculator, boolean readHeader)
+      throws IOException, CsvValidationException {
     super(inputReader, calculator);
 
     this.csvReader = new CSVReader(this.inputReader);
     this.csvIterator = csvReader.iterator();
 
-    // read header
-    final List<String> header = Arrays.asList(csvIterator.next());
+    if (readHeader) {
+      // read header
+      final List<String> header = Arrays.asList(csvIterator.next());
 
-    // right now it is a CSV source, so we set how to parse it
-    this.calculator.setCsvReader(
-      new CsvReader().setHeader(header));
+      // right now it is a CSV source, so we set how to parse it
+      this.calculator.setCsvReader(
+        new CsvReader().setHeader(header));
+    }
   }
 
   @Override
@@ -38,9 +51,12 @@ public class CSVRecordReader extends RecordReader {
   }
 
   @Override
-  public Map<String, List<MetricResult>> next() {
-    String[] record = csvIterator.next();
-    final List<String> strings = Arrays.asList(record);
-    return calculator.measureAsMetricResult(strings);
+  public List<String> nextRecord() {
+    return Arrays.asList(csvIterator.next());
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, List<String> record) {
+    return calculator.measureAsMetricResult(record);
   }
 }
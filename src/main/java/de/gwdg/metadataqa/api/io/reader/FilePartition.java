@@ -0,0 +1,186 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A byte range of a line based (NDJSON, CSV) file. The ranges start and end at
+ * line boundaries, so they can be read independently from each other.
+ *
+ * The partitioning works only if each record is in a single line, so it
+ * can not be used for CSV files having line breaks within quoted cells
+ * (see hasQuotedLineBreak()).
+ */
+public class FilePartition {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Path path;
+  private final long start;
+  private final long end;
+
+  public FilePartition(Path path, long start, long end) {
+    this.path = path;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Split a file into partitions of about the same size.
+   *
+   * @param path The file
+   * @param partitions The number of partitions
+   * @return The non-empty partitions in the order of the file
+   * @throws IOException If the file could not be read
+   */
+  public static List<FilePartition> split(Path path, int partitions) throws IOException {
+    return split(path, partitions, 0);
+  }
+
+  /**
+   * Split a file into partitions of about the same size, starting from an offset, e.g.
+   * after the header line of a CSV file.
+   *
+   * @param path The file
+   * @param partitions The number of partitions
+   * @param offset The position where the first partition starts. It should be a line boundary.
+   * @return The non-empty partitions in the order of the file
+   * @throws IOException If the file could not be read
+   */
+  public static List<FilePartition> split(Path path, int partitions, long offset) throws IOException {
+    if (partitions < 1)
+      throw new IllegalArgumentException("The number of partitions should be at least 1, but it is " + partitions);
+
+    List<FilePartition> result = new ArrayList<>();
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long start = Math.min(offset, size);
+      for (var i = 1; i <= partitions; i++) {
+        long end = (i == partitions)
+          ? size
+          : Math.max(start, findLineEnd(channel, offset + (size - offset) * i / partitions - 1));
+        if (end > start)
+          result.add(new FilePartition(path, start, end));
+        start = end;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Find the beginning of the next line.
+   *
+   * @param path The file
+   * @param position The position to start the search from
+   * @return The position after the first line break at or after the position, or the size
+   *   of the file if there is no more line break
+   * @throws IOException If the file could not be read
+   */
+  public static long lineEnd(Path path, long position) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return findLineEnd(channel, position);
+    }
+  }
+
+  /**
+   * Check whether a CSV file has a line break within a quoted cell, i.e. a record spanning
+   * more lines. The quotes are counted in the whole file, an escaped quote ("") does not
+   * change whether the position is within a quoted cell.
+   *
+   * @param path The CSV file
+   * @return true if a quoted cell contains a line break
+   * @throws IOException If the file could not be read
+   */
+  public static boolean hasQuotedLineBreak(Path path) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      var quoted = false;
+      long current = 0;
+      int read;
+      while ((read = channel.read(buffer, current)) > 0) {
+        for (var i = 0; i < read; i++) {
+          byte c = buffer.get(i);
+          if (c == '"')
+            quoted = !quoted;
+          else if (c == '\n' && quoted)
+            return true;
+        }
+        current += read;
+        buffer.clear();
+      }
+    }
+    return false;
+  }
+
+  private static long findLineEnd(FileChannel channel, long position) throws IOException {
+    var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    long current = Math.max(position, 0);
+    int read;
+    while ((read = channel.read(buffer, current)) > 0) {
+      for (var i = 0; i < read; i++)
+        if (buffer.get(i) == '\n')
+          return current + i + 1;
+      current += read;
+      buffer.clear();
+    }
+    return channel.size();
+  }
+
+  /**
+   * Open a reader for the lines of this partition.
+   *
+   * @return The reader
+   * @throws IOException If the file could not be opened
+   */
+  public BufferedReader open() throws IOException {
+    var channel = FileChannel.open(path, StandardOpenOption.READ);
+    channel.position(start);
+    var input = BoundedInputStream.builder()
+      .setInputStream(Channels.newInputStream(channel))
+      .setMaxCount(end - start)
+      .get();
+    return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Open a memory mapped reader for the lines of this partition.
+   *
+   * @return The reader
+   * @throws IOException If the file could not be opened
+   */
+  public MappedLineReader openMapped() throws IOException {
+    return new MappedLineReader(path, start, end);
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public long getStart() {
+    return start;
+  }
+
+  public long getEnd() {
+    return end;
+  }
+
+  @Override
+  public String toString() {
+    return "FilePartition{" +
+      "path=" + path +
+      ", start=" + start +
+      ", end=" + end +
+      '}';
+  }
+}
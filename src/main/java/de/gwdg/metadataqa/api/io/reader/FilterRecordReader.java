@@ -0,0 +1,124 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.filter.RecordFilter;
+import org.w3c.dom.Node;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads only those records of an other reader, which are accepted by all the filters.
+ * The filters are evaluated on the raw records, so the skipped records are not
+ * parsed and measured.
+ *
+ * @param <R> The type of the raw record
+ */
+public class FilterRecordReader<R> extends RecordReader<R> {
+
+  private final RecordReader<R> reader;
+  private final List<RecordFilter> filters;
+
+  private R nextRecord;
+  private long nextPosition = -1;
+  private boolean hasNextRecord = false;
+  private long position = -1;
+  private long skipped = 0;
+
+  /**
+   * @param reader The reader of all records
+   * @param filters The filters, a record should be accepted by all of them
+   */
+  public FilterRecordReader(RecordReader<R> reader, List<RecordFilter> filters) {
+    super(reader.inputReader, reader.calculator);
+    this.reader = reader;
+    this.filters = filters;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!hasNextRecord && reader.hasNext()) {
+      R record = reader.nextRecord();
+      if (isAccepted(record)) {
+        nextRecord = record;
+        nextPosition = reader.getPosition();
+        hasNextRecord = true;
+      } else {
+        skipped++;
+      }
+    }
+    return hasNextRecord;
+  }
+
+  @Override
+  public R nextRecord() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    R record = nextRecord;
+    position = nextPosition;
+    nextRecord = null;
+    hasNextRecord = false;
+    return record;
+  }
+
+  /**
+   * The position in the input after the last record returned by nextRecord(). The skipped
+   * records after it are read again when the reader continues from this position.
+   *
+   * @return The byte position, or -1 if it is not known
+   */
+  @Override
+  public long getPosition() {
+    return position;
+  }
+
+  /**
+   * The number of records not accepted by the filters so far.
+   *
+   * @return The number of skipped records
+   */
+  public long getSkipped() {
+    return skipped;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  @Override
+  public int getContentHash(R record) {
+    return reader.getContentHash(record);
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, R record) {
+    return reader.measure(calculator, record);
+  }
+
+  private boolean isAccepted(R record) {
+    for (RecordFilter filter : filters)
+      if (!isAccepted(filter, record))
+        return false;
+    return true;
+  }
+
+  private static boolean isAccepted(RecordFilter filter, Object record) {
+    if (record instanceof ByteBuffer)
+      return filter.accepts((ByteBuffer) record);
+    if (record instanceof String)
+      return filter.accepts((String) record);
+    if (record instanceof List)
+      return filter.accepts((List<String>) record);
+    if (record instanceof Node)
+      return filter.accepts((Node) record);
+    if (record instanceof JsonNode)
+      return filter.accepts((JsonNode) record);
+    return record != null && filter.accepts(record.toString());
+  }
+}
@@ -1,38 +1,70 @@
 package de.gwdg.metadataqa.api.io.reader;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
-import net.minidev.json.JSONArray;
-import net.minidev.json.JSONValue;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
-public class JSONArrayRecordReader extends RecordReader {
+/**
+ * Reads the elements of a JSON array as records. The array is read with a
+ * streaming parser, so only the current record is kept in memory. The records
+ * are the parsed elements, which are measured without serializing and parsing
+ * them again.
+ */
+public class JSONArrayRecordReader extends RecordReader<JsonNode> {
 
-  private JSONArray records;
-  private int current = 0;
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final JsonParser parser;
+  private JsonToken nextToken;
+  private boolean isNextTokenRead = false;
 
   public JSONArrayRecordReader(BufferedReader inputReader, CalculatorFacade calculator) throws IOException {
     super(inputReader, calculator);
-    StringBuilder jsonBuilder = new StringBuilder();
-    String line;
-    while ((line = inputReader.readLine()) != null) {
-      jsonBuilder.append(line).append("\n");
-    }
-    records = (JSONArray) JSONValue.parse(jsonBuilder.toString());
+    parser = objectMapper.getFactory().createParser(inputReader);
+    JsonToken first = parser.nextToken();
+    if (first != null && first != JsonToken.START_ARRAY)
+      throw new IOException("The input is not a JSON array, it starts with " + first);
   }
 
   @Override
   public boolean hasNext() {
-    return records.size() > (current + 1);
+    if (!isNextTokenRead) {
+      try {
+        nextToken = parser.nextToken();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+      isNextTokenRead = true;
+    }
+    return nextToken != null && nextToken != JsonToken.END_ARRAY;
+  }
+
+  /**
+   * Reads the tree of the next element of the array from the token stream.
+   */
+  @Override
+  public JsonNode nextRecord() {
+    if (!hasNext())
+      throw new NoSuchElementException("No more records");
+    isNextTokenRead = false;
+    try {
+      return objectMapper.readTree(parser);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
   }
 
   @Override
-  public Map<String, List<MetricResult>> next() {
-    String record = records.get(current++).toString();
-    return this.calculator.measureAsMetricResult(record);
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, JsonNode record) {
+    return calculator.measureAsMetricResult(record);
   }
 }
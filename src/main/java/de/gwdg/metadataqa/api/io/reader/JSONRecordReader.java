@@ -2,29 +2,32 @@ package de.gwdg.metadataqa.api.io.reader;
 
 import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
-import org.apache.commons.io.LineIterator;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
-public class JSONRecordReader extends RecordReader {
-  private final LineIterator jsonIterator;
+/**
+ * Reads line delimited JSON (NDJSON) records.
+ */
+public class JSONRecordReader extends LineRecordReader {
 
   public JSONRecordReader(BufferedReader inputReader, CalculatorFacade calculator) throws IOException {
     super(inputReader, calculator);
-    jsonIterator = new LineIterator(this.inputReader);
   }
 
-  @Override
-  public boolean hasNext() {
-    return jsonIterator.hasNext();
+  /**
+   * @param inputReader The source of the records
+   * @param calculator The calculator
+   * @param startPosition The byte position of the input reader within the file
+   */
+  public JSONRecordReader(BufferedReader inputReader, CalculatorFacade calculator, long startPosition) throws IOException {
+    super(inputReader, calculator, startPosition);
   }
 
   @Override
-  public Map<String, List<MetricResult>> next() {
-    String record = jsonIterator.next();
-    return this.calculator.measureAsMetricResult(record);
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, String record) {
+    return calculator.measureAsMetricResult(record);
   }
 }
@@ -0,0 +1,134 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the lines of the input as records, the subclasses measure them in their format.
+ *
+ * The reader keeps track of the UTF-8 byte position of the records in the
+ * input, so a run can be continued from a given record by opening the file at
+ * the position (see getPosition()).
+ */
+public abstract class LineRecordReader extends RecordReader<String> {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int bufferPosition = 0;
+  private int bufferLength = 0;
+
+  private String nextLine;
+  private boolean isNextLineRead = false;
+  private long position;
+  private long nextPosition;
+
+  protected LineRecordReader(BufferedReader inputReader, CalculatorFacade calculator) throws IOException {
+    this(inputReader, calculator, 0);
+  }
+
+  /**
+   * @param inputReader The source of the records
+   * @param calculator The calculator
+   * @param startPosition The byte position of the input reader within the file
+   */
+  protected LineRecordReader(BufferedReader inputReader, CalculatorFacade calculator, long startPosition) throws IOException {
+    super(inputReader, calculator);
+    this.position = startPosition;
+    this.nextPosition = startPosition;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!isNextLineRead) {
+      try {
+        nextLine = readLine();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+      isNextLineRead = true;
+    }
+    return nextLine != null;
+  }
+
+  @Override
+  public String nextRecord() {
+    if (!hasNext())
+      throw new NoSuchElementException("No more lines");
+    String line = nextLine;
+    nextLine = null;
+    isNextLineRead = false;
+    position = nextPosition;
+    return line;
+  }
+
+  /**
+   * The byte position after the last record returned by nextRecord(). It is exact if
+   * the input is valid UTF-8.
+   *
+   * @return The position
+   */
+  @Override
+  public long getPosition() {
+    return position;
+  }
+
+  /**
+   * Reads the next line, and counts its length in UTF-8 bytes including the line
+   * terminator (\n, \r or \r\n).
+   */
+  private String readLine() throws IOException {
+    StringBuilder line = null;
+    long bytes = 0;
+    while (true) {
+      if (bufferPosition >= bufferLength && !fill()) {
+        nextPosition += bytes;
+        return line == null ? null : line.toString();
+      }
+      if (line == null)
+        line = new StringBuilder();
+
+      int start = bufferPosition;
+      while (bufferPosition < bufferLength) {
+        char c = buffer[bufferPosition];
+        if (c == '\n' || c == '\r') {
+          line.append(buffer, start, bufferPosition - start);
+          bufferPosition++;
+          bytes++;
+          if (c == '\r' && (bufferPosition < bufferLength || fill()) && buffer[bufferPosition] == '\n') {
+            bufferPosition++;
+            bytes++;
+          }
+          nextPosition += bytes;
+          return line.toString();
+        }
+        bytes += utf8Length(c);
+        bufferPosition++;
+      }
+      line.append(buffer, start, bufferPosition - start);
+    }
+  }
+
+  private boolean fill() throws IOException {
+    bufferLength = inputReader.read(buffer, 0, BUFFER_SIZE);
+    bufferPosition = 0;
+    if (bufferLength < 0)
+      bufferLength = 0;
+    return bufferLength > 0;
+  }
+
+  private static int utf8Length(char c) {
+    if (c < 0x80)
+      return 1;
+    if (c < 0x800)
+      return 2;
+    if (Character.isHighSurrogate(c))
+      return 4;
+    if (Character.isLowSurrogate(c))
+      return 0;
+    return 3;
+  }
+}
@@ -0,0 +1,93 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import com.opencsv.CSVParser;
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.util.CsvReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads CSV records from a memory mapped file. The records are the byte slices
+ * of the lines, they are decoded and split into cells only when they are
+ * measured.
+ *
+ * Each record should be in a single line, so it can not be used for CSV files
+ * having line breaks within quoted cells.
+ */
+public class MappedCSVRecordReader extends RecordReader<ByteBuffer> {
+
+  private final MappedLineReader lineReader;
+  private ByteBuffer nextLine;
+  private boolean isNextLineRead = false;
+
+  /**
+   * @param lineReader The source of the CSV lines
+   * @param calculator The calculator
+   * @param readHeader If false the input has no header line, and the header should already
+   *                   be set in the CsvReader of the calculator (e.g. when reading a part of a file).
+   */
+  public MappedCSVRecordReader(MappedLineReader lineReader, CalculatorFacade calculator, boolean readHeader)
+      throws IOException {
+    super(null, calculator);
+    this.lineReader = lineReader;
+
+    if (readHeader) {
+      ByteBuffer headerLine = lineReader.nextLine();
+      if (headerLine != null)
+        this.calculator.setCsvReader(new CsvReader().setHeader(parse(headerLine)));
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!isNextLineRead) {
+      try {
+        nextLine = lineReader.nextLine();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+      isNextLineRead = true;
+    }
+    return nextLine != null;
+  }
+
+  @Override
+  public ByteBuffer nextRecord() {
+    if (!hasNext())
+      throw new NoSuchElementException("No more lines");
+    ByteBuffer line = nextLine;
+    nextLine = null;
+    isNextLineRead = false;
+    return line;
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, ByteBuffer record) {
+    try {
+      return calculator.measureAsMetricResult(parse(record));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public int getContentHash(ByteBuffer record) {
+    return record == null ? 0 : MappedLineRecordReader.decode(record).hashCode();
+  }
+
+  @Override
+  public void close() throws IOException {
+    lineReader.close();
+  }
+
+  private static List<String> parse(ByteBuffer line) throws IOException {
+    // the parser keeps the state of multi-line cells, so each line gets its own one
+    return Arrays.asList(new CSVParser().parseLine(MappedLineRecordReader.decode(line)));
+  }
+}
@@ -0,0 +1,25 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads line delimited JSON (NDJSON) records from a memory mapped file. The
+ * records are the byte slices of the lines, they are handed over to the JSON
+ * parser as bytes when they are measured.
+ */
+public class MappedJSONRecordReader extends MappedLineRecordReader {
+
+  public MappedJSONRecordReader(MappedLineReader lineReader, CalculatorFacade calculator) {
+    super(lineReader, calculator);
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, ByteBuffer record) {
+    return calculator.measureAsMetricResult(record);
+  }
+}
@@ -0,0 +1,130 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the lines of a file (or a byte range of it) from memory mapped windows.
+ * The line boundaries are found in the bytes, and the lines are returned as
+ * slices of the mapped window, without copying or decoding them.
+ *
+ * A window is at most 2 GB, larger files are mapped window by window, so the
+ * size of the file is not limited. The lines are separated by \n or \r\n.
+ */
+public class MappedLineReader implements Closeable {
+
+  /**
+   * The default size of a mapped window: 64 MB.
+   */
+  public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long end;
+  private final int windowSize;
+
+  private MappedByteBuffer window;
+  private long windowStart;
+  private long position;
+
+  public MappedLineReader(Path path) throws IOException {
+    this(path, 0, -1, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * @param path The file
+   * @param start The position of the first line
+   * @param end The end of the range, or -1 for the end of the file
+   */
+  public MappedLineReader(Path path, long start, long end) throws IOException {
+    this(path, start, end, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * @param path The file
+   * @param start The position of the first line
+   * @param end The end of the range, or -1 for the end of the file
+   * @param windowSize The size of a mapped window in bytes
+   */
+  public MappedLineReader(Path path, long start, long end, int windowSize) throws IOException {
+    if (windowSize < 1)
+      throw new IllegalArgumentException("The window size should be positive, but it is " + windowSize);
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.end = end < 0 ? channel.size() : Math.min(end, channel.size());
+    this.windowSize = windowSize;
+    this.position = start;
+  }
+
+  /**
+   * Read the next line.
+   *
+   * @return A read-only slice of the mapped file containing the line without the line
+   *   terminator, or null at the end of the range
+   * @throws IOException If the file could not be mapped, or a line is longer than 2 GB
+   */
+  public ByteBuffer nextLine() throws IOException {
+    if (position >= end)
+      return null;
+
+    int size = windowSize;
+    while (true) {
+      if (window == null || position < windowStart || position >= windowStart + window.limit())
+        map(position, size);
+
+      int from = (int) (position - windowStart);
+      int limit = window.limit();
+      for (int i = from; i < limit; i++) {
+        if (window.get(i) == '\n') {
+          position = windowStart + i + 1;
+          return slice(from, (i > from && window.get(i - 1) == '\r') ? i - 1 : i);
+        }
+      }
+
+      if (windowStart + limit >= end) {
+        // the last line has no line terminator
+        position = end;
+        return slice(from, (limit > from && window.get(limit - 1) == '\r') ? limit - 1 : limit);
+      }
+
+      // the line continues after the window: map a larger window from the start of the line
+      if (limit - from == Integer.MAX_VALUE)
+        throw new IOException("A line is longer than 2 GB at position " + position);
+      size = (int) Math.min(Integer.MAX_VALUE, Math.max((long) size, 2L * (limit - from)));
+      map(position, size);
+    }
+  }
+
+  /**
+   * The position after the last line returned by nextLine().
+   *
+   * @return The byte position in the file
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  public long getEnd() {
+    return end;
+  }
+
+  @Override
+  public void close() throws IOException {
+    window = null;
+    channel.close();
+  }
+
+  private void map(long start, int size) throws IOException {
+    windowStart = start;
+    window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size, end - start));
+  }
+
+  private ByteBuffer slice(int from, int to) {
+    ByteBuffer line = window.duplicate();
+    line.position(from).limit(to);
+    return line.slice().asReadOnlyBuffer();
+  }
+}
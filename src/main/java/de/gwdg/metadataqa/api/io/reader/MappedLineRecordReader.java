@@ -0,0 +1,78 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the lines of a memory mapped file as records. The records are the byte
+ * slices of the lines, the subclasses measure them in their format, so in a
+ * parallel run the reader thread only finds the line boundaries, and the records
+ * are not decoded into strings.
+ */
+public abstract class MappedLineRecordReader extends RecordReader<ByteBuffer> {
+
+  private final MappedLineReader lineReader;
+  private ByteBuffer nextLine;
+  private boolean isNextLineRead = false;
+  private long position;
+
+  protected MappedLineRecordReader(MappedLineReader lineReader, CalculatorFacade calculator) {
+    super(null, calculator);
+    this.lineReader = lineReader;
+    this.position = lineReader.getPosition();
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!isNextLineRead) {
+      try {
+        nextLine = lineReader.nextLine();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+      isNextLineRead = true;
+    }
+    return nextLine != null;
+  }
+
+  @Override
+  public ByteBuffer nextRecord() {
+    if (!hasNext())
+      throw new NoSuchElementException("No more lines");
+    ByteBuffer line = nextLine;
+    nextLine = null;
+    isNextLineRead = false;
+    position = lineReader.getPosition();
+    return line;
+  }
+
+  /**
+   * The byte position after the last record returned by nextRecord().
+   *
+   * @return The position
+   */
+  @Override
+  public long getPosition() {
+    return position;
+  }
+
+  @Override
+  public int getContentHash(ByteBuffer record) {
+    return record == null ? 0 : decode(record).hashCode();
+  }
+
+  @Override
+  public void close() throws IOException {
+    lineReader.close();
+  }
+
+  static String decode(ByteBuffer record) {
+    var bytes = new byte[record.remaining()];
+    record.duplicate().get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,37 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.xml.NamespaceDeclarations;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads line delimited XML (NDXML) records from a memory mapped file. The records are
+ * the byte slices of the lines, and the XML parser reads them as bytes. The missing
+ * namespace declarations are added to the bytes of the records. The prologue line should be skipped by the caller (see FilePartition.lineEnd()),
+ * and its namespaces passed with the declarations.
+ */
+public class MappedNDXMLRecordReader extends MappedLineRecordReader {
+
+  private final NamespaceDeclarations declarations;
+
+  /**
+   * @param lineReader The source of the records
+   * @param calculator The calculator
+   * @param declarations The namespace declarations added to the records
+   */
+  public MappedNDXMLRecordReader(MappedLineReader lineReader,
+                                 CalculatorFacade calculator,
+                                 NamespaceDeclarations declarations) {
+    super(lineReader, calculator);
+    this.declarations = declarations;
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, ByteBuffer record) {
+    return calculator.measureAsMetricResult(declarations.apply(record));
+  }
+}
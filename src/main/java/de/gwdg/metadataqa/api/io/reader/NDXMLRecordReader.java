@@ -0,0 +1,62 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.xml.NamespaceDeclarations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads line delimited XML (NDXML) records: each line is an XML record. The records
+ * may use the namespace prefixes of the schema, and the prefixes declared in a prologue
+ * line (see NamespaceDeclarations) without declaring them, the missing declarations
+ * are added to the records when they are measured.
+ */
+public class NDXMLRecordReader extends LineRecordReader {
+
+  private NamespaceDeclarations declarations;
+  private String firstLine;
+
+  public NDXMLRecordReader(BufferedReader inputReader, CalculatorFacade calculator) throws IOException {
+    super(inputReader, calculator);
+    declarations = NamespaceDeclarations.ofSchema(calculator.getSchema().getNamespaces());
+    if (super.hasNext()) {
+      String line = super.nextRecord();
+      Map<String, String> prologue = NamespaceDeclarations.parsePrologue(line);
+      if (prologue == null)
+        firstLine = line;
+      else
+        declarations = declarations.with(prologue);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    return firstLine != null || super.hasNext();
+  }
+
+  @Override
+  public String nextRecord() {
+    if (firstLine != null) {
+      String line = firstLine;
+      firstLine = null;
+      return line;
+    }
+    if (!super.hasNext())
+      throw new NoSuchElementException("No more lines");
+    return super.nextRecord();
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, String record) {
+    return calculator.measureAsMetricResult(declarations.apply(record));
+  }
+
+  public NamespaceDeclarations getDeclarations() {
+    return declarations;
+  }
+}
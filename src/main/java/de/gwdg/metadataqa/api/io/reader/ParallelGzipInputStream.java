@@ -0,0 +1,297 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses a gzip file in background threads, ahead of the reader.
+ *
+ * If the file is a BGZF file (a series of gzip members with the sizes of the
+ * compressed blocks in their headers, created e.g. by bgzip), the members are
+ * decompressed in parallel and joined in their original order. Otherwise
+ * (including other multi-member files, where the member boundaries could not
+ * be found without decompressing) a single thread decompresses the file into a
+ * bounded queue of chunks.
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+  /**
+   * The default number of threads decompressing BGZF members.
+   */
+  public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+  private static final int CHUNK_SIZE = 256 * 1024;
+  private static final int QUEUE_SIZE = 16;
+  private static final int BGZF_HEADER_SIZE = 18;
+  private static final byte[] END = new byte[0];
+  private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+  private final InputStream input;
+  private final ExecutorService executor;
+  private final Deque<Future<byte[]>> members = new ArrayDeque<>();
+  private final int threads;
+  private final boolean isBgzf;
+  private final BlockingQueue<Object> chunks;
+
+  private byte[] current = END;
+  private int currentPosition = 0;
+  private boolean isInputFinished = false;
+  private boolean isClosed = false;
+
+  public ParallelGzipInputStream(Path path) throws IOException {
+    this(path, DEFAULT_THREADS);
+  }
+
+  /**
+   * @param path The gzip file
+   * @param threads The number of threads decompressing the members of a BGZF file
+   */
+  public ParallelGzipInputStream(Path path, int threads) throws IOException {
+    this.threads = Math.max(1, threads);
+    this.input = new BufferedInputStream(Files.newInputStream(path), CHUNK_SIZE);
+    this.isBgzf = isBgzf(input);
+    if (isBgzf) {
+      executor = Executors.newFixedThreadPool(this.threads, ParallelGzipInputStream::createThread);
+      chunks = null;
+    } else {
+      executor = Executors.newSingleThreadExecutor(ParallelGzipInputStream::createThread);
+      chunks = new ArrayBlockingQueue<>(QUEUE_SIZE);
+      executor.submit(this::decompressStream);
+    }
+  }
+
+  /**
+   * The number of threads decompressing the file.
+   * @return The number of threads, 1 if it is not a BGZF file
+   */
+  public int getThreads() {
+    return isBgzf ? threads : 1;
+  }
+
+  /**
+   * Whether the file is decompressed in parallel.
+   * @return true if it is a BGZF file
+   */
+  public boolean isBgzf() {
+    return isBgzf;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureAvailable())
+      return -1;
+    return current[currentPosition++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (length == 0)
+      return 0;
+    if (!ensureAvailable())
+      return -1;
+    int count = Math.min(length, current.length - currentPosition);
+    System.arraycopy(current, currentPosition, buffer, offset, count);
+    currentPosition += count;
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return current.length - currentPosition;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (isClosed)
+      return;
+    isClosed = true;
+    executor.shutdownNow();
+    input.close();
+  }
+
+  private boolean ensureAvailable() throws IOException {
+    if (isClosed)
+      throw new IOException("The stream is closed");
+    while (currentPosition >= current.length) {
+      byte[] next = isBgzf ? nextMember() : nextChunk();
+      if (next == null)
+        return false;
+      current = next;
+      currentPosition = 0;
+    }
+    return true;
+  }
+
+  /**
+   * Submit the next compressed members, and wait for the first one.
+   */
+  private byte[] nextMember() throws IOException {
+    while (!isInputFinished && members.size() < threads * 2) {
+      byte[] block = readBlock();
+      if (block == null)
+        isInputFinished = true;
+      else
+        members.add(executor.submit(() -> inflate(block)));
+    }
+    Future<byte[]> member = members.poll();
+    if (member == null)
+      return null;
+    try {
+      return member.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("The decompression has been interrupted");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private byte[] nextChunk() throws IOException {
+    if (isInputFinished)
+      return null;
+    Object chunk;
+    try {
+      chunk = chunks.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("The decompression has been interrupted");
+    }
+    if (chunk instanceof IOException)
+      throw new IOException((IOException) chunk);
+    if (chunk == END) {
+      isInputFinished = true;
+      return null;
+    }
+    return (byte[]) chunk;
+  }
+
+  /**
+   * Decompress the whole file in the background thread.
+   */
+  private Void decompressStream() throws InterruptedException {
+    try (var gzip = new GZIPInputStream(input, CHUNK_SIZE)) {
+      while (true) {
+        byte[] chunk = gzip.readNBytes(CHUNK_SIZE);
+        if (chunk.length == 0)
+          break;
+        chunks.put(chunk);
+      }
+      chunks.put(END);
+    } catch (IOException e) {
+      chunks.put(e);
+    }
+    return null;
+  }
+
+  /**
+   * Read the next compressed member of a BGZF file. The BSIZE field of the header
+   * contains the size of the member minus one.
+   */
+  private byte[] readBlock() throws IOException {
+    var header = input.readNBytes(BGZF_HEADER_SIZE);
+    if (header.length == 0)
+      return null;
+    if (header.length < BGZF_HEADER_SIZE || !isBgzfHeader(header))
+      throw new IOException("Invalid BGZF member header");
+    int size = ((header[16] & 0xff) | ((header[17] & 0xff) << 8)) + 1;
+    if (size < BGZF_HEADER_SIZE + 8)
+      throw new IOException("Invalid BGZF member size: " + size);
+    var block = Arrays.copyOf(header, size);
+    try {
+      new DataInputStream(input).readFully(block, BGZF_HEADER_SIZE, size - BGZF_HEADER_SIZE);
+    } catch (EOFException e) {
+      throw new IOException("Truncated BGZF member", e);
+    }
+    return block;
+  }
+
+  /**
+   * Decompress a BGZF member: the deflate data is between the header and the 8 bytes of
+   * the CRC32 and the uncompressed size.
+   */
+  private static byte[] inflate(byte[] block) throws IOException {
+    int extraLength = (block[10] & 0xff) | ((block[11] & 0xff) << 8);
+    int dataStart = 12 + extraLength;
+    int trailer = block.length - 8;
+    long expectedCrc = readInt(block, trailer);
+    int size = (int) readInt(block, trailer + 4);
+
+    Inflater inflater = inflaters.get();
+    inflater.reset();
+    try {
+      inflater.setInput(block, dataStart, trailer - dataStart);
+      var output = new byte[size];
+      int inflated = 0;
+      while (inflated < size && !inflater.finished()) {
+        int count = inflater.inflate(output, inflated, size - inflated);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+          break;
+        inflated += count;
+      }
+      if (inflated != size)
+        throw new IOException("Invalid BGZF member: the uncompressed size is not " + size);
+      var crc = new CRC32();
+      crc.update(output, 0, size);
+      if (crc.getValue() != expectedCrc)
+        throw new IOException("Invalid BGZF member: CRC32 mismatch");
+      return output;
+    } catch (DataFormatException e) {
+      throw new IOException("Invalid BGZF member", e);
+    }
+  }
+
+  private static boolean isBgzf(InputStream input) throws IOException {
+    input.mark(BGZF_HEADER_SIZE);
+    var header = input.readNBytes(BGZF_HEADER_SIZE);
+    input.reset();
+    return header.length == BGZF_HEADER_SIZE && isBgzfHeader(header);
+  }
+
+  /**
+   * A gzip header with only the FEXTRA flag, and a BC subfield of 2 bytes.
+   */
+  private static boolean isBgzfHeader(byte[] header) {
+    return (header[0] & 0xff) == 0x1f
+      && (header[1] & 0xff) == 0x8b
+      && header[2] == 8
+      && header[3] == 4
+      && header[12] == 'B'
+      && header[13] == 'C'
+      && header[14] == 2
+      && header[15] == 0;
+  }
+
+  private static long readInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xffL)
+      | ((bytes[offset + 1] & 0xffL) << 8)
+      | ((bytes[offset + 2] & 0xffL) << 16)
+      | ((bytes[offset + 3] & 0xffL) << 24);
+  }
+
+  private static Thread createThread(Runnable runnable) {
+    var thread = new Thread(runnable, "gzip-decompressor");
+    thread.setDaemon(true);
+    return thread;
+  }
+}
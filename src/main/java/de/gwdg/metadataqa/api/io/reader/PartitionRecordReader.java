@@ -0,0 +1,118 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads only those records of an other reader, which belong to a partition.
+ * The records are selected either by their position in the input, or by the
+ * hash code of their content. Both are deterministic, so the partitions of
+ * the same input processed by different processes do not overlap, and
+ * together they contain every record.
+ *
+ * @param <R> The type of the raw record
+ */
+public class PartitionRecordReader<R> extends RecordReader<R> {
+
+  public enum Mode {
+    /**
+     * The n-th record belongs to the partition (n modulo count).
+     */
+    ORDINAL("ordinal"),
+    /**
+     * The record belongs to the partition (hash code of the record modulo count).
+     */
+    HASH("hash");
+
+    private final String code;
+
+    Mode(String code) {
+      this.code = code;
+    }
+
+    public static Mode byCode(String code) {
+      for (Mode mode : values())
+        if (mode.code.equals(code))
+          return mode;
+      return null;
+    }
+
+    public String getCode() {
+      return code;
+    }
+  }
+
+  private final RecordReader<R> reader;
+  private final int index;
+  private final int count;
+  private final Mode mode;
+
+  private long ordinal = 0;
+  private R nextRecord;
+  private boolean hasNextRecord = false;
+
+  /**
+   * @param reader The reader of all records
+   * @param index The index of the partition, from 1 to count
+   * @param count The number of partitions
+   * @param mode How to select the records of the partition
+   */
+  public PartitionRecordReader(RecordReader<R> reader, int index, int count, Mode mode) {
+    super(reader.inputReader, reader.calculator);
+    if (count < 1)
+      throw new IllegalArgumentException("The number of partitions should be at least 1, but it is " + count);
+    if (index < 1 || index > count)
+      throw new IllegalArgumentException(String.format("The partition should be between 1 and %d, but it is %d", count, index));
+    this.reader = reader;
+    this.index = index;
+    this.count = count;
+    this.mode = mode;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!hasNextRecord && reader.hasNext()) {
+      R record = reader.nextRecord();
+      if (isSelected(record, ordinal++)) {
+        nextRecord = record;
+        hasNextRecord = true;
+      }
+    }
+    return hasNextRecord;
+  }
+
+  @Override
+  public R nextRecord() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    R record = nextRecord;
+    nextRecord = null;
+    hasNextRecord = false;
+    return record;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  @Override
+  public int getContentHash(R record) {
+    return reader.getContentHash(record);
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, R record) {
+    return reader.measure(calculator, record);
+  }
+
+  private boolean isSelected(R record, long position) {
+    long key = (mode == Mode.HASH) ? reader.getContentHash(record) : position;
+    return Math.floorMod(key, (long) count) == index - 1;
+  }
+}
@@ -4,11 +4,22 @@ import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-public abstract class RecordReader implements Iterator<Map<String, List<MetricResult>>> {
+/**
+ * Reads records from an input, and measures them.
+ *
+ * Reading and measuring are separated: nextRecord() returns the raw record,
+ * measure() runs the calculator on it. This way the records could be read
+ * in one thread and measured in others.
+ *
+ * @param <R> The type of the raw record
+ */
+public abstract class RecordReader<R> implements Iterator<Map<String, List<MetricResult>>>, Closeable {
 
   protected final BufferedReader inputReader;
   protected final CalculatorFacade calculator;
@@ -17,4 +28,52 @@ public abstract class RecordReader implements Iterator<Map<String, List<MetricRe
     this.inputReader = inputReader;
     this.calculator = calculator;
   }
+
+  /**
+   * Reads the next record without measuring it.
+   * @return The raw record
+   */
+  public abstract R nextRecord();
+
+  /**
+   * Measures a record with the given calculator.
+   * @param calculator The calculator to use
+   * @param record A record returned by nextRecord()
+   * @return The result of the measurement
+   */
+  public abstract Map<String, List<MetricResult>> measure(CalculatorFacade calculator, R record);
+
+  /**
+   * The position in the input after the last record returned by nextRecord(), if the reader
+   * keeps track of it.
+   * @return The byte position, or -1 if it is not known
+   */
+  public long getPosition() {
+    return -1;
+  }
+
+  /**
+   * A hash code of the content of the record, which is the same for equal records, also
+   * in different processes.
+   * @param record A record returned by nextRecord()
+   * @return The hash code
+   */
+  public int getContentHash(R record) {
+    return record == null ? 0 : record.hashCode();
+  }
+
+  /**
+   * Close the input of the reader.
+   * @throws IOException If the input could not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if (inputReader != null)
+      inputReader.close();
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> next() {
+    return measure(calculator, nextRecord());
+  }
 }
@@ -0,0 +1,147 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.calculator.MeasurementPlan;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator over the measurement results of a RecordReader.
+ *
+ * The reader itself can only be read sequentially, so trySplit() reads the
+ * next batch of raw records, and returns a Spliterator over them. Measuring
+ * happens only when the batch is traversed, with a CalculatorFacade created
+ * for the batch from the shared MeasurementPlan. This way the batches of a
+ * parallel stream are measured in different threads without sharing any
+ * per-record state.
+ *
+ * @param <R> The type of the raw record
+ */
+public class RecordSpliterator<R> implements Spliterator<Map<String, List<MetricResult>>> {
+
+  public static final int DEFAULT_BATCH_SIZE = 128;
+
+  private final RecordReader<R> reader;
+  private final MeasurementPlan plan;
+  private final int batchSize;
+  private CalculatorFacade calculator;
+
+  public RecordSpliterator(RecordReader<R> reader, MeasurementPlan plan) {
+    this(reader, plan, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @param reader The source of the records
+   * @param plan The plan of the measurement
+   * @param batchSize The number of records split off by trySplit()
+   */
+  public RecordSpliterator(RecordReader<R> reader, MeasurementPlan plan, int batchSize) {
+    if (batchSize < 1)
+      throw new IllegalArgumentException("The batch size should be at least 1, but it is " + batchSize);
+    this.reader = reader;
+    this.plan = plan;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Map<String, List<MetricResult>>> action) {
+    if (!reader.hasNext())
+      return false;
+    action.accept(reader.measure(getCalculator(), reader.nextRecord()));
+    return true;
+  }
+
+  @Override
+  public Spliterator<Map<String, List<MetricResult>>> trySplit() {
+    if (!reader.hasNext())
+      return null;
+
+    Object[] records = new Object[batchSize];
+    var size = 0;
+    while (size < batchSize && reader.hasNext())
+      records[size++] = reader.nextRecord();
+    return new BatchSpliterator<>(reader, plan, records, 0, size);
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  private CalculatorFacade getCalculator() {
+    if (calculator == null)
+      calculator = new CalculatorFacade(plan);
+    return calculator;
+  }
+
+  /**
+   * The records which have already been read from the reader, but not measured yet.
+   */
+  private static class BatchSpliterator<R> implements Spliterator<Map<String, List<MetricResult>>> {
+    private final RecordReader<R> reader;
+    private final MeasurementPlan plan;
+    private final Object[] records;
+    private int index;
+    private final int end;
+    private CalculatorFacade calculator;
+
+    BatchSpliterator(RecordReader<R> reader, MeasurementPlan plan, Object[] records, int index, int end) {
+      this.reader = reader;
+      this.plan = plan;
+      this.records = records;
+      this.index = index;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Map<String, List<MetricResult>>> action) {
+      if (index >= end)
+        return false;
+      action.accept(measure(index++));
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Map<String, List<MetricResult>>> action) {
+      while (index < end)
+        action.accept(measure(index++));
+    }
+
+    @Override
+    public Spliterator<Map<String, List<MetricResult>>> trySplit() {
+      int middle = (index + end) >>> 1;
+      if (middle <= index)
+        return null;
+      var prefix = new BatchSpliterator<>(reader, plan, records, index, middle);
+      index = middle;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return (long) end - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL | SIZED | SUBSIZED;
+    }
+
+    private Map<String, List<MetricResult>> measure(int i) {
+      if (calculator == null)
+        calculator = new CalculatorFacade(plan);
+      R record = (R) records[i];
+      records[i] = null;
+      return reader.measure(calculator, record);
+    }
+  }
+}
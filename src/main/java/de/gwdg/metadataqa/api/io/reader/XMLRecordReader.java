@@ -30,13 +30,20 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
-public class XMLRecordReader extends RecordReader {
+/**
+ * Reads XML records selected by an XPath expression. The whole input is parsed
+ * into a DOM document, and each record is copied into a document of its own, which
+ * is measured without serialising and parsing it again.
+ */
+public class XMLRecordReader extends RecordReader<Document> {
 
   private NodeList nodeList;
   private NamedNodeMap rootAttributes;
   private int current = 0;
   private Document xmlDocument;
+  private DocumentBuilder builder;
   private CalculatorFacade calculator;
 
   public XMLRecordReader(BufferedReader inputReader, CalculatorFacade calculator) throws IOException {
@@ -45,7 +52,7 @@ public class XMLRecordReader extends RecordReader {
     DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
     builderFactory.setNamespaceAware(true);
     try {
-      DocumentBuilder builder = builderFactory.newDocumentBuilder();
+      builder = builderFactory.newDocumentBuilder();
       InputSource inputSource = new InputSource(inputReader);
       xmlDocument = builder.parse(inputSource);
       rootAttributes = xmlDocument.getDocumentElement().getAttributes();
@@ -99,9 +106,26 @@ public class XMLRecordReader extends RecordReader {
     return current < nodeList.getLength();
   }
 
+  /**
+   * Copies the next record into a new document. The records could be measured in other
+   * threads, while the document of the input is only used by the thread of the reader.
+   */
   @Override
-  public Map<String, List<MetricResult>> next() {
-    String record = nodeToString(nodeList.item(current++));
-    return this.calculator.measureAsMetricResult(record);
+  public Document nextRecord() {
+    if (!hasNext())
+      throw new NoSuchElementException("No more records");
+    Document record = builder.newDocument();
+    record.appendChild(record.importNode(nodeList.item(current++), true));
+    return record;
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, Document record) {
+    return calculator.measureAsMetricResult(record);
+  }
+
+  @Override
+  public int getContentHash(Document record) {
+    return record == null ? 0 : record.getDocumentElement().getTextContent().hashCode();
   }
 }
@@ -0,0 +1,284 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.xml.XpathEngineFactory;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+/**
+ * Reads XML records with a StAX parser, so the input is never loaded as a whole,
+ * and the first record is available as soon as it has been read.
+ *
+ * The records are the elements matching a simple element path, such as
+ * records/record, /OAI-PMH/ListRecords/record or //oai:record. A path consists of
+ * element names (with an optional namespace prefix, or *), separated by / (child)
+ * or // (descendant). The prefixes are resolved with the namespaces of the schema.
+ * A name without prefix matches the local name in any namespace. The namespace
+ * declarations of the ancestors are copied into each record. For other XPath
+ * expressions use XMLRecordReader.
+ */
+public class XMLStreamRecordReader extends RecordReader<String> {
+
+  private static final String NAME = "(\\*|([\\w.-]+:)?([\\w.-]+|\\*))";
+  private static final Pattern SIMPLE_PATH = Pattern.compile("^/{0,2}" + NAME + "(/{1,2}" + NAME + ")*$");
+
+  private final XMLStreamReader xmlReader;
+  private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+  private final NamespaceContext namespaceContext;
+  private List<Step> steps;
+
+  private final List<QName> elements = new ArrayList<>();
+  private final Deque<Map<String, String>> namespaces = new ArrayDeque<>();
+  private String nextRecord;
+  private boolean isNextRecordRead = false;
+
+  public XMLStreamRecordReader(BufferedReader inputReader, CalculatorFacade calculator) throws IOException {
+    super(inputReader, calculator);
+    var inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    try {
+      xmlReader = inputFactory.createXMLStreamReader(inputReader);
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+    namespaceContext = XpathEngineFactory.initializeEngine(calculator.getSchema().getNamespaces()).getNamespaceContext();
+    setRecordAddress("/*");
+  }
+
+  /**
+   * Checks whether the path could be used as a record address of this reader.
+   *
+   * @param path The element path
+   * @return true if it is a simple element path
+   */
+  public static boolean isSupported(String path) {
+    return path != null && SIMPLE_PATH.matcher(path.trim()).matches();
+  }
+
+  /**
+   * Set the path of the record elements. Default: the root element.
+   *
+   * @param path An element path, such as //oai:record
+   * @return this reader
+   */
+  public XMLStreamRecordReader setRecordAddress(String path) {
+    if (!isSupported(path))
+      throw new IllegalArgumentException("The record address is not a simple element path: " + path);
+
+    List<Step> parsed = new ArrayList<>();
+    boolean isDescendant = false;
+    String[] tokens = path.trim().split("/", -1);
+    for (var i = 0; i < tokens.length; i++) {
+      if (tokens[i].isEmpty()) {
+        // a leading / means the root, // means any descendant
+        if (i > 0)
+          isDescendant = true;
+        continue;
+      }
+      parsed.add(new Step(tokens[i], isDescendant));
+      isDescendant = false;
+    }
+    this.steps = parsed;
+    return this;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!isNextRecordRead) {
+      try {
+        nextRecord = readRecord();
+      } catch (XMLStreamException e) {
+        throw new IllegalStateException(e);
+      }
+      isNextRecordRead = true;
+    }
+    return nextRecord != null;
+  }
+
+  @Override
+  public String nextRecord() {
+    if (!hasNext())
+      throw new NoSuchElementException("No more records");
+    String record = nextRecord;
+    nextRecord = null;
+    isNextRecordRead = false;
+    return record;
+  }
+
+  @Override
+  public Map<String, List<MetricResult>> measure(CalculatorFacade calculator, String record) {
+    return calculator.measureAsMetricResult(record);
+  }
+
+  private String readRecord() throws XMLStreamException {
+    while (xmlReader.hasNext()) {
+      int event = xmlReader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        elements.add(xmlReader.getName());
+        if (matches(0, 0))
+          return copyRecord();
+        namespaces.push(getDeclaredNamespaces());
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        elements.remove(elements.size() - 1);
+        namespaces.pop();
+      }
+    }
+    xmlReader.close();
+    return null;
+  }
+
+  /**
+   * Copies the current element and its content, and leaves the reader at its end.
+   */
+  private String copyRecord() throws XMLStreamException {
+    var stringWriter = new StringWriter();
+    XMLStreamWriter writer = outputFactory.createXMLStreamWriter(stringWriter);
+
+    // the namespaces in scope, the inner declarations override the outer ones
+    Map<String, String> inScope = new LinkedHashMap<>();
+    var iterator = namespaces.descendingIterator();
+    while (iterator.hasNext())
+      inScope.putAll(iterator.next());
+    inScope.putAll(getDeclaredNamespaces());
+
+    writeStartElement(writer, inScope);
+    int depth = 1;
+    while (depth > 0) {
+      int event = xmlReader.next();
+      switch (event) {
+        case XMLStreamConstants.START_ELEMENT:
+          writeStartElement(writer, getDeclaredNamespaces());
+          depth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          writer.writeEndElement();
+          depth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+          writer.writeCharacters(xmlReader.getTextCharacters(), xmlReader.getTextStart(), xmlReader.getTextLength());
+          break;
+        case XMLStreamConstants.CDATA:
+          writer.writeCData(xmlReader.getText());
+          break;
+        case XMLStreamConstants.COMMENT:
+          writer.writeComment(xmlReader.getText());
+          break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          writer.writeProcessingInstruction(xmlReader.getPITarget(), xmlReader.getPIData());
+          break;
+        default:
+          break;
+      }
+    }
+    writer.close();
+    elements.remove(elements.size() - 1);
+    return stringWriter.toString();
+  }
+
+  private void writeStartElement(XMLStreamWriter writer, Map<String, String> declarations)
+      throws XMLStreamException {
+    String prefix = xmlReader.getPrefix() == null ? XMLConstants.DEFAULT_NS_PREFIX : xmlReader.getPrefix();
+    String uri = xmlReader.getNamespaceURI() == null ? XMLConstants.NULL_NS_URI : xmlReader.getNamespaceURI();
+    writer.writeStartElement(prefix, xmlReader.getLocalName(), uri);
+    for (Map.Entry<String, String> declaration : declarations.entrySet()) {
+      if (declaration.getKey().isEmpty())
+        writer.writeDefaultNamespace(declaration.getValue());
+      else
+        writer.writeNamespace(declaration.getKey(), declaration.getValue());
+    }
+    for (var i = 0; i < xmlReader.getAttributeCount(); i++) {
+      String attributePrefix = xmlReader.getAttributePrefix(i);
+      if (attributePrefix == null || attributePrefix.isEmpty())
+        writer.writeAttribute(xmlReader.getAttributeLocalName(i), xmlReader.getAttributeValue(i));
+      else
+        writer.writeAttribute(attributePrefix, xmlReader.getAttributeNamespace(i),
+          xmlReader.getAttributeLocalName(i), xmlReader.getAttributeValue(i));
+    }
+  }
+
+  private Map<String, String> getDeclaredNamespaces() {
+    if (xmlReader.getNamespaceCount() == 0)
+      return Collections.emptyMap();
+    Map<String, String> declared = new LinkedHashMap<>();
+    for (var i = 0; i < xmlReader.getNamespaceCount(); i++) {
+      String prefix = xmlReader.getNamespacePrefix(i);
+      declared.put(prefix == null ? XMLConstants.DEFAULT_NS_PREFIX : prefix, xmlReader.getNamespaceURI(i));
+    }
+    return declared;
+  }
+
+  /**
+   * Whether the elements from the given depth match the steps from the given index.
+   */
+  private boolean matches(int stepIndex, int depth) {
+    if (stepIndex == steps.size())
+      return depth == elements.size();
+
+    Step step = steps.get(stepIndex);
+    if (!step.isDescendant)
+      return depth < elements.size()
+        && step.matches(elements.get(depth))
+        && matches(stepIndex + 1, depth + 1);
+
+    for (int i = depth; i < elements.size(); i++)
+      if (step.matches(elements.get(i)) && matches(stepIndex + 1, i + 1))
+        return true;
+    return false;
+  }
+
+  private class Step {
+    private final String prefix;
+    private final String namespaceUri;
+    private final String localName;
+    private final boolean isDescendant;
+
+    Step(String name, boolean isDescendant) {
+      this.isDescendant = isDescendant;
+      int colon = name.indexOf(':');
+      if (colon > -1) {
+        prefix = name.substring(0, colon);
+        localName = name.substring(colon + 1);
+        String uri = namespaceContext.getNamespaceURI(prefix);
+        namespaceUri = (uri == null || uri.isEmpty()) ? null : uri;
+      } else {
+        prefix = null;
+        localName = name;
+        namespaceUri = null;
+      }
+    }
+
+    boolean matches(QName element) {
+      if (!localName.equals("*") && !localName.equals(element.getLocalPart()))
+        return false;
+      if (prefix == null)
+        return true;
+      // an unknown prefix is compared to the prefix of the document
+      return namespaceUri != null
+        ? namespaceUri.equals(element.getNamespaceURI())
+        : prefix.equals(element.getPrefix());
+    }
+  }
+}
@@ -14,6 +14,10 @@ public class CSVJSONResultWriter extends CSVResultWriter {
     super(outputFile);
   }
 
+  public CSVJSONResultWriter(String outputFile, boolean append) throws IOException {
+    super(outputFile, append);
+  }
+
   public CSVJSONResultWriter() {
     super();
   }
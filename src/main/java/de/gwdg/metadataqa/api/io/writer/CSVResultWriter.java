@@ -18,6 +18,11 @@ public class CSVResultWriter extends ResultWriter {
     this.csvWriter = new CSVWriter(outputWriter);
   }
 
+  public CSVResultWriter(String outputFile, boolean append) throws IOException {
+    super(outputFile, append);
+    this.csvWriter = new CSVWriter(outputWriter);
+  }
+
   public CSVResultWriter() {
     super();
     this.csvWriter = new CSVWriter(outputWriter);
@@ -36,6 +41,11 @@ public class CSVResultWriter extends ResultWriter {
     this.csvWriter.writeNext(output.toArray(new String[0]));
   }
 
+  @Override
+  public void flush() throws IOException {
+    this.csvWriter.flush();
+  }
+
   @Override
   public void writeHeader(List<String> header) throws IOException {
     List<String> outputHeader = header.stream()
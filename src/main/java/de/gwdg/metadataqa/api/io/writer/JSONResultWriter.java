@@ -15,6 +15,10 @@ public class JSONResultWriter extends ResultWriter {
     super(outputFile);
   }
 
+  public JSONResultWriter(String outputFile, boolean append) throws IOException {
+    super(outputFile, append);
+  }
+
   public JSONResultWriter() {
   }
 
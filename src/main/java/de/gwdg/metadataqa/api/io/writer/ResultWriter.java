@@ -10,6 +10,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Map;
 
@@ -18,14 +19,33 @@ public abstract class ResultWriter implements Closeable {
   protected final BufferedWriter outputWriter;
 
   public ResultWriter(String outputFile) throws IOException {
+    this(outputFile, false);
+  }
+
+  /**
+   * @param outputFile The output file
+   * @param append Append to the end of an existing file, e.g. when a run is resumed
+   * @throws IOException If the file could not be opened
+   */
+  public ResultWriter(String outputFile, boolean append) throws IOException {
     Path outputPath = Paths.get(outputFile);
-    this.outputWriter = Files.newBufferedWriter(outputPath);
+    this.outputWriter = append
+      ? Files.newBufferedWriter(outputPath, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+      : Files.newBufferedWriter(outputPath);
   }
 
   public ResultWriter() {
     this.outputWriter = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
   }
 
+  /**
+   * Write the buffered output to the file.
+   * @throws IOException If the output could not be written
+   */
+  public void flush() throws IOException {
+    this.outputWriter.flush();
+  }
+
   @Override
   public void close() throws IOException {
     this.outputWriter.flush();
@@ -0,0 +1,219 @@
+package de.gwdg.metadataqa.api.json;
+
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import de.gwdg.metadataqa.api.model.selector.JsonPathTrie;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.CsvReader;
+import de.gwdg.metadataqa.api.xml.XPathWrapper;
+
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * A path of a data element compiled once, so the selectors do not need to parse
+ * or look up the path string for each record.
+ *
+ * A JSON path is compiled into a JsonPath object. The compiled XPath expressions
+ * are not thread-safe, so each thread compiles its own one at the first use. CSV
+ * paths (column names) are not compiled.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class CompiledPath implements Serializable {
+
+  private static final Logger LOGGER = Logger.getLogger(CompiledPath.class.getCanonicalName());
+  private static final long serialVersionUID = 1695217366052874136L;
+
+  private final String path;
+  private final Format format;
+  private final Map<String, String> namespaces;
+  private final boolean isCompiled;
+  private final boolean isXPathFunction;
+  private transient JsonPath jsonPath;
+  private transient ThreadLocal<XPathExpression> xPathExpression;
+  private transient volatile CachedIndex trieIndex;
+  private transient volatile CachedIndex columnIndex;
+
+  private CompiledPath(String path, Format format, Map<String, String> namespaces, boolean isCompiled) {
+    this.path = path;
+    this.format = format;
+    this.namespaces = namespaces;
+    this.isCompiled = isCompiled;
+    this.isXPathFunction = path.endsWith(")");
+  }
+
+  /**
+   * Compile a path.
+   *
+   * @param path The path
+   * @param format The format of the records, JSON if it is null
+   * @param namespaces The namespaces of XPath expressions
+   * @return The compiled path
+   * @throws IllegalArgumentException If the path is invalid
+   */
+  public static CompiledPath compile(String path, Format format, Map<String, String> namespaces) {
+    if (path == null)
+      throw new IllegalArgumentException("The path should not be null");
+    if (format == null)
+      format = Format.JSON;
+
+    var compiled = new CompiledPath(path, format, namespaces, true);
+    if (format == Format.JSON) {
+      try {
+        compiled.jsonPath = JsonPath.compile(path);
+      } catch (InvalidPathException e) {
+        throw new IllegalArgumentException(String.format("Invalid JSON path '%s': %s", path, e.getMessage()), e);
+      }
+    } else if (format == Format.XML) {
+      try {
+        XPathExpression expression = XPathWrapper.compile(path, namespaces);
+        compiled.getThreadLocal().set(expression);
+      } catch (XPathExpressionException e) {
+        throw new IllegalArgumentException(String.format("Invalid XPath expression '%s': %s", path, e.getMessage()), e);
+      }
+    }
+    return compiled;
+  }
+
+  /**
+   * Compile a path with the format and the namespaces of the schema. If the path is invalid,
+   * it is kept as a string, and the selectors handle it as they handle path strings.
+   *
+   * @param path The path
+   * @param schema The schema, or null for JSON
+   * @return The compiled path
+   */
+  public static CompiledPath of(String path, Schema schema) {
+    Format format = schema == null ? null : schema.getFormat();
+    Map<String, String> namespaces = schema == null ? null : schema.getNamespaces();
+    try {
+      return compile(path, format, namespaces);
+    } catch (IllegalArgumentException e) {
+      LOGGER.warning(e.getMessage());
+      return new CompiledPath(path, format == null ? Format.JSON : format, namespaces, false);
+    }
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public Format getFormat() {
+    return format;
+  }
+
+  public Map<String, String> getNamespaces() {
+    return namespaces;
+  }
+
+  /**
+   * Whether the path has been compiled. An invalid path is not compiled.
+   * @return true if the path is valid
+   */
+  public boolean isCompiled() {
+    return isCompiled;
+  }
+
+  /**
+   * Whether the XPath expression is a function call, so its result is a string instead of nodes.
+   * @return true if the expression ends with )
+   */
+  public boolean isXPathFunction() {
+    return isXPathFunction;
+  }
+
+  /**
+   * The compiled JSON path. It is thread-safe.
+   * @return The JSON path, or null if the format is not JSON or the path is invalid
+   */
+  public JsonPath getJsonPath() {
+    if (jsonPath == null && isCompiled && format == Format.JSON)
+      jsonPath = JsonPath.compile(path);
+    return jsonPath;
+  }
+
+  /**
+   * The compiled XPath expression of the current thread. It should not be passed to other threads.
+   * @return The expression, or null if the format is not XML or the path is invalid
+   */
+  public XPathExpression getXPathExpression() {
+    if (!isCompiled || format != Format.XML)
+      return null;
+
+    ThreadLocal<XPathExpression> threadLocal = getThreadLocal();
+    XPathExpression expression = threadLocal.get();
+    if (expression == null) {
+      try {
+        expression = XPathWrapper.compile(path, namespaces);
+      } catch (XPathExpressionException e) {
+        throw new IllegalStateException(e);
+      }
+      threadLocal.set(expression);
+    }
+    return expression;
+  }
+
+  /**
+   * The index of the path in a trie of JSON paths. The index of the last trie is kept,
+   * so the path string is looked up only once per trie.
+   *
+   * @param trie The trie
+   * @return The index, or -1 if the path is not in the trie
+   */
+  public int indexIn(JsonPathTrie trie) {
+    CachedIndex current = trieIndex;
+    if (current == null || current.source != trie) {
+      current = new CachedIndex(trie, trie.indexOf(path));
+      trieIndex = current;
+    }
+    return current.index;
+  }
+
+  /**
+   * The index of the column of a CSV path in the header of the reader. The index is
+   * kept until the header changes, so the column name is looked up only once per header.
+   *
+   * @param csvReader The CSV reader
+   * @return The index, or -1 if the header does not have this column
+   */
+  public int columnIndexIn(CsvReader csvReader) {
+    Map<String, Integer> columnIndexes = csvReader.getColumnIndexes();
+    if (columnIndexes == null)
+      return -1;
+    CachedIndex current = columnIndex;
+    if (current == null || current.source != columnIndexes) {
+      current = new CachedIndex(columnIndexes, csvReader.indexOf(path));
+      columnIndex = current;
+    }
+    return current.index;
+  }
+
+  private ThreadLocal<XPathExpression> getThreadLocal() {
+    if (xPathExpression == null)
+      xPathExpression = new ThreadLocal<>();
+    return xPathExpression;
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+
+  /**
+   * An index of the path in a trie or in a CSV header.
+   */
+  private static class CachedIndex {
+    private final Object source;
+    private final int index;
+
+    private CachedIndex(Object source, int index) {
+      this.source = source;
+      this.index = index;
+    }
+  }
+}
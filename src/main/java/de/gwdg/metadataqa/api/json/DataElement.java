@@ -37,6 +37,7 @@ public class DataElement implements Cloneable, Serializable {
   private Schema schema;
   private String indexField;
   private boolean asLanguageTagged = false;
+  private transient CompiledPath compiledPath;
 
   public DataElement(String label, String path, String solrFieldName) {
     this.label = label;
@@ -79,9 +80,44 @@ public class DataElement implements Cloneable, Serializable {
 
   public DataElement setPath(String path) {
     this.path = path;
+    this.compiledPath = null;
     return this;
   }
 
+  /**
+   * The compiled path, for the format and the namespaces of the schema. It is compiled
+   * at the first call. If the path is invalid, the compiled path only contains the
+   * path string.
+   *
+   * @return The compiled path
+   */
+  @JsonIgnore
+  public CompiledPath getCompiledPath() {
+    CompiledPath compiled = compiledPath;
+    if (compiled == null) {
+      compiled = CompiledPath.of(path, schema);
+      compiledPath = compiled;
+    }
+    return compiled;
+  }
+
+  /**
+   * Compile the path with the format and the namespaces of the schema.
+   *
+   * @return The compiled path
+   * @throws IllegalArgumentException If the path is invalid
+   */
+  public CompiledPath compilePath() {
+    try {
+      compiledPath = CompiledPath.compile(path,
+        schema == null ? null : schema.getFormat(),
+        schema == null ? null : schema.getNamespaces());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(String.format("%s has an invalid path. %s", label, e.getMessage()), e);
+    }
+    return compiledPath;
+  }
+
   @JsonIgnore
   public String getAbsolutePath() {
     Format format = hasFormat() ? schema.getFormat() : Format.JSON;
@@ -281,6 +317,7 @@ public class DataElement implements Cloneable, Serializable {
 
   public void setSchema(Schema schema) {
     this.schema = schema;
+    this.compiledPath = null;
   }
 
   @JsonIgnore
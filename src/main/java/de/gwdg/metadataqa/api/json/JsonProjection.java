@@ -0,0 +1,323 @@
+package de.gwdg.metadataqa.api.json;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The parts of JSON records the paths of a schema could reach. It removes the other
+ * properties from the JSON text before the JSON provider parses it, so the parser
+ * does not build the objects of the parts no calculator reads.
+ *
+ * The projection follows the property steps of the paths. At the end of a path, or
+ * at a step which depends on the content (filters, wildcards, deep scans, functions)
+ * the whole subtree is kept. The elements of arrays are kept (so the indexes do not
+ * change), and projected with the steps following an index. The removed properties
+ * are skipped by scanning their characters, without parsing them. If a path could
+ * reach anything, or the record is not strict JSON, the record is parsed as it is.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class JsonProjection implements Serializable {
+
+  private static final long serialVersionUID = -6031470127633497513L;
+  private static final Node EMPTY = new Node();
+
+  private final Node root = new Node();
+
+  /**
+   * Create a projection of the paths.
+   *
+   * @param paths The JSON paths reading from the records
+   * @return The projection, or null if the paths could reach any part of the records
+   */
+  public static JsonProjection create(Collection<String> paths) {
+    var projection = new JsonProjection();
+    for (String path : paths)
+      projection.add(path);
+    return projection.root.isComplete ? null : projection;
+  }
+
+  private void add(String path) {
+    if (path == null || !path.startsWith("$")) {
+      root.isComplete = true;
+      return;
+    }
+
+    var node = root;
+    int length = path.length();
+    var i = 1;
+    while (i < length && !node.isComplete) {
+      char c = path.charAt(i);
+      if (c == '.' && i + 1 < length && path.charAt(i + 1) == '[') {
+        i++;
+      } else if (c == '.') {
+        int start = ++i;
+        while (i < length && isNameCharacter(path.charAt(i)))
+          i++;
+        if (i == start || (i < length && path.charAt(i) != '.' && path.charAt(i) != '['))
+          break; // deep scan, wildcard or function
+        node = node.property(path.substring(start, i));
+      } else if (c == '[') {
+        int end = path.indexOf(']', i);
+        if (end == -1)
+          break;
+        String content = path.substring(i + 1, end);
+        if (isQuotedName(content))
+          node = node.property(content.substring(1, content.length() - 1));
+        else if (content.matches("-?\\d*(:-?\\d*)?") && !content.isEmpty())
+          node = node.elements();
+        else
+          break; // filter, wildcard or several names
+        i = end + 1;
+      } else {
+        break;
+      }
+    }
+    node.isComplete = true;
+  }
+
+  /**
+   * Remove the parts of the record which are not reached by the paths.
+   *
+   * @param json The JSON record
+   * @return The projected record, or the record itself if it could not be projected
+   */
+  public String apply(String json) {
+    try {
+      var scanner = new Scanner(json);
+      scanner.skipWhitespace();
+      scanner.copy(root);
+      scanner.skipWhitespace();
+      return scanner.position == json.length() ? scanner.output.toString() : json;
+    } catch (IrregularJsonException | IndexOutOfBoundsException e) {
+      return json;
+    }
+  }
+
+  private static boolean isQuotedName(String content) {
+    if (content.length() < 2)
+      return false;
+    char quote = content.charAt(0);
+    if ((quote != '\'' && quote != '"') || content.charAt(content.length() - 1) != quote)
+      return false;
+    String name = content.substring(1, content.length() - 1);
+    return !name.isEmpty() && name.indexOf('\'') == -1 && name.indexOf('"') == -1 && name.indexOf('\\') == -1;
+  }
+
+  private static boolean isNameCharacter(char c) {
+    return !Character.isWhitespace(c) && "$.[]'\"()?@,*\\".indexOf(c) == -1;
+  }
+
+  private static class Node implements Serializable {
+    private static final long serialVersionUID = 3209465815312839424L;
+
+    private final Map<String, Node> properties = new LinkedHashMap<>();
+    private Node elements;
+    /**
+     * The whole subtree is kept.
+     */
+    private boolean isComplete = false;
+
+    Node property(String name) {
+      return properties.computeIfAbsent(name, key -> new Node());
+    }
+
+    Node elements() {
+      if (elements == null)
+        elements = new Node();
+      return elements;
+    }
+
+    Node get(String json, int start, int end) {
+      int length = end - start;
+      for (Map.Entry<String, Node> entry : properties.entrySet()) {
+        String name = entry.getKey();
+        if (name.length() == length && json.regionMatches(start, name, 0, length))
+          return entry.getValue();
+      }
+      return null;
+    }
+  }
+
+  private static class IrregularJsonException extends RuntimeException {
+    private static final long serialVersionUID = 2586409356367466925L;
+
+    IrregularJsonException() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static class Scanner {
+    private static final IrregularJsonException IRREGULAR = new IrregularJsonException();
+
+    private final String json;
+    private final StringBuilder output;
+    private int position = 0;
+    private char[] stack = new char[16];
+
+    Scanner(String json) {
+      this.json = json;
+      this.output = new StringBuilder(Math.min(json.length(), 8192));
+    }
+
+    void copy(Node node) {
+      char c = json.charAt(position);
+      if (!node.isComplete && c == '{') {
+        copyObject(node);
+      } else if (!node.isComplete && c == '[') {
+        copyArray(node);
+      } else {
+        int start = position;
+        skipValue();
+        output.append(json, start, position);
+      }
+    }
+
+    private void copyObject(Node node) {
+      position++;
+      output.append('{');
+      skipWhitespace();
+      if (json.charAt(position) == '}') {
+        position++;
+        output.append('}');
+        return;
+      }
+
+      var isFirst = true;
+      while (true) {
+        skipWhitespace();
+        if (json.charAt(position) != '"')
+          throw IRREGULAR;
+        int keyStart = position;
+        skipString();
+        int keyEnd = position;
+        if (hasEscape(keyStart, keyEnd))
+          throw IRREGULAR;
+        skipWhitespace();
+        if (json.charAt(position++) != ':')
+          throw IRREGULAR;
+        skipWhitespace();
+
+        Node child = node.get(json, keyStart + 1, keyEnd - 1);
+        if (child != null) {
+          if (!isFirst)
+            output.append(',');
+          isFirst = false;
+          output.append(json, keyStart, keyEnd).append(':');
+          copy(child);
+        } else {
+          skipValue();
+        }
+
+        skipWhitespace();
+        char c = json.charAt(position++);
+        if (c == '}')
+          break;
+        if (c != ',')
+          throw IRREGULAR;
+      }
+      output.append('}');
+    }
+
+    private void copyArray(Node node) {
+      Node elements = node.elements == null ? EMPTY : node.elements;
+      position++;
+      output.append('[');
+      skipWhitespace();
+      if (json.charAt(position) == ']') {
+        position++;
+        output.append(']');
+        return;
+      }
+
+      var isFirst = true;
+      while (true) {
+        skipWhitespace();
+        if (!isFirst)
+          output.append(',');
+        isFirst = false;
+        copy(elements);
+        skipWhitespace();
+        char c = json.charAt(position++);
+        if (c == ']')
+          break;
+        if (c != ',')
+          throw IRREGULAR;
+      }
+      output.append(']');
+    }
+
+    /**
+     * Skip a value. The brackets of objects and arrays should match, but the other
+     * syntax of the skipped part is not checked.
+     */
+    private void skipValue() {
+      char c = json.charAt(position);
+      if (c == '"') {
+        skipString();
+      } else if (c == '{' || c == '[') {
+        var depth = 0;
+        do {
+          c = json.charAt(position);
+          if (c == '"') {
+            skipString();
+            continue;
+          }
+          if (c == '{' || c == '[') {
+            if (depth == stack.length)
+              stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = c == '{' ? '}' : ']';
+          } else if (c == '}' || c == ']') {
+            if (stack[--depth] != c)
+              throw IRREGULAR;
+          }
+          position++;
+        } while (depth > 0);
+      } else {
+        int start = position;
+        while (position < json.length() && ",:}] \t\r\n{[\"".indexOf(json.charAt(position)) == -1)
+          position++;
+        if (position == start)
+          throw IRREGULAR;
+      }
+    }
+
+    /**
+     * Skip a string, looking for the closing quote with indexOf(), which is faster than
+     * checking the characters one by one.
+     */
+    private void skipString() {
+      int start = ++position;
+      while (true) {
+        int quote = json.indexOf('"', position);
+        if (quote == -1)
+          throw IRREGULAR;
+        int backslash = quote - 1;
+        while (backslash >= start && json.charAt(backslash) == '\\')
+          backslash--;
+        position = quote + 1;
+        if ((quote - 1 - backslash) % 2 == 0)
+          return;
+      }
+    }
+
+    private boolean hasEscape(int start, int end) {
+      for (int i = start; i < end; i++)
+        if (json.charAt(i) == '\\')
+          return true;
+      return false;
+    }
+
+    void skipWhitespace() {
+      while (position < json.length()) {
+        char c = json.charAt(position);
+        if (c != ' ' && c != '\t' && c != '\r' && c != '\n')
+          return;
+        position++;
+      }
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package de.gwdg.metadataqa.api.json;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.spi.json.JacksonJsonProvider;
+import com.jayway.jsonpath.spi.json.JsonSmartJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+import com.jayway.jsonpath.spi.mapper.JsonSmartMappingProvider;
+import net.minidev.json.JSONValue;
+import net.minidev.json.parser.JSONParser;
+import net.minidev.json.parser.ParseException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The JSON parser used by JsonSelector to parse the records, and to read the JSON paths.
+ *
+ * The lean variants store the integer numbers as Long, and the floating point numbers
+ * as Double (unless a number does not fit into them), so the same JSON number always
+ * results in the same Java type.
+ *
+ * All providers parse UTF-8 bytes (JsonProvider.parse(byte[])) without decoding them
+ * into a string first.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public enum JsonProviderType {
+  SMART(       "smart",        "json-smart (default)"),
+  SMART_LEAN(  "smart-lean",   "json-smart with Long and Double numbers"),
+  JACKSON(     "jackson",      "Jackson"),
+  JACKSON_LEAN("jackson-lean", "Jackson with Long and Double numbers");
+
+  private final String abbreviation;
+  private final String description;
+  private transient Configuration configuration;
+
+  JsonProviderType(String abbreviation, String description) {
+    this.abbreviation = abbreviation;
+    this.description = description;
+  }
+
+  public static JsonProviderType byCode(String value) {
+    for (JsonProviderType type : values())
+      if (type.abbreviation.equals(value))
+        return type;
+    return null;
+  }
+
+  public String getAbbreviation() {
+    return abbreviation;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * The JSON path configuration with the JSON and mapping providers of this type.
+   * The providers are thread-safe, so the configuration is shared.
+   *
+   * @return The configuration
+   */
+  public Configuration getConfiguration() {
+    if (configuration == null)
+      configuration = createConfiguration();
+    return configuration;
+  }
+
+  private Configuration createConfiguration() {
+    switch (this) {
+      case SMART_LEAN:
+        return Configuration.builder()
+          .jsonProvider(new JsonSmartBytesProvider(
+            JSONParser.MODE_PERMISSIVE & ~JSONParser.USE_INTEGER_STORAGE & ~JSONParser.BIG_DIGIT_UNRESTRICTED
+          ))
+          .mappingProvider(new JsonSmartMappingProvider())
+          .build();
+      case JACKSON:
+        return Configuration.builder()
+          .jsonProvider(new JacksonJsonProvider())
+          .mappingProvider(new JacksonMappingProvider())
+          .build();
+      case JACKSON_LEAN:
+        var mapper = new ObjectMapper().enable(DeserializationFeature.USE_LONG_FOR_INTS);
+        return Configuration.builder()
+          .jsonProvider(new JacksonJsonProvider(mapper))
+          .mappingProvider(new JacksonMappingProvider(mapper))
+          .build();
+      case SMART:
+      default:
+        // the same as Configuration.defaultConfiguration()
+        return Configuration.builder()
+          .jsonProvider(new JsonSmartBytesProvider(-1))
+          .mappingProvider(new JsonSmartMappingProvider())
+          .build();
+    }
+  }
+
+  /**
+   * The json-smart provider, which parses bytes with the byte array parser of json-smart.
+   * That parser decodes the strings having escape sequences byte by byte, so the records
+   * having both escape sequences and non-ASCII characters are decoded into a string first.
+   */
+  private static class JsonSmartBytesProvider extends JsonSmartJsonProvider {
+    private final int parseMode;
+
+    JsonSmartBytesProvider(int parseMode) {
+      super(parseMode, JSONValue.defaultReader.DEFAULT_ORDERED);
+      this.parseMode = parseMode;
+    }
+
+    @Override
+    public Object parse(byte[] json) throws InvalidJsonException {
+      if (hasEscapedNonAscii(json))
+        return parse(new String(json, StandardCharsets.UTF_8));
+      try {
+        return new JSONParser(parseMode).parse(json, JSONValue.defaultReader.DEFAULT_ORDERED);
+      } catch (ParseException e) {
+        throw new InvalidJsonException(e);
+      }
+    }
+
+    private static boolean hasEscapedNonAscii(byte[] json) {
+      var hasEscape = false;
+      var hasNonAscii = false;
+      for (byte b : json) {
+        if (b == '\\')
+          hasEscape = true;
+        else if (b < 0)
+          hasNonAscii = true;
+      }
+      return hasEscape && hasNonAscii;
+    }
+  }
+}
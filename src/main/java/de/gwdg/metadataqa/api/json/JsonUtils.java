@@ -6,15 +6,11 @@ import de.gwdg.metadataqa.api.model.EdmFieldInstance;
 import com.jayway.jsonpath.JsonPath;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
-import net.minidev.json.JSONArray;
 
 /**
  * JSON utility methods
@@ -39,18 +35,16 @@ public final class JsonUtils {
 
   public static List<String> extractList(Object value) {
     List<String> extracted = new ArrayList<>();
-    if (value.getClass() == String.class) {
+    if (value instanceof String) {
       extracted.add((String) value);
-    } else if (value.getClass() == JSONArray.class) {
-      JSONArray array1 = (JSONArray) value;
-      for (int i = 0, l = array1.size(); i < l; i++) {
-        if (array1.get(i).getClass() == JSONArray.class) {
-          JSONArray array2 = (JSONArray) array1.get(i);
-          for (int j = 0, l2 = array2.size(); j < l2; j++) {
-            if (array2.get(j).getClass() == String.class) {
-              extracted.add((String) array2.get(j));
-            } else if (array2.get(j).getClass() == LinkedHashMap.class) {
-              Map<String, String> map = (LinkedHashMap<String, String>) array2.get(j);
+    } else if (value instanceof List) {
+      for (Object item1 : (List<?>) value) {
+        if (item1 instanceof List) {
+          for (Object item2 : (List<?>) item1) {
+            if (item2 instanceof String) {
+              extracted.add((String) item2);
+            } else if (item2 instanceof Map) {
+              Map<String, String> map = (Map<String, String>) item2;
               if (map.containsKey(ABOUT)) {
                 extracted.add(map.get(ABOUT));
               } else if (map.containsKey(RESOURCE)) {
@@ -61,17 +55,17 @@ public final class JsonUtils {
                 LOGGER.severe("Other type of map*: " + map.keySet());
               }
             } else {
-              LOGGER.severe("Unhandled array2 type: " + getType(array2.get(j)));
+              LOGGER.severe("Unhandled array2 type: " + getType(item2));
             }
           }
-        } else if (array1.get(i).getClass() == String.class) {
-          extracted.add((String) array1.get(i));
+        } else if (item1 instanceof String) {
+          extracted.add((String) item1);
         } else {
-          LOGGER.severe("Unhandled array1 type: " + getType(array1.get(i)));
+          LOGGER.severe("Unhandled array1 type: " + getType(item1));
         }
       }
-    } else if (value.getClass() == LinkedHashMap.class) {
-      for (Object innerValue : ((Map)value).values()) {
+    } else if (value instanceof Map) {
+      for (Object innerValue : ((Map) value).values()) {
         extracted.addAll(extractList(innerValue));
       }
     } else {
@@ -91,35 +85,26 @@ public final class JsonUtils {
                                                                           String jsonPath,
                                                                           boolean asLanguageTagged) {
     List<EdmFieldInstance> extracted = new ArrayList<>();
-    if (value.getClass() == String.class) {
+    if (value instanceof String) {
       extracted.add(new EdmFieldInstance((String) value));
-    } else if (value.getClass() == JSONArray.class) {
-      JSONArray outerArray = (JSONArray) value;
+    } else if (value instanceof List) {
+      List<?> outerArray = (List<?>) value;
       if (outerArray.isEmpty()) {
         return null;
       }
 
-      for (int i = 0, l = outerArray.size(); i < l; i++) {
-        Object outerVal = outerArray.get(i);
+      for (Object outerVal : outerArray) {
         if (outerVal == null) {
           continue;
         }
 
-        if (outerVal.getClass() == String.class) {
+        if (outerVal instanceof String) {
           extracted.add(new EdmFieldInstance((String) outerVal));
-        } else if (outerVal.getClass() == Boolean.class) {
-          extracted.add(new EdmFieldInstance(Boolean.toString((Boolean) outerVal)));
-        } else if (outerVal.getClass() == Double.class) {
-          extracted.add(new EdmFieldInstance(Double.toString((Double) outerVal)));
-        } else if (outerVal.getClass() == Long.class) {
-          extracted.add(new EdmFieldInstance(Long.toString((Long) outerVal)));
-        } else if (outerVal.getClass() == BigDecimal.class) {
-          extracted.add(new EdmFieldInstance(((BigDecimal) outerVal).toString()));
-        } else if (outerVal.getClass() == BigInteger.class) {
-          extracted.add(new EdmFieldInstance(((BigInteger) outerVal).toString()));
-        } else if (outerVal.getClass() == JSONArray.class) {
+        } else if (isScalar(outerVal)) {
+          extracted.add(new EdmFieldInstance(outerVal.toString()));
+        } else if (outerVal instanceof List) {
           extracted.addAll(extractInnerArray(outerVal, recordId, jsonPath, asLanguageTagged));
-        } else if (outerVal.getClass() == LinkedHashMap.class) {
+        } else if (outerVal instanceof Map) {
           if (asLanguageTagged) {
             extracted.addAll(convertLanguageTaggedMap(outerVal, recordId, jsonPath));
           } else {
@@ -132,24 +117,14 @@ public final class JsonUtils {
           ));
         }
       }
-    } else if (value.getClass() == LinkedHashMap.class) {
+    } else if (value instanceof Map) {
       if (asLanguageTagged) {
         extracted.addAll(convertLanguageTaggedMap(value, recordId, jsonPath));
       } else {
         extracted.add(hashToFieldInstance(value, recordId, jsonPath, asLanguageTagged));
       }
-    } else if (value.getClass() == Integer.class) {
-      extracted.add(new EdmFieldInstance(Integer.toString((int) value)));
-    } else if (value.getClass() == Float.class) {
-      extracted.add(new EdmFieldInstance(Float.toString((float) value)));
-    } else if (value.getClass() == Double.class) {
-      extracted.add(new EdmFieldInstance(Double.toString((double) value)));
-    } else if (value.getClass() == Boolean.class) {
-      extracted.add(new EdmFieldInstance(Boolean.toString((boolean) value)));
-    } else if (value.getClass() == java.math.BigDecimal.class) {
-      extracted.add(new EdmFieldInstance(((BigDecimal) value).toString()));
-    } else if (value.getClass() == java.math.BigInteger.class) {
-      extracted.add(new EdmFieldInstance(((BigInteger) value).toString()));
+    } else if (isScalar(value)) {
+      extracted.add(new EdmFieldInstance(value.toString()));
     } else {
       LOGGER.severe(String.format(
             "Unhandled object type: %s, [record ID: %s, path: %s]",
@@ -159,26 +134,32 @@ public final class JsonUtils {
     return extracted;
   }
 
+  /**
+   * Whether the value is a number or a boolean. The JSON providers represent the numbers
+   * with different classes (Integer, Long, Double, BigDecimal etc.).
+   */
+  private static boolean isScalar(Object value) {
+    return value instanceof Number || value instanceof Boolean;
+  }
+
   private static List<EdmFieldInstance> extractInnerArray(Object outerVal, String recordId, String jsonPath,
                                                           boolean asLanguageTagged) {
     List<EdmFieldInstance> extracted = new ArrayList<>();
-    JSONArray array = (JSONArray) outerVal;
-    for (int j = 0, l2 = array.size(); j < l2; j++) {
-      Object innerVal = array.get(j);
-      if (innerVal.getClass() == String.class) {
+    for (Object innerVal : (List<?>) outerVal) {
+      if (innerVal instanceof String) {
         extracted.add(new EdmFieldInstance((String) innerVal));
-      } else if (innerVal.getClass() == LinkedHashMap.class) {
+      } else if (innerVal instanceof Map) {
         if (asLanguageTagged) {
           extracted.addAll(convertLanguageTaggedMap(innerVal, recordId, jsonPath));
         } else {
           extracted.add(hashToFieldInstance(innerVal, recordId, jsonPath, asLanguageTagged));
         }
-      } else if (innerVal.getClass() == JSONArray.class) {
+      } else if (innerVal instanceof List) {
         extracted.addAll(extractInnerArray(innerVal, recordId, jsonPath, asLanguageTagged));
       } else {
         LOGGER.severe(String.format(
               "Unhandled inner array type: %s, [record ID: %s, path: %s]",
-              getType(array.get(j)), recordId, jsonPath
+              getType(innerVal), recordId, jsonPath
         ));
       }
     }
@@ -189,11 +170,11 @@ public final class JsonUtils {
                                                                                  String recordId,
                                                                                  String jsonPath) {
     List<EdmFieldInstance> instances = new ArrayList<>();
-    Map<String, Object> map = (LinkedHashMap<String, Object>) innerVal;
+    Map<String, Object> map = (Map<String, Object>) innerVal;
     for (Map.Entry<String, Object> entry : map.entrySet()) {
       String languageTag = entry.getKey();
-      if (entry.getValue() instanceof JSONArray) {
-        JSONArray values = (JSONArray) entry.getValue();
+      if (entry.getValue() instanceof List) {
+        List<?> values = (List<?>) entry.getValue();
         for (Object value : values) {
           if (value instanceof String) {
             instances.add(new EdmFieldInstance(value.toString(), languageTag));
@@ -213,7 +194,7 @@ public final class JsonUtils {
                                                      String recordId,
                                                      String jsonPath,
                                                      boolean asLanguageTagged)  {
-    Map<String, Object> map = (LinkedHashMap<String, Object>) innerVal;
+    Map<String, Object> map = (Map<String, Object>) innerVal;
     var instance = new EdmFieldInstance();
     for (Map.Entry<String, Object> entry : map.entrySet()) {
       Object value = entry.getValue();
@@ -224,8 +205,8 @@ public final class JsonUtils {
       } else if (entry.getKey().equals(VALUE)) {
         instance.setValue((String) value);
       } else if (entry.getKey().equals("def")) {
-        if (value instanceof JSONArray) {
-          JSONArray values = (JSONArray) value;
+        if (value instanceof List) {
+          List<?> values = (List<?>) value;
           if (values.size() > 1) {
             LOGGER.severe(String.format(
               "Multiple values in a 'def' value: %s, [record ID: %s, path: %s]",
@@ -247,8 +228,8 @@ public final class JsonUtils {
         instance.setLanguage((String) value);
       } else if (asLanguageTagged) {
         instance.setLanguage(entry.getKey());
-        if (entry.getValue() instanceof JSONArray) {
-          JSONArray values = (JSONArray) entry.getValue();
+        if (entry.getValue() instanceof List) {
+          List<?> values = (List<?>) entry.getValue();
           instance.setValue((String) values.get(0));
         } else {
           LOGGER.severe("Other type of entry value: " + entry.getValue().getClass().getCanonicalName());
@@ -265,13 +246,13 @@ public final class JsonUtils {
 
   public static String extractString(Object value) {
     String extracted = null;
-    if (value.getClass() == String.class) {
+    if (value instanceof String) {
       extracted = (String) value;
-    } else if (value.getClass() == LinkedHashMap.class) {
-      Map<String, Object> map = (LinkedHashMap<String, Object>) value;
+    } else if (value instanceof Map) {
+      Map<String, Object> map = (Map<String, Object>) value;
       extracted = extractString(map.values().toArray()[0]);
-    } else if (value.getClass() == JSONArray.class) {
-      extracted = ((JSONArray) value).get(0).toString();
+    } else if (value instanceof List) {
+      extracted = ((List<?>) value).get(0).toString();
     } else {
       LOGGER.severe("Unhandled object type: " + getType(value));
     }
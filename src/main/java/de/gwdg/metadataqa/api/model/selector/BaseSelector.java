@@ -1,8 +1,10 @@
 package de.gwdg.metadataqa.api.model.selector;
 
+import de.gwdg.metadataqa.api.json.CompiledPath;
 import de.gwdg.metadataqa.api.json.DataElement;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,6 +13,11 @@ public abstract class BaseSelector<T extends XmlFieldInstance> implements Select
 
   protected String recordId;
   protected String content;
+  /**
+   * The record as UTF-8 bytes, if the selector has been created from bytes. It is
+   * decoded only if getContent() is called.
+   */
+  protected byte[] contentBytes;
 
   protected final Map<String, List<T>> cache = new HashMap<>();
   protected final Map<String, Object> typedCache = new HashMap<>();
@@ -22,7 +29,26 @@ public abstract class BaseSelector<T extends XmlFieldInstance> implements Select
     return get(path, path, null, null);
   }
   public List<T> get(DataElement dataElement) {
-    return get(dataElement.getPath(), dataElement.getPath(), null, null);
+    return get(dataElement.getPath(), dataElement.getCompiledPath(), null);
+  }
+
+  public List<T> get(CompiledPath path) {
+    return get(path.getPath(), path, null);
+  }
+
+  public List<T> get(String address, CompiledPath path, Object jsonFragment) {
+    if (!cache.containsKey(address)) {
+      set(address, path, jsonFragment);
+    }
+    return cache.get(address);
+  }
+
+  /**
+   * Read the values of a compiled path into the cache. The selectors which could use the
+   * compiled form override it, others read the path string.
+   */
+  protected void set(String address, CompiledPath path, Object jsonFragment) {
+    set(address, path.getPath(), jsonFragment, null);
   }
 
   public <E> E get(String path, Class<E> clazz) {
@@ -87,6 +113,8 @@ public abstract class BaseSelector<T extends XmlFieldInstance> implements Select
   }
 
   public String getContent() {
+    if (content == null && contentBytes != null)
+      content = new String(contentBytes, StandardCharsets.UTF_8);
     return content;
   }
 }
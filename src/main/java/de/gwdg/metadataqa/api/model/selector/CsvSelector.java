@@ -1,19 +1,24 @@
 package de.gwdg.metadataqa.api.model.selector;
 
 import com.jayway.jsonpath.InvalidJsonException;
+import de.gwdg.metadataqa.api.json.CompiledPath;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.util.CsvReader;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Logger;
 
 /**
  * A cache for reusing CSV paths (column names)
  *
+ * The cells of the record are kept as they have been parsed, and the paths are
+ * read by the index of their column in the header of the CSV reader. Blank cells
+ * do not have instances.
+ *
  * @author Péter Király <peter.kiraly at gwdg.de>
  * @param <T> the type of elements held in this object. It should be the
  *           extension of XmlFieldInstance class.
@@ -25,7 +30,8 @@ public class CsvSelector<T extends XmlFieldInstance> extends BaseSelector<T> {
   );
   private static final long serialVersionUID = -545628995288633641L;
 
-  private Map<String, String> record;
+  private CsvReader csvReader;
+  private List<String> columns;
 
   public CsvSelector(String content) throws InvalidJsonException {
     this.content = content;
@@ -36,7 +42,13 @@ public class CsvSelector<T extends XmlFieldInstance> extends BaseSelector<T> {
   }
 
   public CsvSelector(CsvReader csvReader, List<String> input) {
-    record = csvReader.createMap(input);
+    csvReader.checkSize(input.size());
+    this.csvReader = csvReader;
+    this.columns = input;
+  }
+
+  public CsvSelector(CsvReader csvReader, String[] input) {
+    this(csvReader, Arrays.asList(input));
   }
 
   @Override
@@ -45,14 +57,23 @@ public class CsvSelector<T extends XmlFieldInstance> extends BaseSelector<T> {
     cache.put(address, instances);
   }
 
+  @Override
+  protected void set(String address, CompiledPath path, Object jsonFragment) {
+    cache.put(address, read(csvReader == null ? -1 : path.columnIndexIn(csvReader)));
+  }
+
   public List<T> read(String path, Object jsonFragment) {
-    List<T> list = null;
-    if (record.containsKey(path) && StringUtils.isNotBlank(record.get(path)))
-      list = (List<T>) Arrays.asList(new XmlFieldInstance(record.get(path)));
-    // else
-    //   LOGGER.severe("PathNotFound: " + path);
+    return read(csvReader == null ? -1 : csvReader.indexOf(path));
+  }
+
+  private List<T> read(int index) {
+    if (index == -1 || columns == null || index >= columns.size())
+      return null;
 
-    return list;
+    String value = columns.get(index);
+    if (StringUtils.isBlank(value))
+      return null;
+    return (List<T>) Collections.singletonList(new XmlFieldInstance(value));
   }
 
   public Object getFragment(String path) {
@@ -75,7 +96,10 @@ public class CsvSelector<T extends XmlFieldInstance> extends BaseSelector<T> {
 
   public void setCsvReader(CsvReader csvReader) {
     try {
-      record = csvReader.asMap(content);
+      String[] cells = csvReader.asArray(content);
+      csvReader.checkSize(cells.length);
+      this.csvReader = csvReader;
+      this.columns = Arrays.asList(cells);
     } catch (IOException e) {
       LOGGER.warning(e.getLocalizedMessage());
     }
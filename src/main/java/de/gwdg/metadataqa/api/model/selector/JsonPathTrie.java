@@ -0,0 +1,333 @@
+package de.gwdg.metadataqa.api.model.selector;
+
+import com.jayway.jsonpath.spi.json.JsonProvider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of simple JSON paths compiled into a trie, so the values of all of them
+ * are read from a document in a single traversal, instead of one traversal per path.
+ *
+ * A simple path starts with $ and consists of property steps (.name, ['name'] or
+ * ["name"]), array index steps ([0], [-1]) and wildcard steps (.* or [*]). The
+ * results are the same as JsonPath.read() would return: the value for definite
+ * paths, a JSON array of the values for the paths with wildcard, and null if the
+ * path could not be found. Other paths (filters, deep scans, slices, functions etc.)
+ * are not added, they should be read with JsonPath.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class JsonPathTrie implements Serializable {
+
+  private static final long serialVersionUID = -2315236413522815394L;
+
+  private final Node root = new Node();
+  private final Map<String, Integer> indexes = new LinkedHashMap<>();
+  private final List<Boolean> definite = new ArrayList<>();
+
+  /**
+   * Create a trie of the simple paths among the given paths.
+   *
+   * @param paths The JSON paths
+   * @return The trie
+   */
+  public static JsonPathTrie create(Collection<String> paths) {
+    var trie = new JsonPathTrie();
+    for (String path : paths)
+      trie.add(path);
+    return trie;
+  }
+
+  /**
+   * Checks whether the path could be added to the trie.
+   *
+   * @param path A JSON path
+   * @return true if it is a simple path
+   */
+  public static boolean isSupported(String path) {
+    return parse(path) != null;
+  }
+
+  /**
+   * Add a path to the trie.
+   *
+   * @param path A JSON path
+   * @return true if the path is a simple path, and it has been added
+   */
+  public boolean add(String path) {
+    if (path == null)
+      return false;
+    if (indexes.containsKey(path))
+      return true;
+    List<Step> steps = parse(path);
+    if (steps == null)
+      return false;
+
+    int index = indexes.size();
+    indexes.put(path, index);
+    definite.add(steps.stream().noneMatch(step -> step.isWildcard));
+
+    var node = root;
+    node.subtreeTargets.add(index);
+    for (Step step : steps) {
+      node = node.child(step);
+      node.subtreeTargets.add(index);
+    }
+    node.targets.add(index);
+    return true;
+  }
+
+  /**
+   * The index of the value of the path in the array returned by evaluate().
+   *
+   * @param path A JSON path
+   * @return The index, or -1 if the path is not in the trie
+   */
+  public int indexOf(String path) {
+    Integer index = indexes.get(path);
+    return index == null ? -1 : index;
+  }
+
+  public Set<String> getPaths() {
+    return indexes.keySet();
+  }
+
+  public int size() {
+    return indexes.size();
+  }
+
+  /**
+   * Read the values of all paths from the document.
+   *
+   * @param document A JSON document parsed by the provider
+   * @param provider The JSON provider
+   * @return The values of the paths, in the order of indexOf()
+   */
+  public Object[] evaluate(Object document, JsonProvider provider) {
+    var evaluation = new Evaluation(size(), provider);
+    evaluation.evaluate(root, document, true);
+
+    var values = new Object[size()];
+    for (var i = 0; i < values.length; i++) {
+      if (evaluation.failed[i])
+        continue;
+      List<Object> hits = evaluation.hits[i];
+      if (definite.get(i)) {
+        if (hits != null)
+          values[i] = hits.get(hits.size() - 1);
+      } else {
+        Object array = provider.createArray();
+        if (hits != null)
+          for (var j = 0; j < hits.size(); j++)
+            provider.setArrayIndex(array, j, hits.get(j));
+        values[i] = array;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Parse a simple path into steps.
+   *
+   * @return The steps, or null if it is not a simple path
+   */
+  private static List<Step> parse(String path) {
+    if (path == null || !path.startsWith("$"))
+      return null;
+
+    List<Step> steps = new ArrayList<>();
+    int length = path.length();
+    var i = 1;
+    while (i < length) {
+      char c = path.charAt(i);
+      if (c == '.') {
+        i++;
+        if (i == length)
+          return null;
+        c = path.charAt(i);
+        if (c == '.')
+          return null; // deep scan
+        if (c == '*') {
+          steps.add(Step.wildcard());
+          i++;
+          continue;
+        }
+        if (c == '[')
+          continue;
+        int start = i;
+        while (i < length && isNameCharacter(path.charAt(i)))
+          i++;
+        if (i == start || (i < length && path.charAt(i) != '.' && path.charAt(i) != '['))
+          return null;
+        steps.add(Step.property(path.substring(start, i)));
+      } else if (c == '[') {
+        int end = path.indexOf(']', i);
+        if (end == -1)
+          return null;
+        Step step = parseBracket(path.substring(i + 1, end));
+        if (step == null)
+          return null;
+        steps.add(step);
+        i = end + 1;
+      } else {
+        return null;
+      }
+    }
+    return steps;
+  }
+
+  private static Step parseBracket(String content) {
+    if (content.equals("*"))
+      return Step.wildcard();
+
+    if (content.length() >= 2) {
+      char quote = content.charAt(0);
+      if ((quote == '\'' || quote == '"') && content.charAt(content.length() - 1) == quote) {
+        String name = content.substring(1, content.length() - 1);
+        if (name.isEmpty() || name.indexOf('\'') > -1 || name.indexOf('"') > -1 || name.indexOf('\\') > -1)
+          return null;
+        return Step.property(name);
+      }
+    }
+
+    if (content.matches("-?\\d{1,9}"))
+      return Step.index(Integer.parseInt(content));
+    return null;
+  }
+
+  private static boolean isNameCharacter(char c) {
+    return !Character.isWhitespace(c) && "$.[]'\"()?@,*\\".indexOf(c) == -1;
+  }
+
+  private static class Step {
+    private String name;
+    private int index;
+    private boolean isIndex;
+    private boolean isWildcard;
+
+    static Step property(String name) {
+      var step = new Step();
+      step.name = name;
+      return step;
+    }
+
+    static Step index(int index) {
+      var step = new Step();
+      step.index = index;
+      step.isIndex = true;
+      return step;
+    }
+
+    static Step wildcard() {
+      var step = new Step();
+      step.isWildcard = true;
+      return step;
+    }
+  }
+
+  private static class Node implements Serializable {
+    private static final long serialVersionUID = 5472063574196286120L;
+
+    private final Map<String, Node> properties = new LinkedHashMap<>();
+    private final Map<Integer, Node> indexes = new LinkedHashMap<>();
+    private Node wildcard;
+    /**
+     * The paths ending at this node.
+     */
+    private final List<Integer> targets = new ArrayList<>();
+    /**
+     * The paths going through this node.
+     */
+    private final List<Integer> subtreeTargets = new ArrayList<>();
+
+    Node child(Step step) {
+      if (step.isWildcard) {
+        if (wildcard == null)
+          wildcard = new Node();
+        return wildcard;
+      }
+      if (step.isIndex)
+        return indexes.computeIfAbsent(step.index, key -> new Node());
+      return properties.computeIfAbsent(step.name, key -> new Node());
+    }
+  }
+
+  /**
+   * The state of reading a document. A missing value or a value of an unexpected type
+   * before the first wildcard makes the path fail (as JsonPath throws an exception),
+   * after the first wildcard the branch is skipped.
+   */
+  private static class Evaluation {
+    private final List<Object>[] hits;
+    private final boolean[] failed;
+    private final JsonProvider provider;
+
+    Evaluation(int size, JsonProvider provider) {
+      this.hits = new List[size];
+      this.failed = new boolean[size];
+      this.provider = provider;
+    }
+
+    void evaluate(Node node, Object model, boolean isUpstreamDefinite) {
+      for (int target : node.targets) {
+        if (hits[target] == null)
+          hits[target] = new ArrayList<>();
+        hits[target].add(model);
+      }
+
+      if (!node.properties.isEmpty()) {
+        if (!provider.isMap(model)) {
+          if (isUpstreamDefinite)
+            for (Node child : node.properties.values())
+              fail(child);
+        } else {
+          for (Map.Entry<String, Node> entry : node.properties.entrySet()) {
+            Object value = provider.getMapValue(model, entry.getKey());
+            if (value == JsonProvider.UNDEFINED) {
+              if (isUpstreamDefinite)
+                fail(entry.getValue());
+            } else {
+              evaluate(entry.getValue(), value, isUpstreamDefinite);
+            }
+          }
+        }
+      }
+
+      if (!node.indexes.isEmpty()) {
+        if (!provider.isArray(model)) {
+          if (isUpstreamDefinite)
+            for (Node child : node.indexes.values())
+              fail(child);
+        } else {
+          int length = provider.length(model);
+          for (Map.Entry<Integer, Node> entry : node.indexes.entrySet()) {
+            int index = entry.getKey() < 0 ? length + entry.getKey() : entry.getKey();
+            if (index >= 0 && index < length)
+              evaluate(entry.getValue(), provider.getArrayIndex(model, index), isUpstreamDefinite);
+          }
+        }
+      }
+
+      if (node.wildcard != null) {
+        if (provider.isMap(model)) {
+          for (String key : provider.getPropertyKeys(model))
+            evaluate(node.wildcard, provider.getMapValue(model, key), false);
+        } else if (provider.isArray(model)) {
+          for (int i = 0, length = provider.length(model); i < length; i++)
+            evaluate(node.wildcard, provider.getArrayIndex(model, i), false);
+        }
+      }
+    }
+
+    private void fail(Node node) {
+      for (int target : node.subtreeTargets)
+        failed[target] = true;
+    }
+  }
+}
@@ -1,6 +1,9 @@
 package de.gwdg.metadataqa.api.model.selector;
 
+import de.gwdg.metadataqa.api.json.CompiledPath;
 import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.json.JsonProjection;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
 import de.gwdg.metadataqa.api.json.JsonUtils;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.util.ExceptionUtils;
@@ -9,8 +12,6 @@ import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
-import com.jayway.jsonpath.spi.json.JsonProvider;
-import net.minidev.json.JSONArray;
 
 import java.util.List;
 import java.util.logging.Level;
@@ -31,15 +32,73 @@ public class JsonSelector<T extends XmlFieldInstance> extends BaseSelector<T> {
   private static final long serialVersionUID = -7087854432160794878L;
 
   private final Object document;
-  private static final JsonProvider JSON_PROVIDER = Configuration.defaultConfiguration().jsonProvider();
+  private final transient Configuration configuration;
+  private JsonPathTrie trie;
+  private Object[] trieValues;
 
   public JsonSelector(String content) throws InvalidJsonException {
+    this(content, JsonProviderType.SMART.getConfiguration());
+  }
+
+  /**
+   * @param content The JSON record
+   * @param configuration The JSON path configuration, its JSON provider parses the record
+   */
+  public JsonSelector(String content, Configuration configuration) throws InvalidJsonException {
+    this(content, configuration, null);
+  }
+
+  /**
+   * @param content The JSON record
+   * @param configuration The JSON path configuration, its JSON provider parses the record
+   * @param projection The parts of the record to parse, or null to parse the whole record
+   */
+  public JsonSelector(String content, Configuration configuration, JsonProjection projection)
+      throws InvalidJsonException {
     this.content = content;
-    this.document = JSON_PROVIDER.parse(content);
+    this.configuration = configuration;
+    this.document = configuration.jsonProvider().parse(projection == null ? content : projection.apply(content));
+  }
+
+  /**
+   * @param content The JSON record as UTF-8 bytes, the JSON provider parses them without
+   *                decoding them into a string
+   * @param configuration The JSON path configuration
+   * @param projection The parts of the record to parse, or null to parse the whole record
+   */
+  public JsonSelector(byte[] content, Configuration configuration, JsonProjection projection)
+      throws InvalidJsonException {
+    this.contentBytes = content;
+    this.configuration = configuration;
+    this.document = projection == null
+      ? configuration.jsonProvider().parse(content)
+      : configuration.jsonProvider().parse(projection.apply(getContent()));
   }
 
   public JsonSelector(Object jsonDocument) {
+    this(jsonDocument, JsonProviderType.SMART.getConfiguration());
+  }
+
+  /**
+   * @param jsonDocument A JSON document parsed by the JSON provider of the configuration
+   * @param configuration The JSON path configuration
+   */
+  public JsonSelector(Object jsonDocument, Configuration configuration) {
     this.document = jsonDocument;
+    this.configuration = configuration;
+  }
+
+  /**
+   * Read the values of all paths of the trie in a single traversal of the document.
+   * Later reads of these paths from the document use these values.
+   *
+   * @param trie The paths of the schema
+   * @return this selector
+   */
+  public JsonSelector<T> prefetch(JsonPathTrie trie) {
+    this.trie = trie;
+    this.trieValues = trie.evaluate(document, getConfiguration().jsonProvider());
+    return this;
   }
 
   public List<T> get(DataElement dataElement) {
@@ -51,15 +110,15 @@ public class JsonSelector<T extends XmlFieldInstance> extends BaseSelector<T> {
 
   protected void set(DataElement dataElement, Object jsonFragment, Class clazz) {
     List<T> instances = null;
-    Object value = read(dataElement.getPath(), jsonFragment);
+    Object value = read(dataElement.getCompiledPath(), jsonFragment);
     if (value != null) {
       if (clazz == null) {
         instances = (List<T>) JsonUtils.extractFieldInstanceList(
           value, recordId, dataElement.getPath(), dataElement.isAsLanguageTagged()
         );
       } else {
-        if (value instanceof JSONArray) {
-          typedCache.put(dataElement.getPath(), clazz.cast(((JSONArray) value).get(0)));
+        if (value instanceof List) {
+          typedCache.put(dataElement.getPath(), clazz.cast(((List) value).get(0)));
         } else {
           typedCache.put(dataElement.getPath(), value);
         }
@@ -87,8 +146,8 @@ public class JsonSelector<T extends XmlFieldInstance> extends BaseSelector<T> {
       if (clazz == null) {
         instances = (List<T>) JsonUtils.extractFieldInstanceList(value, recordId, path, false);
       } else {
-        if (value instanceof JSONArray) {
-          typedCache.put(address, clazz.cast(((JSONArray) value).get(0)));
+        if (value instanceof List) {
+          typedCache.put(address, clazz.cast(((List) value).get(0)));
         } else {
           typedCache.put(address, value);
         }
@@ -97,24 +156,74 @@ public class JsonSelector<T extends XmlFieldInstance> extends BaseSelector<T> {
     cache.put(address, instances);
   }
 
+  @Override
+  protected void set(String address, CompiledPath path, Object jsonFragment) {
+    List<T> instances = null;
+    Object value = read(path, jsonFragment);
+    if (value != null)
+      instances = (List<T>) JsonUtils.extractFieldInstanceList(value, recordId, path.getPath(), false);
+    cache.put(address, instances);
+  }
+
+  /**
+   * Read a compiled path from the document or from a fragment.
+   *
+   * @param path The compiled path
+   * @param jsonFragment The fragment, or null for the document
+   * @return The value, or null if the path is not found or invalid
+   */
+  public Object read(CompiledPath path, Object jsonFragment) {
+    if (jsonFragment == null && trie != null) {
+      int index = path.indexIn(trie);
+      if (index > -1)
+        return trieValues[index];
+    }
+
+    try {
+      JsonPath jsonPath = path.getJsonPath();
+      if (jsonPath == null)
+        return read(path.getPath(), jsonFragment);
+      return jsonPath.read(jsonFragment != null ? jsonFragment : document, getConfiguration());
+    } catch (PathNotFoundException e) {
+      // the record does not have the field
+    } catch (InvalidPathException e) {
+      logInvalidPath(path.getPath(), e);
+    }
+    return null;
+  }
+
   public Object read(String path, Object jsonFragment) {
+    if (jsonFragment == null && trie != null) {
+      int index = trie.indexOf(path);
+      if (index > -1)
+        return trieValues[index];
+    }
+
     Object value = null;
     try {
-      if (jsonFragment != null) {
-        value = JsonPath.read(jsonFragment, path);
-      } else {
-        value = JsonPath.read(document, path);
-      }
+      value = JsonPath.using(getConfiguration()).parse(jsonFragment != null ? jsonFragment : document).read(path);
     } catch (PathNotFoundException e) {
       // LOGGER.severe("PathNotFound: " + path + " " + e.getLocalizedMessage() + extractRelevantPath(e));
     } catch (InvalidPathException e) {
-      LOGGER.log(Level.SEVERE, "Invalid Path: {0} {1}\n{2}", new Object[]{
-        path, e.getLocalizedMessage(), ExceptionUtils.extractRelevantPath(e)
-      });
+      logInvalidPath(path, e);
     }
     return value;
   }
 
+  private static void logInvalidPath(String path, InvalidPathException e) {
+    LOGGER.log(Level.SEVERE, "Invalid Path: {0} {1}\n{2}", new Object[]{
+      path, e.getLocalizedMessage(), ExceptionUtils.extractRelevantPath(e)
+    });
+  }
+
+  protected Object getDocument() {
+    return document;
+  }
+
+  protected Configuration getConfiguration() {
+    return configuration != null ? configuration : JsonProviderType.SMART.getConfiguration();
+  }
+
   public Object getFragment(String path) {
     Object jsonFragment = null;
     if (!fragmentCache.containsKey(path)) {
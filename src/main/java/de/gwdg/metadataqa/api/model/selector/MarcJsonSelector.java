@@ -0,0 +1,315 @@
+package de.gwdg.metadataqa.api.model.selector;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+import de.gwdg.metadataqa.api.json.CompiledPath;
+import de.gwdg.metadataqa.api.json.JsonProjection;
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A JSON selector for MARC JSON records (see MarcJsonSchema). The data elements of
+ * MARC are addressed by filter expressions, like
+ * $.datafield[?(@.tag == '245')].subfield[?(@.code == 'a')].content, and JsonPath
+ * evaluates these filters by iterating over all fields and subfields of the record
+ * for each path. This selector indexes the control fields and data fields of the
+ * record by tag, and the subfields of a data field by code at their first use, and
+ * reads the paths of these patterns from the index. The results are the same as
+ * JsonPath would return. Other paths are read by JsonSelector.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class MarcJsonSelector<T extends XmlFieldInstance> extends JsonSelector<T> {
+
+  private static final long serialVersionUID = 4217160285364733930L;
+
+  /**
+   * The result of reading a path, which could not be read from the index.
+   */
+  private static final Object NOT_INDEXED = new Object();
+
+  private transient Index controlfields;
+  private transient Index datafields;
+  private transient Map<Object, Index> subfields;
+
+  public MarcJsonSelector(String content) throws InvalidJsonException {
+    super(content);
+  }
+
+  public MarcJsonSelector(String content, Configuration configuration) throws InvalidJsonException {
+    super(content, configuration);
+  }
+
+  public MarcJsonSelector(String content, Configuration configuration, JsonProjection projection)
+      throws InvalidJsonException {
+    super(content, configuration, projection);
+  }
+
+  public MarcJsonSelector(byte[] content, Configuration configuration, JsonProjection projection)
+      throws InvalidJsonException {
+    super(content, configuration, projection);
+  }
+
+  public MarcJsonSelector(Object jsonDocument) {
+    super(jsonDocument);
+  }
+
+  public MarcJsonSelector(Object jsonDocument, Configuration configuration) {
+    super(jsonDocument, configuration);
+  }
+
+  @Override
+  public Object read(CompiledPath path, Object jsonFragment) {
+    Object value = readIndexed(path.getPath(), jsonFragment);
+    return value == NOT_INDEXED ? super.read(path, jsonFragment) : value;
+  }
+
+  @Override
+  public Object read(String path, Object jsonFragment) {
+    Object value = readIndexed(path, jsonFragment);
+    return value == NOT_INDEXED ? super.read(path, jsonFragment) : value;
+  }
+
+  private Object readIndexed(String path, Object jsonFragment) {
+    MarcPath marcPath = MarcPath.of(path);
+    if (marcPath == null)
+      return NOT_INDEXED;
+
+    if (marcPath.type == MarcPath.Type.SUBFIELD_OF_FRAGMENT) {
+      if (jsonFragment == null)
+        return NOT_INDEXED;
+      return readContents(getSubfields(jsonFragment), marcPath.code);
+    }
+
+    if (jsonFragment != null)
+      return NOT_INDEXED;
+
+    switch (marcPath.type) {
+      case CONTROLFIELD:
+        return readContents(getControlfields(), marcPath.tag);
+      case DATAFIELD:
+        return readDatafields(marcPath.tag);
+      case SUBFIELD:
+      default:
+        return readSubfieldContents(marcPath.tag, marcPath.code);
+    }
+  }
+
+  /**
+   * The fields having the tag: $.datafield[?(@.tag == '%s')]
+   */
+  private Object readDatafields(String tag) {
+    Index index = getDatafields();
+    if (index.isIrregular)
+      return NOT_INDEXED;
+    if (index.isMissing)
+      return null;
+    return createArray(index.get(tag));
+  }
+
+  /**
+   * The content of the subfields of the fields having the tag:
+   * $.datafield[?(@.tag == '%s')].subfield[?(@.code == '%s')].content
+   */
+  private Object readSubfieldContents(String tag, String code) {
+    Index index = getDatafields();
+    if (index.isIrregular)
+      return NOT_INDEXED;
+    if (index.isMissing)
+      return null;
+
+    JsonProvider provider = getConfiguration().jsonProvider();
+    List<Object> values = new ArrayList<>();
+    for (Object datafield : index.get(tag)) {
+      Index subfieldIndex = getSubfields(datafield);
+      if (subfieldIndex.isIrregular)
+        return NOT_INDEXED;
+      for (Object subfield : subfieldIndex.get(code))
+        addContent(provider, subfield, values);
+    }
+    return createArray(values);
+  }
+
+  /**
+   * The content of the items having the key (tag or code) in the index.
+   */
+  private Object readContents(Index index, String key) {
+    if (index.isIrregular)
+      return NOT_INDEXED;
+    if (index.isMissing)
+      return null;
+
+    JsonProvider provider = getConfiguration().jsonProvider();
+    List<Object> values = new ArrayList<>();
+    for (Object item : index.get(key))
+      addContent(provider, item, values);
+    return createArray(values);
+  }
+
+  private static void addContent(JsonProvider provider, Object item, List<Object> values) {
+    Object content = provider.getMapValue(item, "content");
+    if (content != JsonProvider.UNDEFINED)
+      values.add(content);
+  }
+
+  private Object createArray(List<Object> values) {
+    JsonProvider provider = getConfiguration().jsonProvider();
+    Object array = provider.createArray();
+    for (var i = 0; i < values.size(); i++)
+      provider.setArrayIndex(array, i, values.get(i));
+    return array;
+  }
+
+  private Index getControlfields() {
+    if (controlfields == null)
+      controlfields = Index.create(getConfiguration().jsonProvider(), getDocument(), "controlfield", "tag");
+    return controlfields;
+  }
+
+  private Index getDatafields() {
+    if (datafields == null)
+      datafields = Index.create(getConfiguration().jsonProvider(), getDocument(), "datafield", "tag");
+    return datafields;
+  }
+
+  private Index getSubfields(Object datafield) {
+    if (subfields == null)
+      subfields = new IdentityHashMap<>();
+    return subfields.computeIfAbsent(
+      datafield, key -> Index.create(getConfiguration().jsonProvider(), key, "subfield", "code")
+    );
+  }
+
+  /**
+   * The items of an array property grouped by the string value of a key of the items.
+   */
+  private static class Index {
+    private static final Index MISSING = new Index(true, false);
+    private static final Index IRREGULAR = new Index(false, true);
+
+    /**
+     * The array property is missing, JsonPath would not find the path.
+     */
+    private final boolean isMissing;
+    /**
+     * The property is not an array, or the container is not an object: it is left to JsonPath.
+     */
+    private final boolean isIrregular;
+    private final Map<String, List<Object>> items = new HashMap<>();
+
+    private Index(boolean isMissing, boolean isIrregular) {
+      this.isMissing = isMissing;
+      this.isIrregular = isIrregular;
+    }
+
+    static Index create(JsonProvider provider, Object container, String property, String key) {
+      if (!provider.isMap(container))
+        return IRREGULAR;
+      Object array = provider.getMapValue(container, property);
+      if (array == JsonProvider.UNDEFINED)
+        return MISSING;
+      if (!provider.isArray(array))
+        return IRREGULAR;
+
+      var index = new Index(false, false);
+      for (int i = 0, length = provider.length(array); i < length; i++) {
+        Object item = provider.getArrayIndex(array, i);
+        if (provider.isMap(item)) {
+          Object value = provider.getMapValue(item, key);
+          if (value instanceof String)
+            index.items.computeIfAbsent((String) value, k -> new ArrayList<>()).add(item);
+        }
+      }
+      return index;
+    }
+
+    List<Object> get(String key) {
+      return items.getOrDefault(key, List.of());
+    }
+  }
+
+  /**
+   * A path of one of the MARC path patterns.
+   */
+  private static class MarcPath {
+    private static final int MAX_CACHE_SIZE = 10_000;
+    private static final MarcPath NONE = new MarcPath(null, null, null);
+    private static final Map<String, MarcPath> CACHE = new ConcurrentHashMap<>();
+
+    private static final Pattern CONTROLFIELD = toRegex(MarcJsonSchema.CONTROLFIELD_PATTERN);
+    private static final Pattern DATAFIELD = toRegex(MarcJsonSchema.DATAFIELD_PARENT_PATTERN);
+    private static final Pattern SUBFIELD = toRegex(MarcJsonSchema.DATAFIELD_PATTERN);
+    private static final Pattern SUBFIELD_OF_FRAGMENT = toRegex(MarcJsonSchema.DATAFIELD_CHILDREN_PATTERN);
+
+    enum Type {
+      CONTROLFIELD, DATAFIELD, SUBFIELD, SUBFIELD_OF_FRAGMENT
+    }
+
+    private final Type type;
+    private final String tag;
+    private final String code;
+
+    private MarcPath(Type type, String tag, String code) {
+      this.type = type;
+      this.tag = tag;
+      this.code = code;
+    }
+
+    /**
+     * @return The parsed path, or null if it does not match any of the patterns
+     */
+    static MarcPath of(String path) {
+      MarcPath marcPath = CACHE.get(path);
+      if (marcPath == null) {
+        marcPath = parse(path);
+        if (CACHE.size() < MAX_CACHE_SIZE)
+          CACHE.put(path, marcPath);
+      }
+      return marcPath == NONE ? null : marcPath;
+    }
+
+    private static MarcPath parse(String path) {
+      Matcher matcher = SUBFIELD.matcher(path);
+      if (matcher.matches())
+        return new MarcPath(Type.SUBFIELD, matcher.group(1), matcher.group(2));
+
+      matcher = DATAFIELD.matcher(path);
+      if (matcher.matches())
+        return new MarcPath(Type.DATAFIELD, matcher.group(1), null);
+
+      matcher = SUBFIELD_OF_FRAGMENT.matcher(path);
+      if (matcher.matches())
+        return new MarcPath(Type.SUBFIELD_OF_FRAGMENT, null, matcher.group(1));
+
+      matcher = CONTROLFIELD.matcher(path);
+      if (matcher.matches())
+        return new MarcPath(Type.CONTROLFIELD, matcher.group(1), null);
+
+      return NONE;
+    }
+
+    /**
+     * Turns a pattern of MarcJsonSchema into a regular expression, %s matches a quoted value.
+     */
+    private static Pattern toRegex(String pattern) {
+      var regex = new StringBuilder();
+      String[] parts = pattern.split("%s", -1);
+      for (var i = 0; i < parts.length; i++) {
+        if (i > 0)
+          regex.append("([^'\\\\]*)");
+        regex.append(Pattern.quote(parts[i]));
+      }
+      return Pattern.compile(regex.toString());
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package de.gwdg.metadataqa.api.model.selector;
 
+import de.gwdg.metadataqa.api.json.CompiledPath;
 import de.gwdg.metadataqa.api.json.DataElement;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 
@@ -16,6 +17,8 @@ public interface Selector<T extends XmlFieldInstance> extends Serializable {
   // <E> E get(String path, Class<E> clazz);
   List<T> get(String address, String path, Object jsonFragment);
   List<T> get(String address, String path, Object jsonFragment, Class clazz);
+  List<T> get(CompiledPath path);
+  List<T> get(String address, CompiledPath path, Object jsonFragment);
 
   Object getFragment(String path);
   Object getFragment(String address, String path, Object jsonFragment);
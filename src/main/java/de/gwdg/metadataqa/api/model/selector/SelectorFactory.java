@@ -1,8 +1,14 @@
 package de.gwdg.metadataqa.api.model.selector;
 
+import com.jayway.jsonpath.Configuration;
+import de.gwdg.metadataqa.api.json.JsonProjection;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+import de.gwdg.metadataqa.api.schema.Schema;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public class SelectorFactory {
@@ -17,9 +23,23 @@ public class SelectorFactory {
   public static Selector<? extends XmlFieldInstance> getInstance(Format format,
                                                                  String content,
                                                                  Map<String, String> namespaces) {
+    return getInstance(format, content, namespaces, JsonProviderType.SMART.getConfiguration());
+  }
+
+  /**
+   * @param format The format of the record
+   * @param content The record
+   * @param namespaces The XML namespaces (for XML)
+   * @param jsonConfiguration The JSON path configuration (for JSON)
+   * @return The selector of the record
+   */
+  public static Selector<? extends XmlFieldInstance> getInstance(Format format,
+                                                                 String content,
+                                                                 Map<String, String> namespaces,
+                                                                 Configuration jsonConfiguration) {
     Selector<? extends XmlFieldInstance> cache;
     if (format == Format.JSON) {
-      cache = new JsonSelector<>(content);
+      cache = new JsonSelector<>(content, jsonConfiguration);
     } else if (format == Format.XML) {
       cache = new XmlSelector<>(content, namespaces);
     } else if (format == Format.CSV) {
@@ -29,4 +49,81 @@ public class SelectorFactory {
     }
     return cache;
   }
+
+  /**
+   * Creates the selector of a record of the schema. The records of MarcJsonSchema
+   * get a MarcJsonSelector, the others get the selector of their format.
+   *
+   * @param schema The schema
+   * @param content The record
+   * @param jsonConfiguration The JSON path configuration (for JSON)
+   * @return The selector of the record
+   */
+  public static Selector<? extends XmlFieldInstance> getInstance(Schema schema,
+                                                                 String content,
+                                                                 Configuration jsonConfiguration) {
+    return getInstance(schema, content, jsonConfiguration, null);
+  }
+
+  /**
+   * Creates the selector of a record of the schema, which parses only the projection
+   * of the JSON records.
+   *
+   * @param schema The schema
+   * @param content The record
+   * @param jsonConfiguration The JSON path configuration (for JSON)
+   * @param projection The parts of the JSON records to parse, or null to parse them fully
+   * @return The selector of the record
+   */
+  public static Selector<? extends XmlFieldInstance> getInstance(Schema schema,
+                                                                 String content,
+                                                                 Configuration jsonConfiguration,
+                                                                 JsonProjection projection) {
+    if (schema instanceof MarcJsonSchema)
+      return new MarcJsonSelector<>(content, jsonConfiguration, projection);
+    if (schema.getFormat() == Format.JSON)
+      return new JsonSelector<>(content, jsonConfiguration, projection);
+    return getInstance(schema.getFormat(), content, schema.getNamespaces(), jsonConfiguration);
+  }
+
+  /**
+   * Creates the selector of a record of the schema from UTF-8 bytes. The JSON and XML
+   * parsers read the bytes, the CSV records are decoded.
+   *
+   * @param schema The schema
+   * @param content The record
+   * @param jsonConfiguration The JSON path configuration (for JSON)
+   * @param projection The parts of the JSON records to parse, or null to parse them fully
+   * @return The selector of the record
+   */
+  public static Selector<? extends XmlFieldInstance> getInstance(Schema schema,
+                                                                 byte[] content,
+                                                                 Configuration jsonConfiguration,
+                                                                 JsonProjection projection) {
+    if (schema instanceof MarcJsonSchema)
+      return new MarcJsonSelector<>(content, jsonConfiguration, projection);
+    if (schema.getFormat() == Format.JSON)
+      return new JsonSelector<>(content, jsonConfiguration, projection);
+    if (schema.getFormat() == Format.XML)
+      return new XmlSelector<>(content, schema.getNamespaces());
+    return getInstance(schema, new String(content, StandardCharsets.UTF_8), jsonConfiguration, projection);
+  }
+
+  /**
+   * Creates the selector of a JSON record which has already been parsed.
+   *
+   * @param schema The schema
+   * @param document The record parsed by the JSON provider of the configuration
+   * @param jsonConfiguration The JSON path configuration
+   * @return The selector of the record
+   */
+  public static Selector<? extends XmlFieldInstance> getInstance(Schema schema,
+                                                                 Object document,
+                                                                 Configuration jsonConfiguration) {
+    if (schema.getFormat() != Format.JSON)
+      throw new IllegalArgumentException("Format is not JSON: " + schema.getFormat());
+    if (schema instanceof MarcJsonSchema)
+      return new MarcJsonSelector<>(document, jsonConfiguration);
+    return new JsonSelector<>(document, jsonConfiguration);
+  }
 }
@@ -3,9 +3,11 @@ package de.gwdg.metadataqa.api.model.selector;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.PathNotFoundException;
+import de.gwdg.metadataqa.api.json.CompiledPath;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.util.ExceptionUtils;
 import de.gwdg.metadataqa.api.xml.XPathWrapper;
+import org.w3c.dom.Node;
 
 import java.util.List;
 import java.util.Map;
@@ -38,11 +40,34 @@ public class XmlSelector<T extends XmlFieldInstance> extends BaseSelector<T> {
     xPathWrapper = new XPathWrapper(content, namespaces);
   }
 
+  /**
+   * @param content The record as bytes, the XML parser reads them without decoding them into a string
+   * @param namespaces The namespace prefix - URI map
+   */
+  public XmlSelector(byte[] content, Map<String, String> namespaces) {
+    this.contentBytes = content;
+    xPathWrapper = new XPathWrapper(content, namespaces);
+  }
+
+  /**
+   * @param content An already parsed record, see XPathWrapper(Node, Map). The content of the
+   *                selector (getContent()) is null in this case.
+   * @param namespaces The namespace prefix - URI map
+   */
+  public XmlSelector(Node content, Map<String, String> namespaces) {
+    xPathWrapper = new XPathWrapper(content, namespaces);
+  }
+
   protected void set(String address, String path, Object jsonFragment, Class clazz) {
     List<T> instances = read(path, jsonFragment);
     cache.put(address, instances);
   }
 
+  @Override
+  protected void set(String address, CompiledPath path, Object jsonFragment) {
+    cache.put(address, (List<T>) xPathWrapper.extractFieldInstanceList(jsonFragment, path));
+  }
+
   public List<T> read(String path, Object jsonFragment) {
     List<T> value = null;
     try {
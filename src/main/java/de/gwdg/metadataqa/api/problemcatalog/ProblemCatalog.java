@@ -6,6 +6,8 @@ import de.gwdg.metadataqa.api.interfaces.Observable;
 import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.model.selector.Selector;
 import de.gwdg.metadataqa.api.schema.ProblemCatalogSchema;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,7 +24,11 @@ public class ProblemCatalog extends BaseProblemCatalog<Double> implements Serial
   private static final String CALCULATOR_NAME = "problemCatalog";
 
   private final List<Observer> problems = new ArrayList<>();
-  private Selector cache;
+  /**
+   * The record under measurement. It is kept per thread, so the catalog can
+   * measure records in parallel.
+   */
+  private transient ThreadLocal<Selector> cache = new ThreadLocal<>();
   private ProblemCatalogSchema schema;
 
   public ProblemCatalog(ProblemCatalogSchema schema) {
@@ -49,16 +55,20 @@ public class ProblemCatalog extends BaseProblemCatalog<Double> implements Serial
   @Override
   public void notifyObservers(FieldCounter<Double> fieldCounter) {
     for (Observer observer : problems) {
-      observer.update(cache, fieldCounter);
+      observer.update(cache.get(), fieldCounter);
     }
   }
 
   @Override
   public List<MetricResult> measure(Selector cache) {
-    this.cache = cache;
-    FieldCounter<Double> fieldCounter = new FieldCounter<>();
-    notifyObservers(fieldCounter);
-    return List.of(new FieldCounterBasedResult<>(getCalculatorName(), fieldCounter));
+    this.cache.set(cache);
+    try {
+      FieldCounter<Double> fieldCounter = new FieldCounter<>();
+      notifyObservers(fieldCounter);
+      return List.of(new FieldCounterBasedResult<>(getCalculatorName(), fieldCounter));
+    } finally {
+      this.cache.remove();
+    }
   }
 
   @Override
@@ -73,4 +83,9 @@ public class ProblemCatalog extends BaseProblemCatalog<Double> implements Serial
   public ProblemCatalogSchema getSchema() {
     return schema;
   }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    cache = new ThreadLocal<>();
+  }
 }
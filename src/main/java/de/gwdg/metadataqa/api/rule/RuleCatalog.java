@@ -17,8 +17,10 @@ public class RuleCatalog implements Calculator, Serializable {
   private Schema schema;
   private boolean onlyIdInHeader = false;
   private RuleCheckingOutputType outputType = RuleCheckingOutputType.BOTH;
-  private boolean hiddenIdsCollected = false;
-  private List<String> hiddenIds = new ArrayList<>();
+  /**
+   * The headers of the hidden rules. Collected at the first measurement.
+   */
+  private volatile List<String> hiddenIds;
 
   public RuleCatalog(Schema schema) {
     this.schema = schema;
@@ -37,15 +39,11 @@ public class RuleCatalog implements Calculator, Serializable {
         if (score != null)
           totalScore += score.intValue();
       }
-      if (!hiddenIdsCollected)
-        collectHiddenIds(hiddenIds, ruleChecker);
     }
-    if (!hiddenIdsCollected)
-      hiddenIdsCollected = true;
     if (outputType != RuleCheckingOutputType.STATUS)
       fieldCounter.put(CALCULATOR_NAME + ":score", new RuleCheckerOutput(RuleCheckingOutputStatus.NA, totalScore).setOutputType(outputType));
 
-    removeHiddenScores(fieldCounter, hiddenIds);
+    removeHiddenScores(fieldCounter, getHiddenIds());
 
     return List.of(new FieldCounterBasedResult<>(getCalculatorName(), fieldCounter));
   }
@@ -80,9 +78,21 @@ public class RuleCatalog implements Calculator, Serializable {
 
   public RuleCatalog setOutputType(RuleCheckingOutputType outputType) {
     this.outputType = outputType;
+    this.hiddenIds = null;
     return this;
   }
 
+  private List<String> getHiddenIds() {
+    List<String> ids = hiddenIds;
+    if (ids == null) {
+      ids = new ArrayList<>();
+      for (RuleChecker ruleChecker : schema.getRuleCheckers())
+        collectHiddenIds(ids, ruleChecker);
+      hiddenIds = ids;
+    }
+    return ids;
+  }
+
   private void collectHiddenIds(List<String> hiddenIds, RuleChecker ruleChecker) {
     if (ruleChecker.isHidden()) {
       if (outputType.equals(RuleCheckingOutputType.BOTH)) {
@@ -26,8 +26,8 @@ public class DisjointChecker extends PropertyPairChecker {
 
     var allPassed = true;
     var isNA = false;
-    List<XmlFieldInstance> instances1 = cache.get(field1.getAbsolutePath().replace("[*]", ""));
-    List<XmlFieldInstance> instances2 = cache.get(field2.getAbsolutePath().replace("[*]", ""));
+    List<XmlFieldInstance> instances1 = cache.get(getPath1());
+    List<XmlFieldInstance> instances2 = cache.get(getPath2());
     if (instances1 != null && !instances1.isEmpty() && instances2 != null && !instances2.isEmpty()) {
       for (XmlFieldInstance instance1 : instances1) {
         if (instance1.hasValue()) {
@@ -1,5 +1,6 @@
 package de.gwdg.metadataqa.api.rule.pairchecker;
 
+import de.gwdg.metadataqa.api.json.CompiledPath;
 import de.gwdg.metadataqa.api.json.DataElement;
 import de.gwdg.metadataqa.api.rule.BaseRuleChecker;
 
@@ -8,6 +9,8 @@ public abstract class PropertyPairChecker extends BaseRuleChecker {
   private static final long serialVersionUID = -6579708841667005135L;
   protected DataElement field1;
   protected DataElement field2;
+  private transient CompiledPath path1;
+  private transient CompiledPath path2;
 
   protected PropertyPairChecker(DataElement field1, DataElement field2, String prefix) {
     if (field1 == null)
@@ -19,4 +22,28 @@ public abstract class PropertyPairChecker extends BaseRuleChecker {
     this.field2 = field2;
     this.header = String.format("%s:%s:%s", field1.getLabel(), prefix, field2.getLabel());
   }
+
+  /**
+   * The absolute path of the first field, compiled at the first use.
+   * @return The compiled path
+   */
+  protected CompiledPath getPath1() {
+    if (path1 == null)
+      path1 = compileAbsolutePath(field1);
+    return path1;
+  }
+
+  /**
+   * The absolute path of the second field, compiled at the first use.
+   * @return The compiled path
+   */
+  protected CompiledPath getPath2() {
+    if (path2 == null)
+      path2 = compileAbsolutePath(field2);
+    return path2;
+  }
+
+  private static CompiledPath compileAbsolutePath(DataElement field) {
+    return CompiledPath.of(field.getAbsolutePath().replace("[*]", ""), field.getSchema());
+  }
 }
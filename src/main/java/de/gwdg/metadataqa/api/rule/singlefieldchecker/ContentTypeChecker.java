@@ -2,15 +2,16 @@ package de.gwdg.metadataqa.api.rule.singlefieldchecker;
 
 import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.json.DataElement;
-import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.model.selector.Selector;
 import de.gwdg.metadataqa.api.rule.RuleCheckerOutput;
 import de.gwdg.metadataqa.api.rule.RuleCheckingOutputStatus;
 import de.gwdg.metadataqa.api.rule.RuleCheckingOutputType;
 import de.gwdg.metadataqa.api.util.ContentTypeExtractor;
+import de.gwdg.metadataqa.api.util.RemoteLookup;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 public class ContentTypeChecker extends SingleFieldChecker {
@@ -38,30 +39,30 @@ public class ContentTypeChecker extends SingleFieldChecker {
     var isNA = true;
     int instanceCount = 0;
     int failureCount = 0;
-    List<XmlFieldInstance> instances = cache.get(field);
-    if (instances != null && !instances.isEmpty()) {
-      for (XmlFieldInstance instance : instances) {
-        if (instance.hasValue()) {
+    List<String> values = getValues(cache.get(field));
+    // the HTTP requests run concurrently, the results are evaluated in the original order
+    List<Future<String>> contentTypes = RemoteLookup.submit(values, ContentTypeExtractor::getContentType);
+    for (var i = 0; i < values.size(); i++) {
+      if (countInstances())
+        instanceCount++;
+      isNA = false;
+      try {
+        String contentType = RemoteLookup.get(contentTypes.get(i));
+        if (isDebug())
+          LOGGER.info(String.format("value: '%s' -> '%s'", values.get(i), contentType));
+        if (contentType == null || !fixedValues.contains(contentType)) {
+          allPassed = false;
           if (countInstances())
-            instanceCount++;
-          isNA = false;
-          try {
-            String contentType = ContentTypeExtractor.getContentType(instance.getValue());
-            if (isDebug())
-              LOGGER.info(String.format("value: '%s' -> '%s'", instance.getValue(), contentType));
-            if (contentType == null || !fixedValues.contains(contentType)) {
-              allPassed = false;
-              if (countInstances())
-                failureCount++;
-            }
-          } catch (IOException e) {
-            allPassed = false;
-            if (countInstances())
-              failureCount++;
-          }
-          if (!countInstances() && !allPassed)
-            break;
+            failureCount++;
         }
+      } catch (IOException e) {
+        allPassed = false;
+        if (countInstances())
+          failureCount++;
+      }
+      if (!countInstances() && !allPassed) {
+        RemoteLookup.cancel(contentTypes);
+        break;
       }
     }
 
@@ -2,7 +2,6 @@ package de.gwdg.metadataqa.api.rule.singlefieldchecker;
 
 import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.json.DataElement;
-import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.model.selector.Selector;
 import de.gwdg.metadataqa.api.rule.RuleCheckerOutput;
 import de.gwdg.metadataqa.api.rule.RuleCheckingOutputStatus;
@@ -10,9 +9,11 @@ import de.gwdg.metadataqa.api.rule.RuleCheckingOutputType;
 import de.gwdg.metadataqa.api.util.Dimension;
 import de.gwdg.metadataqa.api.util.DimensionDao;
 import de.gwdg.metadataqa.api.util.ImageDimensionExtractor;
+import de.gwdg.metadataqa.api.util.RemoteLookup;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 public class ImageDimensionChecker extends SingleFieldChecker {
@@ -38,33 +39,33 @@ public class ImageDimensionChecker extends SingleFieldChecker {
 
     var allPassed = true;
     var isNA = true;
-    List<XmlFieldInstance> instances = cache.get(field);
-    if (instances != null && !instances.isEmpty()) {
-      for (XmlFieldInstance instance : instances) {
-        if (instance.hasValue()) {
-          isNA = false;
-          try {
-            if (isDebug())
-              LOGGER.info("value: " + instance.getValue());
-            DimensionDao dimension = ImageDimensionExtractor.extractRemote(instance.getValue());
-            if (dimension == null
-              || (dimensionRule.getMinWidth()  != null && dimension.getWidth()  < dimensionRule.getMinWidth())
-              || (dimensionRule.getMaxWidth()  != null && dimension.getWidth()  > dimensionRule.getMaxWidth())
-              || (dimensionRule.getMinHeight() != null && dimension.getHeight() < dimensionRule.getMinHeight())
-              || (dimensionRule.getMaxHeight() != null && dimension.getHeight() > dimensionRule.getMaxHeight())
-              || (dimensionRule.getMinShortside()  != null && dimension.getShort()  < dimensionRule.getMinShortside())
-              || (dimensionRule.getMaxShortside()  != null && dimension.getShort()  > dimensionRule.getMaxShortside())
-              || (dimensionRule.getMinLongside()   != null && dimension.getLong()   < dimensionRule.getMinLongside())
-              || (dimensionRule.getMaxLongside()   != null && dimension.getLong()   > dimensionRule.getMaxLongside())
-            ) {
-              allPassed = false;
-            }
-          } catch (IOException e) {
-            allPassed = false;
-          }
-          if (!allPassed)
-            break;
+    List<String> values = getValues(cache.get(field));
+    // the images are downloaded concurrently, the results are evaluated in the original order
+    List<Future<DimensionDao>> dimensions = RemoteLookup.submit(values, ImageDimensionExtractor::extractRemote);
+    for (var i = 0; i < values.size(); i++) {
+      isNA = false;
+      try {
+        if (isDebug())
+          LOGGER.info("value: " + values.get(i));
+        DimensionDao dimension = RemoteLookup.get(dimensions.get(i));
+        if (dimension == null
+          || (dimensionRule.getMinWidth()  != null && dimension.getWidth()  < dimensionRule.getMinWidth())
+          || (dimensionRule.getMaxWidth()  != null && dimension.getWidth()  > dimensionRule.getMaxWidth())
+          || (dimensionRule.getMinHeight() != null && dimension.getHeight() < dimensionRule.getMinHeight())
+          || (dimensionRule.getMaxHeight() != null && dimension.getHeight() > dimensionRule.getMaxHeight())
+          || (dimensionRule.getMinShortside()  != null && dimension.getShort()  < dimensionRule.getMinShortside())
+          || (dimensionRule.getMaxShortside()  != null && dimension.getShort()  > dimensionRule.getMaxShortside())
+          || (dimensionRule.getMinLongside()   != null && dimension.getLong()   < dimensionRule.getMinLongside())
+          || (dimensionRule.getMaxLongside()   != null && dimension.getLong()   > dimensionRule.getMaxLongside())
+        ) {
+          allPassed = false;
         }
+      } catch (IOException e) {
+        allPassed = false;
+      }
+      if (!allPassed) {
+        RemoteLookup.cancel(dimensions);
+        break;
       }
     }
 
@@ -1,8 +1,12 @@
 package de.gwdg.metadataqa.api.rule.singlefieldchecker;
 
 import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.rule.BaseRuleChecker;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class SingleFieldChecker extends BaseRuleChecker {
 
   protected DataElement field;
@@ -11,4 +15,18 @@ public abstract class SingleFieldChecker extends BaseRuleChecker {
     this.field = field;
     this.header = header;
   }
+
+  /**
+   * Get the non empty values of the field instances.
+   * @param instances The field instances (can be null)
+   * @return The values
+   */
+  protected List<String> getValues(List<XmlFieldInstance> instances) {
+    List<String> values = new ArrayList<>();
+    if (instances != null)
+      for (XmlFieldInstance instance : instances)
+        if (instance.hasValue())
+          values.add(instance.getValue());
+    return values;
+  }
 }
@@ -2,15 +2,17 @@ package de.gwdg.metadataqa.api.rule.singlefieldchecker;
 
 import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.json.DataElement;
-import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.model.selector.Selector;
 import de.gwdg.metadataqa.api.rule.RuleCheckerOutput;
 import de.gwdg.metadataqa.api.rule.RuleCheckingOutputStatus;
 import de.gwdg.metadataqa.api.rule.RuleCheckingOutputType;
 import de.gwdg.metadataqa.api.uniqueness.SolrClient;
 import de.gwdg.metadataqa.api.uniqueness.UniquenessExtractor;
+import de.gwdg.metadataqa.api.util.RemoteLookup;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Future;
 
 public class UniquenessChecker extends SingleFieldChecker {
 
@@ -34,20 +36,19 @@ public class UniquenessChecker extends SingleFieldChecker {
       LOGGER.info(this.getClass() + " " + this.id);
     var allPassed = true;
     var isNA = true;
-    List<XmlFieldInstance> instances = cache.get(field);
-    if (instances != null && !instances.isEmpty()) {
-      for (XmlFieldInstance instance : instances) {
-        if (instance.hasValue()) {
-          isNA = false;
-          if (isDebug())
-            LOGGER.info("value: " + instance.getValue());
-          String solrResponse = solrClient.getSolrSearchResponse(solrField, instance.getValue());
-          int numFound = UniquenessExtractor.extractNumFound(solrResponse);
-          if (numFound > 1) {
-            allPassed = false;
-            break;
-          }
-        }
+    List<String> values = getValues(cache.get(field));
+    // the Solr queries run concurrently, the results are evaluated in the original order
+    List<Future<String>> responses = RemoteLookup.submit(values, value -> solrClient.getSolrSearchResponse(solrField, value));
+    for (var i = 0; i < values.size(); i++) {
+      isNA = false;
+      if (isDebug())
+        LOGGER.info("value: " + values.get(i));
+      String solrResponse = getResponse(responses.get(i));
+      int numFound = UniquenessExtractor.extractNumFound(solrResponse);
+      if (numFound > 1) {
+        allPassed = false;
+        RemoteLookup.cancel(responses);
+        break;
       }
     }
 
@@ -56,6 +57,16 @@ public class UniquenessChecker extends SingleFieldChecker {
       LOGGER.info(this.getClass().getSimpleName() + " " + this.id + ") result: " + RuleCheckingOutputStatus.create(isNA, allPassed));
   }
 
+  private String getResponse(Future<String> response) {
+    try {
+      return RemoteLookup.get(response);
+    } catch (IOException e) {
+      // the Solr client does not throw IOException, only the interruption is signalled this way
+      LOGGER.warning(e.getMessage());
+      return null;
+    }
+  }
+
   public void setSolrClient(SolrClient solrClient) {
     this.solrClient = solrClient;
   }
@@ -27,6 +27,7 @@ public class MarcJsonSchema implements Schema, ProblemCatalogSchema, Serializabl
   private static List<String> categories = null;
   private static List<RuleChecker> ruleCheckers = null;
 
+  public static final String CONTROLFIELD_PATTERN = "$.controlfield[?(@.tag == '%s')].content";
   public static final String DATAFIELD_PATTERN = "$.datafield[?(@.tag == '%s')].subfield[?(@.code == '%s')].content";
   public static final String DATAFIELD_PARENT_PATTERN = "$.datafield[?(@.tag == '%s')]";
   public static final String DATAFIELD_IND1_PATTERN = "$.ind1";
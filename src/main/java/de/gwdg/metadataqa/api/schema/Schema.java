@@ -111,6 +111,8 @@ public interface Schema extends Serializable {
 
   default void checkConsistency() {
     for (DataElement path : getPaths()) {
+      if (path.getPath() != null)
+        path.compilePath();
       List<Rule> rules = path.getRules();
       if (rules != null && !rules.isEmpty()) {
         for (Rule rule : rules) {
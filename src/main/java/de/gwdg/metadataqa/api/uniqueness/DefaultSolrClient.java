@@ -17,6 +17,10 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -37,6 +41,11 @@ public class DefaultSolrClient implements SolrClient, Serializable {
 
   private static final String SOLR_SEARCH_ALL_PARAMS = "select/?q=%s:%s&rows=0";
   private static final String SOLR_SEARCH_PARAMS = "select/?q=%s:%%22%s%%22&rows=0";
+  private static final String SOLR_FACET_PARAMS = "select/?q=*:*&rows=0&facet=true&wt=json";
+  /**
+   * The maximal number of facet queries in a request (to keep the URL short).
+   */
+  private static final int FACET_QUERY_LIMIT = 50;
 
   private String solrBasePath;
   private String solrSearchPattern;
@@ -60,6 +69,49 @@ public class DefaultSolrClient implements SolrClient, Serializable {
     return connect(getSolrBasePath() + params, "tf-idf", recordId);
   }
 
+  @Override
+  public Map<String, Integer> getNumFound(String solrField, Collection<String> values) {
+    Map<String, Integer> numFound = new LinkedHashMap<>();
+    List<String> chunk = new ArrayList<>();
+    for (String value : new LinkedHashSet<>(values)) {
+      if (value.equals("*")) {
+        numFound.put(value, UniquenessExtractor.extractNumFound(getSolrSearchResponse(solrField, value)));
+        continue;
+      }
+      chunk.add(value);
+      if (chunk.size() == FACET_QUERY_LIMIT) {
+        numFound.putAll(getNumFoundWithFacets(solrField, chunk));
+        chunk = new ArrayList<>();
+      }
+    }
+    if (!chunk.isEmpty())
+      numFound.putAll(getNumFoundWithFacets(solrField, chunk));
+    return numFound;
+  }
+
+  /**
+   * Get the number of documents for several values in one request with facet queries.
+   */
+  private Map<String, Integer> getNumFoundWithFacets(String solrField, List<String> values) {
+    var url = new StringBuilder(getSolrBasePath()).append('/').append(SOLR_FACET_PARAMS);
+    Map<String, String> queries = new LinkedHashMap<>();
+    for (String value : values) {
+      String query = String.format("%s:\"%s\"", solrField, value.replace("\"", "\\\""));
+      queries.put(value, query);
+      url.append("&facet.query=").append(URLEncoder.encode(query, StandardCharsets.UTF_8));
+    }
+
+    Map<String, Integer> counts = UniquenessExtractor.extractFacetQueries(connect(url.toString(), solrField, values.get(0)));
+    Map<String, Integer> numFound = new LinkedHashMap<>();
+    for (Map.Entry<String, String> entry : queries.entrySet()) {
+      if (counts != null && counts.containsKey(entry.getValue()))
+        numFound.put(entry.getKey(), counts.get(entry.getValue()));
+      else
+        numFound.put(entry.getKey(), UniquenessExtractor.extractNumFound(getSolrSearchResponse(solrField, entry.getKey())));
+    }
+    return numFound;
+  }
+
   public String buildUrl(String solrField, String value) {
     String url;
     if (value.equals("*")) {
@@ -77,7 +129,10 @@ public class DefaultSolrClient implements SolrClient, Serializable {
     return url;
   }
 
-  private String connect(String url, String solrField, String value) {
+  /**
+   * Send a request to Solr. It is package-private, so the tests can check the requests.
+   */
+  String connect(String url, String solrField, String value) {
     URL fragmentPostUrl = null;
     String rawSolrResponse = null;
     try {
@@ -160,6 +215,31 @@ public class DefaultSolrClient implements SolrClient, Serializable {
   }
 
   public void indexMap(String id, Map<String, List<String>> objectMap) throws IOException, SolrServerException {
+    SolrInputDocument document = createDocument(id, objectMap);
+
+    try {
+      solr.add(document);
+    } catch (BaseHttpSolrClient.RemoteSolrException ex) {
+      LOGGER.log(Level.WARNING, String.format("Solr input document: %s", document.toString()));
+      LOGGER.log(Level.WARNING, "Commit exception", ex);
+    }
+  }
+
+  @Override
+  public void indexMaps(Map<String, Map<String, List<String>>> documents) throws IOException, SolrServerException {
+    List<SolrInputDocument> solrDocuments = new ArrayList<>();
+    for (Map.Entry<String, Map<String, List<String>>> entry : documents.entrySet())
+      solrDocuments.add(createDocument(entry.getKey(), entry.getValue()));
+
+    try {
+      solr.add(solrDocuments);
+    } catch (BaseHttpSolrClient.RemoteSolrException ex) {
+      LOGGER.log(Level.WARNING, "Batch indexing failed, indexing the documents one by one", ex);
+      SolrClient.super.indexMaps(documents);
+    }
+  }
+
+  private SolrInputDocument createDocument(String id, Map<String, List<String>> objectMap) {
     SolrInputDocument document = new SolrInputDocument();
     document.addField("id", (trimId ? id.trim() : id));
     for (Map.Entry<String, List<String>> entry : objectMap.entrySet()) {
@@ -171,13 +251,7 @@ public class DefaultSolrClient implements SolrClient, Serializable {
         document.addField(key, value);
       }
     }
-
-    try {
-      solr.add(document);
-    } catch (BaseHttpSolrClient.RemoteSolrException ex) {
-      LOGGER.log(Level.WARNING, String.format("Solr input document: %s", document.toString()));
-      LOGGER.log(Level.WARNING, "Commit exception", ex);
-    }
+    return document;
   }
 
   @Override
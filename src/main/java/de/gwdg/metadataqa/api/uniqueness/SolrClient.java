@@ -4,6 +4,8 @@ import org.apache.solr.client.solrj.SolrServerException;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,4 +15,32 @@ public interface SolrClient extends Serializable {
   void indexMap(String id, Map<String, List<String>> objectMap) throws IOException, SolrServerException;
   void commit();
   void deleteAll();
+
+  /**
+   * Get the number of documents having the values in a field. The default implementation
+   * sends a request for each value, implementations can override it to send less requests.
+   *
+   * @param solrField The Solr field
+   * @param values The values
+   * @return The number of documents by values
+   */
+  default Map<String, Integer> getNumFound(String solrField, Collection<String> values) {
+    Map<String, Integer> numFound = new LinkedHashMap<>();
+    for (String value : values)
+      if (!numFound.containsKey(value))
+        numFound.put(value, UniquenessExtractor.extractNumFound(getSolrSearchResponse(solrField, value)));
+    return numFound;
+  }
+
+  /**
+   * Index several documents. The default implementation indexes them one by one.
+   *
+   * @param documents The documents by identifiers
+   * @throws IOException Solr exception
+   * @throws SolrServerException Solr exception
+   */
+  default void indexMaps(Map<String, Map<String, List<String>>> documents) throws IOException, SolrServerException {
+    for (Map.Entry<String, Map<String, List<String>>> document : documents.entrySet())
+      indexMap(document.getKey(), document.getValue());
+  }
 }
@@ -1,17 +1,20 @@
 package de.gwdg.metadataqa.api.uniqueness;
 
-import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.spi.json.JsonProvider;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
 import de.gwdg.metadataqa.api.counter.FieldCounter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import de.gwdg.metadataqa.api.json.DataElement;
 import de.gwdg.metadataqa.api.schema.Schema;
 import de.gwdg.metadataqa.api.util.Converter;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * Extracts TF-IDF information from Apache Solr.
@@ -19,7 +22,7 @@ import de.gwdg.metadataqa.api.util.Converter;
  */
 public class TfIdfExtractor {
 
-  private static final JsonProvider JSON_PROVIDER = Configuration.defaultConfiguration().jsonProvider();
+  private static final JsonProvider JSON_PROVIDER = JsonProviderType.SMART.getConfiguration().jsonProvider();
   private final Schema schema;
 
   public TfIdfExtractor(Schema schema) {
@@ -60,7 +63,7 @@ public class TfIdfExtractor {
     termsCollection = new LinkedHashMap<>();
     Object document = JSON_PROVIDER.parse(jsonString);
     var path = String.format("$.termVectors.['%s']", recordId);
-    Map value = (LinkedHashMap) JsonPath.read(document, path);
+    Map value = (Map) JsonPath.read(document, path);
 
     for (DataElement dataElement : schema.getIndexFields()) {
       if (doCollectTerms) {
@@ -70,7 +73,7 @@ public class TfIdfExtractor {
       double sum = 0;
       double count = 0;
       if (value.containsKey(solrField)) {
-        Map terms = (LinkedHashMap) value.get(solrField);
+        Map terms = (Map) value.get(solrField);
         for (Map.Entry<String, Map> entry : ((Map<String, Map>) terms).entrySet()) {
           String term = entry.getKey();
           Map termInfo = entry.getValue();
@@ -91,6 +94,29 @@ public class TfIdfExtractor {
     return results;
   }
 
+  /**
+   * Extracts the identifiers of the records having term vectors in a Solr response.
+   *
+   * @param jsonString
+   *    The JSON string
+   * @return
+   *    The record identifiers, empty if the response is missing or it has no term vectors
+   */
+  public static Set<String> extractRecordIds(String jsonString) {
+    Set<String> recordIds = new HashSet<>();
+    if (StringUtils.isBlank(jsonString))
+      return recordIds;
+    Object document = JSON_PROVIDER.parse(jsonString);
+    if (document instanceof Map) {
+      Object termVectors = ((Map) document).get("termVectors");
+      if (termVectors instanceof Map)
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) termVectors).entrySet())
+          if (entry.getValue() instanceof Map && !"warnings".equals(entry.getKey()))
+            recordIds.add(entry.getKey().toString());
+    }
+    return recordIds;
+  }
+
   /**
    * Returns the term collection. The term collection is a map. The keys are the
    * field names, the values are the list of TfIdf objects.
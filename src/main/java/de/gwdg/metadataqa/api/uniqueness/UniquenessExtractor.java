@@ -1,7 +1,7 @@
 package de.gwdg.metadataqa.api.uniqueness;
 
-import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.spi.json.JsonProvider;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.Serializable;
@@ -18,7 +18,7 @@ import java.util.logging.Logger;
 public class UniquenessExtractor implements Serializable {
 
   private static final Logger LOGGER = Logger.getLogger(UniquenessExtractor.class.getCanonicalName());
-  private static final JsonProvider JSON_PROVIDER = Configuration.defaultConfiguration().jsonProvider();
+  private static final JsonProvider JSON_PROVIDER = JsonProviderType.SMART.getConfiguration().jsonProvider();
   private static final long serialVersionUID = -4924105546725077045L;
 
   public UniquenessExtractor() {
@@ -38,11 +38,11 @@ public class UniquenessExtractor implements Serializable {
       return numFound;
 
     Object document = JSON_PROVIDER.parse(jsonString);
-    if (document instanceof LinkedHashMap) {
-      Map documentMap = (LinkedHashMap) document;
+    if (document instanceof Map) {
+      Map documentMap = (Map) document;
       if (documentMap.containsKey("response")) {
-        Map response = (LinkedHashMap) documentMap.get("response");
-        numFound = (int) response.get("numFound");
+        Map response = (Map) documentMap.get("response");
+        numFound = ((Number) response.get("numFound")).intValue();
       } else {
         LOGGER.severe("No 'response' part in Solr response: " + jsonString);
       }
@@ -52,4 +52,35 @@ public class UniquenessExtractor implements Serializable {
 
     return numFound;
   }
+
+  /**
+   * Extracts the counts of the facet queries.
+   *
+   * @param jsonString
+   *    The JSON string
+   * @return
+   *    The number of documents by facet queries, or null if the response is not valid
+   */
+  public static Map<String, Integer> extractFacetQueries(String jsonString) {
+    if (StringUtils.isBlank(jsonString))
+      return null;
+
+    Object document = JSON_PROVIDER.parse(jsonString);
+    if (document instanceof Map) {
+      Object facetCounts = ((Map) document).get("facet_counts");
+      if (facetCounts instanceof Map) {
+        Object facetQueries = ((Map) facetCounts).get("facet_queries");
+        if (facetQueries instanceof Map) {
+          Map<String, Integer> counts = new LinkedHashMap<>();
+          for (Object entry : ((Map) facetQueries).entrySet()) {
+            Map.Entry facet = (Map.Entry) entry;
+            counts.put((String) facet.getKey(), ((Number) facet.getValue()).intValue());
+          }
+          return counts;
+        }
+      }
+    }
+    LOGGER.severe("No 'facet_queries' part in Solr response: " + jsonString);
+    return null;
+  }
 }
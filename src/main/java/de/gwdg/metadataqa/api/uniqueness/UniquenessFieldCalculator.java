@@ -6,6 +6,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -23,6 +24,7 @@ public class UniquenessFieldCalculator {
   private String recordId;
   private UniquenessField uniquenessField;
   private SolrClient solrClient;
+  private Map<String, Integer> numFound;
 
   List<Double> counts = new ArrayList<>();
   List<Double> scores = new ArrayList<>();
@@ -47,10 +49,7 @@ public class UniquenessFieldCalculator {
       for (XmlFieldInstance fieldInstance : values) {
         String value = fieldInstance.getValue();
         if (StringUtils.isNotBlank(value)) {
-          String solrResponse = solrClient.getSolrSearchResponse(
-              uniquenessField.getSolrField(), value
-          );
-          var count = extractor.extractNumFound(solrResponse);
+          int count = getNumFound(value);
           if (count == 0)
             count = 1;
           double score = Math.pow(
@@ -70,6 +69,25 @@ public class UniquenessFieldCalculator {
     averageScore = getAverage(scores, recordId, "score");
   }
 
+  private int getNumFound(String value) {
+    if (numFound != null && numFound.containsKey(value))
+      return numFound.get(value);
+
+    String solrResponse = solrClient.getSolrSearchResponse(
+        uniquenessField.getSolrField(), value
+    );
+    return extractor.extractNumFound(solrResponse);
+  }
+
+  /**
+   * Set the number of documents by values, which were queried before (for a batch of records).
+   * The values missing from the map are queried one by one.
+   * @param numFound The number of documents by values
+   */
+  public void setNumFound(Map<String, Integer> numFound) {
+    this.numFound = numFound;
+  }
+
   public static double calculateScore(double total, double actual) {
     return Math.log(1 + (total - actual + 0.5) / (actual + 0.5));
   }
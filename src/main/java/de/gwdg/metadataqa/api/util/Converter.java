@@ -1,16 +1,18 @@
 package de.gwdg.metadataqa.api.util;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.spi.json.JsonProvider;
 import de.gwdg.metadataqa.api.rule.RuleCheckerOutput;
 import de.gwdg.metadataqa.api.rule.RuleCheckingOutputStatus;
 import de.gwdg.metadataqa.api.schema.Format;
 import de.gwdg.metadataqa.api.schema.Schema;
-import net.minidev.json.JSONArray;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -37,6 +39,9 @@ public interface Converter {
       case "java.lang.Integer":
         doubleValue = ((Integer) value).doubleValue();
         break;
+      case "java.lang.Long":
+        doubleValue = ((Long) value).doubleValue();
+        break;
       case "java.lang.String":
         doubleValue = Double.parseDouble((String) value);
         break;
@@ -142,13 +147,10 @@ public interface Converter {
   public static List<Object> jsonObjectToList(Object jsonFragment) {
     List<Object> list = new ArrayList<>();
     if (jsonFragment != null) {
-      if (jsonFragment instanceof JSONArray) {
-        List<Object> objects = Arrays.asList(((JSONArray) jsonFragment).toArray());
-        if (!objects.isEmpty()) {
-          list.addAll(objects);
-        }
-      } else if (jsonFragment instanceof LinkedHashMap) {
-        if (!((LinkedHashMap) jsonFragment).isEmpty()) {
+      if (jsonFragment instanceof List) {
+        list.addAll((List<Object>) jsonFragment);
+      } else if (jsonFragment instanceof Map) {
+        if (!((Map) jsonFragment).isEmpty()) {
           list.add(jsonFragment);
         }
       } else {
@@ -157,4 +159,54 @@ public interface Converter {
     }
     return list;
   }
+
+  /**
+   * The remaining bytes of a buffer. The array of a heap buffer is returned without
+   * copying, if the buffer covers the whole array.
+   *
+   * @param buffer The buffer
+   * @return The bytes
+   */
+  public static byte[] toByteArray(ByteBuffer buffer) {
+    if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+        && buffer.remaining() == buffer.array().length)
+      return buffer.array();
+    var bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Copies a Jackson tree into the objects and arrays of a JSON provider, so it can be
+   * read as if the provider had parsed it. The scalar values are not converted.
+   *
+   * @param node The Jackson tree
+   * @param provider The JSON provider
+   * @return The JSON document
+   */
+  public static Object jsonNodeToDocument(JsonNode node, JsonProvider provider) {
+    if (node == null || node.isNull() || node.isMissingNode())
+      return null;
+    if (node.isObject()) {
+      Object map = provider.createMap();
+      for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+        Map.Entry<String, JsonNode> field = it.next();
+        provider.setProperty(map, field.getKey(), jsonNodeToDocument(field.getValue(), provider));
+      }
+      return map;
+    }
+    if (node.isArray()) {
+      Object array = provider.createArray();
+      for (var i = 0; i < node.size(); i++)
+        provider.setArrayIndex(array, i, jsonNodeToDocument(node.get(i), provider));
+      return array;
+    }
+    if (node.isTextual())
+      return node.textValue();
+    if (node.isNumber())
+      return node.numberValue();
+    if (node.isBoolean())
+      return node.booleanValue();
+    return node.asText();
+  }
 }
@@ -1,13 +1,17 @@
 package de.gwdg.metadataqa.api.util;
 
 import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVWriter;
 import com.opencsv.ICSVParser;
+import com.opencsv.RFC4180Parser;
+import com.opencsv.RFC4180ParserBuilder;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.StringWriter;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +20,7 @@ public class CsvReader implements Serializable {
 
   private static final long serialVersionUID = 2096388277803061095L;
   private List<String> header;
+  private Map<String, Integer> columnIndexes;
   private ICSVParser parser;
   private boolean headerAware;
 
@@ -29,23 +34,58 @@ public class CsvReader implements Serializable {
 
   public CsvReader setHeader(List<String> header) {
     this.header = header;
+    this.columnIndexes = indexColumns(header);
     return this;
   }
 
   public CsvReader setHeader(String[] header) {
-    this.header = Arrays.asList(header);
-    return this;
+    return setHeader(Arrays.asList(header));
   }
 
   public CsvReader setHeader(String header) throws IOException {
-    this.header = Arrays.asList(asArray(header));
-    return this;
+    return setHeader(Arrays.asList(asArray(header)));
   }
 
   public List<String> getHeader() {
     return header;
   }
 
+  /**
+   * The index of a column in the header. If a name occurs more than once, the last one is used
+   * (as in the maps created by createMap()).
+   *
+   * @param column The name of the column
+   * @return The index, or -1 if the header does not have this column
+   */
+  public int indexOf(String column) {
+    if (columnIndexes == null)
+      return -1;
+    Integer index = columnIndexes.get(column);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * The indexes of the columns by their names. It is created when the header is set, so it
+   * changes only with the header.
+   *
+   * @return The indexes, or null if there is no header
+   */
+  public Map<String, Integer> getColumnIndexes() {
+    return columnIndexes;
+  }
+
+  /**
+   * Checks whether a row has as many columns as the header.
+   *
+   * @param size The number of columns of a row
+   * @throws IllegalArgumentException If the sizes are different
+   */
+  public void checkSize(int size) {
+    if (header == null || size != header.size())
+      throw new IllegalArgumentException(String.format("The size of columns (%d) is different than the size of headers (%d)",
+        size, (header == null ? 0 : header.size())));
+  }
+
   public String[] asArray(String input) throws IOException {
     return parser.parseLine(input);
   }
@@ -88,6 +128,50 @@ public class CsvReader implements Serializable {
     return stringWriter.toString().trim();
   }
 
+  /**
+   * Create a copy with the same header and settings. The parser is not thread-safe,
+   * so the copy gets its own one.
+   * @return The copy
+   */
+  public CsvReader copy() {
+    var copy = new CsvReader(copyParser(parser));
+    copy.header = header;
+    copy.columnIndexes = columnIndexes;
+    copy.headerAware = headerAware;
+    return copy;
+  }
+
+  private static Map<String, Integer> indexColumns(List<String> header) {
+    if (header == null)
+      return null;
+    Map<String, Integer> indexes = new HashMap<>();
+    for (var i = 0; i < header.size(); i++)
+      indexes.put(header.get(i), i);
+    return indexes;
+  }
+
+  private static ICSVParser copyParser(ICSVParser parser) {
+    if (parser instanceof CSVParser) {
+      var csvParser = (CSVParser) parser;
+      return new CSVParserBuilder()
+        .withSeparator(csvParser.getSeparator())
+        .withQuoteChar(csvParser.getQuotechar())
+        .withEscapeChar(csvParser.getEscape())
+        .withStrictQuotes(csvParser.isStrictQuotes())
+        .withIgnoreLeadingWhiteSpace(csvParser.isIgnoreLeadingWhiteSpace())
+        .withIgnoreQuotations(csvParser.isIgnoreQuotations())
+        .withFieldAsNull(csvParser.nullFieldIndicator())
+        .build();
+    }
+    if (parser instanceof RFC4180Parser)
+      return new RFC4180ParserBuilder()
+        .withSeparator(parser.getSeparator())
+        .withQuoteChar(parser.getQuotechar())
+        .withFieldAsNull(parser.nullFieldIndicator())
+        .build();
+    return parser;
+  }
+
   public boolean isHeaderAware() {
     return headerAware;
   }
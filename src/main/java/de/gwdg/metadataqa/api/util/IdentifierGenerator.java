@@ -1,11 +1,13 @@
 package de.gwdg.metadataqa.api.util;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class IdentifierGenerator {
-  private static int identifier = 0;
-  private static String PREFIX = "UNKNOWN-ID-";
+  private static final AtomicInteger identifier = new AtomicInteger();
+  private static volatile String PREFIX = "UNKNOWN-ID-";
 
   public static String generate() {
-    return PREFIX + ++identifier;
+    return PREFIX + identifier.incrementAndGet();
   }
 
   public static void setPrefix(String prefix) {
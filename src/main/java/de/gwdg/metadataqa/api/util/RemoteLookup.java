@@ -0,0 +1,198 @@
+package de.gwdg.metadataqa.api.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs remote lookups (HTTP requests, Solr queries) of the rule checkers
+ * concurrently.
+ *
+ * On Java 21 or later the lookups run on virtual threads, otherwise on a
+ * pool of daemon threads. In both cases the number of concurrent lookups is
+ * limited by the maximal concurrency, so the remote servers are not flooded.
+ * The results are returned in the order of the input values, so the checkers
+ * can evaluate them the same way as before.
+ */
+public class RemoteLookup {
+
+  private static final Logger LOGGER = Logger.getLogger(RemoteLookup.class.getCanonicalName());
+
+  public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+  private static volatile int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+  /**
+   * Limits the concurrent lookups. It is replaced, when the maximal concurrency changes: a lookup
+   * releases the permit of the semaphore it acquired, so the running lookups are not affected.
+   */
+  private static volatile Semaphore permits = new Semaphore(DEFAULT_MAX_CONCURRENCY);
+  /**
+   * The executor is never shut down, only the size of the thread pool is changed, so the lookups
+   * submitted concurrently with a change are not rejected.
+   */
+  private static ExecutorService executor;
+
+  private RemoteLookup() {}
+
+  /**
+   * A lookup of a single value.
+   * @param <T> The type of the result
+   */
+  @FunctionalInterface
+  public interface Lookup<T> {
+    T lookup(String value) throws IOException;
+  }
+
+  /**
+   * Start the lookups of the values. A single value is looked up in the calling thread.
+   *
+   * @param values The values to look up
+   * @param lookup The lookup function
+   * @param <T> The type of the result
+   * @return The results in the order of the values
+   */
+  public static <T> List<Future<T>> submit(List<String> values, Lookup<T> lookup) {
+    List<Future<T>> futures = new ArrayList<>();
+    if (values.size() == 1 || maxConcurrency == 1) {
+      for (String value : values)
+        futures.add(run(value, lookup));
+    } else {
+      for (String value : values)
+        futures.add(submit(value, lookup));
+    }
+    return futures;
+  }
+
+  /**
+   * Get the result of a lookup.
+   *
+   * @param future The result of submit()
+   * @param <T> The type of the result
+   * @return The result of the lookup
+   * @throws IOException If the lookup failed or the thread has been interrupted
+   */
+  public static <T> T get(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("The lookup has been interrupted");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Cancel the lookups, which have not finished yet.
+   *
+   * @param futures The results of submit()
+   * @param <T> The type of the result
+   */
+  public static <T> void cancel(List<Future<T>> futures) {
+    for (Future<T> future : futures)
+      future.cancel(true);
+  }
+
+  public static int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /**
+   * Set the maximal number of concurrent lookups. 1 means that the lookups run in the
+   * thread of the checker.
+   * @param maxConcurrency The maximal number of lookups
+   */
+  public static synchronized void setMaxConcurrency(int maxConcurrency) {
+    if (maxConcurrency < 1)
+      throw new IllegalArgumentException("The maximal concurrency should be at least 1, but it is " + maxConcurrency);
+    if (maxConcurrency == RemoteLookup.maxConcurrency)
+      return;
+    RemoteLookup.maxConcurrency = maxConcurrency;
+    permits = new Semaphore(maxConcurrency);
+    if (executor instanceof ThreadPoolExecutor)
+      resize((ThreadPoolExecutor) executor, maxConcurrency);
+  }
+
+  private static void resize(ThreadPoolExecutor pool, int threads) {
+    // the core size should not be larger than the maximum size
+    if (threads > pool.getMaximumPoolSize()) {
+      pool.setMaximumPoolSize(threads);
+      pool.setCorePoolSize(threads);
+    } else {
+      pool.setCorePoolSize(threads);
+      pool.setMaximumPoolSize(threads);
+    }
+  }
+
+  private static <T> Future<T> run(String value, Lookup<T> lookup) {
+    var future = new CompletableFuture<T>();
+    try {
+      future.complete(lookup.lookup(value));
+    } catch (IOException | RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  private static <T> Future<T> submit(String value, Lookup<T> lookup) {
+    return getExecutor().submit(() -> {
+      // the queued lookups get the permits of the current maximal concurrency
+      Semaphore currentPermits = permits;
+      currentPermits.acquire();
+      try {
+        return lookup.lookup(value);
+      } finally {
+        currentPermits.release();
+      }
+    });
+  }
+
+  private static synchronized ExecutorService getExecutor() {
+    if (executor == null)
+      executor = createExecutor(maxConcurrency);
+    return executor;
+  }
+
+  private static ExecutorService createExecutor(int threads) {
+    try {
+      // Java 21+
+      var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) method.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      LOGGER.fine("Virtual threads are not available, using a thread pool for remote lookups.");
+    }
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+      new LinkedBlockingQueue<>(), new DaemonThreadFactory());
+  }
+
+  private static class DaemonThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      var thread = new Thread(runnable, "remote-lookup-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -37,7 +37,7 @@ public class SkippedEntitySelector<T extends XmlFieldInstance> implements Serial
     DataElement identifierPath = collectionBranch.getIdentifier();
     if (!skippableIds.isEmpty() && identifierPath != null) {
       var address = String.format("%s/%d/%s", collectionBranch.getPath(), i, identifierPath.getPath());
-      List<T> values = cache.get(address, identifierPath.getPath(), jsonFragment);
+      List<T> values = cache.get(address, identifierPath.getCompiledPath(), jsonFragment);
       var id = (skippedEntryChecker != null)
             ? skippedEntryChecker.extractId(values.get(0))
             : values.get(0).getValue();
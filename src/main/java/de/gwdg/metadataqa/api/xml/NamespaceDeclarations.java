@@ -0,0 +1,265 @@
+package de.gwdg.metadataqa.api.xml;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The namespace declarations added to XML records, which use namespace prefixes
+ * without declaring them. This is the case of line delimited XML (NDXML), where each
+ * line is a record, and the namespaces are declared once: by the schema, or in a
+ * prologue line at the beginning of the file.
+ *
+ * A declaration is added to the root element of a record only if the root element
+ * does not declare the same prefix, so the declarations of the records take precedence.
+ *
+ * @author Péter Király <peter.kiraly at gwdg.de>
+ */
+public class NamespaceDeclarations {
+
+  /**
+   * The name of the element of a prologue line.
+   */
+  public static final String PROLOGUE_ELEMENT = "namespaces";
+
+  private static final Pattern ATTRIBUTE = Pattern.compile("\\s+([^\\s=/>]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+
+  /**
+   * The namespaces by prefix, the empty prefix is the default namespace.
+   */
+  private final Map<String, String> namespaces;
+  private final Map<String, Pattern> declarationPatterns = new LinkedHashMap<>();
+  private final Map<String, String> declarations = new LinkedHashMap<>();
+
+  /**
+   * @param namespaces The namespaces by prefix, the empty prefix is the default namespace
+   */
+  public NamespaceDeclarations(Map<String, String> namespaces) {
+    this.namespaces = namespaces == null ? Collections.emptyMap() : new LinkedHashMap<>(namespaces);
+    for (Map.Entry<String, String> entry : this.namespaces.entrySet()) {
+      String name = entry.getKey().isEmpty() ? "xmlns" : "xmlns:" + entry.getKey();
+      declarationPatterns.put(entry.getKey(), Pattern.compile("\\s" + Pattern.quote(name) + "\\s*="));
+      declarations.put(entry.getKey(), " " + name + "=\"" + escape(entry.getValue()) + "\"");
+    }
+  }
+
+  /**
+   * Creates the declarations of the namespaces of a schema. The schema's namespaces
+   * are the prefixes of the XPath expressions, so the default namespace is not declared.
+   *
+   * @param namespaces The namespaces of the schema
+   * @return The declarations
+   */
+  public static NamespaceDeclarations ofSchema(Map<String, String> namespaces) {
+    Map<String, String> prefixed = new LinkedHashMap<>();
+    if (namespaces != null)
+      for (Map.Entry<String, String> entry : namespaces.entrySet())
+        if (entry.getKey() != null && !entry.getKey().isEmpty() && entry.getValue() != null)
+          prefixed.put(entry.getKey(), entry.getValue());
+    return new NamespaceDeclarations(prefixed);
+  }
+
+  /**
+   * Reads the namespaces of a prologue line. A prologue is either an XML declaration
+   * (like &lt;?xml version="1.0"?&gt;), or an empty namespaces element having only namespace
+   * declarations (like &lt;namespaces xmlns:dc="http://purl.org/dc/elements/1.1/"/&gt;).
+   * Other elements are records, even if they are empty.
+   *
+   * @param line The first line of the input
+   * @return The declared namespaces by prefix, or null if the line is not a prologue
+   */
+  public static Map<String, String> parsePrologue(String line) {
+    if (line == null)
+      return null;
+    String text = line.strip();
+    if (text.startsWith("<?xml") && text.endsWith("?>") && text.indexOf('<', 1) == -1)
+      return Collections.emptyMap();
+    if (!text.startsWith("<") || !text.endsWith("/>") || text.startsWith("<?") || text.startsWith("<!"))
+      return null;
+
+    int nameEnd = 1;
+    while (nameEnd < text.length() && !isNameEnd(text.charAt(nameEnd)))
+      nameEnd++;
+    if (!text.substring(1, nameEnd).equals(PROLOGUE_ELEMENT))
+      return null;
+    String attributes = text.substring(nameEnd, text.length() - 2);
+
+    Map<String, String> prologue = new LinkedHashMap<>();
+    Matcher matcher = ATTRIBUTE.matcher(attributes);
+    var end = 0;
+    while (matcher.find()) {
+      if (matcher.start() != end)
+        return null;
+      end = matcher.end();
+      String name = matcher.group(1);
+      String value = unescape(matcher.group(2) != null ? matcher.group(2) : matcher.group(3));
+      if (name.equals("xmlns"))
+        prologue.put("", value);
+      else if (name.startsWith("xmlns:") && name.length() > 6)
+        prologue.put(name.substring(6), value);
+      else
+        return null;
+    }
+    return prologue.isEmpty() || !attributes.substring(end).isBlank() ? null : prologue;
+  }
+
+  /**
+   * Creates declarations having the namespaces of both, the other ones override these.
+   *
+   * @param other The other namespaces by prefix
+   * @return The merged declarations
+   */
+  public NamespaceDeclarations with(Map<String, String> other) {
+    if (other == null || other.isEmpty())
+      return this;
+    Map<String, String> merged = new LinkedHashMap<>(namespaces);
+    merged.putAll(other);
+    return new NamespaceDeclarations(merged);
+  }
+
+  public Map<String, String> getNamespaces() {
+    return Collections.unmodifiableMap(namespaces);
+  }
+
+  public boolean isEmpty() {
+    return namespaces.isEmpty();
+  }
+
+  /**
+   * Adds the missing namespace declarations to the root element of a record.
+   *
+   * @param record The record
+   * @return The record with the declarations, or the record itself, if nothing is missing
+   */
+  public String apply(String record) {
+    if (record == null || namespaces.isEmpty())
+      return record;
+    int[] rootTag = findRootTag(record::charAt, record.length());
+    if (rootTag == null)
+      return record;
+    String missing = getMissingDeclarations(record.substring(rootTag[0], rootTag[1]));
+    if (missing.isEmpty())
+      return record;
+    return record.substring(0, rootTag[0]) + missing + record.substring(rootTag[0]);
+  }
+
+  /**
+   * Adds the missing namespace declarations to the root element of a record given as
+   * UTF-8 bytes, without decoding the record.
+   *
+   * @param record The record, the remaining bytes of the buffer
+   * @return The record with the declarations, or the record itself, if nothing is missing
+   */
+  public ByteBuffer apply(ByteBuffer record) {
+    if (record == null || namespaces.isEmpty())
+      return record;
+    int offset = record.position();
+    int[] rootTag = findRootTag(i -> record.get(offset + i) & 0xFF, record.remaining());
+    if (rootTag == null)
+      return record;
+
+    var tag = new byte[rootTag[1] - rootTag[0]];
+    record.duplicate().position(offset + rootTag[0]).get(tag);
+    String missing = getMissingDeclarations(new String(tag, StandardCharsets.UTF_8));
+    if (missing.isEmpty())
+      return record;
+
+    byte[] declarationBytes = missing.getBytes(StandardCharsets.UTF_8);
+    var bytes = new byte[record.remaining() + declarationBytes.length];
+    ByteBuffer source = record.duplicate();
+    source.get(bytes, 0, rootTag[0]);
+    System.arraycopy(declarationBytes, 0, bytes, rootTag[0], declarationBytes.length);
+    source.get(bytes, rootTag[0] + declarationBytes.length, record.remaining() - rootTag[0]);
+    return ByteBuffer.wrap(bytes);
+  }
+
+  private String getMissingDeclarations(String tag) {
+    var missing = new StringBuilder();
+    for (Map.Entry<String, Pattern> entry : declarationPatterns.entrySet())
+      if (!entry.getValue().matcher(tag).find())
+        missing.append(declarations.get(entry.getKey()));
+    return missing.toString();
+  }
+
+  /**
+   * Finds the start tag of the root element, after the XML declaration, processing
+   * instructions, comments and document type declaration.
+   *
+   * @return The end of the element name and the position of the closing &gt; of the
+   *   start tag, or null if the record does not look like XML
+   */
+  private static int[] findRootTag(IntUnaryOperator at, int length) {
+    var i = 0;
+    while (i < length) {
+      int c = at.applyAsInt(i);
+      if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+        i++;
+        continue;
+      }
+      if (c != '<' || i + 1 >= length)
+        return null;
+
+      int next = at.applyAsInt(i + 1);
+      if (next == '?' || next == '!') {
+        String end = next == '?' ? "?>" : (startsWith(at, length, i, "<!--") ? "-->" : ">");
+        int endPosition = indexOf(at, length, end, i + 2);
+        if (endPosition == -1 || (end.equals(">") && indexOf(at, endPosition, "[", i + 2) != -1))
+          return null; // unclosed, or a document type declaration with an internal subset
+        i = endPosition + end.length();
+        continue;
+      }
+
+      int nameEnd = i + 1;
+      while (nameEnd < length && !isNameEnd(at.applyAsInt(nameEnd)))
+        nameEnd++;
+      int quote = 0;
+      for (int position = nameEnd; position < length; position++) {
+        c = at.applyAsInt(position);
+        if (quote != 0) {
+          if (c == quote)
+            quote = 0;
+        } else if (c == '"' || c == '\'') {
+          quote = c;
+        } else if (c == '>') {
+          return new int[]{nameEnd, position};
+        }
+      }
+      return null;
+    }
+    return null;
+  }
+
+  private static boolean isNameEnd(int c) {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '/' || c == '>';
+  }
+
+  private static boolean startsWith(IntUnaryOperator at, int length, int position, String text) {
+    if (position + text.length() > length)
+      return false;
+    for (var i = 0; i < text.length(); i++)
+      if (at.applyAsInt(position + i) != text.charAt(i))
+        return false;
+    return true;
+  }
+
+  private static int indexOf(IntUnaryOperator at, int length, String text, int from) {
+    for (int i = from; i <= length - text.length(); i++)
+      if (startsWith(at, length, i, text))
+        return i;
+    return -1;
+  }
+
+  private static String escape(String value) {
+    return value.replace("&", "&amp;").replace("<", "&lt;").replace("\"", "&quot;");
+  }
+
+  private static String unescape(String value) {
+    return value.replace("&quot;", "\"").replace("&apos;", "'").replace("&lt;", "<")
+      .replace("&gt;", ">").replace("&amp;", "&");
+  }
+}
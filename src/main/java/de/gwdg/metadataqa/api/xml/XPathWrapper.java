@@ -1,5 +1,6 @@
 package de.gwdg.metadataqa.api.xml;
 
+import de.gwdg.metadataqa.api.json.CompiledPath;
 import de.gwdg.metadataqa.api.model.EdmFieldInstance;
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
@@ -7,6 +8,7 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
+import javax.xml.namespace.NamespaceContext;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -14,6 +16,7 @@ import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -22,22 +25,56 @@ import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Parses an XML document and extracts values from it with XPath expressions.
+ *
+ * The XML parser, the XPath engines and the compiled expressions are not
+ * thread-safe, so each thread has its own ones. The engines are cached per thread
+ * and per namespace context, and the compiled expressions per engine, both in
+ * caches with limited size.
+ */
 public class XPathWrapper implements Serializable {
   private static final long serialVersionUID = 3040547541095974755L;
 
   private static final Logger LOGGER = Logger.getLogger(XPathWrapper.class.getCanonicalName());
 
-  private static transient XPath xpathEngine;
-  private static final DocumentBuilder builder = initializeDocumentBuilder();
-  private static transient Map<String, String> namespaces;
-  private boolean namespaceChanged = false;
-  private static Map<String, XPathExpression> xpathCache = new HashMap<>();
+  /**
+   * The maximal number of compiled expressions kept for a namespace context in a thread.
+   */
+  public static final int XPATH_CACHE_SIZE = 1000;
+
+  /**
+   * The maximal number of namespace contexts, which have an XPath engine in a thread.
+   */
+  public static final int ENGINE_CACHE_SIZE = 100;
+
+  private static final ThreadLocal<DocumentBuilder> builder = ThreadLocal.withInitial(XPathWrapper::initializeDocumentBuilder);
+  private static final ThreadLocal<Map<Object, XPathEngine>> engines = ThreadLocal.withInitial(
+    () -> new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, XPathEngine> eldest) {
+        return size() > ENGINE_CACHE_SIZE;
+      }
+    }
+  );
+
+  /**
+   * The namespace context used when the wrapper has no namespaces of its own.
+   * Either a namespace map or a NamespaceContext object.
+   */
+  private static volatile Object defaultNamespaceKey = Collections.emptyMap();
+
+  private Map<String, String> namespaces;
+  private transient XPathEngine engine;
+  private transient Thread engineOwner;
 
   private static DocumentBuilder initializeDocumentBuilder() {
     DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
@@ -58,35 +95,100 @@ public class XPathWrapper implements Serializable {
   }
 
   public XPathWrapper(String input, Map<String, String> customNamespaces) {
-    if (customNamespaces != null && this.namespaces != customNamespaces) {
-      namespaceChanged = true;
-      this.namespaces = customNamespaces;
-    }
+    this.namespaces = customNamespaces;
     parseContent(input);
   }
 
+  /**
+   * @param input The record as bytes, in the encoding of its XML declaration (UTF-8 by default)
+   * @param customNamespaces The namespace prefix - URI map
+   */
+  public XPathWrapper(byte[] input, Map<String, String> customNamespaces) {
+    this.namespaces = customNamespaces;
+    parseContent(new ByteArrayInputStream(input));
+  }
+
+  /**
+   * Wraps an already parsed record, so it is not serialised and parsed again. A Document is
+   * used as it is, other nodes are copied into a new document, and they become its root.
+   *
+   * @param input The record
+   * @param customNamespaces The namespace prefix - URI map
+   */
+  public XPathWrapper(Node input, Map<String, String> customNamespaces) {
+    this.namespaces = customNamespaces;
+    if (input instanceof Document) {
+      document = (Document) input;
+    } else {
+      document = builder.get().newDocument();
+      document.appendChild(document.importNode(input, true));
+    }
+  }
+
   public XPathWrapper(File input) {
     parseFile(input.getPath());
   }
 
   public XPathWrapper(File input, Map<String, String> customNamespaces) {
-    if (this.namespaces != customNamespaces) {
-      namespaceChanged = true;
-      this.namespaces = customNamespaces;
-    }
+    this.namespaces = customNamespaces;
     parseFile(input.getPath());
   }
 
-  private void initialize() {
-    if (xpathEngine == null || namespaceChanged) {
-      LOGGER.info("initialize xpathEngine");
-      if (namespaces == null) {
-        LOGGER.info("initialize without namespaces");
-        xpathEngine = XpathEngineFactory.initializeEngine();
-      } else {
-        xpathEngine = XpathEngineFactory.initializeEngine(namespaces);
-      }
+  /**
+   * Get the XPath engine of the current thread for the namespaces of this wrapper.
+   */
+  private XPathEngine getEngine() {
+    if (engine != null && engineOwner == Thread.currentThread())
+      return engine;
+
+    engine = getEngine(namespaces);
+    this.engineOwner = Thread.currentThread();
+    return engine;
+  }
+
+  /**
+   * Get the XPath engine of the current thread for the namespaces.
+   */
+  private static XPathEngine getEngine(Map<String, String> namespaces) {
+    Object key = namespaces != null ? namespaces : defaultNamespaceKey;
+    Map<Object, XPathEngine> threadEngines = engines.get();
+    XPathEngine threadEngine = threadEngines.get(key);
+    if (threadEngine == null) {
+      threadEngine = new XPathEngine(createXpath(key));
+      // the map is copied, so later changes of the caller's map do not affect the cache
+      threadEngines.put(key instanceof Map ? new HashMap<>((Map<?, ?>) key) : key, threadEngine);
+    }
+    return threadEngine;
+  }
+
+  /**
+   * The number of XPath engines of the current thread.
+   */
+  static int getEngineCount() {
+    return engines.get().size();
+  }
+
+  /**
+   * Compile an XPath expression with the XPath engine of the current thread. The expression
+   * is not thread-safe, it should not be passed to other threads.
+   *
+   * @param xpath The XPath expression
+   * @param namespaces The namespace prefix - URI map, or null for the default namespaces
+   * @return The compiled expression
+   * @throws XPathExpressionException If the expression is invalid
+   */
+  public static XPathExpression compile(String xpath, Map<String, String> namespaces)
+      throws XPathExpressionException {
+    return getEngine(namespaces).xpath.compile(xpath);
+  }
+
+  private static XPath createXpath(Object key) {
+    if (key instanceof NamespaceContext) {
+      XPath xpath = XPathFactory.newInstance().newXPath();
+      xpath.setNamespaceContext((NamespaceContext) key);
+      return xpath;
     }
+    return XpathEngineFactory.initializeEngine((Map<String, String>) key);
   }
 
   public XPathWrapper(String input, boolean fromString) {
@@ -98,9 +200,8 @@ public class XPathWrapper implements Serializable {
   }
 
   private void parseFile(String path) {
-    initialize();
     try {
-      document = builder.parse(path);
+      document = builder.get().parse(path);
     } catch (SAXException e) {
       e.printStackTrace();
     } catch (IOException e) {
@@ -109,13 +210,12 @@ public class XPathWrapper implements Serializable {
   }
 
   public void parseContent(String content) {
-    initialize();
     parseContent(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
   }
 
   private void parseContent(InputStream content) {
     try {
-      document = builder.parse(content);
+      document = builder.get().parse(content);
     } catch (SAXException e) {
       e.printStackTrace();
     } catch (IOException e) {
@@ -127,13 +227,37 @@ public class XPathWrapper implements Serializable {
     return extractFieldInstanceList(document, xpath);
   }
 
+  /**
+   * Extract the values with a compiled path. The compiled expression of the path is used
+   * if it has been compiled with the namespaces of this wrapper.
+   *
+   * @param context The context node, or null for the document
+   * @param path The compiled path
+   * @return The values
+   */
+  public List<EdmFieldInstance> extractFieldInstanceList(Object context, CompiledPath path) {
+    XPathExpression expr = path.getNamespaces() == namespaces ? path.getXPathExpression() : null;
+    if (expr == null)
+      return extractFieldInstanceList(context == null ? document : context, path.getPath());
+    return extractFieldInstanceList(context == null ? document : context, expr, path.getPath(), path.isXPathFunction());
+  }
+
   public List<EdmFieldInstance> extractFieldInstanceList(Object context, String xpath) {
+    try {
+      return extractFieldInstanceList(context, getEngine().compile(xpath), xpath, xpath.endsWith(")"));
+    } catch (XPathExpressionException e) {
+      LOGGER.log(Level.WARNING, "error in extractFieldInstanceList() with xpath: '" + xpath + "' " + e.getMessage());
+    }
+    return new ArrayList<>();
+  }
+
+  private List<EdmFieldInstance> extractFieldInstanceList(Object context,
+                                                          XPathExpression expr,
+                                                          String xpath,
+                                                          boolean isFunction) {
     List<EdmFieldInstance> list = new ArrayList<>();
     try {
-      if (!xpathCache.containsKey(xpath))
-        xpathCache.put(xpath, xpathEngine.compile(xpath));
-      XPathExpression expr = xpathCache.get(xpath);
-      if (xpath.endsWith(")")) {
+      if (isFunction) {
         String value = String.valueOf(expr.evaluate(context, XPathConstants.STRING));
         list.add(new EdmFieldInstance(value, null, null));
       } else {
@@ -171,7 +295,7 @@ public class XPathWrapper implements Serializable {
   public List<Node> extractNodes(Object context, String xpath) {
     List<Node> list = new ArrayList<>();
     try {
-      XPathExpression expr = xpathEngine.compile(xpath);
+      XPathExpression expr = getEngine().compile(xpath);
       NodeList nodes = (NodeList) expr.evaluate(context, XPathConstants.NODESET);
       for (var i = 0; i < nodes.getLength(); i++) {
         Node node = nodes.item(i);
@@ -188,7 +312,7 @@ public class XPathWrapper implements Serializable {
   }
 
   public String getAttribute(NamedNodeMap attributes, String prefix, String name) {
-    Node attribute = attributes.getNamedItemNS(xpathEngine.getNamespaceContext().getNamespaceURI(prefix), name);
+    Node attribute = attributes.getNamedItemNS(getEngine().xpath.getNamespaceContext().getNamespaceURI(prefix), name);
     String value = null;
     if (attribute != null) {
       value = attribute.getNodeValue();
@@ -198,19 +322,60 @@ public class XPathWrapper implements Serializable {
     return value;
   }
 
+  /**
+   * Get the XPath engine of the current thread. It should not be passed to other threads.
+   * @return The XPath engine
+   */
   public XPath getXpathEngine() {
-    return xpathEngine;
+    return getEngine().xpath;
   }
 
   public Document getDocument() {
     return document;
   }
 
+  /**
+   * Set the namespace context of the wrappers created without namespaces. Only the
+   * namespace context of the engine is used, each thread creates its own engine with it.
+   * @param _xpathEngine An XPath engine
+   */
   public static void setXpathEngine(XPath _xpathEngine) {
-    xpathEngine = _xpathEngine;
+    defaultNamespaceKey = _xpathEngine.getNamespaceContext();
   }
 
+  /**
+   * Set the namespaces of the wrappers created without namespaces.
+   * @param namespaces The namespace prefix - URI map
+   */
   public static void setXpathEngine(Map<String, String> namespaces) {
-    xpathEngine = XpathEngineFactory.initializeEngine(namespaces);
+    defaultNamespaceKey = namespaces == null
+      ? Collections.emptyMap()
+      : Collections.unmodifiableMap(new LinkedHashMap<>(namespaces));
+  }
+
+  /**
+   * An XPath engine with the cache of its compiled expressions. Used by a single thread.
+   */
+  private static class XPathEngine {
+    private final XPath xpath;
+    private final Map<String, XPathExpression> cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+        return size() > XPATH_CACHE_SIZE;
+      }
+    };
+
+    private XPathEngine(XPath xpath) {
+      this.xpath = xpath;
+    }
+
+    private XPathExpression compile(String expression) throws XPathExpressionException {
+      XPathExpression compiled = cache.get(expression);
+      if (compiled == null) {
+        compiled = xpath.compile(expression);
+        cache.put(expression, compiled);
+      }
+      return compiled;
+    }
   }
 }
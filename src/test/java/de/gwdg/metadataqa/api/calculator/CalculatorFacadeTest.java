@@ -9,6 +9,7 @@ import de.gwdg.metadataqa.api.json.DataElement;
 import de.gwdg.metadataqa.api.model.Category;
 import de.gwdg.metadataqa.api.schema.*;
 import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
+import de.gwdg.metadataqa.api.util.CompressionLevel;
 import de.gwdg.metadataqa.api.util.CsvReader;
 import de.gwdg.metadataqa.api.util.FileUtils;
 import de.gwdg.metadataqa.api.interfaces.Calculator;
@@ -18,6 +19,7 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -244,6 +246,16 @@ public class CalculatorFacadeTest {
     assertEquals(expected, metrics);
   }
 
+  @Test
+  public void testNoAbbreviate_measureCsvRow() throws URISyntaxException, IOException {
+    CalculatorFacade facade = createCalculatorFacadeForCsv();
+    CSVIterator iterator = createCsvIterator();
+
+    String[] row = iterator.next();
+    assertEquals(facade.measure(Arrays.asList(row)), facade.measure(row));
+    assertEquals(facade.measureAsJson(Arrays.asList(row)), facade.measureAsJson(row));
+  }
+
   @Test
   public void testNoAbbreviate_measureCsvAsList() throws URISyntaxException, IOException {
     CalculatorFacade facade = createCalculatorFacadeForCsv();
@@ -409,6 +421,77 @@ public class CalculatorFacadeTest {
     return facade;
   }
 
+  @Test
+  public void testMeasureBatch() throws URISyntaxException, IOException {
+    MeasurementConfiguration configuration = new MeasurementConfiguration(true, true, true, false, true);
+    CalculatorFacade calculatorFacade = new CalculatorFacade(configuration);
+    calculatorFacade.setSchema(new EdmOaiPmhJsonSchema());
+    calculatorFacade.configure();
+
+    List<String> records = Arrays.asList(
+      FileUtils.readFirstLineFromResource("general/test.json"),
+      FileUtils.readFirstLineFromResource("general/test-place.json"),
+      FileUtils.readFirstLineFromResource("general/test-timespan.json")
+    );
+
+    List<Map<String, List<MetricResult>>> batch = calculatorFacade.measureBatch(records);
+    assertEquals(records.size(), batch.size());
+    for (int i = 0; i < records.size(); i++)
+      assertEquals(toCsv(calculatorFacade.measureAsMetricResult(records.get(i))), toCsv(batch.get(i)));
+
+    Iterator<Map<String, List<MetricResult>>> iterator = calculatorFacade.measureBatch(records.iterator(), 2);
+    for (String record : records)
+      assertEquals(toCsv(calculatorFacade.measureAsMetricResult(record)), toCsv(iterator.next()));
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void testMeasureBatch_csvWithHeader() throws URISyntaxException, IOException {
+    List<String> lines = Arrays.asList(
+      "url,name,description",
+      "http://example.com/1,first,a description",
+      "http://example.com/2,,",
+      "http://example.com/3,third,"
+    );
+
+    CalculatorFacade single = createCalculatorFacadeForHeaderAwareCsv();
+    List<String> expected = new ArrayList<>();
+    for (String line : lines)
+      expected.add(toCsv(single.measureAsMetricResult(line)));
+
+    CalculatorFacade batch = createCalculatorFacadeForHeaderAwareCsv();
+    List<String> actual = new ArrayList<>();
+    for (Map<String, List<MetricResult>> result : batch.measureBatch(lines))
+      actual.add(toCsv(result));
+
+    assertEquals(expected, actual);
+    assertEquals("", actual.get(0));
+  }
+
+  private CalculatorFacade createCalculatorFacadeForHeaderAwareCsv() {
+    Schema schema = new BaseSchema()
+      .setFormat(Format.CSV)
+      .addField(new DataElement("url").setCategories(Category.MANDATORY).setExtractable())
+      .addField(new DataElement("name").setCategories(Category.MANDATORY))
+      .addField(new DataElement("description").setCategories(Category.DESCRIPTIVENESS));
+
+    MeasurementConfiguration config = new MeasurementConfiguration()
+      .enableCompletenessMeasurement()
+      .enableFieldCardinalityMeasurement();
+
+    return new CalculatorFacade(config)
+      .setSchema(schema)
+      .setCsvReader(new CsvReader().setHeaderAware(true));
+  }
+
+  private String toCsv(Map<String, List<MetricResult>> results) {
+    List<String> csv = new ArrayList<>();
+    for (List<MetricResult> metricResults : results.values())
+      for (MetricResult result : metricResults)
+        csv.add(result.getCsv(true, CompressionLevel.NORMAL));
+    return String.join(",", csv);
+  }
+
   private CSVIterator createCsvIterator() throws IOException {
     String fileName = "src/test/resources/csv/dataset_metadata_2020_08_17-head.csv";
     CSVIterator iterator = null;
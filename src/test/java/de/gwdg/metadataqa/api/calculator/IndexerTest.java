@@ -1,6 +1,8 @@
 package de.gwdg.metadataqa.api.calculator;
 
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
 import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.model.selector.Selector;
 import de.gwdg.metadataqa.api.model.selector.SelectorFactory;
 import de.gwdg.metadataqa.api.model.selector.CsvSelector;
 import de.gwdg.metadataqa.api.schema.BaseSchema;
@@ -13,6 +15,8 @@ import de.gwdg.metadataqa.api.util.CsvReader;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -22,11 +26,12 @@ public class IndexerTest {
   Indexer indexer;
   CsvSelector cache;
   SolrClientMock solrClient;
+  Schema schema;
 
   @Before
   public void setUp() throws Exception {
     SolrConfiguration solrConfiguration = new SolrConfiguration("localhost", "8983", "solr");
-    Schema schema = getSchema(Format.CSV);
+    schema = getSchema(Format.CSV);
     solrClient = new SolrClientMock(solrConfiguration);
     indexer = new Indexer(solrClient, schema);
     assertNotNull(indexer);
@@ -43,6 +48,55 @@ public class IndexerTest {
     assertEquals(List.of("two three"), solrClient.getObjectMap().get("name_ss"));
   }
 
+  @Test
+  public void measureBatch() throws Exception {
+    List<Selector> selectors = createSelectors("URL,two three", "URL2,four", "URL3,");
+    List<List<MetricResult>> results = indexer.measureBatch(selectors);
+    assertEquals(1, solrClient.getIndexRequests());
+    assertEquals(3, results.size());
+
+    SolrClientMock singleClient = new SolrClientMock(new SolrConfiguration("localhost", "8983", "solr"));
+    Indexer singleIndexer = new Indexer(singleClient, schema);
+    List<Selector> singleSelectors = createSelectors("URL,two three", "URL2,four", "URL3,");
+    for (var i = 0; i < singleSelectors.size(); i++)
+      assertEquals(singleIndexer.measure(singleSelectors.get(i)), results.get(i));
+    assertEquals(3, singleClient.getIndexRequests());
+    assertEquals(singleClient.getIndexedDocuments(), solrClient.getIndexedDocuments());
+  }
+
+  @Test
+  public void measureBatch_empty() {
+    assertEquals(List.of(), indexer.measureBatch(List.of()));
+    assertEquals(0, solrClient.getIndexRequests());
+  }
+
+  @Test
+  public void measureBatch_missingId() throws Exception {
+    List<List<MetricResult>> results = indexer.measureBatch(createSelectors("URL,two three", ",four", "URL3,five"));
+    assertEquals(3, results.size());
+    assertEquals(1, solrClient.getIndexRequests());
+    assertEquals(List.of("URL", "URL3"), new ArrayList<>(solrClient.getIndexedDocuments().keySet()));
+  }
+
+  @Test
+  public void measureBatch_failure() throws Exception {
+    solrClient.setFailingIndex(true);
+    List<List<MetricResult>> results = indexer.measureBatch(createSelectors("URL,two three", "URL2,four"));
+    assertEquals(Arrays.asList(null, null), results);
+    assertEquals(1, solrClient.getIndexRequests());
+    assertTrue(solrClient.getIndexedDocuments().isEmpty());
+  }
+
+  private List<Selector> createSelectors(String... lines) {
+    List<Selector> selectors = new ArrayList<>();
+    for (String line : lines) {
+      CsvSelector selector = (CsvSelector) SelectorFactory.getInstance(schema.getFormat(), line);
+      selector.setCsvReader(new CsvReader().setHeader(((CsvAwareSchema) schema).getHeader()));
+      selectors.add(selector);
+    }
+    return selectors;
+  }
+
   @Test
   public void getHeader() {
     assertEquals(List.of(), indexer.getHeader());
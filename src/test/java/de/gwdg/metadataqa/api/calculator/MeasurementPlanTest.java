@@ -0,0 +1,143 @@
+package de.gwdg.metadataqa.api.calculator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gwdg.metadataqa.api.calculator.output.OutputCollector;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MeasurementPlanTest {
+
+  @Test
+  public void facadeFromPlan() throws URISyntaxException, IOException {
+    CalculatorFacade facade = createFacade();
+    String record = FileUtils.readFirstLineFromResource("general/test.json");
+
+    MeasurementPlan plan = facade.getPlan();
+    assertSame(plan, facade.getPlan());
+
+    CalculatorFacade worker = new CalculatorFacade(plan);
+    assertSame(plan.getCalculators(), worker.getCalculators());
+    assertEquals(facade.getHeader(), worker.getHeader());
+    assertEquals(facade.measure(record), worker.measure(record));
+  }
+
+  @Test
+  public void parallelSessions() throws Exception {
+    CalculatorFacade facade = createFacade();
+    String record = FileUtils.readFirstLineFromResource("general/test.json");
+    String expected = facade.measure(record);
+    MeasurementPlan plan = facade.getPlan();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<String>>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++)
+        futures.add(executor.submit(() -> {
+          MeasurementSession session = plan.newSession();
+          List<String> results = new ArrayList<>();
+          for (int j = 0; j < 50; j++)
+            results.add((String) session.measure(record, OutputCollector.TYPE.STRING));
+          return results;
+        }));
+      for (Future<List<String>> future : futures)
+        for (String result : future.get())
+          assertEquals(expected, result);
+    } catch (ExecutionException e) {
+      throw new AssertionError(e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void measureBytes() throws URISyntaxException, IOException {
+    CalculatorFacade facade = createFacade();
+    String record = FileUtils.readFirstLineFromResource("general/test.json");
+    byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+
+    String expected = facade.measure(record);
+    assertEquals(expected, facade.measure(bytes));
+    assertEquals(expected, facade.measure(ByteBuffer.wrap(bytes)));
+    assertEquals(facade.measureAsJson(record), facade.measureAsJson(bytes));
+    assertEquals(facade.measureAsJson(record), facade.measureAsJson(ByteBuffer.wrap(bytes)));
+
+    var padded = ByteBuffer.allocateDirect(bytes.length + 2);
+    padded.put((byte) ' ').put(bytes).put((byte) '\n').flip().position(1).limit(bytes.length + 1);
+    assertEquals(expected, facade.measure(padded));
+  }
+
+  @Test
+  public void measureParsedJson() throws URISyntaxException, IOException {
+    CalculatorFacade facade = createFacade();
+    String record = FileUtils.readFirstLineFromResource("general/test.json");
+    String expected = facade.measure(record);
+
+    Map<String, Object> document = (Map<String, Object>) JsonProviderType.SMART.getConfiguration()
+      .jsonProvider().parse(record);
+    assertEquals(expected, facade.measure(document));
+    assertEquals(expected, facade.measure(new ObjectMapper().readTree(record)));
+    assertEquals(facade.measureAsJson(record), facade.measureAsJson(new ObjectMapper().readTree(record)));
+  }
+
+  @Test
+  public void csvWorkerFacade() {
+    var schema = new BaseSchema()
+      .setFormat(Format.CSV)
+      .addField(new DataElement("id"))
+      .addField(new DataElement("title"));
+    CalculatorFacade facade = new CalculatorFacade(new MeasurementConfiguration().enableCompletenessMeasurement())
+      .setSchema(schema)
+      .setCsvReader(true);
+    assertEquals("", facade.measure("id,title"));
+    String first = facade.measure("1,hello");
+
+    // the workers get the header of the plan, so their first records are measured
+    CalculatorFacade worker = new CalculatorFacade(facade.getPlan());
+    assertEquals(first, worker.measure("2,world"));
+    assertEquals(List.of("id", "title"), facade.getCsvReader().getHeader());
+    assertEquals(facade.measure("3,"), new CalculatorFacade(facade.getPlan()).measure("3,"));
+
+    var batch = new CalculatorFacade(facade.getPlan()).measureBatch(List.of("4,x", "5,"));
+    assertEquals(2, batch.size());
+    assertEquals(facade.measureAsMetricResult("4,x").toString(), batch.get(0).toString());
+    assertEquals(facade.measureAsMetricResult("5,").toString(), batch.get(1).toString());
+  }
+
+  @Test
+  public void newPlanAfterChange() throws URISyntaxException, IOException {
+    CalculatorFacade facade = createFacade();
+    MeasurementPlan plan = facade.getPlan();
+    facade.setSchema(new EdmOaiPmhJsonSchema());
+    assertNotSame(plan, facade.getPlan());
+  }
+
+  private CalculatorFacade createFacade() {
+    MeasurementConfiguration configuration = new MeasurementConfiguration(true, true, true, false, true);
+    CalculatorFacade facade = new CalculatorFacade(configuration);
+    facade.setSchema(new EdmOaiPmhJsonSchema());
+    facade.configure();
+    return facade;
+  }
+}
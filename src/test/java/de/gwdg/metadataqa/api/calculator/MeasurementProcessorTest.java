@@ -0,0 +1,150 @@
+package de.gwdg.metadataqa.api.calculator;
+
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MeasurementProcessorTest {
+
+  @Test
+  public void order() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      var processor = new MeasurementProcessor(createPlan(), 4, executor);
+      var subscriber = new CollectingSubscriber(1);
+      processor.subscribe(subscriber);
+
+      List<String> expected = new ArrayList<>();
+      try (var publisher = new SubmissionPublisher<String>()) {
+        publisher.subscribe(processor);
+        for (int i = 0; i < 100; i++) {
+          String url = "http://example.com/" + i;
+          expected.add(url);
+          publisher.submit(String.format("{\"url\": \"%s\"}", url));
+        }
+      }
+
+      assertTrue(subscriber.finished.await(10, TimeUnit.SECONDS));
+      assertNull(subscriber.error);
+      assertEquals(expected, subscriber.urls);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void backpressure() {
+    var processor = new MeasurementProcessor(createPlan(), 2, Runnable::run);
+    var upstream = new CountingSubscription();
+    processor.onSubscribe(upstream);
+
+    var subscriber = new CollectingSubscriber(0);
+    processor.subscribe(subscriber);
+    assertEquals(0, upstream.requested);
+
+    subscriber.subscription.request(1);
+    assertEquals(1, upstream.requested);
+
+    subscriber.subscription.request(10);
+    assertEquals(2, upstream.requested);
+
+    processor.onNext("{\"url\": \"a\"}");
+    processor.onNext("{\"url\": \"b\"}");
+    assertEquals(List.of("a", "b"), subscriber.urls);
+    assertEquals(4, upstream.requested);
+
+    processor.onComplete();
+    assertEquals(0, subscriber.finished.getCount());
+  }
+
+  @Test
+  public void cancel() {
+    var processor = new MeasurementProcessor(createPlan(), 2, Runnable::run);
+    var upstream = new CountingSubscription();
+    processor.onSubscribe(upstream);
+    var subscriber = new CollectingSubscriber(0);
+    processor.subscribe(subscriber);
+
+    subscriber.subscription.cancel();
+    assertTrue(upstream.cancelled);
+  }
+
+  private MeasurementPlan createPlan() {
+    var schema = new BaseSchema()
+      .setFormat(Format.JSON)
+      .addField(new DataElement("url").setExtractable());
+    var configuration = new MeasurementConfiguration()
+      .enableFieldExtractor()
+      .disableCompletenessMeasurement();
+    return new CalculatorFacade(configuration).setSchema(schema).getPlan();
+  }
+
+  private static class CountingSubscription implements Flow.Subscription {
+    long requested = 0;
+    boolean cancelled = false;
+
+    @Override
+    public void request(long n) {
+      requested += n;
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+  }
+
+  private static class CollectingSubscriber implements Flow.Subscriber<Map<String, List<MetricResult>>> {
+    private final long batch;
+    final List<String> urls = new ArrayList<>();
+    final CountDownLatch finished = new CountDownLatch(1);
+    Flow.Subscription subscription;
+    Throwable error;
+
+    CollectingSubscriber(long batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (batch > 0)
+        subscription.request(batch);
+    }
+
+    @Override
+    public void onNext(Map<String, List<MetricResult>> item) {
+      urls.add((String) item.get("fieldExtractor").get(0).getResultMap().get("url"));
+      if (batch > 0)
+        subscription.request(batch);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      finished.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      finished.countDown();
+    }
+  }
+}
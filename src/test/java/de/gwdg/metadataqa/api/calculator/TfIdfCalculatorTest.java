@@ -5,14 +5,17 @@ import de.gwdg.metadataqa.api.json.DataElement;
 import de.gwdg.metadataqa.api.model.selector.SelectorFactory;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.model.selector.CsvSelector;
+import de.gwdg.metadataqa.api.model.selector.Selector;
 import de.gwdg.metadataqa.api.schema.BaseSchema;
 import de.gwdg.metadataqa.api.schema.CsvAwareSchema;
 import de.gwdg.metadataqa.api.schema.Format;
 import de.gwdg.metadataqa.api.schema.Schema;
 import de.gwdg.metadataqa.api.schema.edm.EdmFullBeanSchema;
 import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import de.gwdg.metadataqa.api.uniqueness.SolrClient;
 import de.gwdg.metadataqa.api.uniqueness.SolrClientMock;
@@ -99,6 +102,69 @@ public class TfIdfCalculatorTest {
     assertEquals(0.0, result.get(0).getResultMap().get("name:avg"));
   }
 
+  @Test
+  public void measureBatch() throws Exception {
+    Schema schema = getSchema(Format.CSV);
+    SolrClientMock solrClient = new SolrClientMock(new SolrConfiguration("localhost", "8983", "solr"));
+    TfIdfCalculator calculator = new TfIdfCalculator(schema);
+    calculator.setSolrClient(solrClient);
+
+    List<List<MetricResult>> results = calculator.measureBatch(createSelectors(schema, "URL,two three", "URL2,four five"));
+    assertEquals(1, solrClient.getTfIdfRequests());
+    assertEquals(measureOneByOne(calculator, schema, "URL,two three", "URL2,four five"), toResultMaps(results));
+    assertEquals(0.375, results.get(1).get(0).getResultMap().get("name:avg"));
+  }
+
+  @Test
+  public void measureBatch_empty() throws Exception {
+    Schema schema = getSchema(Format.CSV);
+    SolrClientMock solrClient = new SolrClientMock(new SolrConfiguration("localhost", "8983", "solr"));
+    TfIdfCalculator calculator = new TfIdfCalculator(schema);
+    calculator.setSolrClient(solrClient);
+
+    assertEquals(List.of(), calculator.measureBatch(List.of()));
+    assertEquals(0, solrClient.getTfIdfRequests());
+  }
+
+  @Test
+  public void measureBatch_partialFailure() throws Exception {
+    Schema schema = getSchema(Format.CSV);
+    SolrClientMock solrClient = new SolrClientMock(new SolrConfiguration("localhost", "8983", "solr"));
+    solrClient.addFailingBatchRecordId("URL2");
+    TfIdfCalculator calculator = new TfIdfCalculator(schema);
+    calculator.setSolrClient(solrClient);
+
+    List<List<MetricResult>> results = calculator.measureBatch(createSelectors(schema, "URL,two three", "URL2,four five"));
+    // the record missing from the batch response is requested alone
+    assertEquals(2, solrClient.getTfIdfRequests());
+    assertEquals(measureOneByOne(calculator, schema, "URL,two three", "URL2,four five"), toResultMaps(results));
+  }
+
+  private List<Map<String, ?>> measureOneByOne(TfIdfCalculator calculator, Schema schema, String... lines) {
+    List<Map<String, ?>> results = new ArrayList<>();
+    for (Selector selector : createSelectors(schema, lines))
+      results.add(calculator.measure(selector).get(0).getResultMap());
+    return results;
+  }
+
+  private List<Map<String, ?>> toResultMaps(List<List<MetricResult>> results) {
+    List<Map<String, ?>> maps = new ArrayList<>();
+    for (List<MetricResult> result : results)
+      maps.add(result.get(0).getResultMap());
+    return maps;
+  }
+
+  private List<Selector> createSelectors(Schema schema, String... lines) {
+    List<Selector> selectors = new ArrayList<>();
+    for (String line : lines) {
+      CsvSelector cache = (CsvSelector) SelectorFactory.getInstance(schema.getFormat(), line);
+      cache.setCsvReader(new CsvReader().setHeader(((CsvAwareSchema) schema).getHeader()));
+      cache.setRecordId(((List<XmlFieldInstance>) cache.get(schema.getRecordId().getPath())).get(0).getValue());
+      selectors.add(cache);
+    }
+    return selectors;
+  }
+
   private Schema getSchema(Format format) {
     BaseSchema schema = new BaseSchema()
       .setFormat(format)
@@ -3,14 +3,21 @@ package de.gwdg.metadataqa.api.calculator;
 import de.bechte.junit.runners.context.HierarchicalContextRunner;
 import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.model.selector.CsvSelector;
 import de.gwdg.metadataqa.api.model.selector.JsonSelector;
 import de.gwdg.metadataqa.api.model.selector.Selector;
+import de.gwdg.metadataqa.api.model.selector.SelectorFactory;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.CsvAwareSchema;
+import de.gwdg.metadataqa.api.schema.Format;
 import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
 import de.gwdg.metadataqa.api.schema.Schema;
 import de.gwdg.metadataqa.api.uniqueness.SolrClient;
 import de.gwdg.metadataqa.api.uniqueness.SolrClientMock;
 import de.gwdg.metadataqa.api.uniqueness.SolrConfiguration;
 import de.gwdg.metadataqa.api.util.CompressionLevel;
+import de.gwdg.metadataqa.api.util.CsvReader;
 import de.gwdg.metadataqa.api.util.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -18,6 +25,7 @@ import org.junit.runner.RunWith;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -180,4 +188,81 @@ public class UniquenessCalculatorTest {
       assertEquals(2000, uniquenessCalculator.getSolrFields().get(2).getTotal());
     }
   }
+
+  public class Batch {
+    private SolrClientMock mock;
+    private Schema csvSchema;
+    private List<String> lines = List.of("1,URL,two three", "2,URL,four", "3,,", "4,,four");
+
+    @Before
+    public void setUp() {
+      mock = new SolrClientMock(new SolrConfiguration("localhost", "8983", "solr"));
+      csvSchema = new BaseSchema()
+        .setFormat(Format.CSV)
+        .addField(new DataElement("id").setExtractable())
+        .addField(new DataElement("url").setIndexField("url"))
+        .addField(new DataElement("name").setIndexField("name"));
+      ((BaseSchema) csvSchema).setRecordId(csvSchema.getPathByLabel("id"));
+    }
+
+    @Test
+    public void measureBatch() {
+      UniquenessCalculator batchCalculator = new UniquenessCalculator(mock, csvSchema);
+      mock.resetRequests();
+
+      List<List<MetricResult>> results = batchCalculator.measureBatch(createSelectors());
+      // one request per field, instead of one per value
+      assertEquals(2, mock.getNumFoundRequests());
+      assertEquals(0, mock.getSearchRequests());
+      assertEquals(getSingleResults(), toResultMaps(results));
+    }
+
+    @Test
+    public void measureBatch_empty() {
+      UniquenessCalculator batchCalculator = new UniquenessCalculator(mock, csvSchema);
+      mock.resetRequests();
+
+      assertEquals(List.of(), batchCalculator.measureBatch(List.of()));
+      assertEquals(0, mock.getNumFoundRequests());
+      assertEquals(0, mock.getSearchRequests());
+    }
+
+    @Test
+    public void measureBatch_partialFailure() {
+      UniquenessCalculator batchCalculator = new UniquenessCalculator(mock, csvSchema);
+      mock.addFailingValue("four");
+      mock.resetRequests();
+
+      List<List<MetricResult>> results = batchCalculator.measureBatch(createSelectors());
+      // the value missing from the batch response is looked up in each record having it
+      assertEquals(2, mock.getNumFoundRequests());
+      assertEquals(2, mock.getSearchRequests());
+      assertEquals(getSingleResults(), toResultMaps(results));
+    }
+
+    private List<Map<String, ?>> getSingleResults() {
+      UniquenessCalculator singleCalculator = new UniquenessCalculator(mock, csvSchema);
+      List<Map<String, ?>> results = new ArrayList<>();
+      for (Selector selector : createSelectors())
+        results.add(singleCalculator.measure(selector).get(0).getResultMap());
+      return results;
+    }
+
+    private List<Selector> createSelectors() {
+      List<Selector> selectors = new ArrayList<>();
+      for (String line : lines) {
+        CsvSelector selector = (CsvSelector) SelectorFactory.getInstance(Format.CSV, line);
+        selector.setCsvReader(new CsvReader().setHeader(((CsvAwareSchema) csvSchema).getHeader()));
+        selectors.add(selector);
+      }
+      return selectors;
+    }
+
+    private List<Map<String, ?>> toResultMaps(List<List<MetricResult>> results) {
+      List<Map<String, ?>> maps = new ArrayList<>();
+      for (List<MetricResult> result : results)
+        maps.add(result.get(0).getResultMap());
+      return maps;
+    }
+  }
 }
@@ -2,16 +2,28 @@ package de.gwdg.metadataqa.api.cli;
 
 import com.github.stefanbirkner.systemlambda.SystemLambda;
 import de.gwdg.metadataqa.api.util.FileUtils;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class AppTest {
 
@@ -25,6 +37,7 @@ public class AppTest {
     outputFile = new File(outputFileName);
   }
 
+  @After
   public void tearDown() throws Exception {
     if (outputFile.exists())
       outputFile.delete();
@@ -49,6 +62,258 @@ public class AppTest {
     assertEquals("\"https://neurovault.org/images/93390/\",\"Language in the aging brain\"", output.get(2).trim());
   }
 
+  @Test
+  public void partitioned() throws IOException {
+    App.main(new String[]{
+      "--input", BASE_DIR + "csv/meemoo-simple.csv",
+      "--schema", BASE_DIR + "configuration/schema/simple-meemoo.yaml",
+      "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+      "--outputFormat", "csv",
+      "--output", outputFileName,
+      "--threads", "2",
+      "--unordered"
+    });
+
+    assertTrue(outputFile.exists());
+
+    List<String> output = FileUtils.readLinesFromFile(outputFileName);
+    assertEquals(3, output.size());
+    assertEquals("\"url\",\"name\"", output.get(0).trim());
+    assertTrue(output.contains("\"https://neurovault.org/images/384958/\",\"massivea uditory lexical decision\""));
+    assertTrue(output.contains("\"https://neurovault.org/images/93390/\",\"Language in the aging brain\""));
+  }
+
+  @Test
+  public void partitionAndMerge() throws IOException {
+    List<String> partials = new ArrayList<>();
+    for (String partition : List.of("1/2", "2/2")) {
+      String partial = File.createTempFile("partial", ".csv").getPath();
+      partials.add(partial);
+      App.main(new String[]{
+        "--input", BASE_DIR + "csv/meemoo-simple.csv",
+        "--schema", BASE_DIR + "configuration/schema/simple-meemoo.yaml",
+        "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+        "--outputFormat", "csv",
+        "--output", partial,
+        "--partition", partition
+      });
+      assertEquals(2, FileUtils.readLinesFromFile(partial).size());
+    }
+
+    List<String> arguments = new ArrayList<>(List.of("merge", "--output", outputFileName));
+    arguments.addAll(partials);
+    App.main(arguments.toArray(new String[0]));
+
+    List<String> output = FileUtils.readLinesFromFile(outputFileName);
+    assertEquals(3, output.size());
+    assertEquals("\"url\",\"name\"", output.get(0).trim());
+    assertEquals("\"https://neurovault.org/images/384958/\",\"massivea uditory lexical decision\"", output.get(1).trim());
+    assertEquals("\"https://neurovault.org/images/93390/\",\"Language in the aging brain\"", output.get(2).trim());
+
+    for (String partial : partials)
+      new File(partial).delete();
+  }
+
+  @Test
+  public void resume() throws IOException {
+    String header = "\"url\",\"name\"\n";
+    String first = "\"https://neurovault.org/images/384958/\",\"massivea uditory lexical decision\"\n";
+    // the output of an interrupted run: a line is written after the last checkpoint
+    Files.write(outputFile.toPath(), (header + first + "\"https://neurovault.org/im").getBytes(StandardCharsets.UTF_8));
+    Files.write(Paths.get(outputFileName + Checkpoint.EXTENSION), List.of(
+      "records=1",
+      "inputPosition=-1",
+      "outputPosition=" + (header + first).getBytes(StandardCharsets.UTF_8).length,
+      "interval=1"
+    ));
+
+    App.main(new String[]{
+      "--input", BASE_DIR + "csv/meemoo-simple.csv",
+      "--schema", BASE_DIR + "configuration/schema/simple-meemoo.yaml",
+      "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+      "--outputFormat", "csv",
+      "--output", outputFileName,
+      "--resume"
+    });
+
+    List<String> output = FileUtils.readLinesFromFile(outputFileName);
+    assertEquals(3, output.size());
+    assertEquals("\"url\",\"name\"", output.get(0).trim());
+    assertEquals("\"https://neurovault.org/images/384958/\",\"massivea uditory lexical decision\"", output.get(1).trim());
+    assertEquals("\"https://neurovault.org/images/93390/\",\"Language in the aging brain\"", output.get(2).trim());
+    assertFalse(new File(outputFileName + Checkpoint.EXTENSION).exists());
+  }
+
+  @Test
+  public void filter() throws IOException {
+    App.main(new String[]{
+      "--input", BASE_DIR + "csv/meemoo-simple.csv",
+      "--schema", BASE_DIR + "configuration/schema/simple-meemoo.yaml",
+      "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+      "--outputFormat", "csv",
+      "--output", outputFileName,
+      "--filter", "name=Language in the aging brain"
+    });
+
+    List<String> output = FileUtils.readLinesFromFile(outputFileName);
+    assertEquals(2, output.size());
+    assertEquals("\"url\",\"name\"", output.get(0).trim());
+    assertEquals("\"https://neurovault.org/images/93390/\",\"Language in the aging brain\"", output.get(1).trim());
+  }
+
+  @Test
+  public void filter_regex() throws IOException {
+    // the same lines are matched, whether they are split by a CSV reader or mapped
+    for (String threads : List.of("1", "2")) {
+      App.main(new String[]{
+        "--input", BASE_DIR + "csv/meemoo-simple.csv",
+        "--schema", BASE_DIR + "configuration/schema/simple-meemoo.yaml",
+        "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+        "--outputFormat", "csv",
+        "--output", outputFileName,
+        "--threads", threads,
+        "--unordered",
+        "--filter", "regex:/,Language"
+      });
+
+      List<String> output = FileUtils.readLinesFromFile(outputFileName);
+      assertEquals(2, output.size());
+      assertEquals("\"https://neurovault.org/images/93390/\",\"Language in the aging brain\"", output.get(1).trim());
+    }
+  }
+
+  @Test
+  public void unorderedCsvWithLineBreaks() throws IOException {
+    File input = File.createTempFile("multiline", ".csv");
+    Files.writeString(input.toPath(), "url,name\n"
+      + "https://example.com/1,first\n"
+      + "https://example.com/2,\"second\nline\"\n"
+      + "https://example.com/3,third\n");
+    try {
+      App.main(new String[]{
+        "--input", input.getPath(),
+        "--schema", BASE_DIR + "configuration/schema/simple-meemoo.yaml",
+        "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+        "--outputFormat", "csv",
+        "--output", outputFileName,
+        "--threads", "2",
+        "--unordered"
+      });
+    } finally {
+      input.delete();
+    }
+
+    // the record with the line break is not split into two records
+    String output = Files.readString(outputFile.toPath());
+    assertTrue(output.contains("\"https://example.com/1\",\"first\""));
+    assertTrue(output.contains("\"https://example.com/2\",\"second\nline\""));
+    assertTrue(output.contains("\"https://example.com/3\",\"third\""));
+    assertEquals(5, output.split("\n").length);
+  }
+
+  @Test
+  public void filter_invalidForFormat() throws Exception {
+    CommandLine cmd = new DefaultParser().parse(App.buildOptions(), new String[]{
+      "--input", BASE_DIR + "csv/missing.csv",
+      "--schema", BASE_DIR + "configuration/schema/simple-meemoo.yaml",
+      "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+      "--filter", "xpath://name"
+    });
+    try {
+      new App(cmd);
+      fail("The XPath filter should be rejected for CSV records");
+    } catch (IllegalArgumentException e) {
+      // the filter is checked before the input is opened
+      assertTrue(e.getMessage().startsWith("XPath filters can be applied only to XML records"));
+    }
+  }
+
+  @Test
+  public void ndxml() throws IOException {
+    for (String threads : List.of("1", "2")) {
+      App.main(new String[]{
+        "--input", BASE_DIR + "xml/meemoo-simple.ndxml",
+        "--inputFormat", "ndxml",
+        "--schema", BASE_DIR + "configuration/schema/simple-ndxml.yaml",
+        "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+        "--outputFormat", "csv",
+        "--output", outputFileName,
+        "--threads", threads,
+        "--unordered",
+        "--filter", "xpath://ex:set = '2'"
+      });
+
+      List<String> output = FileUtils.readLinesFromFile(outputFileName);
+      assertEquals(2, output.size());
+      assertEquals("\"url\",\"name\"", output.get(0).trim());
+      assertEquals("\"https://neurovault.org/images/93390/\",\"Language in the aging brain\"", output.get(1).trim());
+    }
+  }
+
+  @Test
+  public void ndjsonFromPipe() throws Exception {
+    File pipe = createPipe(Files.readAllBytes(Paths.get(BASE_DIR + "json/meemoo-simple.ndjson")));
+    App.main(new String[]{
+      "--input", pipe.getPath(),
+      "--schema", BASE_DIR + "configuration/schema/simple-ndjson.yaml",
+      "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+      "--outputFormat", "csv",
+      "--output", outputFileName
+    });
+
+    List<String> output = FileUtils.readLinesFromFile(outputFileName);
+    assertEquals(3, output.size());
+    assertEquals("\"https://neurovault.org/images/384958/\",\"massivea uditory lexical decision\"", output.get(1).trim());
+    assertEquals("\"https://neurovault.org/images/93390/\",\"Language in the aging brain\"", output.get(2).trim());
+  }
+
+  @Test
+  public void ndxmlFromPipe() throws Exception {
+    File pipe = createPipe(Files.readAllBytes(Paths.get(BASE_DIR + "xml/meemoo-simple.ndxml")));
+    App.main(new String[]{
+      "--input", pipe.getPath(),
+      "--inputFormat", "ndxml",
+      "--schema", BASE_DIR + "configuration/schema/simple-ndxml.yaml",
+      "--measurements", BASE_DIR + "configuration/measurement/simple-meemoo.yaml",
+      "--outputFormat", "csv",
+      "--output", outputFileName,
+      "--filter", "xpath://ex:set = '2'"
+    });
+
+    // the prologue is read by the reader, so its namespaces are declared for the filter as well
+    List<String> output = FileUtils.readLinesFromFile(outputFileName);
+    assertEquals(2, output.size());
+    assertEquals("\"https://neurovault.org/images/93390/\",\"Language in the aging brain\"", output.get(1).trim());
+  }
+
+  /**
+   * Creates a named pipe, and writes the content into it in the background.
+   */
+  private File createPipe(byte[] content) throws Exception {
+    File directory = Files.createTempDirectory("pipe").toFile();
+    directory.deleteOnExit();
+    File pipe = new File(directory, "input");
+    pipe.deleteOnExit();
+    Process mkfifo;
+    try {
+      mkfifo = new ProcessBuilder("mkfifo", pipe.getPath()).start();
+    } catch (IOException e) {
+      mkfifo = null;
+    }
+    Assume.assumeTrue("mkfifo is not available", mkfifo != null && mkfifo.waitFor() == 0);
+
+    var writer = new Thread(() -> {
+      try (OutputStream out = new FileOutputStream(pipe)) {
+        out.write(content);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    writer.setDaemon(true);
+    writer.start();
+    return pipe;
+  }
+
   @Test
   public void good_json() throws IOException {
     App.main(new String[]{
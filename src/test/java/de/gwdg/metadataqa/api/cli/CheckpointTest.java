@@ -0,0 +1,85 @@
+package de.gwdg.metadataqa.api.cli;
+
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.writer.ResultWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CheckpointTest {
+
+  private Path output;
+  private Path checkpointFile;
+
+  @Before
+  public void setUp() throws IOException {
+    output = Files.createTempFile("checkpoint", ".csv");
+    checkpointFile = Paths.get(output + Checkpoint.EXTENSION);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(output);
+    Files.deleteIfExists(checkpointFile);
+  }
+
+  @Test
+  public void read_missing() throws IOException {
+    assertNull(Checkpoint.read(output.toString()));
+  }
+
+  @Test
+  public void update() throws IOException {
+    var checkpoint = new Checkpoint(output.toString(), 2);
+    Files.write(output, "first\n".getBytes(StandardCharsets.UTF_8));
+    checkpoint.update(1, 10, new NoopWriter());
+    assertFalse(Files.exists(checkpointFile));
+
+    Files.write(output, "first\nsecond\n".getBytes(StandardCharsets.UTF_8));
+    checkpoint.update(2, 20, new NoopWriter());
+    assertTrue(Files.exists(checkpointFile));
+
+    Checkpoint saved = Checkpoint.read(output.toString());
+    assertEquals(2, saved.getRecords());
+    assertEquals(20, saved.getInputPosition());
+    assertEquals(13, saved.getOutputPosition());
+    assertEquals(2, saved.getInterval());
+
+    checkpoint.delete();
+    assertFalse(Files.exists(checkpointFile));
+  }
+
+  @Test
+  public void truncateOutput() throws IOException {
+    var checkpoint = new Checkpoint(output.toString(), 1);
+    Files.write(output, "first\n".getBytes(StandardCharsets.UTF_8));
+    checkpoint.save(1, -1, new NoopWriter());
+    Files.write(output, "first\nsecond, not comp".getBytes(StandardCharsets.UTF_8));
+
+    Checkpoint.read(output.toString()).truncateOutput();
+    assertEquals("first\n", Files.readString(output));
+  }
+
+  private static class NoopWriter extends ResultWriter {
+    @Override
+    public void writeResult(Map<String, List<MetricResult>> result) {
+    }
+
+    @Override
+    public void writeHeader(List<String> header) {
+    }
+  }
+}
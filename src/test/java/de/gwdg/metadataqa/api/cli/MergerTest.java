@@ -0,0 +1,74 @@
+package de.gwdg.metadataqa.api.cli;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MergerTest {
+
+  private final List<Path> files = new ArrayList<>();
+
+  @After
+  public void tearDown() throws IOException {
+    for (Path file : files)
+      Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void csv() throws IOException {
+    List<Path> inputs = List.of(
+      createFile("\"url\",\"name\"", "\"a\",\"1\"", "\"c\",\"multi\nline\""),
+      createFile("\"url\",\"name\"", "\"b\",\"2 \"\"quoted\"\"\"")
+    );
+
+    var output = new StringWriter();
+    long counter = new Merger(inputs, App.CSV).merge(output);
+
+    assertEquals(3, counter);
+    assertEquals(
+      "\"url\",\"name\"\n\"a\",\"1\"\n\"b\",\"2 \"\"quoted\"\"\"\n\"c\",\"multi\nline\"\n",
+      output.toString());
+  }
+
+  @Test(expected = IOException.class)
+  public void differentHeaders() throws IOException {
+    List<Path> inputs = List.of(
+      createFile("\"url\",\"name\"", "\"a\",\"1\""),
+      createFile("\"url\"", "\"b\"")
+    );
+    new Merger(inputs, App.CSV).merge(new StringWriter());
+  }
+
+  @Test
+  public void ndjson() throws IOException {
+    List<Path> inputs = List.of(
+      createFile("{\"id\":1}", "{\"id\":4}"),
+      createFile("{\"id\":2}"),
+      createFile("{\"id\":3}")
+    );
+
+    var output = new StringWriter();
+    long counter = new Merger(inputs, App.NDJSON).merge(output);
+
+    assertEquals(4, counter);
+    assertEquals(
+      String.join(System.lineSeparator(), "{\"id\":1}", "{\"id\":2}", "{\"id\":3}", "{\"id\":4}") + System.lineSeparator(),
+      output.toString());
+  }
+
+  private Path createFile(String... lines) throws IOException {
+    Path file = Files.createTempFile("merge", ".out");
+    Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+    files.add(file);
+    return file;
+  }
+}
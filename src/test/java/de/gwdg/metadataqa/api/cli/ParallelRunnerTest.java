@@ -0,0 +1,110 @@
+package de.gwdg.metadataqa.api.cli;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.reader.JSONRecordReader;
+import de.gwdg.metadataqa.api.io.writer.ResultWriter;
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelRunnerTest {
+
+  private static final int NUMBER_OF_RECORDS = 1000;
+
+  @Test
+  public void ordered() throws IOException {
+    CollectingWriter writer = new CollectingWriter();
+    long counter = new ParallelRunner<>(getReader(), this::getCalculator, writer, 4)
+      .setCapacity(10)
+      .run();
+
+    assertEquals(NUMBER_OF_RECORDS, counter);
+    assertEquals(getExpectedIds(), writer.ids);
+  }
+
+  @Test
+  public void unordered() throws IOException {
+    CollectingWriter writer = new CollectingWriter();
+    long counter = new ParallelRunner<>(getReader(), this::getCalculator, writer, 4)
+      .setOrdered(false)
+      .run();
+
+    assertEquals(NUMBER_OF_RECORDS, counter);
+    List<String> ids = new ArrayList<>(writer.ids);
+    Collections.sort(ids);
+    List<String> expected = getExpectedIds();
+    Collections.sort(expected);
+    assertEquals(expected, ids);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void writerFailure() throws IOException {
+    CollectingWriter writer = new CollectingWriter();
+    writer.failAt = 100;
+    new ParallelRunner<>(getReader(), this::getCalculator, writer, 2).run();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidThreads() {
+    new ParallelRunner<>(getReader(), this::getCalculator, new CollectingWriter(), 0);
+  }
+
+  private JSONRecordReader getReader() {
+    StringBuilder input = new StringBuilder();
+    for (String id : getExpectedIds())
+      input.append(String.format("{\"url\": \"%s\", \"name\": \"record %s\"}\n", id, id));
+    try {
+      return new JSONRecordReader(new BufferedReader(new StringReader(input.toString())), getCalculator());
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private List<String> getExpectedIds() {
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++)
+      ids.add("id" + i);
+    return ids;
+  }
+
+  private CalculatorFacade getCalculator() {
+    MeasurementConfiguration config = new MeasurementConfiguration()
+      .enableFieldExtractor()
+      .disableCompletenessMeasurement();
+
+    return new CalculatorFacade(config).setSchema(
+      new BaseSchema()
+        .setFormat(Format.JSON)
+        .addField(new DataElement("url", "$.url").setExtractable())
+    );
+  }
+
+  private static class CollectingWriter extends ResultWriter {
+    private final List<String> ids = new ArrayList<>();
+    private int failAt = -1;
+
+    @Override
+    public void writeResult(Map<String, List<MetricResult>> result) {
+      if (ids.size() == failAt)
+        throw new IllegalStateException("writer failure");
+      ids.add((String) result.get("fieldExtractor").get(0).getResultMap().get("url"));
+    }
+
+    @Override
+    public void writeHeader(List<String> header) {
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package de.gwdg.metadataqa.api.cli;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.reader.CSVRecordReader;
+import de.gwdg.metadataqa.api.io.reader.FilePartition;
+import de.gwdg.metadataqa.api.io.writer.ResultWriter;
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.util.CsvReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class PartitionedRunnerTest {
+
+  private static final int NUMBER_OF_RECORDS = 1000;
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    List<String> lines = new ArrayList<>();
+    lines.add("url,name");
+    for (String id : getExpectedIds())
+      lines.add(String.format("%s,record %s", id, id));
+    file = Files.createTempFile("partitioned", ".csv");
+    Files.write(file, lines, StandardCharsets.UTF_8);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void csv() throws IOException {
+    CalculatorFacade calculator = getCalculator();
+    CollectingWriter writer = new CollectingWriter();
+    List<FilePartition> partitions = FilePartition.split(file, 4, FilePartition.lineEnd(file, 0));
+
+    long counter = new PartitionedRunner(
+      partitions,
+      (partition, worker) -> new CSVRecordReader(partition.open(), worker, false),
+      () -> new CalculatorFacade(calculator.getPlan()),
+      writer
+    ).run();
+
+    assertEquals(NUMBER_OF_RECORDS, counter);
+    List<String> ids = new ArrayList<>(writer.ids);
+    Collections.sort(ids);
+    List<String> expected = getExpectedIds();
+    Collections.sort(expected);
+    assertEquals(expected, ids);
+  }
+
+  private List<String> getExpectedIds() {
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++)
+      ids.add("id" + i);
+    return ids;
+  }
+
+  private CalculatorFacade getCalculator() {
+    MeasurementConfiguration config = new MeasurementConfiguration()
+      .enableFieldExtractor()
+      .disableCompletenessMeasurement();
+
+    return new CalculatorFacade(config)
+      .setSchema(
+        new BaseSchema()
+          .setFormat(Format.CSV)
+          .addField(new DataElement("url").setExtractable())
+      )
+      .setCsvReader(new CsvReader().setHeader(List.of("url", "name")));
+  }
+
+  private static class CollectingWriter extends ResultWriter {
+    private final List<String> ids = new ArrayList<>();
+
+    @Override
+    public void writeResult(Map<String, List<MetricResult>> result) {
+      ids.add((String) result.get("fieldExtractor").get(0).getResultMap().get("url"));
+    }
+
+    @Override
+    public void writeHeader(List<String> header) {
+    }
+  }
+}
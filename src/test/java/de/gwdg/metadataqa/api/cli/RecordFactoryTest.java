@@ -61,6 +61,15 @@ public class RecordFactoryTest {
     assertEquals("XMLRecordReader", reader.getClass().getSimpleName());
   }
 
+  @Test
+  public void getRecordReader_xml_recordAddress() throws IOException, CsvValidationException {
+    RecordReader reader = RecordFactory.getRecordReader(BASE_DIR + "/xml/meemoo-simple.xml", getCalculator(Format.XML), false, null, "records/record");
+    assertEquals("XMLStreamRecordReader", reader.getClass().getSimpleName());
+
+    reader = RecordFactory.getRecordReader(BASE_DIR + "/xml/meemoo-simple.xml", getCalculator(Format.XML), false, null, "records/record[1]");
+    assertEquals("XMLRecordReader", reader.getClass().getSimpleName());
+  }
+
   @Test
   public void getResultWriter_csv_stdout() throws IOException {
     ResultWriter writer = RecordFactory.getResultWriter("csv");
@@ -0,0 +1,173 @@
+package de.gwdg.metadataqa.api.io.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.CsvReader;
+import de.gwdg.metadataqa.api.xml.XPathWrapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecordFilterTest {
+
+  private static final String JSON = "{\"id\": 1, \"provider\": \"Europeana\", \"type\": [\"TEXT\", \"IMAGE\"],"
+    + " \"note\": \"\\\"provider\\\": \\\"Other\\\"\", \"aggregation\": {\"set\" : \"caf\\u00e9\", \"open\": true}}";
+
+  @Test
+  public void jsonKeyValue() {
+    Schema schema = new BaseSchema().setFormat(Format.JSON);
+    assertTrue(RecordFilter.create("provider=Europeana", schema, null).accepts(JSON));
+    assertTrue(RecordFilter.create("type=IMAGE", schema, null).accepts(JSON));
+    assertTrue(RecordFilter.create("set=café", schema, null).accepts(JSON));
+    assertTrue(RecordFilter.create("open=true", schema, null).accepts(JSON));
+    assertTrue(RecordFilter.create("id=1", schema, null).accepts(JSON));
+
+    assertFalse(RecordFilter.create("provider=Other", schema, null).accepts(JSON));
+    assertFalse(RecordFilter.create("provider=Europe", schema, null).accepts(JSON));
+    assertFalse(RecordFilter.create("type=SOUND", schema, null).accepts(JSON));
+    assertFalse(RecordFilter.create("id=10", schema, null).accepts(JSON));
+    assertFalse(RecordFilter.create("aggregation=Europeana", schema, null).accepts(JSON));
+  }
+
+  @Test
+  public void jsonKeyValue_bytes() {
+    var filter = new JsonKeyValueFilter("provider", "Europeana");
+    byte[] bytes = ("\n" + JSON + "\n{\"provider\": \"Europeana\"}").getBytes(StandardCharsets.UTF_8);
+    var buffer = ByteBuffer.wrap(bytes, 1, JSON.getBytes(StandardCharsets.UTF_8).length);
+    assertTrue(filter.accepts(buffer.slice()));
+    assertTrue(new JsonKeyValueFilter("set", "café").accepts(buffer));
+    assertFalse(new JsonKeyValueFilter("provider", "Other").accepts(buffer));
+    assertFalse(new JsonKeyValueFilter("provider", "Europeana").accepts(ByteBuffer.wrap(bytes, 0, 20)));
+  }
+
+  @Test
+  public void regex() throws IOException {
+    Schema schema = new BaseSchema().setFormat(Format.JSON);
+    assertTrue(RecordFilter.create("regex:\"set\"\\s*:", schema, null).accepts(JSON));
+    assertFalse(RecordFilter.create("regex:SOUND", schema, null).accepts(JSON));
+
+    // the parsed records are checked as JSON text
+    var filter = RecordFilter.create("regex:\"provider\":\\s*\"Europeana\"", schema, null);
+    assertTrue(filter.accepts(JSON));
+    assertTrue(filter.accepts(ByteBuffer.wrap(JSON.getBytes(StandardCharsets.UTF_8))));
+    assertTrue(filter.accepts(new ObjectMapper().readTree(JSON)));
+  }
+
+  @Test
+  public void regex_csv() {
+    var filter = RecordFilter.create("regex:^http://example.com/1,\"Language", new BaseSchema().setFormat(Format.CSV), null);
+    String line = "http://example.com/1,\"Language, in the brain\"";
+    assertTrue(filter.accepts(line));
+    assertTrue(filter.accepts(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8))));
+    // the cells are checked as a CSV line
+    assertTrue(filter.accepts(List.of("http://example.com/1", "Language, in the brain")));
+    assertFalse(filter.accepts("http://example.com/1,\"The Language\""));
+    assertFalse(filter.accepts(List.of("http://example.com/1", "The Language")));
+  }
+
+  @Test
+  public void regex_xml() {
+    Map<String, String> namespaces = Map.of("oai", "http://www.openarchives.org/OAI/2.0/");
+    var schema = new BaseSchema().setFormat(Format.XML);
+    schema.setNamespaces(namespaces);
+    String xml = "<oai:record xmlns:oai=\"http://www.openarchives.org/OAI/2.0/\">"
+      + "<oai:setSpec>2048</oai:setSpec></oai:record>";
+
+    var filter = RecordFilter.create("regex:<oai:setSpec>2048</oai:setSpec>", schema, null);
+    assertTrue(filter.accepts(xml));
+    assertTrue(filter.accepts(ByteBuffer.wrap(xml.getBytes(StandardCharsets.UTF_8))));
+    // the parsed records are checked as serialized XML
+    assertTrue(filter.accepts(new XPathWrapper(xml, namespaces).getDocument()));
+    assertFalse(RecordFilter.create("regex:9200", schema, null).accepts(xml));
+  }
+
+  @Test
+  public void defaults() throws IOException {
+    // the record shapes the filters do not handle are converted to text
+    assertTrue(new JsonKeyValueFilter("provider", "Europeana").accepts(new ObjectMapper().readTree(JSON)));
+    assertFalse(new JsonKeyValueFilter("provider", "Europeana").accepts(List.of("provider", "Europeana")));
+
+    var csvReader = new CsvReader().setHeader(List.of("url", "name"));
+    var csvFilter = new CsvKeyValueFilter("name", "x", csvReader);
+    assertFalse(csvFilter.accepts(new XPathWrapper("<record><name>x</name></record>", Map.of()).getDocument()));
+
+    var xpathFilter = new XPathFilter("count(//*) > 0", Map.of());
+    assertFalse(xpathFilter.accepts(List.of("a", "b")));
+    assertTrue(new XPathFilter("/record/name = 'x'", Map.of())
+      .accepts(new XPathWrapper("<record><name>x</name></record>", Map.of()).getDocument()));
+  }
+
+  @Test
+  public void validate() {
+    RecordFilter.validate("regex:^a", Format.XML);
+    RecordFilter.validate("provider=Europeana", Format.JSON);
+    RecordFilter.validate("name=x", Format.CSV);
+    RecordFilter.validate("xpath://a", Format.XML);
+
+    assertInvalid("xpath://a", Format.JSON);
+    assertInvalid("xpath://a", Format.CSV);
+    assertInvalid("provider=Europeana", Format.XML);
+    assertInvalid("regex:(", Format.JSON);
+    assertInvalid("provider", Format.JSON);
+    assertInvalid("", Format.JSON);
+  }
+
+  private static void assertInvalid(String expression, Format format) {
+    try {
+      RecordFilter.validate(expression, format);
+      fail("The filter should be invalid: " + expression);
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void csvKeyValue() {
+    var csvReader = new CsvReader().setHeader(List.of("url", "name"));
+    var filter = RecordFilter.create("name=Language, in the brain", new BaseSchema().setFormat(Format.CSV), csvReader);
+    assertTrue(filter.accepts("http://example.com/1,\"Language, in the brain\""));
+    assertTrue(filter.accepts(ByteBuffer.wrap("http://example.com/1,\"Language, in the brain\"".getBytes(StandardCharsets.UTF_8))));
+    assertTrue(filter.accepts(List.of("http://example.com/1", "Language, in the brain")));
+    assertFalse(filter.accepts("\"Language, in the brain\",other"));
+    assertFalse(filter.accepts("http://example.com/1,other"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void csvKeyValue_unknownColumn() {
+    RecordFilter.create("title=x", new BaseSchema().setFormat(Format.CSV), new CsvReader().setHeader(List.of("url")));
+  }
+
+  @Test
+  public void xpath() {
+    Map<String, String> namespaces = Map.of("oai", "http://www.openarchives.org/OAI/2.0/");
+    var schema = new BaseSchema().setFormat(Format.XML);
+    schema.setNamespaces(namespaces);
+    String xml = "<record xmlns=\"http://www.openarchives.org/OAI/2.0/\"><header><setSpec>2048</setSpec></header></record>";
+
+    var filter = RecordFilter.create("xpath:/oai:record/oai:header[oai:setSpec='2048']", schema, null);
+    assertTrue(filter.accepts(xml));
+    assertTrue(filter.accepts(ByteBuffer.wrap(xml.getBytes(StandardCharsets.UTF_8))));
+    assertTrue(filter.accepts(new XPathWrapper(xml, namespaces).getDocument()));
+    assertFalse(RecordFilter.create("xpath://oai:setSpec = '9200'", schema, null).accepts(xml));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void xpath_json() {
+    RecordFilter.create("xpath://record", new BaseSchema().setFormat(Format.JSON), null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidExpression() {
+    RecordFilter.create("provider", new BaseSchema().setFormat(Format.JSON), null);
+  }
+}
@@ -0,0 +1,89 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FilePartitionTest {
+
+  private Path file;
+  private List<String> lines;
+
+  @Before
+  public void setUp() throws IOException {
+    lines = new ArrayList<>();
+    lines.add("header,line");
+    for (int i = 0; i < 1000; i++)
+      lines.add("line " + i + ",árvíztűrő tükörfúrógép " + "x".repeat(i % 37));
+    file = Files.createTempFile("partition", ".csv");
+    Files.write(file, lines, StandardCharsets.UTF_8);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void split() throws IOException {
+    List<FilePartition> partitions = FilePartition.split(file, 7);
+    assertEquals(7, partitions.size());
+    assertEquals(0, partitions.get(0).getStart());
+    assertEquals(Files.size(file), partitions.get(6).getEnd());
+    for (int i = 1; i < partitions.size(); i++)
+      assertEquals(partitions.get(i - 1).getEnd(), partitions.get(i).getStart());
+
+    assertEquals(lines, readAll(partitions));
+  }
+
+  @Test
+  public void splitAfterHeader() throws IOException {
+    long offset = FilePartition.lineEnd(file, 0);
+    assertEquals("header,line\n".length(), offset);
+
+    List<FilePartition> partitions = FilePartition.split(file, 4, offset);
+    assertEquals(lines.subList(1, lines.size()), readAll(partitions));
+  }
+
+  @Test
+  public void morePartitionsThanLines() throws IOException {
+    Files.write(file, List.of("a", "b"), StandardCharsets.UTF_8);
+    List<FilePartition> partitions = FilePartition.split(file, 10);
+    assertTrue(partitions.size() <= 2);
+    assertEquals(List.of("a", "b"), readAll(partitions));
+  }
+
+  private List<String> readAll(List<FilePartition> partitions) throws IOException {
+    List<String> result = new ArrayList<>();
+    for (FilePartition partition : partitions)
+      try (BufferedReader reader = partition.open()) {
+        String line;
+        while ((line = reader.readLine()) != null)
+          result.add(line);
+      }
+    return result;
+  }
+
+  @Test
+  public void hasQuotedLineBreak() throws IOException {
+    assertFalse(FilePartition.hasQuotedLineBreak(file));
+
+    Files.writeString(file, "url,name\nhttp://example.com/1,\"a \"\"quoted\"\" name\"\n");
+    assertFalse(FilePartition.hasQuotedLineBreak(file));
+
+    Files.writeString(file, "url,name\nhttp://example.com/1,\"first\nsecond\"\n");
+    assertTrue(FilePartition.hasQuotedLineBreak(file));
+  }
+}
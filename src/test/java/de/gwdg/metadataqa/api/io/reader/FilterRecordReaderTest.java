@@ -0,0 +1,78 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.io.IOTestBase;
+import de.gwdg.metadataqa.api.io.filter.JsonKeyValueFilter;
+import de.gwdg.metadataqa.api.io.filter.RegexFilter;
+import de.gwdg.metadataqa.api.schema.Format;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FilterRecordReaderTest extends IOTestBase {
+
+  private static final int SIZE = 100;
+
+  @Test
+  public void keyValue() throws IOException {
+    var reader = new FilterRecordReader<>(createReader(), List.of(new JsonKeyValueFilter("set", "odd")));
+    List<String> records = read(reader);
+    assertEquals(50, records.size());
+    assertEquals(createRecord(1), records.get(0));
+    assertEquals(createRecord(99), records.get(49));
+    assertEquals(50, reader.getSkipped());
+  }
+
+  @Test
+  public void allFilters() throws IOException {
+    var reader = new FilterRecordReader<>(createReader(), List.of(
+      new JsonKeyValueFilter("set", "even"),
+      new RegexFilter("/\\d*4\"")
+    ));
+    List<String> records = read(reader);
+    assertEquals(10, records.size());
+    assertEquals(createRecord(4), records.get(0));
+    assertEquals(createRecord(94), records.get(9));
+  }
+
+  @Test
+  public void measuresAcceptedRecords() throws IOException {
+    var reader = new FilterRecordReader<>(createReader(), List.of(new JsonKeyValueFilter("url", "http://example.com/42")));
+    var results = new ArrayList<String>();
+    while (reader.hasNext())
+      results.add(reader.next().toString());
+    assertEquals(1, results.size());
+    assertTrue(results.get(0).contains("url=http://example.com/42"));
+  }
+
+  @Test
+  public void noMatch() throws IOException {
+    var reader = new FilterRecordReader<>(createReader(), List.of(new JsonKeyValueFilter("set", "none")));
+    assertFalse(reader.hasNext());
+  }
+
+  private List<String> read(FilterRecordReader<String> reader) {
+    List<String> records = new ArrayList<>();
+    while (reader.hasNext())
+      records.add(reader.nextRecord());
+    return records;
+  }
+
+  private JSONRecordReader createReader() throws IOException {
+    var content = new StringBuilder();
+    for (int i = 0; i < SIZE; i++)
+      content.append(createRecord(i)).append('\n');
+    return new JSONRecordReader(new BufferedReader(new StringReader(content.toString())), getCalculator(Format.JSON));
+  }
+
+  private String createRecord(int i) {
+    return String.format("{\"url\": \"http://example.com/%d\", \"set\": \"%s\"}", i, i % 2 == 0 ? "even" : "odd");
+  }
+}
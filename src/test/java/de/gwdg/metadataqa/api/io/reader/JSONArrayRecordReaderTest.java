@@ -1,5 +1,6 @@
 package de.gwdg.metadataqa.api.io.reader;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
 import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
@@ -13,6 +14,7 @@ import org.junit.Test;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.LinkedHashMap;
@@ -20,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -60,6 +63,39 @@ public class JSONArrayRecordReaderTest extends IOTestBase {
     assertEquals(1, result.size());
   }
 
+  @Test
+  public void testAllRecords() throws IOException {
+    reader = new JSONArrayRecordReader(inputReader, getCalculator(Format.JSON, "dcTitle"));
+    var counter = 0;
+    while (reader.hasNext()) {
+      assertNotNull(reader.next());
+      counter++;
+    }
+    assertEquals(2, counter);
+  }
+
+  @Test
+  public void testNextRecord() throws IOException {
+    String input = "[\n  {\"a\": [1, {\"b\": \"x]\"}]},\n  {\"c\": null}\n]";
+    var arrayReader = new JSONArrayRecordReader(new BufferedReader(new StringReader(input)), getCalculator(Format.JSON, "dcTitle"));
+    assertEquals("{\"a\":[1,{\"b\":\"x]\"}]}", arrayReader.nextRecord().toString());
+    assertEquals("{\"c\":null}", arrayReader.nextRecord().toString());
+    assertFalse(arrayReader.hasNext());
+
+    arrayReader = new JSONArrayRecordReader(new BufferedReader(new StringReader("[]")), getCalculator(Format.JSON, "dcTitle"));
+    assertFalse(arrayReader.hasNext());
+  }
+
+  @Test
+  public void testMeasure_sameAsString() throws IOException {
+    CalculatorFacade calculator = getCalculator(Format.JSON, "dcTitle");
+    var arrayReader = new JSONArrayRecordReader(inputReader, calculator);
+    JsonNode record = arrayReader.nextRecord();
+    assertEquals(
+      calculator.measureAsMetricResult(record.toString()).toString(),
+      arrayReader.measure(calculator, record).toString());
+  }
+
   protected CalculatorFacade getCalculator(Format format, String field) {
     MeasurementConfiguration config = new MeasurementConfiguration()
         .enableFieldExtractor()
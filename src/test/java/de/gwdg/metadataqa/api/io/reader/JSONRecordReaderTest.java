@@ -7,6 +7,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.LinkedHashMap;
@@ -43,5 +45,28 @@ public class JSONRecordReaderTest extends IOTestBase {
     assertEquals("massivea uditory lexical decision", fields.get(0).getResultMap().get("name"));
   }
 
+  @Test
+  public void getPosition() throws Exception {
+    String input = "{\"name\":\"a\"}\r\n{\"name\":\"\u00e1rv\u00edz\"}\n{\"name\":\"\ud83d\ude00\"}";
+    byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+    var jsonReader = new JSONRecordReader(new BufferedReader(new StringReader(input)), getCalculator(Format.JSON));
+
+    assertEquals(0, jsonReader.getPosition());
+    assertEquals("{\"name\":\"a\"}", jsonReader.nextRecord());
+    assertEquals(14, jsonReader.getPosition());
+    assertEquals("{\"name\":\"\u00e1rv\u00edz\"}", jsonReader.nextRecord());
+    assertEquals(33, jsonReader.getPosition());
+    assertEquals("{\"name\":\"\ud83d\ude00\"}", jsonReader.nextRecord());
+    assertEquals(bytes.length, jsonReader.getPosition());
+    assertFalse(jsonReader.hasNext());
+
+    // continue from the position of the second record
+    var resumed = new JSONRecordReader(
+      new BufferedReader(new StringReader(new String(bytes, 14, bytes.length - 14, StandardCharsets.UTF_8))),
+      getCalculator(Format.JSON), 14);
+    assertEquals("{\"name\":\"\u00e1rv\u00edz\"}", resumed.nextRecord());
+    assertEquals(33, resumed.getPosition());
+  }
+
   //     path: $.['object']['proxies'][?(@['europeanaProxy'] == false)]['dcTitle'][*]
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.IOTestBase;
+import de.gwdg.metadataqa.api.schema.Format;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedJSONRecordReaderTest extends IOTestBase {
+
+  Path inputFile = Paths.get("src/test/resources/json/meemoo-simple.ndjson");
+
+  @Test
+  public void next() throws IOException {
+    try (var reader = new MappedJSONRecordReader(new MappedLineReader(inputFile), getCalculator(Format.JSON))) {
+      assertTrue(reader.hasNext());
+      Map<String, List<MetricResult>> result = reader.next();
+      List<MetricResult> fields = result.get("fieldExtractor");
+      assertEquals("https://neurovault.org/images/384958/", fields.get(0).getResultMap().get("url"));
+      assertEquals("massivea uditory lexical decision", fields.get(0).getResultMap().get("name"));
+    }
+  }
+
+  @Test
+  public void getPosition() throws IOException {
+    List<String> lines = Files.readAllLines(inputFile);
+    try (var reader = new MappedJSONRecordReader(new MappedLineReader(inputFile), getCalculator(Format.JSON))) {
+      ByteBuffer first = reader.nextRecord();
+      assertEquals(lines.get(0).length() + 1, reader.getPosition());
+
+      // continue from the position of the second record
+      try (var resumed = new MappedJSONRecordReader(
+        new MappedLineReader(inputFile, reader.getPosition(), -1), getCalculator(Format.JSON))) {
+        assertEquals(lines.get(1), MappedJSONRecordReader.decode(resumed.nextRecord()));
+        assertFalse(resumed.hasNext());
+      }
+      assertEquals(lines.get(0), MappedJSONRecordReader.decode(first));
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MappedLineReaderTest {
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("mapped", ".ndjson");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void nextLine() throws IOException {
+    write("first\r\nsecond\n\nárvíztűrő\nlast");
+    assertEquals(List.of("first", "second", "", "árvíztűrő", "last"), readAll(MappedLineReader.DEFAULT_WINDOW_SIZE));
+  }
+
+  @Test
+  public void nextLine_smallWindows() throws IOException {
+    String longLine = "x".repeat(50);
+    write("first\r\n" + longLine + "\nshort\n" + longLine + "\r\n");
+    assertEquals(List.of("first", longLine, "short", longLine), readAll(4));
+    assertEquals(List.of("first", longLine, "short", longLine), readAll(7));
+  }
+
+  @Test
+  public void range() throws IOException {
+    write("first\nsecond\nthird\n");
+    try (var reader = new MappedLineReader(file, 6, 13)) {
+      assertEquals("second", decode(reader.nextLine()));
+      assertEquals(13, reader.getPosition());
+      assertNull(reader.nextLine());
+    }
+  }
+
+  @Test
+  public void empty() throws IOException {
+    try (var reader = new MappedLineReader(file)) {
+      assertNull(reader.nextLine());
+    }
+  }
+
+  private List<String> readAll(int windowSize) throws IOException {
+    List<String> lines = new ArrayList<>();
+    try (var reader = new MappedLineReader(file, 0, -1, windowSize)) {
+      ByteBuffer line;
+      while ((line = reader.nextLine()) != null)
+        lines.add(decode(line));
+      assertEquals(Files.size(file), reader.getPosition());
+    }
+    return lines;
+  }
+
+  private void write(String content) throws IOException {
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decode(ByteBuffer line) {
+    return StandardCharsets.UTF_8.decode(line).toString();
+  }
+}
@@ -0,0 +1,102 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.IOTestBase;
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.xml.NamespaceDeclarations;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NDXMLRecordReaderTest extends IOTestBase {
+
+  private static final String PROLOGUE = "<namespaces xmlns:ex=\"http://example.com/\"/>\n";
+  private static final String RECORDS =
+    "<dc:record><ex:id>1</ex:id><dc:title>first</dc:title></dc:record>\n"
+    + "<dc:record xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><ex:id>2</ex:id><dc:title>second &amp; last</dc:title></dc:record>\n";
+
+  @Test
+  public void next() throws IOException {
+    var reader = new NDXMLRecordReader(new BufferedReader(new StringReader(PROLOGUE + RECORDS)), getCalculator(Format.XML));
+    assertEquals("http://example.com/", reader.getDeclarations().getNamespaces().get("ex"));
+
+    List<Map<String, ?>> results = readAll(reader);
+    assertEquals(2, results.size());
+    assertEquals("1", results.get(0).get("id"));
+    assertEquals("first", results.get(0).get("title"));
+    assertEquals("2", results.get(1).get("id"));
+    assertEquals("second & last", results.get(1).get("title"));
+  }
+
+  @Test
+  public void withoutPrologue() throws IOException {
+    String records = "<dc:record><dc:title>first</dc:title></dc:record>\n<dc:record><dc:title>second</dc:title></dc:record>";
+    var reader = new NDXMLRecordReader(new BufferedReader(new StringReader(records)), getCalculator(Format.XML));
+    assertTrue(reader.hasNext());
+    assertEquals("<dc:record><dc:title>first</dc:title></dc:record>", reader.nextRecord());
+    assertEquals("<dc:record><dc:title>second</dc:title></dc:record>", reader.nextRecord());
+    assertFalse(reader.hasNext());
+  }
+
+  @Test
+  public void emptyFirstRecord() throws IOException {
+    String first = "<dc:record xmlns:dc=\"http://purl.org/dc/elements/1.1/\"/>";
+    var reader = new NDXMLRecordReader(new BufferedReader(new StringReader(first + "\n" + RECORDS)), getCalculator(Format.XML));
+    assertEquals(first, reader.nextRecord());
+    assertEquals(2, readAll(reader).size());
+  }
+
+  @Test
+  public void mapped() throws IOException {
+    Path file = Files.createTempFile("records", ".ndxml");
+    try {
+      Files.write(file, (PROLOGUE + RECORDS).getBytes(StandardCharsets.UTF_8));
+      var declarations = NamespaceDeclarations.ofSchema(getSchema(Format.XML).getNamespaces())
+        .with(NamespaceDeclarations.parsePrologue(PROLOGUE.trim()));
+      long start = FilePartition.lineEnd(file, 0);
+
+      var reader = new MappedNDXMLRecordReader(new MappedLineReader(file, start, -1), getCalculator(Format.XML), declarations);
+      List<Map<String, ?>> results = readAll(reader);
+      reader.close();
+      assertEquals(2, results.size());
+      assertEquals("1", results.get(0).get("id"));
+      assertEquals("second & last", results.get(1).get("title"));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private List<Map<String, ?>> readAll(RecordReader<?> reader) {
+    List<Map<String, ?>> results = new ArrayList<>();
+    while (reader.hasNext()) {
+      Map<String, List<MetricResult>> result = reader.next();
+      results.add(result.get("fieldExtractor").get(0).getResultMap());
+    }
+    return results;
+  }
+
+  @Override
+  protected Schema getSchema(Format format) {
+    BaseSchema schema = new BaseSchema()
+      .setFormat(format)
+      .addField(new DataElement("id", "//ex:id").setExtractable())
+      .addField(new DataElement("title", "/dc:record/dc:title").setExtractable());
+    schema.setNamespaces(Map.of("dc", "http://purl.org/dc/elements/1.1/", "ex", "http://example.com/"));
+    return schema;
+  }
+}
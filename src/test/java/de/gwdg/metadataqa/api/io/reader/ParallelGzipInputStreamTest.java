@@ -0,0 +1,132 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelGzipInputStreamTest {
+
+  private Path file;
+  private String content;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("parallel", ".gz");
+    var builder = new StringBuilder();
+    for (var i = 0; i < 20000; i++)
+      builder.append(String.format("{\"id\": \"record %d\", \"title\": \"árvíztűrő tükörfúrógép\"}\n", i));
+    content = builder.toString();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void gzip() throws IOException {
+    try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(file))) {
+      output.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+    try (var input = new ParallelGzipInputStream(file, 4)) {
+      assertFalse(input.isBgzf());
+      assertEquals(content, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void multiMember() throws IOException {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    try (OutputStream output = Files.newOutputStream(file)) {
+      for (var start = 0; start < bytes.length; start += 100000)
+        output.write(gzip(Arrays.copyOfRange(bytes, start, Math.min(bytes.length, start + 100000))));
+    }
+    try (var input = new ParallelGzipInputStream(file, 4)) {
+      assertFalse(input.isBgzf());
+      assertEquals(content, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void bgzf() throws IOException {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    try (OutputStream output = Files.newOutputStream(file)) {
+      for (var start = 0; start < bytes.length; start += 60000)
+        output.write(bgzfMember(Arrays.copyOfRange(bytes, start, Math.min(bytes.length, start + 60000))));
+      // the end of file marker
+      output.write(bgzfMember(new byte[0]));
+    }
+    try (var input = new ParallelGzipInputStream(file, 4)) {
+      assertTrue(input.isBgzf());
+      assertEquals(4, input.getThreads());
+      assertEquals(content, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    try (var input = new ParallelGzipInputStream(file, 1)) {
+      assertEquals(1, input.getThreads());
+      assertEquals(content, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void bgzf_corrupt() throws IOException {
+    byte[] member = bgzfMember(content.substring(0, 1000).getBytes(StandardCharsets.UTF_8));
+    // a wrong CRC32
+    member[member.length - 8] ^= 0x55;
+    Files.write(file, member);
+    try (var input = new ParallelGzipInputStream(file, 2)) {
+      input.readAllBytes();
+    }
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    var output = new ByteArrayOutputStream();
+    try (var gzip = new GZIPOutputStream(output)) {
+      gzip.write(data);
+    }
+    return output.toByteArray();
+  }
+
+  private static byte[] bgzfMember(byte[] data) {
+    var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    deflater.setInput(data);
+    deflater.finish();
+    var compressed = new byte[data.length + 1024];
+    int length = 0;
+    while (!deflater.finished())
+      length += deflater.deflate(compressed, length, compressed.length - length);
+    deflater.end();
+
+    var crc = new CRC32();
+    crc.update(data);
+    int size = 18 + length + 8;
+    var member = new ByteArrayOutputStream();
+    member.writeBytes(new byte[]{
+      0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0,
+      'B', 'C', 2, 0, (byte) ((size - 1) & 0xff), (byte) ((size - 1) >> 8)
+    });
+    member.write(compressed, 0, length);
+    writeInt(member, crc.getValue());
+    writeInt(member, data.length);
+    return member.toByteArray();
+  }
+
+  private static void writeInt(ByteArrayOutputStream output, long value) {
+    for (var i = 0; i < 4; i++)
+      output.write((int) (value >> (8 * i)) & 0xff);
+  }
+}
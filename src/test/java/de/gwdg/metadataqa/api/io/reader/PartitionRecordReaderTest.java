@@ -0,0 +1,75 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.io.IOTestBase;
+import de.gwdg.metadataqa.api.schema.Format;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class PartitionRecordReaderTest extends IOTestBase {
+
+  private static final int SIZE = 100;
+
+  @Test
+  public void ordinal() throws IOException {
+    List<String> records = readPartition(1, 3, PartitionRecordReader.Mode.ORDINAL);
+    assertEquals(34, records.size());
+    assertEquals(createRecord(0), records.get(0));
+    assertEquals(createRecord(3), records.get(1));
+    assertEquals(createRecord(99), records.get(33));
+  }
+
+  @Test
+  public void partitionsCoverAllRecords() throws IOException {
+    for (PartitionRecordReader.Mode mode : PartitionRecordReader.Mode.values()) {
+      List<String> all = new ArrayList<>();
+      for (int i = 1; i <= 4; i++)
+        all.addAll(readPartition(i, 4, mode));
+      Collections.sort(all);
+
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i < SIZE; i++)
+        expected.add(createRecord(i));
+      Collections.sort(expected);
+      assertEquals(expected, all);
+    }
+  }
+
+  @Test
+  public void emptyPartition() throws IOException {
+    var reader = new PartitionRecordReader<>(createReader(), 200, 200, PartitionRecordReader.Mode.ORDINAL);
+    assertFalse(reader.hasNext());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidIndex() throws IOException {
+    new PartitionRecordReader<>(createReader(), 0, 2, PartitionRecordReader.Mode.ORDINAL);
+  }
+
+  private List<String> readPartition(int index, int count, PartitionRecordReader.Mode mode) throws IOException {
+    var reader = new PartitionRecordReader<>(createReader(), index, count, mode);
+    List<String> records = new ArrayList<>();
+    while (reader.hasNext())
+      records.add(reader.nextRecord());
+    return records;
+  }
+
+  private JSONRecordReader createReader() throws IOException {
+    var content = new StringBuilder();
+    for (int i = 0; i < SIZE; i++)
+      content.append(createRecord(i)).append('\n');
+    return new JSONRecordReader(new BufferedReader(new StringReader(content.toString())), getCalculator(Format.JSON));
+  }
+
+  private String createRecord(int i) {
+    return String.format("{\"url\": \"http://example.com/%d\"}", i);
+  }
+}
@@ -0,0 +1,83 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.IOTestBase;
+import de.gwdg.metadataqa.api.schema.Format;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class RecordSpliteratorTest extends IOTestBase {
+
+  private static final int SIZE = 500;
+
+  @Test
+  public void parallelStream() throws IOException {
+    CalculatorFacade facade = getCalculator(Format.JSON);
+    List<String> urls = facade.stream(createReader(facade))
+      .parallel()
+      .map(this::getUrl)
+      .collect(Collectors.toList());
+
+    assertEquals(getExpectedUrls(), urls);
+  }
+
+  @Test
+  public void smallBatches() throws IOException {
+    CalculatorFacade facade = getCalculator(Format.JSON);
+    var spliterator = new RecordSpliterator<>(createReader(facade), facade.getPlan(), 7);
+    List<String> urls = StreamSupport.stream(spliterator, true)
+      .map(this::getUrl)
+      .collect(Collectors.toList());
+
+    assertEquals(getExpectedUrls(), urls);
+  }
+
+  @Test
+  public void trySplit() throws IOException {
+    CalculatorFacade facade = getCalculator(Format.JSON);
+    var spliterator = new RecordSpliterator<>(createReader(facade), facade.getPlan(), 300);
+
+    Spliterator<Map<String, List<MetricResult>>> first = spliterator.trySplit();
+    assertNotNull(first);
+    assertEquals(300, first.estimateSize());
+    Spliterator<Map<String, List<MetricResult>>> second = spliterator.trySplit();
+    assertEquals(200, second.estimateSize());
+    assertNull(spliterator.trySplit());
+
+    Spliterator<Map<String, List<MetricResult>>> half = first.trySplit();
+    assertEquals(150, half.estimateSize());
+    assertEquals(150, first.estimateSize());
+  }
+
+  private JSONRecordReader createReader(CalculatorFacade facade) throws IOException {
+    var content = new StringBuilder();
+    for (String url : getExpectedUrls())
+      content.append(String.format("{\"url\": \"%s\", \"name\": \"record\"}%n", url));
+    return new JSONRecordReader(new BufferedReader(new StringReader(content.toString())), facade);
+  }
+
+  private List<String> getExpectedUrls() {
+    List<String> urls = new ArrayList<>();
+    for (int i = 0; i < SIZE; i++)
+      urls.add("http://example.com/" + i);
+    return urls;
+  }
+
+  private String getUrl(Map<String, List<MetricResult>> result) {
+    return (String) result.get("fieldExtractor").get(0).getResultMap().get("url");
+  }
+}
@@ -8,6 +8,7 @@ import de.gwdg.metadataqa.api.schema.Format;
 import de.gwdg.metadataqa.api.schema.Schema;
 import org.junit.Before;
 import org.junit.Test;
+import org.w3c.dom.Document;
 
 import java.io.BufferedReader;
 import java.nio.file.Files;
@@ -17,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -48,6 +50,20 @@ public class XMLRecordReaderTest extends IOTestBase {
     assertEquals("massivea uditory lexical decision", fields.get(0).getResultMap().get("record/name"));
   }
 
+  @Test
+  public void nextRecord() {
+    var xmlReader = (XMLRecordReader) reader;
+    Document first = xmlReader.nextRecord();
+    Document second = xmlReader.nextRecord();
+    assertEquals("record", first.getDocumentElement().getNodeName());
+    assertFalse(xmlReader.hasNext());
+
+    Map<String, List<MetricResult>> result = xmlReader.measure(getCalculator(Format.XML), second);
+    List<MetricResult> fields = result.get("fieldExtractor");
+    assertEquals("https://neurovault.org/images/93390/", fields.get(0).getResultMap().get("record/url"));
+    assertEquals("Language in the aging brain", fields.get(0).getResultMap().get("record/name"));
+  }
+
   protected Schema getSchema(Format format) {
     Schema schema = new BaseSchema()
       .setFormat(format)
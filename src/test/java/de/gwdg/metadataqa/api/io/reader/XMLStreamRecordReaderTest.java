@@ -0,0 +1,96 @@
+package de.gwdg.metadataqa.api.io.reader;
+
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.io.IOTestBase;
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class XMLStreamRecordReaderTest extends IOTestBase {
+
+  String inputFile = "src/test/resources/xml/meemoo-simple.xml";
+
+  private static final String OAI = "<?xml version=\"1.0\"?>\n"
+    + "<OAI-PMH xmlns=\"http://www.openarchives.org/OAI/2.0/\" xmlns:dc=\"http://purl.org/dc/elements/1.1/\">\n"
+    + "  <ListRecords>\n"
+    + "    <record><metadata><dc:title>first</dc:title></metadata></record>\n"
+    + "    <record><metadata><dc:title>second &amp; last</dc:title></metadata></record>\n"
+    + "  </ListRecords>\n"
+    + "</OAI-PMH>\n";
+
+  @Test
+  public void next() throws IOException {
+    BufferedReader inputReader = Files.newBufferedReader(Paths.get(inputFile));
+    var reader = new XMLStreamRecordReader(inputReader, getCalculator(Format.XML)).setRecordAddress("records/record");
+
+    assertTrue(reader.hasNext());
+    Map<String, List<MetricResult>> result = reader.next();
+    List<MetricResult> fields = result.get("fieldExtractor");
+    assertEquals("https://neurovault.org/images/384958/", fields.get(0).getResultMap().get("record/url"));
+    assertEquals("massivea uditory lexical decision", fields.get(0).getResultMap().get("record/name"));
+
+    result = reader.next();
+    fields = result.get("fieldExtractor");
+    assertEquals("https://neurovault.org/images/93390/", fields.get(0).getResultMap().get("record/url"));
+    assertFalse(reader.hasNext());
+  }
+
+  @Test
+  public void namespaces() throws IOException {
+    var reader = new XMLStreamRecordReader(new BufferedReader(new StringReader(OAI)), getCalculator(Format.XML))
+      .setRecordAddress("//oai:record");
+
+    String first = reader.nextRecord();
+    assertTrue(first.startsWith("<record xmlns=\"http://www.openarchives.org/OAI/2.0/\""));
+    assertTrue(first.contains("xmlns:dc=\"http://purl.org/dc/elements/1.1/\""));
+    assertTrue(first.contains("<dc:title>first</dc:title>"));
+    assertTrue(reader.nextRecord().contains("<dc:title>second &amp; last</dc:title>"));
+    assertFalse(reader.hasNext());
+  }
+
+  @Test
+  public void paths() throws IOException {
+    assertEquals(2, count("/OAI-PMH/ListRecords/record"));
+    assertEquals(2, count("//record"));
+    assertEquals(2, count("//ListRecords/*"));
+    assertEquals(1, count("/*"));
+    assertEquals(0, count("/record"));
+    assertEquals(0, count("//dc:record"));
+
+    assertTrue(XMLStreamRecordReader.isSupported("//oai:record"));
+    assertFalse(XMLStreamRecordReader.isSupported("//record[1]"));
+    assertFalse(XMLStreamRecordReader.isSupported("//record/@id"));
+  }
+
+  private int count(String path) throws IOException {
+    var reader = new XMLStreamRecordReader(new BufferedReader(new StringReader(OAI)), getCalculator(Format.XML))
+      .setRecordAddress(path);
+    var counter = 0;
+    while (reader.hasNext()) {
+      reader.nextRecord();
+      counter++;
+    }
+    return counter;
+  }
+
+  protected Schema getSchema(Format format) {
+    return new BaseSchema()
+      .setFormat(format)
+      .addField(new DataElement("record/url").setExtractable())
+      .addField(new DataElement("record/name").setExtractable());
+  }
+}
@@ -0,0 +1,103 @@
+package de.gwdg.metadataqa.api.json;
+
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+import de.gwdg.metadataqa.api.model.selector.JsonSelector;
+import de.gwdg.metadataqa.api.model.selector.XmlSelector;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledPathTest {
+
+  @Test
+  public void compile_json() {
+    CompiledPath path = CompiledPath.compile("$.a[*].b", Format.JSON, null);
+    assertTrue(path.isCompiled());
+    assertNotNull(path.getJsonPath());
+    assertNull(path.getXPathExpression());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void compile_invalidJson() {
+    CompiledPath.compile("$.a[?(@.b ==", Format.JSON, null);
+  }
+
+  @Test
+  public void compile_xml() {
+    CompiledPath path = CompiledPath.compile("//dc:title", Format.XML, Map.of("dc", "http://purl.org/dc/elements/1.1/"));
+    assertTrue(path.isCompiled());
+    assertNull(path.getJsonPath());
+    assertSame(path.getXPathExpression(), path.getXPathExpression());
+    assertFalse(path.isXPathFunction());
+    assertTrue(CompiledPath.compile("count(//a)", Format.XML, null).isXPathFunction());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void compile_invalidXml() {
+    CompiledPath.compile("//a[", Format.XML, null);
+  }
+
+  @Test
+  public void of_invalid() {
+    CompiledPath path = CompiledPath.of("$.a[?(@.b ==", null);
+    assertFalse(path.isCompiled());
+    assertNull(path.getJsonPath());
+  }
+
+  @Test
+  public void checkConsistency() {
+    var schema = new BaseSchema()
+      .setFormat(Format.JSON)
+      .addField(new DataElement("valid", "$.a"))
+      .addField(new DataElement("invalid", "$.a[?(@.b =="));
+    try {
+      schema.checkConsistency();
+      assertTrue("the invalid path should be reported", false);
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("invalid has an invalid path."));
+    }
+  }
+
+  @Test
+  public void jsonSelector() throws IOException, URISyntaxException {
+    var json = FileUtils.readFirstLineFromResource("general/test.json");
+    var schema = new BaseSchema().setFormat(Format.JSON);
+    var dataElement = new DataElement("about", "$.['edm:ProvidedCHO'][0]['@about']");
+    schema.addField(dataElement);
+
+    List<XmlFieldInstance> compiled = new JsonSelector<>(json).get(dataElement.getCompiledPath());
+    List<XmlFieldInstance> raw = new JsonSelector<>(json).get(dataElement.getPath());
+    assertNotNull(compiled);
+    assertEquals(raw, compiled);
+  }
+
+  @Test
+  public void xmlSelector() throws IOException, URISyntaxException {
+    var xml = FileUtils.readContentFromResource("general/europeana-oai-pmh.xml");
+    Map<String, String> namespaces = Map.of(
+      "dc", "http://purl.org/dc/elements/1.1/",
+      "oai", "http://www.openarchives.org/OAI/2.0/");
+    var schema = new BaseSchema().setFormat(Format.XML);
+    schema.setNamespaces(namespaces);
+    var dataElement = new DataElement("title", "//dc:title");
+    schema.addField(dataElement);
+
+    List<XmlFieldInstance> compiled = new XmlSelector<>(xml, namespaces).get(dataElement.getCompiledPath());
+    List<XmlFieldInstance> raw = new XmlSelector<>(xml, namespaces).get(dataElement.getPath());
+    assertFalse(compiled.isEmpty());
+    assertEquals(raw, compiled);
+  }
+}
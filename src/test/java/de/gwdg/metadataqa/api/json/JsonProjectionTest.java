@@ -0,0 +1,62 @@
+package de.gwdg.metadataqa.api.json;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.schema.edm.EdmFullBeanSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonProjectionTest {
+
+  @Test
+  public void apply() {
+    var projection = JsonProjection.create(List.of("$.a.b", "$.list[0].name", "$['ore:Proxy'][?(@.x == 1)]"));
+    assertEquals(
+      "{\"a\":{\"b\":[1, {\"c\": 2}]},\"list\":[{\"name\":\"p\"},{},\"s\",[3]],\"ore:Proxy\":[{\"x\": 1, \"y\": [2]}]}",
+      projection.apply("{\"a\": {\"b\": [1, {\"c\": 2}], \"skipped\": {\"x\": [1, \"]\"]}},"
+        + " \"list\": [{\"name\": \"p\", \"v\": 1}, {\"v\": 2}, \"s\", [3]],"
+        + " \"ore:Proxy\": [{\"x\": 1, \"y\": [2]}], \"other\": true}"));
+  }
+
+  @Test
+  public void apply_irregular() {
+    var projection = JsonProjection.create(List.of("$.a"));
+    for (String json : List.of("{'a': 1}", "{\"b\": {]}", "{\"a\\u0062\": 1}", "{\"a\": 1} x", "{\"a\": 1"))
+      assertEquals(json, projection.apply(json));
+  }
+
+  @Test
+  public void create_everything() {
+    assertNull(JsonProjection.create(List.of("$.a", "$..b")));
+    assertNull(JsonProjection.create(List.of("$.a", "$.*")));
+    assertNull(JsonProjection.create(List.of("$")));
+  }
+
+  @Test
+  public void measure_sameAsFullParsing() throws URISyntaxException, IOException {
+    String record = FileUtils.readFirstLineFromResource("general/edm-fullbean.json");
+    Schema schema = new EdmFullBeanSchema();
+
+    String expected = createFacade(schema, false).measure(record);
+    CalculatorFacade facade = createFacade(schema, true);
+    assertEquals(expected, facade.measure(record));
+    assertTrue(facade.isJsonProjectionEnabled());
+  }
+
+  private static CalculatorFacade createFacade(Schema schema, boolean projection) {
+    var facade = new CalculatorFacade(new MeasurementConfiguration(true, true, true, false, true))
+      .setSchema(schema)
+      .enableJsonProjection(projection);
+    facade.configure();
+    return facade;
+  }
+}
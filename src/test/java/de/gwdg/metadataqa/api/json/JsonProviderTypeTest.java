@@ -0,0 +1,61 @@
+package de.gwdg.metadataqa.api.json;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JsonProviderTypeTest {
+
+  private static final String JSON = "{\"int\": 1, \"float\": 1.5, \"list\": [\"a\"]}";
+
+  @Test
+  public void byCode() {
+    assertEquals(JsonProviderType.SMART, JsonProviderType.byCode("smart"));
+    assertEquals(JsonProviderType.JACKSON_LEAN, JsonProviderType.byCode("jackson-lean"));
+    assertNull(JsonProviderType.byCode("gson"));
+  }
+
+  @Test
+  public void getConfiguration_isCached() {
+    assertSame(JsonProviderType.JACKSON.getConfiguration(), JsonProviderType.JACKSON.getConfiguration());
+  }
+
+  @Test
+  public void parse() {
+    for (JsonProviderType type : JsonProviderType.values()) {
+      Object document = type.getConfiguration().jsonProvider().parse(JSON);
+      assertTrue(type.name(), document instanceof Map);
+      Map<String, Object> map = (Map<String, Object>) document;
+      assertTrue(type.name(), map.get("list") instanceof List);
+      assertEquals(type.name(), 1.5, ((Number) map.get("float")).doubleValue(), 0.0);
+      assertEquals(type.name(), 1, ((Number) map.get("int")).intValue());
+    }
+  }
+
+  @Test
+  public void parse_bytes() {
+    String json = "{\"plain\": \"caf\u00e9\", \"escaped\": \"\\\"\u00fc\\n\u4e2d\", \"n\": [1, 2.5, 12345678901]}";
+    for (String record : List.of(JSON, json)) {
+      for (JsonProviderType type : JsonProviderType.values()) {
+        var provider = type.getConfiguration().jsonProvider();
+        assertEquals(type.name(), provider.parse(record), provider.parse(record.getBytes(StandardCharsets.UTF_8)));
+      }
+    }
+  }
+
+  @Test
+  public void parse_lean() {
+    for (JsonProviderType type : List.of(JsonProviderType.SMART_LEAN, JsonProviderType.JACKSON_LEAN)) {
+      Map<String, Object> map = (Map<String, Object>) type.getConfiguration().jsonProvider().parse(JSON);
+      assertEquals(type.name(), Long.class, map.get("int").getClass());
+      assertEquals(type.name(), Double.class, map.get("float").getClass());
+    }
+  }
+}
@@ -66,6 +66,35 @@ public class JsonUtilsTest {
     );
   }
 
+  @Test
+  public void testSimpleValue_providers() {
+    List<String> results = new ArrayList<>();
+    for (JsonProviderType type : JsonProviderType.values()) {
+      CompletenessCalculator calculator = new CompletenessCalculator(new EdmFullBeanSchema());
+      calculator.collectFields(true);
+      calculator.setExistence(true);
+      calculator.setCardinality(true);
+
+      calculator.measure(new JsonSelector(jsonString, type.getConfiguration()));
+      results.add(calculator.getCsv(false, CompressionLevel.NORMAL));
+    }
+    for (String csv : results)
+      assertEquals(results.get(0), csv);
+  }
+
+  @Test
+  public void extractFieldInstanceList_jackson() {
+    Object jsonDoc = JsonProviderType.JACKSON.getConfiguration().jsonProvider()
+      .parse("[\"a\", 1, 2.5, true, {\"@resource\": \"http://example.com\"}]");
+    List<EdmFieldInstance> list = (List<EdmFieldInstance>) JsonUtils.extractFieldInstanceList(jsonDoc, "1", "$");
+    assertEquals(5, list.size());
+    assertEquals("a", list.get(0).getValue());
+    assertEquals("1", list.get(1).getValue());
+    assertEquals("2.5", list.get(2).getValue());
+    assertEquals("true", list.get(3).getValue());
+    assertEquals("http://example.com", list.get(4).getResource());
+  }
+
   @Test
   public void extractList_string() {
     Object jsonDoc = PARSER.parse("a");
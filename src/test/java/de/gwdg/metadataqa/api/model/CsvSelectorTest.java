@@ -0,0 +1,44 @@
+package de.gwdg.metadataqa.api.model;
+
+import de.gwdg.metadataqa.api.json.CompiledPath;
+import de.gwdg.metadataqa.api.model.selector.CsvSelector;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.util.CsvReader;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CsvSelectorTest {
+
+  private final CsvReader csvReader = new CsvReader().setHeader(List.of("id", "name", "age"));
+
+  @Test
+  public void read() {
+    var selector = new CsvSelector<>(csvReader, new String[]{"1", "Jim", "64"});
+    assertEquals("Jim", selector.get("name").get(0).getValue());
+    assertEquals("64", selector.get(CompiledPath.compile("age", Format.CSV, null)).get(0).getValue());
+    assertNull(selector.get("height"));
+  }
+
+  @Test
+  public void blankCells() {
+    var selector = new CsvSelector<>(csvReader, List.of("1", "", " "));
+    assertNull(selector.get("name"));
+    assertNull(selector.get(CompiledPath.compile("age", Format.CSV, null)));
+  }
+
+  @Test
+  public void parsedLine() {
+    var selector = new CsvSelector<>("1,Jim,64");
+    selector.setCsvReader(csvReader);
+    assertEquals("Jim", selector.get("name").get(0).getValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void differentSize() {
+    new CsvSelector<>(csvReader, List.of("1", "Jim"));
+  }
+}
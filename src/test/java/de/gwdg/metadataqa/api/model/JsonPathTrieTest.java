@@ -0,0 +1,97 @@
+package de.gwdg.metadataqa.api.model;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
+import de.gwdg.metadataqa.api.model.selector.JsonPathTrie;
+import de.gwdg.metadataqa.api.schema.edm.EdmFullBeanSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsonPathTrieTest {
+
+  private static final String JSON = "{"
+    + "\"a\": {\"b\": \"x\", \"c\": [1, 2, {\"d\": \"y\"}], \"n\": null},"
+    + "\"list\": [{\"name\": \"p\", \"v\": [\"1\"]}, {\"name\": \"q\"}, \"s\", null, [\"t\"]],"
+    + "\"ore:Proxy\": [{\"dc:title\": [\"title\"], \"@about\": \"proxy\"}],"
+    + "\"s\": \"string\""
+    + "}";
+
+  private static final List<String> PATHS = Arrays.asList(
+    "$", "$.a", "$.a.b", "$.a.c", "$.a.c[0]", "$.a.c[-1]", "$.a.c[5]", "$.a.c[*]", "$.a.c[2].d",
+    "$.a.c[*].d", "$.a.n", "$.a.n.x", "$.a.missing", "$.a.missing.x", "$.a.missing[*]",
+    "$.a.b.x", "$.a.b[0]", "$.a.b[*]", "$.a[0]", "$.a.*", "$.list[*].name", "$.list[*].v[0]",
+    "$.list[*][0]", "$.list[*].*", "$.list[1].name", "$.list[7].name", "$.list[7][*]",
+    "$.['ore:Proxy'][0]['dc:title']", "$['ore:Proxy'][*][\"@about\"]", "$.ore:Proxy[0].dc:title",
+    "$.s", "$.s[*]", "$.s.*", "$.*", "$[*]", "$.missing"
+  );
+
+  @Test
+  public void isSupported() {
+    for (String path : PATHS)
+      assertTrue(path, JsonPathTrie.isSupported(path));
+
+    for (String path : Arrays.asList(
+        "$..name", "$.list[?(@.name == 'p')]", "$.list[0:2]", "$.list[0,1]", "$['a','s']",
+        "$.a.c.length()", "a.b", "$.a.", "$['a\\'b']", "$.a b", null))
+      assertFalse(path, JsonPathTrie.isSupported(path));
+  }
+
+  @Test
+  public void evaluate_sameAsJsonPath() {
+    var trie = JsonPathTrie.create(PATHS);
+    assertEquals(PATHS.size(), trie.size());
+    for (JsonProviderType type : JsonProviderType.values()) {
+      var configuration = type.getConfiguration();
+      Object document = configuration.jsonProvider().parse(JSON);
+      Object[] values = trie.evaluate(document, configuration.jsonProvider());
+      for (String path : PATHS)
+        assertEquals(type + " " + path, read(configuration, document, path), values[trie.indexOf(path)]);
+    }
+  }
+
+  @Test
+  public void evaluate_edm() throws IOException, URISyntaxException {
+    var schema = new EdmFullBeanSchema();
+    List<String> paths = new ArrayList<>();
+    for (DataElement dataElement : schema.getPaths())
+      if (dataElement.getParent() == null)
+        paths.add(dataElement.getPath());
+    var trie = JsonPathTrie.create(paths);
+    assertTrue(trie.size() > 0);
+
+    var configuration = JsonProviderType.SMART.getConfiguration();
+    Object document = configuration.jsonProvider().parse(FileUtils.readFirstLineFromResource("general/edm-fullbean.json"));
+    Object[] values = trie.evaluate(document, configuration.jsonProvider());
+    for (String path : trie.getPaths())
+      assertEquals(path, read(configuration, document, path), values[trie.indexOf(path)]);
+  }
+
+  @Test
+  public void indexOf() {
+    var trie = JsonPathTrie.create(Arrays.asList("$.a", "$..a", "$.b", "$.a"));
+    assertEquals(2, trie.size());
+    assertEquals(0, trie.indexOf("$.a"));
+    assertEquals(1, trie.indexOf("$.b"));
+    assertEquals(-1, trie.indexOf("$..a"));
+  }
+
+  private static Object read(com.jayway.jsonpath.Configuration configuration, Object document, String path) {
+    try {
+      return JsonPath.using(configuration).parse(document).read(path);
+    } catch (PathNotFoundException e) {
+      return null;
+    }
+  }
+}
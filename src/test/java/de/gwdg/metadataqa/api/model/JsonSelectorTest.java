@@ -1,6 +1,8 @@
 package de.gwdg.metadataqa.api.model;
 
+import de.gwdg.metadataqa.api.json.CompiledPath;
 import de.gwdg.metadataqa.api.model.selector.JsonSelector;
+import de.gwdg.metadataqa.api.schema.Format;
 import de.gwdg.metadataqa.api.util.FileUtils;
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -44,6 +46,16 @@ public class JsonSelectorTest {
     assertNull(instances.get(0).getResource());
   }
 
+  @Test
+  public void testInvalidPath() {
+    // the path is compiled, but the function fails at evaluation
+    String jsonPath = "$.['ore:Proxy'][*]['dc:title'].nonexisting()";
+
+    JsonSelector cache = new JsonSelector(jsonString);
+    assertNull(cache.read(jsonPath, null));
+    assertNull(cache.read(CompiledPath.compile(jsonPath, Format.JSON, null), null));
+  }
+
   @Test
   public void testNonexistingField() throws IOException, URISyntaxException {
     String jsonPath = "$.['ore:Proxy'][?(@['edm:europeanaProxy'][0] == 'false')]['dc:title2']";
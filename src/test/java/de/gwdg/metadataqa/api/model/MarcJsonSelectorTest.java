@@ -0,0 +1,92 @@
+package de.gwdg.metadataqa.api.model;
+
+import de.gwdg.metadataqa.api.json.DataElement;
+import de.gwdg.metadataqa.api.json.JsonProviderType;
+import de.gwdg.metadataqa.api.model.selector.JsonSelector;
+import de.gwdg.metadataqa.api.model.selector.MarcJsonSelector;
+import de.gwdg.metadataqa.api.model.selector.SelectorFactory;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.Converter;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MarcJsonSelectorTest {
+
+  private Schema schema;
+  private String record;
+
+  @Before
+  public void setUp() throws URISyntaxException, IOException {
+    schema = new MarcJsonSchema();
+    record = FileUtils.readFirstLineFromResource("general/marc.json");
+  }
+
+  @Test
+  public void factory() {
+    assertTrue(SelectorFactory.getInstance(schema, record, JsonProviderType.SMART.getConfiguration()) instanceof MarcJsonSelector);
+  }
+
+  @Test
+  public void sameAsJsonPath() {
+    for (JsonProviderType type : JsonProviderType.values()) {
+      var expected = new JsonSelector<>(record, type.getConfiguration());
+      var actual = new MarcJsonSelector<>(record, type.getConfiguration());
+
+      for (DataElement dataElement : schema.getPaths()) {
+        if (dataElement.getParent() != null)
+          continue;
+        String path = dataElement.getPath();
+        assertEquals(type + " " + path, expected.read(path, null), actual.read(path, null));
+        assertEquals(type + " " + path,
+          expected.read(dataElement.getCompiledPath(), null), actual.read(dataElement.getCompiledPath(), null));
+      }
+
+      for (String path : schema.getExtractableFields().values())
+        assertEquals(type + " " + path, expected.read(path, null), actual.read(path, null));
+
+      for (DataElement collection : schema.getCollectionPaths()) {
+        List<Object> fragments = Converter.jsonObjectToList(actual.getFragment(collection.getPath()));
+        for (Object fragment : fragments)
+          for (DataElement child : collection.getChildren())
+            assertEquals(type + " " + child.getPath(),
+              expected.read(child.getPath(), fragment), actual.read(child.getCompiledPath(), fragment));
+      }
+    }
+  }
+
+  @Test
+  public void values() {
+    var selector = new MarcJsonSelector<>(record);
+    assertEquals("000003999", selector.get("$.controlfield[?(@.tag == '001')].content").get(0).getValue());
+    assertEquals("(OCoLC)20908784",
+      selector.get(MarcJsonSchema.createDatafieldPath("016", "a")).get(0).getValue());
+    assertEquals(0, ((List) selector.read("$.datafield[?(@.tag == '999')].subfield[?(@.code == 'a')].content", null)).size());
+  }
+
+  @Test
+  public void missingFields() {
+    var selector = new MarcJsonSelector<>("{\"leader\":\"00000\"}");
+    assertNull(selector.read("$.datafield[?(@.tag == '016')]", null));
+    assertNull(selector.read("$.controlfield[?(@.tag == '001')].content", null));
+    assertEquals("00000", selector.read("$.leader", null));
+  }
+
+  @Test
+  public void irregularRecord() {
+    String irregular = "{\"datafield\":{\"tag\":\"016\",\"subfield\":[{\"code\":\"a\",\"content\":\"x\"}]}}";
+    var expected = new JsonSelector<>(irregular);
+    var actual = new MarcJsonSelector<>(irregular);
+    String path = "$.datafield[?(@.tag == '016')].subfield[?(@.code == 'a')].content";
+    assertEquals(expected.read(path, null), actual.read(path, null));
+  }
+}
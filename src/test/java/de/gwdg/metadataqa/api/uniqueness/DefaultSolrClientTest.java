@@ -2,6 +2,14 @@ package de.gwdg.metadataqa.api.uniqueness;
 
 import org.junit.Test;
 
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import static org.junit.Assert.*;
 
 public class DefaultSolrClientTest {
@@ -50,4 +58,94 @@ public class DefaultSolrClientTest {
     assertEquals("http://localhost:8983/solr/europeana/select/?q=%s:%s&rows=0",
       client.getSolrSearchAllPattern());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void getNumFound() {
+    RecordingSolrClient client = new RecordingSolrClient();
+    List<String> values = new ArrayList<>();
+    for (var i = 0; i < 120; i++)
+      values.add("value " + i + "x".repeat(i % 7));
+    values.add("value 1x");
+
+    Map<String, Integer> numFound = client.getNumFound("text", values);
+    // 120 distinct values in facet queries of 50 values
+    assertEquals(3, client.urls.size());
+    assertTrue(client.urls.get(0).contains("facet.query="));
+    assertEquals(120, numFound.size());
+
+    RecordingSolrClient single = new RecordingSolrClient();
+    for (String value : values)
+      assertEquals(
+        UniquenessExtractor.extractNumFound(single.getSolrSearchResponse("text", value)),
+        numFound.get(value));
+  }
+
+  @Test
+  public void getNumFound_empty() {
+    RecordingSolrClient client = new RecordingSolrClient();
+    assertEquals(Map.of(), client.getNumFound("text", List.of()));
+    assertEquals(0, client.urls.size());
+  }
+
+  @Test
+  public void getNumFound_all() {
+    RecordingSolrClient client = new RecordingSolrClient();
+    Map<String, Integer> numFound = client.getNumFound("text", List.of("*", "a", "bb"));
+    assertEquals(2, client.urls.size());
+    assertEquals("http://localhost:8983/solr/europeana/select/?q=text:*&rows=0", client.urls.get(0));
+    assertEquals(Map.of("*", 1, "a", 1, "bb", 2), numFound);
+  }
+
+  @Test
+  public void getNumFound_partialFailure() {
+    RecordingSolrClient client = new RecordingSolrClient();
+    client.failingValues.add("bb");
+    Map<String, Integer> numFound = client.getNumFound("text", List.of("a", "bb", "c\"ccc"));
+    // the value missing from the facet response is queried alone
+    assertEquals(2, client.urls.size());
+    assertEquals(client.buildUrl("text", "bb"), client.urls.get(1));
+    assertEquals(Map.of("a", 1, "bb", 2, "c\"ccc", 5), numFound);
+  }
+
+  @Test
+  public void getNumFound_failure() {
+    RecordingSolrClient client = new RecordingSolrClient();
+    client.failingFacets = true;
+    Map<String, Integer> numFound = client.getNumFound("text", List.of("a", "bb", "ccc"));
+    assertEquals(4, client.urls.size());
+    assertEquals(Map.of("a", 1, "bb", 2, "ccc", 3), numFound);
+  }
+
+  /**
+   * Records the requests instead of sending them. The number of documents for a value is
+   * the length of the value.
+   */
+  private static class RecordingSolrClient extends DefaultSolrClient {
+    private final List<String> urls = new ArrayList<>();
+    private final Set<String> failingValues = new HashSet<>();
+    private boolean failingFacets = false;
+
+    RecordingSolrClient() {
+      super(new SolrConfiguration());
+    }
+
+    @Override
+    String connect(String url, String solrField, String value) {
+      urls.add(url);
+      if (!url.contains("&facet.query="))
+        return "{\"response\":{\"numFound\":" + value.length() + "}}";
+      if (failingFacets)
+        return null;
+
+      List<String> counts = new ArrayList<>();
+      String[] parts = url.split("&facet\\.query=");
+      for (var i = 1; i < parts.length; i++) {
+        String query = URLDecoder.decode(parts[i], StandardCharsets.UTF_8);
+        String queriedValue = query.substring(query.indexOf(':') + 2, query.length() - 1).replace("\\\"", "\"");
+        if (!failingValues.contains(queriedValue))
+          counts.add(String.format("\"%s\":%d", query.replace("\\", "\\\\").replace("\"", "\\\""), queriedValue.length()));
+      }
+      return "{\"facet_counts\":{\"facet_queries\":{" + String.join(",", counts) + "}}}";
+    }
+  }
+}
@@ -3,21 +3,61 @@ package de.gwdg.metadataqa.api.uniqueness;
 import org.apache.solr.client.solrj.SolrServerException;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class SolrClientMock implements SolrClient {
 
+  private static final String TF_IDF_HEADER = "{\"responseHeader\":{\"status\":0,\"QTime\":74}," +
+    "\"response\":{\"numFound\":1,\"start\":0,\"docs\":[{\"id\":\"2022320/3F61C612ED9C42CCB85E533B4736795E8BDC7E77\"}]}," +
+    "\"termVectors\":{\"warnings\":{\"noPayloads\":[\"dc_title_txt\",\"dc_description_txt\",\"dcterms_alternative_txt\"]}";
+
+  private static final Map<String, String> TERM_VECTORS = new LinkedHashMap<>();
+  static {
+    TERM_VECTORS.put("URL", "\"URL\":{\"uniqueKey\":\"2022320/3F61C612ED9C42CCB85E533B4736795E8BDC7E77\"," +
+      "\"url\":{" +
+      "\"fleming\":{\"tf\":1,\"positions\":{\"position\":0},\"offsets\":{\"start\":0,\"end\":7},\"df\":1073,\"tf-idf\":9.319664492078285E-4}," +
+      "\"huddersfield\":{\"tf\":1,\"positions\":{\"position\":4},\"offsets\":{\"start\":35,\"end\":47},\"df\":12073,\"tf-idf\":8.282945415389712E-5}," +
+      "\"mair\":{\"tf\":1,\"positions\":{\"position\":1},\"offsets\":{\"start\":8,\"end\":12},\"df\":178,\"tf-idf\":0.0056179775280898875}," +
+      "\"slaithwaite\":{\"tf\":1,\"positions\":{\"position\":3},\"offsets\":{\"start\":22,\"end\":33},\"df\":477,\"tf-idf\":0.0020964360587002098}," +
+      "\"wedding\":{\"tf\":1,\"positions\":{\"position\":2},\"offsets\":{\"start\":13,\"end\":20},\"df\":10226,\"tf-idf\":9.778994719342852E-5}}}");
+    TERM_VECTORS.put("URL2", "\"URL2\":{\"uniqueKey\":\"URL2\"," +
+      "\"url\":{\"portrait\":{\"tf\":1,\"df\":4,\"tf-idf\":0.25}}," +
+      "\"name\":{\"four\":{\"tf\":2,\"df\":8,\"tf-idf\":0.25},\"five\":{\"tf\":1,\"df\":2,\"tf-idf\":0.5}}}");
+  }
+
   private String id;
   private Map<String, List<String>> objectMap;
+  private final Map<String, Map<String, List<String>>> indexedDocuments = new LinkedHashMap<>();
   private boolean commited = false;
 
+  private int searchRequests = 0;
+  private int numFoundRequests = 0;
+  private int tfIdfRequests = 0;
+  private int indexRequests = 0;
+  private final Set<String> failingValues = new HashSet<>();
+  private final Set<String> failingBatchRecordIds = new HashSet<>();
+  private boolean failingIndex = false;
+
   public SolrClientMock(SolrConfiguration configuration) {
   }
 
   @Override
   public String getSolrSearchResponse(String solrField, String value) {
+    searchRequests++;
+    Integer numFound = lookup(solrField, value);
+    if (numFound == null) {
+      System.err.printf("solrField: %s, value: %s\n", solrField, value);
+      return null;
+    }
+    return "{\"response\":{\"numFound\":" + numFound + "}}";
+  }
 
+  private Integer lookup(String solrField, String value) {
     if (value.equals("*")) {
       var numFound = 0;
       if ("dc_title_ss".equals(solrField)) {
@@ -26,38 +66,73 @@ public class SolrClientMock implements SolrClient {
         numFound = 1000;
       } else if ("dc_description_ss".equals(solrField)) {
         numFound = 2000;
+      } else if ("url_ss".equals(solrField) || "name_ss".equals(solrField)) {
+        numFound = 100;
       }
-      return "{\"response\":{\"numFound\":" + numFound + "}}";
+      return numFound;
     } else if (solrField.equals("dc_title_ss")
         && value.equals("Pyrker-Oberwart, Johann Ladislaus")) {
-      return "{\"response\":{\"numFound\":3}}";
+      return 3;
     } else if (solrField.equals("url_ss") && value.equals("URL")) {
-      return "{\"response\":{\"numFound\":3}}";
+      return 3;
     } else if (solrField.equals("name_ss") && value.equals("two three")) {
-      return "{\"response\":{\"numFound\":1}}";
-    } else {
-      System.err.printf("solrField: %s, value: %s\n", solrField, value);
+      return 1;
+    } else if (solrField.equals("name_ss") && value.equals("four")) {
+      return 7;
     }
     return null;
   }
 
+  /**
+   * Returns the number of documents for all values in one request, except the failing values,
+   * which are missing from the response (as if their facet query would have failed).
+   */
+  @Override
+  public Map<String, Integer> getNumFound(String solrField, Collection<String> values) {
+    numFoundRequests++;
+    Map<String, Integer> numFound = new LinkedHashMap<>();
+    for (String value : values) {
+      Integer count = lookup(solrField, value);
+      if (!failingValues.contains(value))
+        numFound.put(value, count == null ? 1 : count);
+    }
+    return numFound;
+  }
+
+  /**
+   * Returns the term vectors of the known records, the record identifiers are separated by
+   * commas in batch requests. The failing records are missing from the response of batch requests.
+   */
   public String getTfIdfResponse(String params, String recordId) {
-    return "{\"responseHeader\":{\"status\":0,\"QTime\":74}," +
-      "\"response\":{\"numFound\":1,\"start\":0,\"docs\":[{\"id\":\"2022320/3F61C612ED9C42CCB85E533B4736795E8BDC7E77\"}]}," +
-      "\"termVectors\":{\"warnings\":{\"noPayloads\":[\"dc_title_txt\",\"dc_description_txt\",\"dcterms_alternative_txt\"]}," +
-      "\"URL\":{\"uniqueKey\":\"2022320/3F61C612ED9C42CCB85E533B4736795E8BDC7E77\"," +
-      "\"url\":{" +
-      "\"fleming\":{\"tf\":1,\"positions\":{\"position\":0},\"offsets\":{\"start\":0,\"end\":7},\"df\":1073,\"tf-idf\":9.319664492078285E-4}," +
-      "\"huddersfield\":{\"tf\":1,\"positions\":{\"position\":4},\"offsets\":{\"start\":35,\"end\":47},\"df\":12073,\"tf-idf\":8.282945415389712E-5}," +
-      "\"mair\":{\"tf\":1,\"positions\":{\"position\":1},\"offsets\":{\"start\":8,\"end\":12},\"df\":178,\"tf-idf\":0.0056179775280898875}," +
-      "\"slaithwaite\":{\"tf\":1,\"positions\":{\"position\":3},\"offsets\":{\"start\":22,\"end\":33},\"df\":477,\"tf-idf\":0.0020964360587002098}," +
-      "\"wedding\":{\"tf\":1,\"positions\":{\"position\":2},\"offsets\":{\"start\":13,\"end\":20},\"df\":10226,\"tf-idf\":9.778994719342852E-5}}}}}";
+    tfIdfRequests++;
+    String[] recordIds = recordId.split(",");
+    var response = new StringBuilder(TF_IDF_HEADER);
+    for (String id : recordIds)
+      if (TERM_VECTORS.containsKey(id) && (recordIds.length == 1 || !failingBatchRecordIds.contains(id)))
+        response.append(',').append(TERM_VECTORS.get(id));
+    return response.append("}}").toString();
   }
 
   @Override
   public void indexMap(String id, Map<String, List<String>> objectMap) throws IOException, SolrServerException {
+    indexRequests++;
+    if (failingIndex)
+      throw new IOException("indexing failed");
     this.id = id;
     this.objectMap = objectMap;
+    indexedDocuments.put(id, objectMap);
+  }
+
+  @Override
+  public void indexMaps(Map<String, Map<String, List<String>>> documents) throws IOException, SolrServerException {
+    indexRequests++;
+    if (failingIndex)
+      throw new IOException("indexing failed");
+    for (Map.Entry<String, Map<String, List<String>>> document : documents.entrySet()) {
+      this.id = document.getKey();
+      this.objectMap = document.getValue();
+      indexedDocuments.put(document.getKey(), document.getValue());
+    }
   }
 
   @Override
@@ -78,7 +153,46 @@ public class SolrClientMock implements SolrClient {
     return objectMap;
   }
 
+  public Map<String, Map<String, List<String>>> getIndexedDocuments() {
+    return indexedDocuments;
+  }
+
   public boolean isCommited() {
     return commited;
   }
+
+  public int getSearchRequests() {
+    return searchRequests;
+  }
+
+  public int getNumFoundRequests() {
+    return numFoundRequests;
+  }
+
+  public int getTfIdfRequests() {
+    return tfIdfRequests;
+  }
+
+  public int getIndexRequests() {
+    return indexRequests;
+  }
+
+  public void resetRequests() {
+    searchRequests = 0;
+    numFoundRequests = 0;
+    tfIdfRequests = 0;
+    indexRequests = 0;
+  }
+
+  public void addFailingValue(String value) {
+    failingValues.add(value);
+  }
+
+  public void addFailingBatchRecordId(String recordId) {
+    failingBatchRecordIds.add(recordId);
+  }
+
+  public void setFailingIndex(boolean failingIndex) {
+    this.failingIndex = failingIndex;
+  }
 }
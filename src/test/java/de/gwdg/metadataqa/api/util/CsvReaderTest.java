@@ -130,6 +130,27 @@ public class CsvReaderTest {
     assertEquals("age", reader.getHeader().get(1));
   }
 
+  @Test
+  public void testIndexOf() {
+    CsvReader reader = new CsvReader();
+    assertEquals(-1, reader.indexOf("name"));
+    reader.setHeader(new String[]{"name", "age", "name"});
+    assertEquals(2, reader.indexOf("name"));
+    assertEquals(1, reader.indexOf("age"));
+    assertEquals(-1, reader.indexOf("height"));
+    assertSame(reader.getColumnIndexes(), reader.copy().getColumnIndexes());
+  }
+
+  @Test
+  public void testCheckSize() {
+    CsvReader reader = new CsvReader().setHeader(Arrays.asList("name", "age"));
+    reader.checkSize(2);
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("The size of columns (3) is different than the size of headers (2)");
+    reader.checkSize(3);
+  }
+
   @Test
   public void testAsMap_createWithParser() {
     CsvReader reader = new CsvReader(
@@ -0,0 +1,99 @@
+package de.gwdg.metadataqa.api.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class RemoteLookupTest {
+
+  @Test
+  public void order() throws IOException {
+    List<String> values = List.of("30", "10", "20", "0");
+    List<Future<String>> futures = RemoteLookup.submit(values, value -> {
+      try {
+        Thread.sleep(Integer.parseInt(value));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "v" + value;
+    });
+
+    List<String> results = new ArrayList<>();
+    for (Future<String> future : futures)
+      results.add(RemoteLookup.get(future));
+    assertEquals(List.of("v30", "v10", "v20", "v0"), results);
+  }
+
+  @Test(expected = IOException.class)
+  public void failure() throws IOException {
+    List<Future<String>> futures = RemoteLookup.submit(List.of("a", "b"), value -> {
+      if (value.equals("b"))
+        throw new IOException("failed: " + value);
+      return value;
+    });
+    assertEquals("a", RemoteLookup.get(futures.get(0)));
+    RemoteLookup.get(futures.get(1));
+  }
+
+  @Test
+  public void resizeWhileSubmitting() throws Exception {
+    int original = RemoteLookup.getMaxConcurrency();
+    List<String> values = new ArrayList<>();
+    for (var i = 0; i < 50; i++)
+      values.add(String.valueOf(i));
+
+    var running = new AtomicBoolean(true);
+    var failures = new AtomicInteger();
+    List<Thread> submitters = new ArrayList<>();
+    for (var t = 0; t < 4; t++) {
+      var submitter = new Thread(() -> {
+        while (running.get()) {
+          try {
+            List<Future<String>> futures = RemoteLookup.submit(values, value -> {
+              try {
+                Thread.sleep(1);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return "v" + value;
+            });
+            for (var i = 0; i < values.size(); i++)
+              if (!RemoteLookup.get(futures.get(i)).equals("v" + values.get(i)))
+                failures.incrementAndGet();
+          } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+          }
+        }
+      });
+      submitter.start();
+      submitters.add(submitter);
+    }
+
+    try {
+      for (var i = 0; i < 40; i++) {
+        RemoteLookup.setMaxConcurrency(i % 2 == 0 ? 2 : 8);
+        Thread.sleep(5);
+      }
+    } finally {
+      running.set(false);
+      for (Thread submitter : submitters)
+        submitter.join();
+      RemoteLookup.setMaxConcurrency(original);
+    }
+    assertEquals(0, failures.get());
+  }
+
+  @Test
+  public void singleValueInCallingThread() throws IOException {
+    Thread caller = Thread.currentThread();
+    List<Future<Boolean>> futures = RemoteLookup.submit(List.of("a"), value -> Thread.currentThread() == caller);
+    assertEquals(Boolean.TRUE, RemoteLookup.get(futures.get(0)));
+  }
+}
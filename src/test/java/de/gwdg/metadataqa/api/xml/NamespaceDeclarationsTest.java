@@ -0,0 +1,65 @@
+package de.gwdg.metadataqa.api.xml;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NamespaceDeclarationsTest {
+
+  private final NamespaceDeclarations declarations = NamespaceDeclarations.ofSchema(
+    Map.of("dc", "http://purl.org/dc/elements/1.1/", "", "http://example.com/default"));
+
+  @Test
+  public void apply() {
+    assertEquals("<dc:record xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:title>a</dc:title></dc:record>",
+      declarations.apply("<dc:record><dc:title>a</dc:title></dc:record>"));
+    assertEquals("<?xml version=\"1.0\"?><!-- x > y --><record xmlns:dc=\"http://purl.org/dc/elements/1.1/\" id='a>b'/>",
+      declarations.apply("<?xml version=\"1.0\"?><!-- x > y --><record id='a>b'/>"));
+  }
+
+  @Test
+  public void apply_declared() {
+    String record = "<dc:record xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:title>a</dc:title></dc:record>";
+    assertSame(record, declarations.apply(record));
+    String notXml = "{\"dc:title\": \"a\"}";
+    assertSame(notXml, declarations.apply(notXml));
+  }
+
+  @Test
+  public void apply_bytes() {
+    String record = "<dc:record><dc:title>é</dc:title></dc:record>";
+    byte[] bytes = ("x" + record).getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+    assertEquals(declarations.apply(record), StandardCharsets.UTF_8.decode(declarations.apply(buffer)).toString());
+
+    ByteBuffer declared = ByteBuffer.wrap(declarations.apply(record).getBytes(StandardCharsets.UTF_8));
+    assertSame(declared, declarations.apply(declared));
+  }
+
+  @Test
+  public void prologue() {
+    Map<String, String> prologue = NamespaceDeclarations.parsePrologue(
+      " <namespaces xmlns=\"http://example.com/\" xmlns:rdf='http://www.w3.org/1999/02/22-rdf-syntax-ns#'/>");
+    assertEquals(Map.of("", "http://example.com/", "rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#"), prologue);
+    assertTrue(NamespaceDeclarations.parsePrologue("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").isEmpty());
+
+    assertNull(NamespaceDeclarations.parsePrologue("<record xmlns:dc=\"http://purl.org/dc/elements/1.1/\" id=\"1\"/>"));
+    assertNull(NamespaceDeclarations.parsePrologue("<record xmlns:dc=\"http://purl.org/dc/elements/1.1/\">a</record>"));
+    assertNull(NamespaceDeclarations.parsePrologue("<record/>"));
+    // an empty record declaring its namespaces is not a prologue
+    assertNull(NamespaceDeclarations.parsePrologue("<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"/>"));
+    assertNull(NamespaceDeclarations.parsePrologue(null));
+
+    NamespaceDeclarations merged = declarations.with(prologue);
+    assertEquals("<record xmlns:dc=\"http://purl.org/dc/elements/1.1/\" xmlns=\"http://example.com/\""
+        + " xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"/>",
+      merged.apply("<record/>"));
+  }
+}
@@ -13,10 +13,15 @@ import org.w3c.dom.Node;
 import javax.xml.xpath.*;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class XPathWrapperTest {
   private static Map<String, String> prefixMap = new LinkedHashMap<String, String>() {{
@@ -72,6 +77,18 @@ public class XPathWrapperTest {
     assertEquals("pt", list.get(1).getLanguage());
   }
 
+  @Test
+  public void testNode() {
+    Node record = new XPathWrapper(new File(inputFile)).extractNodes("//rdf:RDF").get(0);
+    XPathWrapper xPathWrapper = new XPathWrapper(record, null);
+
+    assertEquals("RDF", xPathWrapper.getDocument().getDocumentElement().getLocalName());
+    List<EdmFieldInstance> list = xPathWrapper.extractFieldInstanceList("//skos:prefLabel");
+    assertEquals(346, list.size());
+    assertEquals("Francis 'Frans' Smith", list.get(0).getValue());
+    assertEquals("en", list.get(0).getLanguage());
+  }
+
   @Test
   public void testResource() {
     XPathWrapper xPathWrapper = new XPathWrapper(new File(inputFile));
@@ -175,6 +192,19 @@ public class XPathWrapperTest {
     assertEquals(scores.size(), headers.size());
   }
 
+  @Test
+  public void testCalculator_bytes() throws IOException, URISyntaxException {
+    CalculatorFacade calculatorFacade = new CalculatorFacade(
+      new MeasurementConfiguration(true, true, true, false, true));
+    calculatorFacade.setSchema(new EdmOaiPmhXmlSchema());
+    calculatorFacade.configure();
+    String record = FileUtils.readContentFromResource(
+      "general/europeana-oai-pmh-92062-BibliographicResource_1000126015451.xml");
+    byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+    assertEquals(calculatorFacade.measure(record), calculatorFacade.measure(bytes));
+    assertEquals(record, calculatorFacade.getCache().getContent());
+  }
+
   @Test
   public void testDataElement() throws IOException, URISyntaxException {
     Schema schema = new EdmOaiPmhXmlSchema();
@@ -247,4 +277,42 @@ public class XPathWrapperTest {
     System.err.println();
   }
 
+  @Test
+  public void testParallel() throws Exception {
+    String content = FileUtils.readContentFromResource("general/europeana-oai-pmh.xml");
+    String xpath = "//edm:ProvidedCHO/dc:title";
+    List<String> expected = values(new XPathWrapper(content).extractFieldInstanceList(xpath));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<String>>> futures = new ArrayList<>();
+      for (int i = 0; i < 100; i++)
+        futures.add(executor.submit(() -> values(new XPathWrapper(content).extractFieldInstanceList(xpath))));
+      for (Future<List<String>> future : futures)
+        assertEquals(expected, future.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static List<String> values(List<EdmFieldInstance> instances) {
+    List<String> values = new ArrayList<>();
+    for (EdmFieldInstance instance : instances)
+      values.add(instance.getValue() + "@" + instance.getLanguage());
+    return values;
+  }
+
+  @Test
+  public void engineCacheIsLimited() throws XPathExpressionException {
+    try {
+      for (int i = 0; i < XPathWrapper.ENGINE_CACHE_SIZE * 2; i++) {
+        // each engine has a new namespace context
+        XPathWrapper.setXpathEngine(XPathFactory.newInstance().newXPath());
+        assertEquals("1", new XPathWrapper("<a>1</a>").extractFieldInstanceList("/a").get(0).getValue());
+      }
+      assertTrue(XPathWrapper.getEngineCount() <= XPathWrapper.ENGINE_CACHE_SIZE);
+    } finally {
+      XPathWrapper.setXpathEngine((Map<String, String>) null);
+    }
+  }
 }